@@ -57,11 +57,13 @@ import org.compiere.util.TrxRunnable2;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.acct.api.AccountId;
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.AcctSchemaGeneralLedger;
 import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.doc.AcctDocCache;
 import de.metas.acct.doc.AcctDocContext;
 import de.metas.acct.doc.AcctDocRequiredServicesFacade;
 import de.metas.acct.doc.PostingException;
@@ -69,6 +71,7 @@ import de.metas.banking.BankAccount;
 import de.metas.banking.BankAccountAcct;
 import de.metas.banking.BankAccountId;
 import de.metas.bpartner.BPartnerId;
+import de.metas.costing.ChargeId;
 import de.metas.currency.CurrencyConversionContext;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.currency.ICurrencyDAO;
@@ -85,6 +88,7 @@ import de.metas.money.CurrencyId;
 import de.metas.organization.OrgId;
 import de.metas.product.ProductId;
 import de.metas.product.acct.api.ActivityId;
+import de.metas.tax.api.TaxId;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.NumberUtils;
@@ -163,6 +167,9 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 	@Getter(AccessLevel.PROTECTED)
 	protected final AcctDocRequiredServicesFacade services;
 
+	@Getter(AccessLevel.PROTECTED)
+	private final AcctDocCache cache;
+
 	/** AR Invoices - ARI */
 	public static final String DOCTYPE_ARInvoice = X_C_DocType.DOCBASETYPE_ARInvoice;
 	/** AR Credit Memo */
@@ -226,6 +233,7 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 	protected Doc(@NonNull final AcctDocContext ctx, final String defaultDocBaseType)
 	{
 		services = ctx.getServices();
+		cache = new AcctDocCache(services);
 		acctSchemas = ctx.getAcctSchemas();
 
 		//
@@ -435,6 +443,7 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 		try
 		{
 			loadDocumentDetails();
+			prefetchAccountingData();
 		}
 		catch (final Exception ex)
 		{
@@ -975,7 +984,7 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 					getOrgId());
 			try
 			{
-				services.getCurrencyRate(conversionCtx, currencyId, acctCurrencyId);
+				cache.getCurrencyRate(conversionCtx, currencyId, acctCurrencyId);
 			}
 			catch (final NoCurrencyRateFoundException e)
 			{
@@ -1288,6 +1297,15 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 		}
 
 		// Get Acct
+		return cache.getAccountIdBySql(sql, sqlParams, () -> retrieveValidCombinationId(acctType, sql, sqlParams))
+				.orElse(null);
+	}	// getAccount_ID
+
+	private Optional<AccountId> retrieveValidCombinationId(
+			@NonNull final AccountType acctType,
+			@NonNull final String sql,
+			@NonNull final List<Object> sqlParams)
+	{
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 		try
@@ -1303,7 +1321,7 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 					log.warn("account ID not set for: account Type=" + acctType + ", Record=" + get_ID() + ", SQL=" + sql + ", sqlParams=" + sqlParams);
 				}
 
-				return accountId;
+				return Optional.ofNullable(accountId);
 			}
 			else
 			{
@@ -1325,7 +1343,7 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 			rs = null;
 			pstmt = null;
 		}
-	}	// getAccount_ID
+	}
 
 	private BankAccountAcct getBankAccountAcct(@NonNull final AcctSchemaId acctSchemaId)
 	{
@@ -1799,6 +1817,47 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 	 */
 	protected abstract void loadDocumentDetails();
 
+	/**
+	 * Loads the accounting data (product, tax and charge accounts) of all document lines in one go,
+	 * instead of letting each line load its own while creating the facts.
+	 */
+	private void prefetchAccountingData()
+	{
+		final List<DocLineType> docLines = getDocLines();
+		if (docLines == null || docLines.isEmpty())
+		{
+			return;
+		}
+
+		final Set<ProductId> productIds = new HashSet<>();
+		final Set<TaxId> taxIds = new HashSet<>();
+		final Set<ChargeId> chargeIds = new HashSet<>();
+		for (final DocLineType docLine : docLines)
+		{
+			final ProductId productId = docLine.getProductId();
+			if (productId != null)
+			{
+				productIds.add(productId);
+			}
+
+			docLine.getTaxId().ifPresent(taxIds::add);
+
+			final ChargeId chargeId = ChargeId.ofRepoIdOrNull(docLine.getC_Charge_ID());
+			if (chargeId != null)
+			{
+				chargeIds.add(chargeId);
+			}
+		}
+
+		final ImmutableSet<AcctSchemaId> acctSchemaIds = acctSchemas.stream()
+				.map(AcctSchema::getId)
+				.collect(ImmutableSet.toImmutableSet());
+
+		cache.prefetchProductAccts(productIds, acctSchemaIds);
+		cache.prefetchChargeAccts(chargeIds, acctSchemaIds);
+		services.warmUpTaxAccountingCache(acctSchemaIds, taxIds);
+	}
+
 	/**
 	 * Get Source Currency Balance - subtracts line (and tax) amounts from total - no rounding
 	 *
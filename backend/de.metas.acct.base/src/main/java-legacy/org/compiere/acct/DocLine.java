@@ -31,7 +31,6 @@ import org.adempiere.service.ClientId;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_Product;
 import org.compiere.model.MAccount;
-import org.compiere.model.MCharge;
 import org.compiere.model.PO;
 import org.compiere.util.DB;
 import org.compiere.util.TimeUtil;
@@ -47,6 +46,7 @@ import de.metas.acct.doc.AcctDocRequiredServicesFacade;
 import de.metas.acct.doc.PostingException;
 import de.metas.acct.tax.TaxAcctType;
 import de.metas.bpartner.BPartnerId;
+import de.metas.costing.ChargeId;
 import de.metas.costing.CostingLevel;
 import de.metas.costing.CostingMethod;
 import de.metas.location.LocationId;
@@ -441,7 +441,7 @@ public class DocLine<DT extends Doc<? extends DocLine<?>>>
 			return getAccountDefault(acctType, as);
 		}
 
-		final AccountId accountId = services.getProductAcct(as.getId(), productId, acctType).orElse(null);
+		final AccountId accountId = m_doc.getCache().getProductAccountId(productId, as.getId(), acctType).orElse(null);
 		if (accountId == null)
 		{
 			final String productName = services.getProductName(productId);
@@ -492,12 +492,20 @@ public class DocLine<DT extends Doc<? extends DocLine<?>>>
 	 */
 	protected final MAccount getChargeAccount(final AcctSchema as, final BigDecimal amount)
 	{
-		final int C_Charge_ID = getC_Charge_ID();
-		if (C_Charge_ID <= 0)
+		final ChargeId chargeId = ChargeId.ofRepoIdOrNull(getC_Charge_ID());
+		if (chargeId == null)
 		{
 			return null;
 		}
-		return MCharge.getAccount(C_Charge_ID, as.getId(), amount);
+
+		final AccountId accountId = m_doc.getCache().getChargeAccountId(chargeId, as.getId(), amount).orElse(null);
+		if (accountId == null)
+		{
+			logger.error("NO account for C_Charge_ID={}", chargeId.getRepoId());
+			return null;
+		}
+
+		return services.getAccountById(accountId);
 	}
 
 	protected final int getC_Period_ID()
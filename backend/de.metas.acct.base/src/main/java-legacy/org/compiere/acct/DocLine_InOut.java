@@ -133,22 +133,26 @@ class DocLine_InOut extends DocLine<Doc_InOut>
 		}
 		else
 		{
-			return services.createCostDetail(
-					CostDetailCreateRequest.builder()
-							.acctSchemaId(as.getId())
-							.clientId(getClientId())
-							.orgId(getOrgId())
-							.productId(getProductId())
-							.attributeSetInstanceId(getAttributeSetInstanceId())
-							.documentRef(CostingDocumentRef.ofReceiptLineId(get_ID()))
-							.qty(getQty())
-							.amt(CostAmount.zero(as.getCurrencyId())) // N/A
-							.date(getDateAcct())
-							.build())
+			return services.createCostDetail(createReceiptCostDetailRequest(as))
 					.getTotalAmountToPost(as);
 		}
 	}
 
+	CostDetailCreateRequest createReceiptCostDetailRequest(final AcctSchema as)
+	{
+		return CostDetailCreateRequest.builder()
+				.acctSchemaId(as.getId())
+				.clientId(getClientId())
+				.orgId(getOrgId())
+				.productId(getProductId())
+				.attributeSetInstanceId(getAttributeSetInstanceId())
+				.documentRef(CostingDocumentRef.ofReceiptLineId(get_ID()))
+				.qty(getQty())
+				.amt(CostAmount.zero(as.getCurrencyId())) // N/A
+				.date(getDateAcct())
+				.build();
+	}
+
 	public CostAmount getCreateShipmentCosts(final AcctSchema as)
 	{
 		if (isReversalLine())
@@ -165,18 +169,7 @@ class DocLine_InOut extends DocLine<Doc_InOut>
 		}
 		else
 		{
-			return services.createCostDetail(
-					CostDetailCreateRequest.builder()
-							.acctSchemaId(as.getId())
-							.clientId(getClientId())
-							.orgId(getOrgId())
-							.productId(getProductId())
-							.attributeSetInstanceId(getAttributeSetInstanceId())
-							.documentRef(CostingDocumentRef.ofShipmentLineId(get_ID()))
-							.qty(getQty())
-							.amt(CostAmount.zero(as.getCurrencyId())) // expect to be calculated
-							.date(getDateAcct())
-							.build())
+			return services.createCostDetail(createShipmentCostDetailRequest(as))
 					.getTotalAmountToPost(as)
 					// The shipment is an outgoing document, so the costing amounts will be negative values.
 					// In the accounting they must be positive values. This is the reason why the amount
@@ -184,4 +177,19 @@ class DocLine_InOut extends DocLine<Doc_InOut>
 					.negate();
 		}
 	}
+
+	CostDetailCreateRequest createShipmentCostDetailRequest(final AcctSchema as)
+	{
+		return CostDetailCreateRequest.builder()
+				.acctSchemaId(as.getId())
+				.clientId(getClientId())
+				.orgId(getOrgId())
+				.productId(getProductId())
+				.attributeSetInstanceId(getAttributeSetInstanceId())
+				.documentRef(CostingDocumentRef.ofShipmentLineId(get_ID()))
+				.qty(getQty())
+				.amt(CostAmount.zero(as.getCurrencyId())) // expect to be calculated
+				.date(getDateAcct())
+				.build();
+	}
 }
@@ -105,22 +105,27 @@ class DocLine_Movement extends DocLine<Doc_Movement>
 		}
 		else
 		{
-			return services.moveCosts(MoveCostsRequest.builder()
-					.acctSchemaId(as.getId())
-					.clientId(getClientId())
-					.date(getDateAcct())
-					// .costElement(null) // all cost elements
-					.productId(getProductId())
-					.attributeSetInstanceId(getAttributeSetInstanceId())
-					.qtyToMove(getQty())
-					//
-					.outboundOrgId(getFromOrgId())
-					.outboundDocumentRef(CostingDocumentRef.ofOutboundMovementLineId(get_ID()))
-					//
-					.inboundOrgId(getToOrgId())
-					.inboundDocumentRef(CostingDocumentRef.ofInboundMovementLineId(get_ID()))
-					//
-					.build());
+			return services.moveCosts(createMoveCostsRequest(as));
 		}
 	}
+
+	final MoveCostsRequest createMoveCostsRequest(@NonNull final AcctSchema as)
+	{
+		return MoveCostsRequest.builder()
+				.acctSchemaId(as.getId())
+				.clientId(getClientId())
+				.date(getDateAcct())
+				// .costElement(null) // all cost elements
+				.productId(getProductId())
+				.attributeSetInstanceId(getAttributeSetInstanceId())
+				.qtyToMove(getQty())
+				//
+				.outboundOrgId(getFromOrgId())
+				.outboundDocumentRef(CostingDocumentRef.ofOutboundMovementLineId(get_ID()))
+				//
+				.inboundOrgId(getToOrgId())
+				.inboundDocumentRef(CostingDocumentRef.ofInboundMovementLineId(get_ID()))
+				//
+				.build();
+	}
 }
@@ -29,12 +29,14 @@ import org.compiere.model.I_M_MatchInv;
 import org.compiere.model.MInOut;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.PostingType;
 import de.metas.acct.api.ProductAcctType;
 import de.metas.acct.doc.AcctDocContext;
+import de.metas.costing.AggregatedCostAmount;
 import de.metas.costing.CostAmount;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.inout.IInOutBL;
@@ -183,14 +185,83 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 		}
 	}
 
+	/**
+	 * Creates the shipment costs of all item lines.
+	 *
+	 * @return costs (to be posted) indexed by M_InOutLine_ID
+	 */
+	private ImmutableMap<Integer, CostAmount> createShipmentCosts(final AcctSchema as)
+	{
+		final List<DocLine_InOut> itemLines = getItemLines();
+		if (itemLines.stream().anyMatch(DocLine_InOut::isReversalLine))
+		{
+			return itemLines.stream()
+					.collect(ImmutableMap.toImmutableMap(DocLine_InOut::get_ID, line -> line.getCreateShipmentCosts(as)));
+		}
+
+		final List<AggregatedCostAmount> costs = services.createCostDetails(itemLines.stream()
+				.map(line -> line.createShipmentCostDetailRequest(as))
+				.collect(ImmutableList.toImmutableList()));
+
+		final ImmutableMap.Builder<Integer, CostAmount> costsByLineId = ImmutableMap.builder();
+		for (int i = 0; i < itemLines.size(); i++)
+		{
+			// The shipment is an outgoing document, so the costing amounts will be negative values.
+			// In the accounting they must be positive values (see DocLine_InOut.getCreateShipmentCosts).
+			costsByLineId.put(itemLines.get(i).get_ID(), costs.get(i).getTotalAmountToPost(as).negate());
+		}
+		return costsByLineId.build();
+	}
+
+	/**
+	 * Creates the receipt costs of all item lines.
+	 *
+	 * @return costs (to be posted) indexed by M_InOutLine_ID
+	 */
+	private ImmutableMap<Integer, CostAmount> createReceiptCosts(final AcctSchema as)
+	{
+		final List<DocLine_InOut> itemLines = getItemLines();
+		if (itemLines.stream().anyMatch(DocLine_InOut::isReversalLine))
+		{
+			return itemLines.stream()
+					.collect(ImmutableMap.toImmutableMap(DocLine_InOut::get_ID, line -> line.getCreateReceiptCosts(as)));
+		}
+
+		final List<AggregatedCostAmount> costs = services.createCostDetails(itemLines.stream()
+				.map(line -> line.createReceiptCostDetailRequest(as))
+				.collect(ImmutableList.toImmutableList()));
+
+		final ImmutableMap.Builder<Integer, CostAmount> costsByLineId = ImmutableMap.builder();
+		for (int i = 0; i < itemLines.size(); i++)
+		{
+			costsByLineId.put(itemLines.get(i).get_ID(), costs.get(i).getTotalAmountToPost(as));
+		}
+		return costsByLineId.build();
+	}
+
+	/**
+	 * @return lines which have costs, i.e. not the ones with not stockable products (e.g. service products)
+	 */
+	private List<DocLine_InOut> getItemLines()
+	{
+		return getDocLines()
+				.stream()
+				.filter(DocLine_InOut::isItem)
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private List<Fact> createFacts_SalesShipment(final AcctSchema as)
 	{
 		final Fact fact = new Fact(this, as, PostingType.Actual);
-		getDocLines().forEach(line -> createFacts_SalesShipmentLine(fact, line));
+		final ImmutableMap<Integer, CostAmount> costsByLineId = createShipmentCosts(as);
+		getDocLines().forEach(line -> createFacts_SalesShipmentLine(fact, line, costsByLineId));
 		return ImmutableList.of(fact);
 	}
 
-	private void createFacts_SalesShipmentLine(final Fact fact, final DocLine_InOut line)
+	private void createFacts_SalesShipmentLine(
+			final Fact fact,
+			final DocLine_InOut line,
+			final ImmutableMap<Integer, CostAmount> costsByLineId)
 	{
 		// Skip not stockable (e.g. service products) because they have no cost
 		if (!line.isItem())
@@ -199,7 +270,7 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 		}
 
 		final AcctSchema as = fact.getAcctSchema();
-		final CostAmount costs = line.getCreateShipmentCosts(as);
+		final CostAmount costs = costsByLineId.get(line.get_ID());
 
 		//
 		// CoGS DR
@@ -235,12 +306,16 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 	private List<Fact> createFacts_SalesReturn(final AcctSchema as)
 	{
 		final Fact fact = new Fact(this, as, PostingType.Actual);
-		getDocLines().forEach(line -> createFacts_SalesReturnLine(fact, line));
+		final ImmutableMap<Integer, CostAmount> costsByLineId = createShipmentCosts(as);
+		getDocLines().forEach(line -> createFacts_SalesReturnLine(fact, line, costsByLineId));
 
 		return ImmutableList.of(fact);
 	}
 
-	private void createFacts_SalesReturnLine(final Fact fact, final DocLine_InOut line)
+	private void createFacts_SalesReturnLine(
+			final Fact fact,
+			final DocLine_InOut line,
+			final ImmutableMap<Integer, CostAmount> costsByLineId)
 	{
 		// Skip not stockable (e.g. service products) because they have no cost
 		if (!line.isItem())
@@ -249,7 +324,7 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 		}
 
 		final AcctSchema as = fact.getAcctSchema();
-		final CostAmount costs = line.getCreateShipmentCosts(as);
+		final CostAmount costs = costsByLineId.get(line.get_ID());
 
 		//
 		// Inventory DR
@@ -285,12 +360,16 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 	private List<Fact> createFacts_PurchasingReceipt(final AcctSchema as)
 	{
 		final Fact fact = new Fact(this, as, PostingType.Actual);
-		getDocLines().forEach(line -> createFacts_PurchasingReceiptLine(fact, line));
+		final ImmutableMap<Integer, CostAmount> costsByLineId = createReceiptCosts(as);
+		getDocLines().forEach(line -> createFacts_PurchasingReceiptLine(fact, line, costsByLineId));
 
 		return ImmutableList.of(fact);
 	}
 
-	private void createFacts_PurchasingReceiptLine(final Fact fact, final DocLine_InOut line)
+	private void createFacts_PurchasingReceiptLine(
+			final Fact fact,
+			final DocLine_InOut line,
+			final ImmutableMap<Integer, CostAmount> costsByLineId)
 	{
 		// Skip not stockable (e.g. service products) because they have no cost
 		if (!line.isItem())
@@ -299,7 +378,7 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 		}
 
 		final AcctSchema as = fact.getAcctSchema();
-		final CostAmount costs = line.getCreateReceiptCosts(as);
+		final CostAmount costs = costsByLineId.get(line.get_ID());
 
 		//
 		// Inventory/Asset DR
@@ -335,12 +414,16 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 	private List<Fact> createFacts_PurchasingReturn(final AcctSchema as)
 	{
 		final Fact fact = new Fact(this, as, PostingType.Actual);
-		getDocLines().forEach(line -> createFacts_PurchasingReturnLine(fact, line));
+		final ImmutableMap<Integer, CostAmount> costsByLineId = createReceiptCosts(as);
+		getDocLines().forEach(line -> createFacts_PurchasingReturnLine(fact, line, costsByLineId));
 
 		return ImmutableList.of(fact);
 	}
 
-	private void createFacts_PurchasingReturnLine(final Fact fact, final DocLine_InOut line)
+	private void createFacts_PurchasingReturnLine(
+			final Fact fact,
+			final DocLine_InOut line,
+			final ImmutableMap<Integer, CostAmount> costsByLineId)
 	{
 		// Skip not stockable (e.g. service products) because they have no cost
 		if (!line.isItem())
@@ -349,7 +432,7 @@ public class Doc_InOut extends Doc<DocLine_InOut>
 		}
 
 		final AcctSchema as = fact.getAcctSchema();
-		final CostAmount costs = line.getCreateReceiptCosts(as);
+		final CostAmount costs = costsByLineId.get(line.get_ID());
 
 		//
 		// NotInvoicedReceipt DR
@@ -23,11 +23,13 @@ import org.compiere.model.I_M_Inventory;
 import org.compiere.model.MAccount;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.PostingType;
 import de.metas.acct.api.ProductAcctType;
 import de.metas.acct.doc.AcctDocContext;
+import de.metas.costing.AggregatedCostAmount;
 import de.metas.costing.CostAmount;
 import de.metas.inventory.IInventoryDAO;
 import de.metas.inventory.InventoryId;
@@ -103,11 +105,36 @@ public class Doc_Inventory extends Doc<DocLine_Inventory>
 		setC_Currency_ID(as.getCurrencyId());
 
 		final Fact fact = new Fact(this, as, PostingType.Actual);
-		getDocLines().forEach(line -> createFactsForInventoryLine(fact, line));
+		final ImmutableMap<Integer, CostAmount> costsByLineId = createCosts(as);
+		getDocLines().forEach(line -> createFactsForInventoryLine(fact, line, costsByLineId.get(line.get_ID())));
 
 		return ImmutableList.of(fact);
 	}
 
+	/**
+	 * @return costs (to be posted) indexed by M_InventoryLine_ID
+	 */
+	private ImmutableMap<Integer, CostAmount> createCosts(final AcctSchema as)
+	{
+		final List<DocLine_Inventory> docLines = getDocLines();
+		if (docLines.stream().anyMatch(DocLine_Inventory::isReversalLine))
+		{
+			return docLines.stream()
+					.collect(ImmutableMap.toImmutableMap(DocLine_Inventory::get_ID, line -> line.getCreateCosts(as)));
+		}
+
+		final List<AggregatedCostAmount> costs = services.createCostDetails(docLines.stream()
+				.map(line -> line.createCostDetailRequest(as))
+				.collect(ImmutableList.toImmutableList()));
+
+		final ImmutableMap.Builder<Integer, CostAmount> costsByLineId = ImmutableMap.builder();
+		for (int i = 0; i < docLines.size(); i++)
+		{
+			costsByLineId.put(docLines.get(i).get_ID(), costs.get(i).getTotalAmountToPost(as));
+		}
+		return costsByLineId.build();
+	}
+
 	/**
 	 * <pre>
 	 *  Inventory
@@ -115,12 +142,13 @@ public class Doc_Inventory extends Doc<DocLine_Inventory>
 	 *      InventoryDiff   DR      CR   (or Charge)
 	 * </pre>
 	 */
-	private void createFactsForInventoryLine(final Fact fact, final DocLine_Inventory line)
+	private void createFactsForInventoryLine(
+			final Fact fact,
+			final DocLine_Inventory line,
+			final CostAmount costs)
 	{
 		final AcctSchema as = fact.getAcctSchema();
 
-		final CostAmount costs = line.getCreateCosts(as);
-
 		//
 		// Inventory DR/CR
 		fact.createLine()
@@ -23,6 +23,7 @@ import org.adempiere.mmovement.api.IMovementDAO;
 import org.compiere.model.I_M_Movement;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.PostingType;
@@ -103,16 +104,42 @@ public class Doc_Movement extends Doc<DocLine_Movement>
 		final Fact fact = new Fact(this, as, PostingType.Actual);
 		setC_Currency_ID(as.getCurrencyId());
 
-		getDocLines().forEach(line -> createFactsForMovementLine(fact, line));
+		final ImmutableMap<Integer, MoveCostsResult> costsByLineId = createCosts(as);
+		getDocLines().forEach(line -> createFactsForMovementLine(fact, line, costsByLineId.get(line.get_ID())));
 
 		return ImmutableList.of(fact);
 	}
 
-	private void createFactsForMovementLine(final Fact fact, final DocLine_Movement line)
+	/**
+	 * @return costs indexed by M_MovementLine_ID
+	 */
+	private ImmutableMap<Integer, MoveCostsResult> createCosts(final AcctSchema as)
 	{
-		final AcctSchema as = fact.getAcctSchema();
+		final List<DocLine_Movement> docLines = getDocLines();
+		if (docLines.stream().anyMatch(DocLine_Movement::isReversalLine))
+		{
+			return docLines.stream()
+					.collect(ImmutableMap.toImmutableMap(DocLine_Movement::get_ID, line -> line.getCreateCosts(as)));
+		}
+
+		final List<MoveCostsResult> costs = services.moveCosts(docLines.stream()
+				.map(line -> line.createMoveCostsRequest(as))
+				.collect(ImmutableList.toImmutableList()));
+
+		final ImmutableMap.Builder<Integer, MoveCostsResult> costsByLineId = ImmutableMap.builder();
+		for (int i = 0; i < docLines.size(); i++)
+		{
+			costsByLineId.put(docLines.get(i).get_ID(), costs.get(i));
+		}
+		return costsByLineId.build();
+	}
 
-		final MoveCostsResult costs = line.getCreateCosts(as);
+	private void createFactsForMovementLine(
+			final Fact fact,
+			final DocLine_Movement line,
+			final MoveCostsResult costs)
+	{
+		final AcctSchema as = fact.getAcctSchema();
 
 		//
 		// Inventory CR/DR (from locator)
@@ -1080,8 +1080,13 @@ public final class FactLine extends X_Fact_Acct
 
 	private CurrencyRate getCurrencyRate(final CurrencyId currencyId, final CurrencyId acctCurrencyId)
 	{
-		final ICurrencyBL currencyConversionBL = Services.get(ICurrencyBL.class);
 		final CurrencyConversionContext conversionCtx = getCurrencyConversionCtx();
+		if (m_doc != null)
+		{
+			return m_doc.getCache().getCurrencyRate(conversionCtx, currencyId, acctCurrencyId);
+		}
+
+		final ICurrencyBL currencyConversionBL = Services.get(ICurrencyBL.class);
 		return currencyConversionBL.getCurrencyRate(conversionCtx, currencyId, acctCurrencyId);
 	}
 
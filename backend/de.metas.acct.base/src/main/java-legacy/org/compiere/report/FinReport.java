@@ -24,7 +24,11 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 
 import javax.annotation.Nullable;
@@ -38,19 +42,28 @@ import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableFail;
 import org.adempiere.ad.trx.api.ITrxRunConfig.OnRunnableSuccess;
 import org.adempiere.ad.trx.api.ITrxRunConfig.TrxPropagation;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IPair;
 import org.adempiere.util.lang.ImmutablePair;
 import org.compiere.model.I_C_ElementValue;
 import org.compiere.model.I_PA_ReportCube;
 import org.compiere.print.MPrintFormat;
 import org.compiere.print.MPrintFormatItem;
+import org.compiere.report.FinReportCalculator.ColumnCalculation;
+import org.compiere.report.FinReportCalculator.ColumnCalculationType;
+import org.compiere.report.FinReportCalculator.LineCalculation;
+import org.compiere.report.FinReportCalculator.LineCalculationType;
 import org.compiere.util.AdempiereUserError;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.TrxRunnable2;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+
 import de.metas.acct.api.AcctSchemaElementType;
 import de.metas.acct.cube.IFactAcctCubeBL;
 import de.metas.logging.LogManager;
@@ -124,6 +137,13 @@ public class FinReport extends JavaProcess
 	/** The Report Lines */
 	private MReportLine[] m_lines;
 
+	/**
+	 * If enabled (default), the report line values are loaded with one aggregate query per {@link #AGGREGATED_QUERY_MAX_LINES} lines
+	 * and the calculations are done in memory, instead of running one update per line and calculation.
+	 */
+	private static final String SYSCONFIG_UseAggregatedQueries = "org.compiere.report.FinReport.UseAggregatedQueries";
+	private static final int AGGREGATED_QUERY_MAX_LINES = 50;
+
 	/**
 	 * Prepare - e.g., get Parameters.
 	 */
@@ -399,16 +419,35 @@ public class FinReport extends JavaProcess
 			throw new AdempiereUserError("@No@ @PA_ReportLine_ID@");
 
 		includeSublines(); // metas-2009_0021_AP1_CR080
-		// for all lines
-		for (int line = 0; line < m_lines.length; line++)
+
+		if (isUseAggregatedQueries())
 		{
-			// Line Segment Value (i.e. not calculation)
-			if (m_lines[line].isLineTypeSegmentValue())
-				insertLine(line);
-		}	// for all lines
+			final Stopwatch stopwatch = Stopwatch.createStarted();
 
-		insertLineDetail();
-		doCalculations();
+			final Map<Integer, BigDecimal[]> lineRows = retrieveLineRows();
+			insertLinesAggregated(lineRows);
+			log.info("Loaded line values for {} lines in {}", lineRows.size(), stopwatch);
+
+			insertLineDetail();
+
+			createCalculator().calculate(lineRows);
+			saveLineRows(lineRows);
+			doColumnCalculations(" AND ABS(LevelNo)=1"); // only the source lines, the report lines were calculated in memory
+			log.info("Calculated and saved report in {}", stopwatch);
+		}
+		else
+		{
+			// for all lines
+			for (int line = 0; line < m_lines.length; line++)
+			{
+				// Line Segment Value (i.e. not calculation)
+				if (m_lines[line].isLineTypeSegmentValue())
+					insertLine(line);
+			}	// for all lines
+
+			insertLineDetail();
+			doCalculations();
+		}
 
 		deleteUnprintedLines();
 
@@ -457,143 +496,23 @@ public class FinReport extends JavaProcess
 			info.append("Line=").append(paReportLineIndex).append(",Col=").append(paReportColumnIndex);
 
 			// SELECT SUM()
-			final List<Object> selectSqlParams = new ArrayList<>();
-			final StringBuilder select = new StringBuilder("SELECT ");
-			if (paReportLine.getPAAmountType() != null)				// line amount type overwrites column
-			{
-				String sql = paReportLine.getSelectClause(true);
-				select.append(sql);
-				info.append(": LineAmtType=").append(paReportLine.getPAAmountType());
-			}
-			else if (paReportColumn.getPAAmountType() != null)
-			{
-				String sql = paReportColumn.getSelectClause(true);
-				select.append(sql);
-				info.append(": ColumnAmtType=").append(paReportColumn.getPAAmountType());
-			}
-			else
+			final String amountSql = getCellAmountSql(paReportLine, paReportColumn, true, info);
+			if (amountSql == null)
 			{
 				log.warn("No Amount Type in line: " + paReportLine + " or column: " + paReportColumn);
 				continue;
 			}
 
+			final List<Object> selectSqlParams = new ArrayList<>();
+			final StringBuilder select = new StringBuilder("SELECT ").append(amountSql);
+
 			if (isSuppressZeroLine && isZeroLine)
 			{
 				select.append(", COUNT(*) "); // metas-2009_0021_AP1_CR080
 			}
 
-			if (p_PA_ReportCube_ID > 0)
-			{
-				select.append(" FROM Fact_Acct_Summary fa WHERE DateAcct ");
-			}
-			else
-			{
-				// Get Period/Date info
-				select.append(" FROM Fact_Acct fa WHERE TRUNC(DateAcct) ");
-			}
-
-			BigDecimal relativeOffset = null;	// current
-			if (paReportColumn.isColumnTypeRelativePeriod())
-			{
-				relativeOffset = paReportColumn.getRelativePeriod();
-			}
-			final FinReportPeriod frp = getPeriod(relativeOffset);
-			if (paReportLine.getPAPeriodType() != null)			// line amount type overwrites column
-			{
-				info.append(" - LineDateAcct=");
-				if (paReportLine.isPeriod())
-				{
-					final String sql = frp.getPeriodWhere();
-					info.append("Period");
-					select.append(sql);
-				}
-				else if (paReportLine.isYear())
-				{
-					final String sql = frp.getYearWhere();
-					info.append("Year");
-					select.append(sql);
-				}
-				else if (paReportLine.isTotal())
-				{
-					final String sql = frp.getTotalWhere();
-					info.append("Total");
-					select.append(sql);
-				}
-				else if (paReportLine.isNatural())
-				{
-					select.append(frp.getNaturalWhere("fa"));
-				}
-				else
-				{
-					log.error("No valid Line PAPeriodType");
-					select.append("=0");	// valid sql
-				}
-			}
-			else if (paReportColumn.getPAPeriodType() != null)
-			{
-				info.append(" - ColumnDateAcct=");
-				if (paReportColumn.isPeriod())
-				{
-					final String sql = frp.getPeriodWhere();
-					info.append("Period");
-					select.append(sql);
-				}
-				else if (paReportColumn.isYear())
-				{
-					final String sql = frp.getYearWhere();
-					info.append("Year");
-					select.append(sql);
-				}
-				else if (paReportColumn.isTotal())
-				{
-					final String sql = frp.getTotalWhere();
-					info.append("Total");
-					select.append(sql);
-				}
-				else if (paReportColumn.isNatural())
-				{
-					select.append(frp.getNaturalWhere("fa"));
-				}
-				else
-				{
-					log.error("No valid Column PAPeriodType");
-					select.append("=0");	// valid sql
-				}
-			}
-
-			// Line Where
-			final String paReportLineWhereClause = paReportLine.getWhereClause(p_PA_Hierarchy_ID);	// (sources, posting type)
-			if (!Check.isEmpty(paReportLineWhereClause, true))
-			{
-				select.append(" AND ").append(paReportLineWhereClause);
-			}
-
-			// Report Where
-			final String paReportWhereClause = m_report.getWhereClause();
-			if (Check.isEmpty(paReportWhereClause))
-			{
-				select.append(" AND ").append(paReportWhereClause);
-			}
-
-			// PostingType
-			if (!paReportLine.isPostingType())		// only if not defined on line
-			{
-				final String PostingType = paReportColumn.getPostingType();
-				if (!Check.isEmpty(PostingType))
-					select.append(" AND PostingType='").append(PostingType).append("'");
-				// globalqss - CarlosRuiz
-				if (PostingType.equals(MReportColumn.POSTINGTYPE_Budget))
-				{
-					if (paReportColumn.getGL_Budget_ID() > 0)
-						select.append(" AND GL_Budget_ID=" + paReportColumn.getGL_Budget_ID());
-				}
-				// end globalqss
-			}
-
-			if (paReportColumn.isColumnTypeSegmentValue())
-			{
-				select.append(paReportColumn.getWhereClause(p_PA_Hierarchy_ID));
-			}
+			select.append(" FROM ").append(getFactAcctTableName()).append(" fa WHERE ")
+					.append(getCellWhereClause(paReportLine, paReportColumn, info));
 
 			// Parameter Where
 			appendParametersWhereClause(select, selectSqlParams);
@@ -647,6 +566,536 @@ public class FinReport extends JavaProcess
 		}
 	}	// insertLine
 
+	private String getFactAcctTableName()
+	{
+		return p_PA_ReportCube_ID > 0 ? "Fact_Acct_Summary" : "Fact_Acct";
+	}
+
+	/**
+	 * @return amount SQL of given line/column cell (the line amount type overwrites the column's one) or <code>null</code> if neither of them has an amount type
+	 */
+	@Nullable
+	private static String getCellAmountSql(
+			final MReportLine paReportLine,
+			final MReportColumn paReportColumn,
+			final boolean withSum,
+			final StringBuilder info)
+	{
+		if (paReportLine.getPAAmountType() != null)				// line amount type overwrites column
+		{
+			info.append(": LineAmtType=").append(paReportLine.getPAAmountType());
+			return paReportLine.getSelectClause(withSum);
+		}
+		else if (paReportColumn.getPAAmountType() != null)
+		{
+			info.append(": ColumnAmtType=").append(paReportColumn.getPAAmountType());
+			return paReportColumn.getSelectClause(withSum);
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * @return <code>Fact_Acct</code> where clause of given line/column cell (period/date, line sources, posting type, column segment value), without the report parameters
+	 */
+	private String getCellWhereClause(
+			final MReportLine paReportLine,
+			final MReportColumn paReportColumn,
+			final StringBuilder info)
+	{
+		final StringBuilder where = new StringBuilder();
+		if (p_PA_ReportCube_ID > 0)
+		{
+			where.append("DateAcct ");
+		}
+		else
+		{
+			// Get Period/Date info
+			where.append("TRUNC(DateAcct) ");
+		}
+
+		BigDecimal relativeOffset = null;	// current
+		if (paReportColumn.isColumnTypeRelativePeriod())
+		{
+			relativeOffset = paReportColumn.getRelativePeriod();
+		}
+		final FinReportPeriod frp = getPeriod(relativeOffset);
+		if (paReportLine.getPAPeriodType() != null)			// line amount type overwrites column
+		{
+			info.append(" - LineDateAcct=");
+			if (paReportLine.isPeriod())
+			{
+				final String sql = frp.getPeriodWhere();
+				info.append("Period");
+				where.append(sql);
+			}
+			else if (paReportLine.isYear())
+			{
+				final String sql = frp.getYearWhere();
+				info.append("Year");
+				where.append(sql);
+			}
+			else if (paReportLine.isTotal())
+			{
+				final String sql = frp.getTotalWhere();
+				info.append("Total");
+				where.append(sql);
+			}
+			else if (paReportLine.isNatural())
+			{
+				where.append(frp.getNaturalWhere("fa"));
+			}
+			else
+			{
+				log.error("No valid Line PAPeriodType");
+				where.append("=0");	// valid sql
+			}
+		}
+		else if (paReportColumn.getPAPeriodType() != null)
+		{
+			info.append(" - ColumnDateAcct=");
+			if (paReportColumn.isPeriod())
+			{
+				final String sql = frp.getPeriodWhere();
+				info.append("Period");
+				where.append(sql);
+			}
+			else if (paReportColumn.isYear())
+			{
+				final String sql = frp.getYearWhere();
+				info.append("Year");
+				where.append(sql);
+			}
+			else if (paReportColumn.isTotal())
+			{
+				final String sql = frp.getTotalWhere();
+				info.append("Total");
+				where.append(sql);
+			}
+			else if (paReportColumn.isNatural())
+			{
+				where.append(frp.getNaturalWhere("fa"));
+			}
+			else
+			{
+				log.error("No valid Column PAPeriodType");
+				where.append("=0");	// valid sql
+			}
+		}
+
+		// Line Where
+		final String paReportLineWhereClause = paReportLine.getWhereClause(p_PA_Hierarchy_ID);	// (sources, posting type)
+		if (!Check.isEmpty(paReportLineWhereClause, true))
+		{
+			where.append(" AND ").append(paReportLineWhereClause);
+		}
+
+		// Report Where
+		final String paReportWhereClause = m_report.getWhereClause();
+		if (Check.isEmpty(paReportWhereClause))
+		{
+			where.append(" AND ").append(paReportWhereClause);
+		}
+
+		// PostingType
+		if (!paReportLine.isPostingType())		// only if not defined on line
+		{
+			final String PostingType = paReportColumn.getPostingType();
+			if (!Check.isEmpty(PostingType))
+				where.append(" AND PostingType='").append(PostingType).append("'");
+			// globalqss - CarlosRuiz
+			if (PostingType.equals(MReportColumn.POSTINGTYPE_Budget))
+			{
+				if (paReportColumn.getGL_Budget_ID() > 0)
+					where.append(" AND GL_Budget_ID=" + paReportColumn.getGL_Budget_ID());
+			}
+			// end globalqss
+		}
+
+		if (paReportColumn.isColumnTypeSegmentValue())
+		{
+			where.append(paReportColumn.getWhereClause(p_PA_Hierarchy_ID));
+		}
+
+		return where.toString();
+	}
+
+	private boolean isUseAggregatedQueries()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_UseAggregatedQueries, true);
+	}
+
+	/**
+	 * @return report line rows (<code>T_Report</code> records with <code>LevelNo=0</code>), indexed by <code>PA_ReportLine_ID</code>; column values are not loaded
+	 */
+	private Map<Integer, BigDecimal[]> retrieveLineRows()
+	{
+		final String sql = "SELECT PA_ReportLine_ID FROM T_Report WHERE AD_PInstance_ID=? AND LevelNo=0 ORDER BY SeqNo";
+		final Map<Integer, BigDecimal[]> lineRows = new LinkedHashMap<>();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, get_TrxName());
+			DB.setParameters(pstmt, getAD_PInstance_ID());
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				lineRows.put(rs.getInt(1), new BigDecimal[m_columns.length]);
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+		return lineRows;
+	}
+
+	/**
+	 * Loads the values of all segment value lines, using one aggregate query over <code>Fact_Acct</code> for up to {@link #AGGREGATED_QUERY_MAX_LINES} lines.
+	 * Zero lines which shall be suppressed are deleted.
+	 *
+	 * @param lineRows report line rows; updated in place
+	 */
+	private void insertLinesAggregated(final Map<Integer, BigDecimal[]> lineRows)
+	{
+		final List<MReportLine> paReportLines = new ArrayList<>();
+		for (final MReportLine paReportLine : m_lines)
+		{
+			if (paReportLine == null || !paReportLine.isLineTypeSegmentValue())
+			{
+				continue;
+			}
+			// No source lines - Headings
+			if (paReportLine.getSources().length == 0)
+			{
+				log.warn("No Source lines: " + paReportLine);
+				continue;
+			}
+			paReportLines.add(paReportLine);
+		}
+
+		final List<Integer> zeroLineIds = new ArrayList<>();
+		for (final List<MReportLine> paReportLinesChunk : Lists.partition(paReportLines, AGGREGATED_QUERY_MAX_LINES))
+		{
+			zeroLineIds.addAll(insertLinesAggregated(paReportLinesChunk, lineRows));
+		}
+
+		//
+		// Delete ZERO Lines
+		// (metas-2009_0021_AP1_CR080)
+		if (!zeroLineIds.isEmpty())
+		{
+			final List<Object> sqlParams = new ArrayList<>();
+			sqlParams.add(getAD_PInstance_ID());
+			final String sql = "DELETE FROM T_Report WHERE AD_PInstance_ID=? AND PA_ReportLine_ID IN " + DB.buildSqlList(zeroLineIds, sqlParams);
+			final int no = DB.executeUpdateEx(sql, sqlParams.toArray(), get_TrxName());
+			log.debug("Deleted zero lines #=" + no);
+
+			lineRows.keySet().removeAll(zeroLineIds);
+		}
+	}
+
+	/**
+	 * @return IDs of the given lines which are zero lines and shall be suppressed
+	 */
+	private List<Integer> insertLinesAggregated(final List<MReportLine> paReportLines, final Map<Integer, BigDecimal[]> lineRows)
+	{
+		final StringBuilder select = new StringBuilder();
+		final StringBuilder linesWhereClause = new StringBuilder();
+		boolean allLinesHaveWhereClause = true;
+
+		// for each selected value: the line and the column index
+		final List<MReportLine> selectedLines = new ArrayList<>();
+		final List<Integer> selectedColumnIndexes = new ArrayList<>();
+
+		for (final MReportLine paReportLine : paReportLines)
+		{
+			final boolean isSuppressZeroLine = paReportLine.isSuppressZeroLine();	// metas-2009_0021_AP1_CR080
+
+			for (int paReportColumnIndex = 0; paReportColumnIndex < m_columns.length; paReportColumnIndex++)
+			{
+				final MReportColumn paReportColumn = m_columns[paReportColumnIndex];
+
+				// Ignore calculation columns
+				if (paReportColumn.isColumnTypeCalculation())
+				{
+					continue;
+				}
+
+				final StringBuilder info = new StringBuilder();
+				info.append("Line=").append(paReportLine).append(",Col=").append(paReportColumnIndex);
+
+				final String amountSql = getCellAmountSql(paReportLine, paReportColumn, false, info);
+				if (amountSql == null)
+				{
+					log.warn("No Amount Type in line: " + paReportLine + " or column: " + paReportColumn);
+					continue;
+				}
+
+				final String cellWhereClause = getCellWhereClause(paReportLine, paReportColumn, info);
+				if (select.length() > 0)
+				{
+					select.append(", ");
+				}
+				select.append("SUM(CASE WHEN ").append(cellWhereClause).append(" THEN ").append(amountSql).append(" END)");
+				if (isSuppressZeroLine)
+				{
+					select.append(", COUNT(CASE WHEN ").append(cellWhereClause).append(" THEN 1 END)");
+				}
+
+				selectedLines.add(paReportLine);
+				selectedColumnIndexes.add(paReportColumnIndex);
+				log.trace(info.toString());
+			}
+
+			final String paReportLineWhereClause = paReportLine.getWhereClause(p_PA_Hierarchy_ID);
+			if (Check.isEmpty(paReportLineWhereClause, true))
+			{
+				allLinesHaveWhereClause = false;
+			}
+			else
+			{
+				if (linesWhereClause.length() > 0)
+				{
+					linesWhereClause.append(" OR ");
+				}
+				linesWhereClause.append("(").append(paReportLineWhereClause).append(")");
+			}
+		}
+
+		final Set<Integer> nonZeroLineIds = new HashSet<>();
+		if (!selectedLines.isEmpty())
+		{
+			retrieveLineValues(select, linesWhereClause, allLinesHaveWhereClause, selectedLines, selectedColumnIndexes, lineRows, nonZeroLineIds);
+		}
+
+		final List<Integer> zeroLineIds = new ArrayList<>();
+		for (final MReportLine paReportLine : paReportLines)
+		{
+			if (paReportLine.isSuppressZeroLine() && !nonZeroLineIds.contains(paReportLine.getPA_ReportLine_ID()))
+			{
+				zeroLineIds.add(paReportLine.getPA_ReportLine_ID());
+			}
+		}
+		return zeroLineIds;
+	}
+
+	private void retrieveLineValues(
+			final CharSequence select,
+			final CharSequence linesWhereClause,
+			final boolean allLinesHaveWhereClause,
+			final List<MReportLine> selectedLines,
+			final List<Integer> selectedColumnIndexes,
+			final Map<Integer, BigDecimal[]> lineRows,
+			final Set<Integer> nonZeroLineIdsCollector)
+	{
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder("SELECT ").append(select)
+				.append(" FROM ").append(getFactAcctTableName()).append(" fa WHERE 1=1");
+		appendParametersWhereClause(sql, sqlParams);
+		if (allLinesHaveWhereClause)
+		{
+			// not needed for the result, but allows the database to skip the irrelevant Fact_Acct records
+			sql.append(" AND (").append(linesWhereClause).append(")");
+		}
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.toString(), get_TrxName());
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			if (rs.next())
+			{
+				int resultSetIndex = 1;
+				for (int i = 0; i < selectedLines.size(); i++)
+				{
+					final MReportLine paReportLine = selectedLines.get(i);
+					final BigDecimal value = rs.getBigDecimal(resultSetIndex++);
+					final boolean nonZero;
+					if (paReportLine.isSuppressZeroLine())
+					{
+						nonZero = rs.getInt(resultSetIndex++) > 0;
+					}
+					else
+					{
+						nonZero = true;
+					}
+
+					if (nonZero)
+					{
+						nonZeroLineIdsCollector.add(paReportLine.getPA_ReportLine_ID());
+					}
+
+					final BigDecimal[] lineRow = lineRows.get(paReportLine.getPA_ReportLine_ID());
+					if (lineRow != null)
+					{
+						lineRow[selectedColumnIndexes.get(i)] = nonZero ? value : null;
+					}
+				}
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql.toString(), sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * Writes the values of the given report line rows to <code>T_Report</code>, using one batch update.
+	 */
+	private void saveLineRows(final Map<Integer, BigDecimal[]> lineRows)
+	{
+		if (lineRows.isEmpty())
+		{
+			return;
+		}
+
+		final StringBuilder sql = new StringBuilder("UPDATE T_Report SET ");
+		for (int col = 0; col < m_columns.length; col++)
+		{
+			if (col > 0)
+				sql.append(", ");
+			sql.append("Col_").append(col).append("=?");
+		}
+		sql.append(" WHERE AD_PInstance_ID=? AND PA_ReportLine_ID=? AND LevelNo=0");
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.toString(), get_TrxName());
+			for (final Map.Entry<Integer, BigDecimal[]> lineRow : lineRows.entrySet())
+			{
+				final List<Object> sqlParams = new ArrayList<>(Arrays.asList(lineRow.getValue()));
+				sqlParams.add(getAD_PInstance_ID());
+				sqlParams.add(lineRow.getKey());
+				DB.setParameters(pstmt, sqlParams);
+				pstmt.addBatch();
+			}
+			pstmt.executeBatch();
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql.toString());
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+
+	/**
+	 * @return calculator for the calculation lines and columns; it does the same as {@link #doCalculations()}, but in memory
+	 */
+	private FinReportCalculator createCalculator()
+	{
+		final FinReportCalculator.FinReportCalculatorBuilder calculator = FinReportCalculator.builder()
+				.columnsCount(m_columns.length);
+
+		for (final MReportLine paReportLine : m_lines)
+		{
+			if (!paReportLine.isLineTypeCalculation())
+				continue;
+
+			int oper_1 = paReportLine.getOper_1_ID();
+			int oper_2 = paReportLine.getOper_2_ID();
+
+			if (paReportLine.isCalculationTypeAdd()
+					|| paReportLine.isCalculationTypeRange())
+			{
+				// Reverse range
+				if (oper_1 > oper_2)
+				{
+					int temp = oper_1;
+					oper_1 = oper_2;
+					oper_2 = temp;
+				}
+				final Collection<Integer> lineIds = paReportLine.isCalculationTypeAdd()
+						? getAllLineIDs(oper_1, oper_2)
+						: getAllLineIntervalIDs(oper_1, oper_2);
+				calculator.lineCalculation(LineCalculation.builder()
+						.reportLineId(paReportLine.getPA_ReportLine_ID())
+						.type(LineCalculationType.ADD)
+						.operand1LineIds(lineIds)
+						.build());
+			}
+			else
+			{
+				final LineCalculationType type;
+				if (paReportLine.isCalculationTypeSubtract())
+					type = LineCalculationType.SUBTRACT;
+				else if (paReportLine.isCalculationTypePercent())
+					type = LineCalculationType.PERCENT;
+				else
+					type = LineCalculationType.DIVIDE;
+
+				calculator.lineCalculation(LineCalculation.builder()
+						.reportLineId(paReportLine.getPA_ReportLine_ID())
+						.type(type)
+						.operand1LineId(getIncludedLineID(oper_1))
+						.operand2LineId(getIncludedLineID(oper_2))
+						.build());
+			}
+		}
+
+		for (int col = 0; col < m_columns.length; col++)
+		{
+			final MReportColumn paReportColumn = m_columns[col];
+			if (!paReportColumn.isColumnTypeCalculation())
+				continue;
+
+			int ii_1 = getColumnIndex(paReportColumn.getOper_1_ID());
+			int ii_2 = getColumnIndex(paReportColumn.getOper_2_ID());
+			if (ii_1 < 0 || ii_2 < 0)
+			{
+				log.error("Column Index for Operator not found - " + paReportColumn);
+				continue;
+			}
+
+			final ColumnCalculationType type;
+			if (paReportColumn.isCalculationTypeAdd())
+				type = ColumnCalculationType.ADD;
+			else if (paReportColumn.isCalculationTypeSubtract())
+				type = ColumnCalculationType.SUBTRACT;
+			else if (paReportColumn.isCalculationTypePercent())
+				type = ColumnCalculationType.PERCENT;
+			else if (paReportColumn.isCalculationTypeRange())
+			{
+				type = ColumnCalculationType.RANGE;
+				// Reverse Range
+				if (ii_1 > ii_2)
+				{
+					int temp = ii_1;
+					ii_1 = ii_2;
+					ii_2 = temp;
+				}
+			}
+			else
+				type = ColumnCalculationType.NONE;
+
+			calculator.columnCalculation(ColumnCalculation.builder()
+					.columnIndex(col)
+					.type(type)
+					.operand1ColumnIndex(ii_1)
+					.operand2ColumnIndex(ii_2)
+					.build());
+		}
+
+		return calculator.build();
+	}
+
 	/**
 	 * Checks if given select SQL returns NULL {@link BigDecimal} and if so, replaces the select with "NULL"
 	 * 
@@ -855,6 +1304,18 @@ public class FinReport extends JavaProcess
 			}
 		}	// for all lines
 
+		doColumnCalculations(" AND ABS(LevelNo)<2"); // 0=Line 1=Acct
+	}	// doCalculations
+
+	/**
+	 * Column calculation
+	 *
+	 * @param levelNoWhereClause T_Report rows to calculate, prefixed with AND
+	 */
+	private void doColumnCalculations(final String levelNoWhereClause)
+	{
+		final int adPInstanceRepoId = getPinstanceId().getRepoId();
+
 		// for all columns ***********************************************
 		for (int col = 0; col < m_columns.length; col++)
 		{
@@ -917,7 +1378,7 @@ public class FinReport extends JavaProcess
 			}
 			//
 			sb.append(" WHERE AD_PInstance_ID=").append(adPInstanceRepoId)
-					.append(" AND ABS(LevelNo)<2");			// 0=Line 1=Acct
+					.append(levelNoWhereClause);
 			int no = DB.executeUpdate(sb.toString(), get_TrxName());
 			if (no < 1)
 				log.error("#=" + no + " for " + m_columns[col]
@@ -929,7 +1390,7 @@ public class FinReport extends JavaProcess
 			}
 		} 	// for all columns
 
-	}	// doCalculations
+	}	// doColumnCalculations
 
 	/**
 	 * Get Column Index
@@ -1850,6 +2311,11 @@ public class FinReport extends JavaProcess
 	}
 
 	private String getAllLineIntervalIDsSQL(int fromID, int toID)
+	{
+		return toSQLList(getAllLineIntervalIDs(fromID, toID));
+	}
+
+	private Collection<Integer> getAllLineIntervalIDs(int fromID, int toID)
 	{
 		log.trace("From=" + fromID + " To=" + toID);
 		int firstPA_ReportLine_ID = 0;
@@ -1861,12 +2327,12 @@ public class FinReport extends JavaProcess
 		if (line1 == null)
 		{
 			log.warn("PA_ReportLine not found for " + fromID);
-			return toSQLList(ids);
+			return ids;
 		}
 		if (line2 == null)
 		{
 			log.warn("PA_ReportLine not found for " + toID);
-			return toSQLList(ids);
+			return ids;
 		}
 		if (line1.getPA_ReportLineSet_ID() != line2.getPA_ReportLineSet_ID())
 		{
@@ -1914,7 +2380,7 @@ public class FinReport extends JavaProcess
 			}
 		}
 
-		return toSQLList(ids);
+		return ids;
 	}
 
 	private String toSQLList(Collection<Integer> list)
@@ -0,0 +1,326 @@
+package org.compiere.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Evaluates the calculation lines and calculation columns of a {@link FinReport} in memory, on the report's line rows (i.e. <code>T_Report</code> rows with <code>LevelNo=0</code>).
+ * <p>
+ * The arithmetic mimics the SQL which {@link FinReport} used to run against <code>T_Report</code>, including the scale which PostgreSQL picks for <code>numeric</code> divisions,
+ * so that the results are identical.
+ */
+final class FinReportCalculator
+{
+	/** See PostgreSQL's numeric.c */
+	private static final int PG_NUMERIC_MIN_SIG_DIGITS = 16;
+	private static final int PG_NUMERIC_MAX_DISPLAY_SCALE = 1000;
+	private static final int PG_DEC_DIGITS = 4;
+
+	private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+	public enum LineCalculationType
+	{
+		/** Sum of all operand lines */
+		ADD,
+		/** Op1 - Op2 */
+		SUBTRACT,
+		/** Op1 / Op2 */
+		DIVIDE,
+		/** Op1 / Op2 * 100 */
+		PERCENT
+	}
+
+	public enum ColumnCalculationType
+	{
+		/** Op1 + Op2 */
+		ADD,
+		/** Op1 - Op2 */
+		SUBTRACT,
+		/** Op1 / Op2 * 100 */
+		PERCENT,
+		/** Op1 + ... + Op2 */
+		RANGE,
+		/** Unknown calculation; the column is left as it is */
+		NONE
+	}
+
+	@Value
+	@Builder
+	public static class LineCalculation
+	{
+		int reportLineId;
+
+		@NonNull
+		LineCalculationType type;
+
+		/** In case of {@link LineCalculationType#ADD}: all lines to be summed up; else the first operand's line */
+		@NonNull
+		@Singular
+		ImmutableSet<Integer> operand1LineIds;
+
+		/** Not used in case of {@link LineCalculationType#ADD} */
+		int operand2LineId;
+	}
+
+	@Value
+	@Builder
+	public static class ColumnCalculation
+	{
+		int columnIndex;
+
+		@NonNull
+		ColumnCalculationType type;
+
+		int operand1ColumnIndex;
+		int operand2ColumnIndex;
+	}
+
+	private final int columnsCount;
+	private final ImmutableList<LineCalculation> lineCalculations;
+	private final ImmutableList<ColumnCalculation> columnCalculations;
+
+	@Builder
+	private FinReportCalculator(
+			final int columnsCount,
+			@NonNull @Singular final List<LineCalculation> lineCalculations,
+			@NonNull @Singular final List<ColumnCalculation> columnCalculations)
+	{
+		this.columnsCount = columnsCount;
+		this.lineCalculations = ImmutableList.copyOf(lineCalculations);
+		this.columnCalculations = ImmutableList.copyOf(columnCalculations);
+	}
+
+	/**
+	 * Runs all line calculations (in the given order) and then all column calculations.
+	 *
+	 * @param rows line rows, indexed by <code>PA_ReportLine_ID</code>; a line without row is treated like a missing <code>T_Report</code> record. Will be updated in place.
+	 */
+	public void calculate(@NonNull final Map<Integer, BigDecimal[]> rows)
+	{
+		for (final LineCalculation lineCalculation : lineCalculations)
+		{
+			calculateLine(lineCalculation, rows);
+		}
+
+		for (final ColumnCalculation columnCalculation : columnCalculations)
+		{
+			for (final BigDecimal[] row : rows.values())
+			{
+				calculateColumn(columnCalculation, row);
+			}
+		}
+	}
+
+	private void calculateLine(final LineCalculation lineCalculation, final Map<Integer, BigDecimal[]> rows)
+	{
+		final BigDecimal[] targetRow = rows.get(lineCalculation.getReportLineId());
+		if (targetRow == null)
+		{
+			return;
+		}
+
+		if (lineCalculation.getType() == LineCalculationType.ADD)
+		{
+			final List<BigDecimal[]> operandRows = new ArrayList<>();
+			for (final Integer lineId : lineCalculation.getOperand1LineIds())
+			{
+				final BigDecimal[] operandRow = rows.get(lineId);
+				if (operandRow != null)
+				{
+					operandRows.add(operandRow);
+				}
+			}
+
+			// NOTE: compute all values first, because the target line might be one of its own operands
+			final BigDecimal[] result = new BigDecimal[columnsCount];
+			for (int col = 0; col < columnsCount; col++)
+			{
+				result[col] = sumOrZero(operandRows, col);
+			}
+			System.arraycopy(result, 0, targetRow, 0, columnsCount);
+			return;
+		}
+
+		final BigDecimal[] operand1Row = rows.get(lineCalculation.getOperand1LineIds().iterator().next());
+		final BigDecimal[] operand2Row = rows.get(lineCalculation.getOperand2LineId());
+
+		for (int col = 0; col < columnsCount; col++)
+		{
+			// Step 1: get first value or 0
+			targetRow[col] = operand1Row == null ? null : coalesceZero(operand1Row[col]);
+		}
+
+		for (int col = 0; col < columnsCount; col++)
+		{
+			// Step 2: do the calculation with the second value
+			if (operand2Row == null)
+			{
+				targetRow[col] = null;
+				continue;
+			}
+
+			final BigDecimal value1 = coalesceZero(targetRow[col]);
+			final BigDecimal value2 = operand2Row[col];
+
+			final BigDecimal result;
+			if (lineCalculation.getType() == LineCalculationType.SUBTRACT)
+			{
+				result = value1.subtract(coalesceZero(value2));
+			}
+			else
+			{
+				// zero or null divisor => null
+				result = value2 == null || value2.signum() == 0 ? null : divide(value1, value2);
+			}
+
+			if (result != null && lineCalculation.getType() == LineCalculationType.PERCENT)
+			{
+				targetRow[col] = result.multiply(ONE_HUNDRED);
+			}
+			else
+			{
+				targetRow[col] = result;
+			}
+		}
+	}
+
+	/**
+	 * Applies the given column calculation to the given row.
+	 * Also used for the source rows (<code>LevelNo=1</code>), so the caller can apply them on any row.
+	 */
+	public static void calculateColumn(@NonNull final ColumnCalculation columnCalculation, @NonNull final BigDecimal[] row)
+	{
+		final int ii_1 = columnCalculation.getOperand1ColumnIndex();
+		final int ii_2 = columnCalculation.getOperand2ColumnIndex();
+
+		final BigDecimal result;
+		switch (columnCalculation.getType())
+		{
+			case ADD:
+				result = coalesceZero(row[ii_1]).add(coalesceZero(row[ii_2]));
+				break;
+			case SUBTRACT:
+				result = coalesceZero(row[ii_1]).subtract(coalesceZero(row[ii_2]));
+				break;
+			case PERCENT:
+				result = row[ii_2] == null || row[ii_2].signum() == 0
+						? null
+						: divide(coalesceZero(row[ii_1]), row[ii_2]).multiply(ONE_HUNDRED);
+				break;
+			case RANGE:
+				BigDecimal sum = coalesceZero(row[ii_1]);
+				for (int ii = ii_1 + 1; ii <= ii_2; ii++)
+				{
+					sum = sum.add(coalesceZero(row[ii]));
+				}
+				result = sum;
+				break;
+			default:
+				return;
+		}
+
+		row[columnCalculation.getColumnIndex()] = result;
+	}
+
+	private static BigDecimal sumOrZero(final Collection<BigDecimal[]> rows, final int col)
+	{
+		BigDecimal sum = null;
+		for (final BigDecimal[] row : rows)
+		{
+			final BigDecimal value = row[col];
+			if (value == null)
+			{
+				continue;
+			}
+			sum = sum == null ? value : sum.add(value);
+		}
+		return coalesceZero(sum);
+	}
+
+	private static BigDecimal coalesceZero(@Nullable final BigDecimal value)
+	{
+		return value != null ? value : BigDecimal.ZERO;
+	}
+
+	/**
+	 * Divides like PostgreSQL's <code>numeric / numeric</code> operator, i.e. using the same result scale and rounding.
+	 */
+	static BigDecimal divide(@NonNull final BigDecimal dividend, @NonNull final BigDecimal divisor)
+	{
+		final int scale = computePgDivisionScale(dividend, divisor);
+		return dividend.divide(divisor, scale, RoundingMode.HALF_UP);
+	}
+
+	/** Port of <code>select_div_scale()</code> from PostgreSQL's numeric.c */
+	static int computePgDivisionScale(final BigDecimal dividend, final BigDecimal divisor)
+	{
+		final int[] weightAndFirstDigit1 = computePgWeightAndFirstDigit(dividend);
+		final int[] weightAndFirstDigit2 = computePgWeightAndFirstDigit(divisor);
+
+		int qweight = weightAndFirstDigit1[0] - weightAndFirstDigit2[0];
+		if (weightAndFirstDigit1[1] <= weightAndFirstDigit2[1])
+		{
+			qweight--;
+		}
+
+		int rscale = PG_NUMERIC_MIN_SIG_DIGITS - qweight * PG_DEC_DIGITS;
+		rscale = Math.max(rscale, Math.max(dividend.scale(), 0));
+		rscale = Math.max(rscale, Math.max(divisor.scale(), 0));
+		rscale = Math.max(rscale, 0);
+		rscale = Math.min(rscale, PG_NUMERIC_MAX_DISPLAY_SCALE);
+		return rscale;
+	}
+
+	/**
+	 * @return the weight (exponent in base 10000) and the value of the first non-zero base-10000 digit; <code>{0, 0}</code> for zero.
+	 */
+	private static int[] computePgWeightAndFirstDigit(final BigDecimal value)
+	{
+		if (value.signum() == 0)
+		{
+			return new int[] { 0, 0 };
+		}
+
+		final BigDecimal abs = value.abs();
+		final int decimalExponent = abs.precision() - abs.scale() - 1;
+		final int weight = Math.floorDiv(decimalExponent, PG_DEC_DIGITS);
+		final int firstDigit = abs.movePointLeft(weight * PG_DEC_DIGITS).setScale(0, RoundingMode.DOWN).intValueExact();
+		return new int[] { weight, firstDigit };
+	}
+}
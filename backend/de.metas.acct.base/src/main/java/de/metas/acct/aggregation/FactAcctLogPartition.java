@@ -0,0 +1,63 @@
+package de.metas.acct.aggregation;
+
+import de.metas.util.Check;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Partition of the {@link de.metas.acct.model.I_Fact_Acct_Log}s, by account.
+ * <p>
+ * Logs of different partitions never contribute to the same {@link de.metas.acct.model.I_Fact_Acct_Summary} record, so partitions can be processed in parallel.
+ */
+@Value
+public class FactAcctLogPartition
+{
+	public static final FactAcctLogPartition ALL = new FactAcctLogPartition(0, 1);
+
+	public static FactAcctLogPartition of(final int partitionNo, final int partitionsCount)
+	{
+		if (partitionsCount <= 1)
+		{
+			return ALL;
+		}
+		return new FactAcctLogPartition(partitionNo, partitionsCount);
+	}
+
+	int partitionNo;
+	int partitionsCount;
+
+	private FactAcctLogPartition(final int partitionNo, final int partitionsCount)
+	{
+		Check.assume(partitionsCount > 0, "partitionsCount > 0 but it was {}", partitionsCount);
+		Check.assume(partitionNo >= 0 && partitionNo < partitionsCount, "0 <= partitionNo < {} but it was {}", partitionsCount, partitionNo);
+
+		this.partitionNo = partitionNo;
+		this.partitionsCount = partitionsCount;
+	}
+
+	public boolean isAll()
+	{
+		return partitionsCount <= 1;
+	}
+}
@@ -0,0 +1,55 @@
+package de.metas.acct.aggregation;
+
+import java.math.BigDecimal;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Net change of one {@link IFactAcctSummaryKey}, aggregated from all its tagged {@link de.metas.acct.model.I_Fact_Acct_Log}s.
+ */
+@Value
+@Builder
+public class FactAcctSummaryDelta
+{
+	@NonNull
+	IFactAcctSummaryKey key;
+
+	@NonNull
+	BigDecimal amtAcctDr;
+	@NonNull
+	BigDecimal amtAcctCr;
+	@NonNull
+	BigDecimal qty;
+
+	/** number of aggregated logs */
+	int logsCount;
+
+	public boolean hasChanges()
+	{
+		return amtAcctDr.signum() != 0 || amtAcctCr.signum() != 0 || qty.signum() != 0;
+	}
+}
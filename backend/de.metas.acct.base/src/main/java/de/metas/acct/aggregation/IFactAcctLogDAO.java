@@ -1,5 +1,6 @@
 package de.metas.acct.aggregation;
 
+import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -49,7 +50,27 @@ public interface IFactAcctLogDAO extends ISingletonService
 	 * @param limit
 	 * @return
 	 */
-	IFactAcctLogIterable tagAndRetrieve(Properties ctx, final int limit);
+	default IFactAcctLogIterable tagAndRetrieve(final Properties ctx, final int limit)
+	{
+		return tagAndRetrieve(ctx, limit, FactAcctLogPartition.ALL);
+	}
+
+	/**
+	 * Same as {@link #tagAndRetrieve(Properties, int)} but considers only the logs of given partition.
+	 */
+	IFactAcctLogIterable tagAndRetrieve(Properties ctx, int limit, FactAcctLogPartition partition);
+
+	/**
+	 * Aggregates the logs tagged with given tag by {@link IFactAcctSummaryKey}, i.e. using one <code>GROUP BY</code> instead of loading each log.
+	 *
+	 * @return net changes, ordered by key and <code>DateAcct</code>
+	 */
+	List<FactAcctSummaryDelta> retrieveSummaryDeltasForTag(Properties ctx, String processingTag);
+
+	/**
+	 * @return how many logs are waiting to be processed
+	 */
+	int retrieveBacklogSize(Properties ctx);
 
 	/**
 	 * Retrieves the {@link I_Fact_Acct_Summary} in which the given {@link IFactAcctSummaryKey} shall be aggregated.
@@ -1,30 +1,47 @@
 package de.metas.acct.aggregation.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.impl.EqualsQueryFilter;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
-import org.adempiere.util.agg.key.IAggregationKeyBuilder;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.TrxRunnableAdapter;
+import org.slf4j.Logger;
 
+import com.google.common.base.Stopwatch;
+
+import de.metas.acct.aggregation.FactAcctLogPartition;
+import de.metas.acct.aggregation.FactAcctSummaryDelta;
 import de.metas.acct.aggregation.IFactAcctLogBL;
 import de.metas.acct.aggregation.IFactAcctLogDAO;
 import de.metas.acct.aggregation.IFactAcctLogIterable;
 import de.metas.acct.aggregation.IFactAcctSummaryKey;
 import de.metas.acct.model.I_Fact_Acct_Log;
 import de.metas.acct.model.I_Fact_Acct_Summary;
-import de.metas.acct.model.X_Fact_Acct_Log;
+import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
-import de.metas.util.collections.MapReduceAggregator;
 
 /*
  * #%L
@@ -50,8 +67,88 @@ import de.metas.util.collections.MapReduceAggregator;
 
 public class FactAcctLogBL implements IFactAcctLogBL
 {
+	private static final Logger logger = LogManager.getLogger(FactAcctLogBL.class);
+
+	/** How many partitions shall be processed in parallel; one means no parallelism */
+	private static final String SYSCONFIG_Partitions = "de.metas.acct.aggregation.FactAcctLogBL.Partitions";
+	private static final int DEFAULT_Partitions = 1;
+
+	private final FactAcctLogStatistics statistics = new FactAcctLogStatistics();
+
+	public FactAcctLogBL()
+	{
+		// NOTE: the backlog is counted only when it's asked for, so the processing itself doesn't pay for the COUNT
+		final LongSupplier backlogSizeSupplier = () -> Services.get(IFactAcctLogDAO.class).retrieveBacklogSize(Env.getCtx());
+		JMXRegistry.get().registerJMX(new JMXFactAcctLog(statistics, backlogSizeSupplier), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
 	@Override
 	public void processAll(final Properties ctx, final int limit)
+	{
+		final int partitionsCount = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Partitions, DEFAULT_Partitions);
+		if (partitionsCount <= 1)
+		{
+			processPartition(ctx, limit, FactAcctLogPartition.ALL);
+		}
+		else
+		{
+			processPartitionsInParallel(ctx, limit, partitionsCount);
+		}
+	}
+
+	private void processPartitionsInParallel(final Properties ctx, final int limit, final int partitionsCount)
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				partitionsCount,
+				CustomizableThreadFactory.builder()
+						.setDaemon(true)
+						.setThreadNamePrefix(FactAcctLogBL.class.getSimpleName() + "-")
+						.build());
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(partitionsCount);
+			for (int partitionNo = 0; partitionNo < partitionsCount; partitionNo++)
+			{
+				final FactAcctLogPartition partition = FactAcctLogPartition.of(partitionNo, partitionsCount);
+				futures.add(executor.submit(() -> processPartition(ctx, limit, partition)));
+			}
+
+			// NOTE: partitions are processed in their own transactions, so we wait for all of them, even if one failed
+			AdempiereException firstError = null;
+			for (final Future<?> future : futures)
+			{
+				try
+				{
+					future.get();
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw AdempiereException.wrapIfNeeded(e);
+				}
+				catch (final ExecutionException e)
+				{
+					final AdempiereException error = AdempiereException.wrapIfNeeded(e.getCause());
+					logger.warn("Failed processing a partition", error);
+					if (firstError == null)
+					{
+						firstError = error;
+					}
+				}
+			}
+
+			if (firstError != null)
+			{
+				throw firstError;
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private void processPartition(final Properties ctx, final int limit, final FactAcctLogPartition partition)
 	{
 		final IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
 		final ITrxManager trxManager = Services.get(ITrxManager.class);
@@ -62,7 +159,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			@Override
 			public void run(final String localTrxName) throws Exception
 			{
-				try (final IFactAcctLogIterable logs = factAcctLogDAO.tagAndRetrieve(ctx, limit))
+				try (final IFactAcctLogIterable logs = factAcctLogDAO.tagAndRetrieve(ctx, limit, partition))
 				{
 					process(logs);
 				}
@@ -73,81 +170,72 @@ public class FactAcctLogBL implements IFactAcctLogBL
 	public void process(final IFactAcctLogIterable logs)
 	{
 		final ILoggable loggable = Loggables.get();
+		final IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 
 		//
 		// Update Fact_Acct_Summary
-		final FactAcctSummaryUpdater factAcctSummaryUpdater = new FactAcctSummaryUpdater();
-		for (final I_Fact_Acct_Log log : logs)
+		// NOTE: the logs are aggregated in database, so we get only one delta per summary key
+		final List<FactAcctSummaryDelta> deltas = factAcctLogDAO.retrieveSummaryDeltasForTag(logs.getCtx(), logs.getProcessingTag());
+		int logsCount = 0;
+		int summariesCount = 0;
+		for (final FactAcctSummaryDelta delta : deltas)
 		{
-			factAcctSummaryUpdater.add(log);
+			logsCount += delta.getLogsCount();
+			if (FactAcctGroup.apply(logs.getCtx(), delta))
+			{
+				summariesCount++;
+			}
 		}
-		factAcctSummaryUpdater.closeAllGroups();
 
 		//
 		// Update Fact_Acct_EndingBalance
-		Services.get(IFactAcctLogDAO.class).updateFactAcctEndingBalanceForTag(logs.getProcessingTag());
+		factAcctLogDAO.updateFactAcctEndingBalanceForTag(logs.getProcessingTag());
 
 		//
 		// Delete all processed logs
 		logs.deleteAll();
 
-		loggable.addLog("Processed {0} {1} records", factAcctSummaryUpdater.getItemsCount(), I_Fact_Acct_Log.Table_Name);
-		loggable.addLog("Created/Updated {0} {1} records", factAcctSummaryUpdater.getGroupsCount(), I_Fact_Acct_Summary.Table_Name);
-	}
+		statistics.recordProcessed(logsCount, summariesCount, stopwatch.elapsed(TimeUnit.MILLISECONDS));
 
-	private static class FactAcctSummaryUpdater extends MapReduceAggregator<FactAcctGroup, I_Fact_Acct_Log>
-	{
-		public FactAcctSummaryUpdater()
-		{
-			super();
-			setGroupsBufferSize(1); // IMPORTANT: keep only one group in memory because we are also updating next groups when a current group is updated
-			setItemAggregationKeyBuilder(FactAcctSummaryKeyBuilder.instance);
-		}
-
-		@Override
-		protected FactAcctGroup createGroup(final Object itemHashKey, final I_Fact_Acct_Log log)
-		{
-			return FactAcctGroup.getCreatedForLog(log);
-		}
-
-		@Override
-		protected void closeGroup(final FactAcctGroup group)
-		{
-			group.close();
-		}
-
-		@Override
-		protected void addItemToGroup(final FactAcctGroup group, final I_Fact_Acct_Log log)
-		{
-			group.add(log);
-		}
+		loggable.addLog("Processed {0} {1} records", logsCount, I_Fact_Acct_Log.Table_Name);
+		loggable.addLog("Created/Updated {0} {1} records", summariesCount, I_Fact_Acct_Summary.Table_Name);
 	}
 
 	private static final class FactAcctGroup
 	{
 		private final transient IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
 
-		public static final FactAcctGroup getCreatedForLog(final I_Fact_Acct_Log log)
+		/**
+		 * Adds given delta to the summary record of its DateAcct and to all the summary records after it.
+		 *
+		 * @return true if the summaries were changed
+		 */
+		public static boolean apply(final Properties ctx, final FactAcctSummaryDelta delta)
 		{
-			return new FactAcctGroup(log);
+			if (!delta.hasChanges())
+			{
+				return false;
+			}
+
+			new FactAcctGroup(ctx, delta).close();
+			return true;
 		}
 
-		private final Object contextProvider;
 		private final Properties ctx;
 		private final IFactAcctSummaryKey key;
-		private BigDecimal amtAcctDr_ToAdd;
-		private BigDecimal amtAcctCr_ToAdd;
-		private BigDecimal qty_ToAdd;
+		private final BigDecimal amtAcctDr_ToAdd;
+		private final BigDecimal amtAcctCr_ToAdd;
+		private final BigDecimal qty_ToAdd;
 
-		private FactAcctGroup(final I_Fact_Acct_Log log)
+		private FactAcctGroup(final Properties ctx, final FactAcctSummaryDelta delta)
 		{
-			super();
-
-			contextProvider = log;
-			ctx = InterfaceWrapperHelper.getCtx(log);
-			key = FactAcctSummaryKey.of(log);
+			this.ctx = ctx;
+			key = delta.getKey();
 
-			resetAmounts();
+			amtAcctDr_ToAdd = delta.getAmtAcctDr();
+			amtAcctCr_ToAdd = delta.getAmtAcctCr();
+			qty_ToAdd = delta.getQty();
 		}
 
 		private final I_Fact_Acct_Summary getCreateFactAcctSummary()
@@ -168,7 +256,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			// Create new
 			else
 			{
-				final I_Fact_Acct_Summary factAcctSummary = InterfaceWrapperHelper.newInstance(I_Fact_Acct_Summary.class, contextProvider);
+				final I_Fact_Acct_Summary factAcctSummary = InterfaceWrapperHelper.newInstance(I_Fact_Acct_Summary.class, PlainContextAware.newWithThreadInheritedTrx(ctx));
 
 				// Copy the values from last matching summary
 				if (factAcctSummaryExisting != null)
@@ -208,55 +296,8 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			}
 		}
 
-		private final void resetAmounts()
-		{
-			amtAcctDr_ToAdd = BigDecimal.ZERO;
-			amtAcctCr_ToAdd = BigDecimal.ZERO;
-			qty_ToAdd = BigDecimal.ZERO;
-		}
-
-		public void add(final I_Fact_Acct_Log log)
-		{
-			final String logAction = log.getAction();
-			final BigDecimal amtAcctDr_Diff;
-			final BigDecimal amtAcctCr_Diff;
-			final BigDecimal qty_Diff;
-			if (X_Fact_Acct_Log.ACTION_Insert.equals(logAction))
-			{
-				amtAcctDr_Diff = log.getAmtAcctDr();
-				amtAcctCr_Diff = log.getAmtAcctCr();
-				qty_Diff = log.getQty();
-			}
-			else if (X_Fact_Acct_Log.ACTION_Delete.equals(logAction))
-			{
-				amtAcctDr_Diff = log.getAmtAcctDr().negate();
-				amtAcctCr_Diff = log.getAmtAcctCr().negate();
-				qty_Diff = log.getQty().negate();
-			}
-			else
-			{
-				throw new IllegalStateException("Log action not supported: " + logAction + " (" + log + ")");
-			}
-
-			//
-			// Update the summary record
-			amtAcctDr_ToAdd = amtAcctDr_ToAdd.add(amtAcctDr_Diff);
-			amtAcctCr_ToAdd = amtAcctCr_ToAdd.add(amtAcctCr_Diff);
-			qty_ToAdd = qty_ToAdd.add(qty_Diff);
-		}
-
-		private final boolean hasChanges()
-		{
-			return amtAcctDr_ToAdd.signum() != 0 || amtAcctCr_ToAdd.signum() != 0 || qty_ToAdd.signum() != 0;
-		}
-
 		public void close()
 		{
-			if (!hasChanges())
-			{
-				return;
-			}
-
 			//
 			// Create the summary record for our particular DateAcct
 			final I_Fact_Acct_Summary factAcctSummary = getCreateFactAcctSummary();
@@ -278,39 +319,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 					.addAddValueToColumn(I_Fact_Acct_Summary.COLUMNNAME_AmtAcctCr_YTD, amtAcctCr_ToAdd, currentYearFilter)
 					//
 					.execute();
-
-			//
-			// Reset the amounts because we processed them
-			resetAmounts();
 		}
 
 	}
-
-	private static final class FactAcctSummaryKeyBuilder implements IAggregationKeyBuilder<I_Fact_Acct_Log>
-	{
-		public static final transient FactAcctSummaryKeyBuilder instance = new FactAcctSummaryKeyBuilder();
-
-		private FactAcctSummaryKeyBuilder()
-		{
-			super();
-		}
-
-		@Override
-		public String buildKey(final I_Fact_Acct_Log item)
-		{
-			return FactAcctSummaryKey.of(item).asString();
-		}
-
-		@Override
-		public List<String> getDependsOnColumnNames()
-		{
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public boolean isSame(final I_Fact_Acct_Log item1, final I_Fact_Acct_Log item2)
-		{
-			throw new UnsupportedOperationException();
-		}
-	}
 }
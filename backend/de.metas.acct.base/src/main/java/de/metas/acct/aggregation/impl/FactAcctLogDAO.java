@@ -3,7 +3,10 @@ package de.metas.acct.aggregation.impl;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 
@@ -12,7 +15,9 @@ import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryOrderBy.Direction;
 import org.adempiere.ad.dao.IQueryOrderBy.Nulls;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.util.lang.ObjectUtils;
 import org.adempiere.util.text.annotation.ToStringBuilder;
@@ -21,6 +26,8 @@ import org.compiere.util.DB;
 import org.slf4j.Logger;
 
 import ch.qos.logback.classic.Level;
+import de.metas.acct.aggregation.FactAcctLogPartition;
+import de.metas.acct.aggregation.FactAcctSummaryDelta;
 import de.metas.acct.aggregation.IFactAcctLogDAO;
 import de.metas.acct.aggregation.IFactAcctLogIterable;
 import de.metas.acct.aggregation.IFactAcctSummaryKey;
@@ -28,9 +35,11 @@ import de.metas.acct.api.IFactAcctDAO;
 import de.metas.acct.model.I_Fact_Acct_EndingBalance;
 import de.metas.acct.model.I_Fact_Acct_Log;
 import de.metas.acct.model.I_Fact_Acct_Summary;
+import de.metas.acct.model.X_Fact_Acct_Log;
 import de.metas.logging.LogManager;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -62,10 +71,10 @@ public class FactAcctLogDAO implements IFactAcctLogDAO
 	private static final String DB_FUNC_Fact_Acct_EndingBalance_UpdateForTag = IFactAcctDAO.DB_SCHEMA + ".Fact_Acct_EndingBalance_UpdateForTag";
 
 	@Override
-	public IFactAcctLogIterable tagAndRetrieve(final Properties ctx, final int limit)
+	public IFactAcctLogIterable tagAndRetrieve(final Properties ctx, final int limit, @NonNull final FactAcctLogPartition partition)
 	{
 		final String processingTag = UUID.randomUUID().toString();
-		updateProcessingTag(ctx, PROCESSINGTAG_NULL, processingTag, limit);
+		updateProcessingTag(ctx, PROCESSINGTAG_NULL, processingTag, limit, partition);
 
 		return new FactAcctLogIterable(ctx, processingTag);
 	}
@@ -73,12 +82,25 @@ public class FactAcctLogDAO implements IFactAcctLogDAO
 	private final int releaseTag(final Properties ctx, final String processingTag)
 	{
 		final int limit = IQuery.NO_LIMIT;
-		return updateProcessingTag(ctx, processingTag, PROCESSINGTAG_NULL, limit);
+		return updateProcessingTag(ctx, processingTag, PROCESSINGTAG_NULL, limit, FactAcctLogPartition.ALL);
 	}
 
-	private final int updateProcessingTag(final Properties ctx, final String processingTagOld, final String processingTagNew, final int limit)
+	private final int updateProcessingTag(
+			final Properties ctx,
+			final String processingTagOld,
+			final String processingTagNew,
+			final int limit,
+			final FactAcctLogPartition partition)
 	{
-		return retrieveForTagQuery(ctx, processingTagOld)
+		final IQueryBuilder<I_Fact_Acct_Log> queryBuilder = retrieveForTagQuery(ctx, processingTagOld);
+		if (!partition.isAll())
+		{
+			queryBuilder.filter(TypedSqlQueryFilter.of(
+					"MOD(" + I_Fact_Acct_Log.COLUMNNAME_C_ElementValue_ID + ", ?) = ?",
+					new Object[] { partition.getPartitionsCount(), partition.getPartitionNo() }));
+		}
+
+		return queryBuilder
 				.setLimit(limit)
 				//
 				.create()
@@ -87,6 +109,87 @@ public class FactAcctLogDAO implements IFactAcctLogDAO
 				.execute();
 	}
 
+	@Override
+	public int retrieveBacklogSize(final Properties ctx)
+	{
+		return retrieveForTagQuery(ctx, PROCESSINGTAG_NULL)
+				.create()
+				.count();
+	}
+
+	@Override
+	public List<FactAcctSummaryDelta> retrieveSummaryDeltasForTag(final Properties ctx, @NonNull final String processingTag)
+	{
+		final String sql = "SELECT "
+				+ " AD_Client_ID, AD_Org_ID, C_ElementValue_ID, C_AcctSchema_ID, PostingType, C_Period_ID, TRUNC(DateAcct) AS DateAcct"
+				+ ", SUM(CASE WHEN Action=? THEN AmtAcctDr ELSE -AmtAcctDr END) AS AmtAcctDr"
+				+ ", SUM(CASE WHEN Action=? THEN AmtAcctCr ELSE -AmtAcctCr END) AS AmtAcctCr"
+				+ ", SUM(CASE WHEN Action=? THEN Qty ELSE -Qty END) AS Qty"
+				+ ", COUNT(1) AS LogsCount"
+				+ ", SUM(CASE WHEN Action IN (?, ?) THEN 0 ELSE 1 END) AS UnsupportedActionsCount"
+				+ " FROM " + I_Fact_Acct_Log.Table_Name
+				+ " WHERE " + I_Fact_Acct_Log.COLUMNNAME_ProcessingTag + "=?"
+				+ " GROUP BY AD_Client_ID, AD_Org_ID, C_ElementValue_ID, C_AcctSchema_ID, PostingType, C_Period_ID, TRUNC(DateAcct)"
+				+ " ORDER BY AD_Client_ID, AD_Org_ID, C_ElementValue_ID, C_AcctSchema_ID, PostingType, TRUNC(DateAcct)";
+		final List<Object> sqlParams = Arrays.asList(
+				X_Fact_Acct_Log.ACTION_Insert,
+				X_Fact_Acct_Log.ACTION_Insert,
+				X_Fact_Acct_Log.ACTION_Insert,
+				X_Fact_Acct_Log.ACTION_Insert, X_Fact_Acct_Log.ACTION_Delete,
+				processingTag);
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			// NOTE: the logs were tagged in current transaction
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			final List<FactAcctSummaryDelta> deltas = new ArrayList<>();
+			while (rs.next())
+			{
+				deltas.add(retrieveSummaryDelta(rs));
+			}
+			return deltas;
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	private FactAcctSummaryDelta retrieveSummaryDelta(final ResultSet rs) throws SQLException
+	{
+		final FactAcctSummaryKey key = FactAcctSummaryKey.builder()
+				.clientId(rs.getInt("AD_Client_ID"))
+				.orgId(rs.getInt("AD_Org_ID"))
+				.elementValueId(rs.getInt("C_ElementValue_ID"))
+				.acctSchemaId(rs.getInt("C_AcctSchema_ID"))
+				.postingType(rs.getString("PostingType"))
+				.periodId(rs.getInt("C_Period_ID"))
+				.dateAcct(rs.getTimestamp("DateAcct"))
+				.build();
+
+		if (rs.getInt("UnsupportedActionsCount") > 0)
+		{
+			throw new AdempiereException("Log action not supported for some of the logs of " + key);
+		}
+
+		return FactAcctSummaryDelta.builder()
+				.key(key)
+				.amtAcctDr(rs.getBigDecimal("AmtAcctDr"))
+				.amtAcctCr(rs.getBigDecimal("AmtAcctCr"))
+				.qty(rs.getBigDecimal("Qty"))
+				.logsCount(rs.getInt("LogsCount"))
+				.build();
+	}
+
 	@Override
 	public boolean hasLogs(final Properties ctx, final String processingTag)
 	{
@@ -95,7 +198,7 @@ public class FactAcctLogDAO implements IFactAcctLogDAO
 				.anyMatch();
 	}
 
-	private final IQueryBuilder<I_Fact_Acct_Log> retrieveForTagQuery(final Properties ctx, final String processingTag)
+	protected final IQueryBuilder<I_Fact_Acct_Log> retrieveForTagQuery(final Properties ctx, final String processingTag)
 	{
 		return Services.get(IQueryBL.class)
 				.createQueryBuilder(I_Fact_Acct_Log.class, ctx, ITrx.TRXNAME_ThreadInherited)
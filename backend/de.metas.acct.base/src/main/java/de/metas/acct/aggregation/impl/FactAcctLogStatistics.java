@@ -0,0 +1,72 @@
+package de.metas.acct.aggregation.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runtime statistics of {@link FactAcctLogBL}, published via {@link JMXFactAcctLog}.
+ */
+final class FactAcctLogStatistics
+{
+	private final AtomicLong processedLogsCount = new AtomicLong(0);
+	private final AtomicLong updatedSummariesCount = new AtomicLong(0);
+	private final AtomicLong processingTimeMillis = new AtomicLong(0);
+	private final AtomicLong lastRunTimeMillis = new AtomicLong(0);
+
+	public void recordProcessed(final int logsCount, final int summariesCount, final long durationMillis)
+	{
+		processedLogsCount.addAndGet(logsCount);
+		updatedSummariesCount.addAndGet(summariesCount);
+		processingTimeMillis.addAndGet(durationMillis);
+		lastRunTimeMillis.set(durationMillis);
+	}
+
+	public long getProcessedLogsCount()
+	{
+		return processedLogsCount.get();
+	}
+
+	public long getUpdatedSummariesCount()
+	{
+		return updatedSummariesCount.get();
+	}
+
+	public long getProcessingTimeMillis()
+	{
+		return processingTimeMillis.get();
+	}
+
+	public long getLastRunTimeMillis()
+	{
+		return lastRunTimeMillis.get();
+	}
+
+	public void reset()
+	{
+		processedLogsCount.set(0);
+		updatedSummariesCount.set(0);
+		processingTimeMillis.set(0);
+		lastRunTimeMillis.set(0);
+	}
+}
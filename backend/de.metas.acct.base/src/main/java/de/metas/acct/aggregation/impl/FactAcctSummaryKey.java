@@ -10,6 +10,8 @@ import org.compiere.util.Util.ArrayKey;
 import de.metas.acct.aggregation.IFactAcctSummaryKey;
 import de.metas.acct.model.I_Fact_Acct_Log;
 import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -37,7 +39,32 @@ final class FactAcctSummaryKey implements IFactAcctSummaryKey
 {
 	public static final IFactAcctSummaryKey of(final I_Fact_Acct_Log log)
 	{
-		return new FactAcctSummaryKey(log);
+		Check.assumeNotNull(log, "log not null");
+
+		final Date dateAcct = log.getDateAcct();
+		Check.assumeNotNull(dateAcct, "dateAcct not null for {}", log);
+
+		return new FactAcctSummaryKey(
+				log.getC_ElementValue_ID(),
+				log.getC_AcctSchema_ID(),
+				log.getPostingType(),
+				log.getC_Period_ID(),
+				dateAcct,
+				log.getAD_Client_ID(),
+				log.getAD_Org_ID()); // FRESH-326: set the AD_Org from the log
+	}
+
+	@Builder
+	private static FactAcctSummaryKey ofValues(
+			final int elementValueId,
+			final int acctSchemaId,
+			final String postingType,
+			final int periodId,
+			@NonNull final Date dateAcct,
+			final int clientId,
+			final int orgId)
+	{
+		return new FactAcctSummaryKey(elementValueId, acctSchemaId, postingType, periodId, dateAcct, clientId, orgId);
 	}
 
 	private final int C_ElementValue_ID;
@@ -50,23 +77,23 @@ final class FactAcctSummaryKey implements IFactAcctSummaryKey
 	private final int PA_ReportCube_ID;
 	private final ArrayKey _hashKey;
 
-	private FactAcctSummaryKey(final I_Fact_Acct_Log log)
+	private FactAcctSummaryKey(
+			final int C_ElementValue_ID,
+			final int C_AcctSchema_ID,
+			final String postingType,
+			final int C_Period_ID,
+			final Date dateAcct,
+			final int AD_Client_ID,
+			final int AD_Org_ID)
 	{
-		super();
-		Check.assumeNotNull(log, "log not null");
-
-		C_ElementValue_ID = log.getC_ElementValue_ID();
-		C_AcctSchema_ID = log.getC_AcctSchema_ID();
-		postingType = log.getPostingType();
-		C_Period_ID = log.getC_Period_ID();
-		
-		final Date dateAcct = log.getDateAcct();
-		Check.assumeNotNull(dateAcct, "dateAcct not null for {}", log);
-		dateAcctMs = TimeUtil.trunc(dateAcct, TimeUtil.TRUNC_DAY).getTime();
-
-		AD_Client_ID = log.getAD_Client_ID();
-		AD_Org_ID = log.getAD_Org_ID(); // FRESH-326: set the AD_Org from the log
-		PA_ReportCube_ID = -1;
+		this.C_ElementValue_ID = C_ElementValue_ID;
+		this.C_AcctSchema_ID = C_AcctSchema_ID;
+		this.postingType = postingType;
+		this.C_Period_ID = C_Period_ID;
+		this.dateAcctMs = TimeUtil.trunc(dateAcct, TimeUtil.TRUNC_DAY).getTime();
+		this.AD_Client_ID = AD_Client_ID;
+		this.AD_Org_ID = AD_Org_ID;
+		this.PA_ReportCube_ID = -1;
 		_hashKey = Util.mkKey(C_ElementValue_ID, C_AcctSchema_ID, postingType, C_Period_ID, dateAcctMs, AD_Client_ID, AD_Org_ID, PA_ReportCube_ID);
 	}
 
@@ -0,0 +1,85 @@
+package de.metas.acct.aggregation.impl;
+
+import java.util.function.LongSupplier;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JMXFactAcctLog implements JMXFactAcctLogMBean, IJMXNameAware
+{
+	private final FactAcctLogStatistics statistics;
+	private final LongSupplier backlogSizeSupplier;
+
+	JMXFactAcctLog(
+			@NonNull final FactAcctLogStatistics statistics,
+			@NonNull final LongSupplier backlogSizeSupplier)
+	{
+		this.statistics = statistics;
+		this.backlogSizeSupplier = backlogSizeSupplier;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.acct:type=FactAcctLog";
+	}
+
+	@Override
+	public long getBacklogSize()
+	{
+		return backlogSizeSupplier.getAsLong();
+	}
+
+	@Override
+	public long getProcessedLogsCount()
+	{
+		return statistics.getProcessedLogsCount();
+	}
+
+	@Override
+	public long getUpdatedSummariesCount()
+	{
+		return statistics.getUpdatedSummariesCount();
+	}
+
+	@Override
+	public long getProcessingTimeMillis()
+	{
+		return statistics.getProcessingTimeMillis();
+	}
+
+	@Override
+	public long getLastRunTimeMillis()
+	{
+		return statistics.getLastRunTimeMillis();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		statistics.reset();
+	}
+}
@@ -1,6 +1,19 @@
 package de.metas.acct.aggregation.impl;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
 import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.acct.aggregation.FactAcctSummaryDelta;
+import de.metas.acct.aggregation.IFactAcctSummaryKey;
+import de.metas.acct.model.I_Fact_Acct_Log;
+import de.metas.acct.model.X_Fact_Acct_Log;
 import de.metas.logging.LogManager;
 
 /*
@@ -34,4 +47,39 @@ public class PlainFactAcctLogDAO extends FactAcctLogDAO
 	{
 		logger.warn("Updating Fact_Acct_EndingBalance not supported. Skipped.");
 	}
+
+	/** Aggregates the logs in memory, because we cannot run the GROUP BY SQL */
+	@Override
+	public List<FactAcctSummaryDelta> retrieveSummaryDeltasForTag(final Properties ctx, final String processingTag)
+	{
+		final Map<IFactAcctSummaryKey, FactAcctSummaryDelta> deltas = new LinkedHashMap<>();
+		for (final I_Fact_Acct_Log log : retrieveForTagQuery(ctx, processingTag).create().list())
+		{
+			final BigDecimal multiplier;
+			if (X_Fact_Acct_Log.ACTION_Insert.equals(log.getAction()))
+			{
+				multiplier = BigDecimal.ONE;
+			}
+			else if (X_Fact_Acct_Log.ACTION_Delete.equals(log.getAction()))
+			{
+				multiplier = BigDecimal.ONE.negate();
+			}
+			else
+			{
+				throw new IllegalStateException("Log action not supported: " + log.getAction() + " (" + log + ")");
+			}
+
+			final IFactAcctSummaryKey key = FactAcctSummaryKey.of(log);
+			final FactAcctSummaryDelta delta = deltas.get(key);
+			deltas.put(key, FactAcctSummaryDelta.builder()
+					.key(key)
+					.amtAcctDr(log.getAmtAcctDr().multiply(multiplier).add(delta != null ? delta.getAmtAcctDr() : BigDecimal.ZERO))
+					.amtAcctCr(log.getAmtAcctCr().multiply(multiplier).add(delta != null ? delta.getAmtAcctCr() : BigDecimal.ZERO))
+					.qty(log.getQty().multiply(multiplier).add(delta != null ? delta.getQty() : BigDecimal.ZERO))
+					.logsCount(delta != null ? delta.getLogsCount() + 1 : 1)
+					.build());
+		}
+
+		return ImmutableList.copyOf(deltas.values());
+	}
 }
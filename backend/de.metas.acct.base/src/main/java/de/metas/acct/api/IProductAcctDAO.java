@@ -1,8 +1,12 @@
 package de.metas.acct.api;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.adempiere.service.ClientId;
+import org.compiere.model.I_M_Product_Acct;
+
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.organization.OrgId;
 import de.metas.product.IProductActivityProvider;
@@ -30,4 +34,18 @@ public interface IProductAcctDAO extends IProductActivityProvider, ISingletonSer
 	ActivityId getProductActivityId(ProductId productId);
 
 	Optional<AccountId> getProductCategoryAccount(@NonNull AcctSchemaId acctSchemaId, @NonNull ProductCategoryId productCategoryId, @NonNull ProductAcctType acctType);
+
+	/**
+	 * Loads the product accounting records of the given products in one go, so that subsequent lookups are served from cache.
+	 * <p>
+	 * The cache is size limited, so if there are too many products, only a part of them is loaded.
+	 */
+	void warmUpCache(AcctSchemaId acctSchemaId, Collection<ProductId> productIds);
+
+	/**
+	 * Retrieves the product accounting records of the given products in one go, without using the cache.
+	 *
+	 * @return records indexed by product ID; products without an active accounting record are not included
+	 */
+	ImmutableMap<ProductId, I_M_Product_Acct> retrieveProductAcctRecords(AcctSchemaId acctSchemaId, Collection<ProductId> productIds);
 }
@@ -1,5 +1,6 @@
 package de.metas.acct.api.impl;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
@@ -40,6 +41,7 @@ import org.compiere.util.Env;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 
 import de.metas.acct.api.AccountId;
@@ -68,9 +70,15 @@ public class ProductAcctDAO implements IProductAcctDAO
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final IAcctSchemaDAO acctSchemaDAO = Services.get(IAcctSchemaDAO.class);
 
+	/**
+	 * Max number of cached product accounting records. Shall be big enough to keep all products of a warm-up, else the warm-up would evict its own records.
+	 */
+	private static final int PRODUCT_ACCT_CACHE_SIZE = 10000;
+	private static final int WARMUP_CHUNK_SIZE = 1000;
+
 	private final CCache<ProductIdAndAcctSchemaId, Optional<I_M_Product_Acct>> productAcctRecords = CCache.<ProductIdAndAcctSchemaId, Optional<I_M_Product_Acct>> builder()
 			.cacheMapType(CacheMapType.LRU)
-			.initialCapacity(100)
+			.initialCapacity(PRODUCT_ACCT_CACHE_SIZE) // in case of LRU, that's the max size
 			.expireMinutes(CCache.EXPIREMINUTES_Never)
 			.additionalTableNameToResetFor(I_M_Product_Acct.Table_Name)
 			.build();
@@ -122,6 +130,44 @@ public class ProductAcctDAO implements IProductAcctDAO
 		return Optional.ofNullable(record);
 	}
 
+	@Override
+	public void warmUpCache(@NonNull final AcctSchemaId acctSchemaId, @NonNull final Collection<ProductId> productIds)
+	{
+		// NOTE: we don't load more than the cache can hold; the remaining ones will be loaded on demand
+		final ImmutableSet<ProductId> productIdsToLoad = productIds.stream()
+				.filter(productId -> !productAcctRecords.containsKey(ProductIdAndAcctSchemaId.of(productId, acctSchemaId)))
+				.limit(PRODUCT_ACCT_CACHE_SIZE)
+				.collect(ImmutableSet.toImmutableSet());
+		if (productIdsToLoad.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableMap<ProductId, I_M_Product_Acct> recordsByProductId = retrieveProductAcctRecords(acctSchemaId, productIdsToLoad);
+
+		final HashMap<ProductIdAndAcctSchemaId, Optional<I_M_Product_Acct>> records = new HashMap<>(productIdsToLoad.size());
+		productIdsToLoad.forEach(productId -> records.put(ProductIdAndAcctSchemaId.of(productId, acctSchemaId), Optional.ofNullable(recordsByProductId.get(productId))));
+		productAcctRecords.putAll(records);
+	}
+
+	@Override
+	public ImmutableMap<ProductId, I_M_Product_Acct> retrieveProductAcctRecords(@NonNull final AcctSchemaId acctSchemaId, @NonNull final Collection<ProductId> productIds)
+	{
+		final HashMap<ProductId, I_M_Product_Acct> result = new HashMap<>(productIds.size());
+		for (final List<ProductId> productIdsChunk : Iterables.partition(ImmutableSet.copyOf(productIds), WARMUP_CHUNK_SIZE))
+		{
+			queryBL.createQueryBuilderOutOfTrx(I_M_Product_Acct.class)
+					.addEqualsFilter(I_M_Product_Acct.COLUMNNAME_C_AcctSchema_ID, acctSchemaId)
+					.addInArrayFilter(I_M_Product_Acct.COLUMNNAME_M_Product_ID, productIdsChunk)
+					.addOnlyActiveRecordsFilter()
+					.create()
+					.stream(I_M_Product_Acct.class)
+					.forEach(record -> result.put(ProductId.ofRepoId(record.getM_Product_ID()), record));
+		}
+
+		return ImmutableMap.copyOf(result);
+	}
+
 	@Override
 	public Optional<AccountId> getProductAccount(
 			@NonNull final AcctSchemaId acctSchemaId,
@@ -0,0 +1,207 @@
+package de.metas.acct.doc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_C_Charge_Acct;
+import org.compiere.model.I_M_Product_Acct;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.api.AccountId;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.api.ProductAcctType;
+import de.metas.costing.ChargeId;
+import de.metas.currency.CurrencyConversionContext;
+import de.metas.currency.CurrencyRate;
+import de.metas.money.CurrencyId;
+import de.metas.product.ProductId;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Accounting data which is needed over and over again while posting one document, memoized for the duration of that posting run.
+ * <p>
+ * Not thread-safe. Each accountable document creates its own instance.
+ */
+public final class AcctDocCache
+{
+	private final AcctDocRequiredServicesFacade services;
+
+	private final HashMap<CurrencyRateKey, CurrencyRate> currencyRates = new HashMap<>();
+	private final HashMap<ChargeIdAndAcctSchemaId, Optional<I_C_Charge_Acct>> chargeAccts = new HashMap<>();
+	private final HashMap<ProductIdAndAcctSchemaId, Optional<I_M_Product_Acct>> productAccts = new HashMap<>();
+	private final HashMap<List<Object>, Optional<AccountId>> accountIdsBySqlAndParams = new HashMap<>();
+
+	public AcctDocCache(@NonNull final AcctDocRequiredServicesFacade services)
+	{
+		this.services = services;
+	}
+
+	public CurrencyRate getCurrencyRate(
+			@NonNull final CurrencyConversionContext conversionCtx,
+			@NonNull final CurrencyId currencyFromId,
+			@NonNull final CurrencyId currencyToId)
+	{
+		return currencyRates.computeIfAbsent(
+				new CurrencyRateKey(conversionCtx, currencyFromId, currencyToId),
+				key -> services.getCurrencyRate(conversionCtx, currencyFromId, currencyToId));
+	}
+
+	/**
+	 * Loads the charge accounting records of the given charges with one query.
+	 */
+	public void prefetchChargeAccts(@NonNull final Collection<ChargeId> chargeIds, @NonNull final Collection<AcctSchemaId> acctSchemaIds)
+	{
+		final ImmutableSet<ChargeId> chargeIdsToLoad = chargeIds.stream()
+				.filter(chargeId -> acctSchemaIds.stream().anyMatch(acctSchemaId -> !chargeAccts.containsKey(new ChargeIdAndAcctSchemaId(chargeId, acctSchemaId))))
+				.collect(ImmutableSet.toImmutableSet());
+		if (chargeIdsToLoad.isEmpty() || acctSchemaIds.isEmpty())
+		{
+			return;
+		}
+
+		for (final ChargeId chargeId : chargeIdsToLoad)
+		{
+			for (final AcctSchemaId acctSchemaId : acctSchemaIds)
+			{
+				chargeAccts.put(new ChargeIdAndAcctSchemaId(chargeId, acctSchemaId), Optional.empty());
+			}
+		}
+
+		for (final I_C_Charge_Acct record : services.retrieveChargeAccts(chargeIdsToLoad, acctSchemaIds))
+		{
+			final ChargeIdAndAcctSchemaId key = new ChargeIdAndAcctSchemaId(ChargeId.ofRepoId(record.getC_Charge_ID()), AcctSchemaId.ofRepoId(record.getC_AcctSchema_ID()));
+			chargeAccts.put(key, Optional.of(record));
+		}
+	}
+
+	/**
+	 * @param amount the expense account is returned for a positive or zero amount and the revenue account for a negative amount
+	 */
+	public Optional<AccountId> getChargeAccountId(
+			@NonNull final ChargeId chargeId,
+			@NonNull final AcctSchemaId acctSchemaId,
+			@Nullable final BigDecimal amount)
+	{
+		final ChargeIdAndAcctSchemaId key = new ChargeIdAndAcctSchemaId(chargeId, acctSchemaId);
+		if (!chargeAccts.containsKey(key))
+		{
+			prefetchChargeAccts(ImmutableSet.of(chargeId), ImmutableSet.of(acctSchemaId));
+		}
+
+		return chargeAccts.get(key)
+				.map(record -> amount != null && amount.signum() < 0 ? record.getCh_Revenue_Acct() : record.getCh_Expense_Acct())
+				.flatMap(AccountId::optionalOfRepoId);
+	}
+
+	/**
+	 * Loads the product accounting records of the given products with one query per accounting schema.
+	 * <p>
+	 * NOTE: they are kept here and not in the (size limited) product accounting cache, so that a big document, or other documents posted in parallel, can't evict them.
+	 */
+	public void prefetchProductAccts(@NonNull final Collection<ProductId> productIds, @NonNull final Collection<AcctSchemaId> acctSchemaIds)
+	{
+		for (final AcctSchemaId acctSchemaId : acctSchemaIds)
+		{
+			final ImmutableSet<ProductId> productIdsToLoad = productIds.stream()
+					.filter(productId -> !productAccts.containsKey(new ProductIdAndAcctSchemaId(productId, acctSchemaId)))
+					.collect(ImmutableSet.toImmutableSet());
+			if (productIdsToLoad.isEmpty())
+			{
+				continue;
+			}
+
+			final ImmutableMap<ProductId, I_M_Product_Acct> records = services.retrieveProductAcctRecords(acctSchemaId, productIdsToLoad);
+			for (final ProductId productId : productIdsToLoad)
+			{
+				productAccts.put(new ProductIdAndAcctSchemaId(productId, acctSchemaId), Optional.ofNullable(records.get(productId)));
+			}
+		}
+	}
+
+	public Optional<AccountId> getProductAccountId(
+			@NonNull final ProductId productId,
+			@NonNull final AcctSchemaId acctSchemaId,
+			@NonNull final ProductAcctType acctType)
+	{
+		final ProductIdAndAcctSchemaId key = new ProductIdAndAcctSchemaId(productId, acctSchemaId);
+		if (!productAccts.containsKey(key))
+		{
+			prefetchProductAccts(ImmutableSet.of(productId), ImmutableSet.of(acctSchemaId));
+		}
+
+		return productAccts.get(key)
+				.map(record -> InterfaceWrapperHelper.<Integer> getValueOrNull(record, acctType.getColumnName()))
+				.flatMap(AccountId::optionalOfRepoId);
+	}
+
+	/**
+	 * Memoizes an account ID which is looked up by an SQL query. Nothing is memoized if the loader fails.
+	 */
+	public Optional<AccountId> getAccountIdBySql(
+			@NonNull final String sql,
+			@NonNull final List<Object> sqlParams,
+			@NonNull final Supplier<Optional<AccountId>> loader)
+	{
+		// NOTE: not using an ImmutableList because some parameters might be null
+		final List<Object> key = new ArrayList<>(sqlParams.size() + 1);
+		key.add(sql);
+		key.addAll(sqlParams);
+
+		return accountIdsBySqlAndParams.computeIfAbsent(key, k -> loader.get());
+	}
+
+	@Value
+	private static class CurrencyRateKey
+	{
+		CurrencyConversionContext conversionCtx;
+		CurrencyId currencyFromId;
+		CurrencyId currencyToId;
+	}
+
+	@Value
+	private static class ChargeIdAndAcctSchemaId
+	{
+		ChargeId chargeId;
+		AcctSchemaId acctSchemaId;
+	}
+
+	@Value
+	private static class ProductIdAndAcctSchemaId
+	{
+		ProductId productId;
+		AcctSchemaId acctSchemaId;
+	}
+}
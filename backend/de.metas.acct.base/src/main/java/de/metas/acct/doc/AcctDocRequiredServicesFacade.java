@@ -1,5 +1,6 @@
 package de.metas.acct.doc;
 
+import com.google.common.collect.ImmutableMap;
 import de.metas.acct.api.AccountId;
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.AcctSchemaId;
@@ -20,6 +21,7 @@ import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.IModelCacheInvalidationService;
 import de.metas.cache.model.ModelCacheInvalidationTiming;
 import de.metas.costing.AggregatedCostAmount;
+import de.metas.costing.ChargeId;
 import de.metas.costing.CostDetailCreateRequest;
 import de.metas.costing.CostDetailReverseRequest;
 import de.metas.costing.CostPrice;
@@ -50,12 +52,15 @@ import de.metas.tax.api.TaxId;
 import de.metas.uom.UomId;
 import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.service.ClientId;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Charge_Acct;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_Product;
+import org.compiere.model.I_M_Product_Acct;
 import org.compiere.model.MAccount;
 import org.compiere.model.PO;
 import org.compiere.util.TrxRunnable2;
@@ -63,6 +68,8 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /*
@@ -93,6 +100,7 @@ public class AcctDocRequiredServicesFacade
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 	private final IMsgBL msgBL = Services.get(IMsgBL.class);
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final IErrorManager errorManager = Services.get(IErrorManager.class);
 
 	private final IFactAcctListenersService factAcctListenersService = Services.get(IFactAcctListenersService.class);
@@ -276,6 +284,42 @@ public class AcctDocRequiredServicesFacade
 				: Optional.empty();
 	}
 
+	public ImmutableMap<ProductId, I_M_Product_Acct> retrieveProductAcctRecords(
+			@NonNull final AcctSchemaId acctSchemaId,
+			@NonNull final Collection<ProductId> productIds)
+	{
+		return productAcctDAO.retrieveProductAcctRecords(acctSchemaId, productIds);
+	}
+
+	/**
+	 * Loads the tax accounting of all given taxes in one go, so they are served from cache while posting the document lines.
+	 */
+	public void warmUpTaxAccountingCache(
+			@NonNull final Collection<AcctSchemaId> acctSchemaIds,
+			@NonNull final Collection<TaxId> taxIds)
+	{
+		if (taxIds.isEmpty())
+		{
+			return;
+		}
+
+		for (final AcctSchemaId acctSchemaId : acctSchemaIds)
+		{
+			taxAcctBL.warmUpCache(acctSchemaId, taxIds);
+		}
+	}
+
+	public List<I_C_Charge_Acct> retrieveChargeAccts(
+			@NonNull final Collection<ChargeId> chargeIds,
+			@NonNull final Collection<AcctSchemaId> acctSchemaIds)
+	{
+		return queryBL.createQueryBuilderOutOfTrx(I_C_Charge_Acct.class)
+				.addInArrayFilter(I_C_Charge_Acct.COLUMNNAME_C_Charge_ID, chargeIds)
+				.addInArrayFilter(I_C_Charge_Acct.COLUMNNAME_C_AcctSchema_ID, acctSchemaIds)
+				.create()
+				.list(I_C_Charge_Acct.class);
+	}
+
 	public CostingMethod getCostingMethod(
 			@NonNull final ProductId productId,
 			@NonNull final AcctSchema as)
@@ -295,11 +339,21 @@ public class AcctDocRequiredServicesFacade
 		return costingService.createCostDetail(request);
 	}
 
+	public List<AggregatedCostAmount> createCostDetails(@NonNull final List<CostDetailCreateRequest> requests)
+	{
+		return costingService.createCostDetails(requests);
+	}
+
 	public MoveCostsResult moveCosts(@NonNull final MoveCostsRequest request)
 	{
 		return costingService.moveCosts(request);
 	}
 
+	public List<MoveCostsResult> moveCosts(@NonNull final List<MoveCostsRequest> requests)
+	{
+		return costingService.moveCosts(requests);
+	}
+
 	public AggregatedCostAmount createReversalCostDetails(@NonNull final CostDetailReverseRequest request)
 	{
 		return costingService.createReversalCostDetails(request);
@@ -0,0 +1,51 @@
+package de.metas.acct.posting;
+
+import java.util.List;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Value
+@Builder
+public class BulkPostingRequest
+{
+	@NonNull
+	ClientId clientId;
+
+	/** Documents to be posted. Documents which share costing segments are posted in this order. */
+	@NonNull
+	@Singular
+	List<TableRecordReference> documentRefs;
+
+	boolean force;
+
+	/** How many lanes shall be posted in parallel; if not set (i.e. zero), the configured default is used */
+	int parallelism;
+}
@@ -0,0 +1,61 @@
+package de.metas.acct.posting;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Value
+@Builder
+public class BulkPostingResult
+{
+	int countTotal;
+	int countPosted;
+	int countFailed;
+
+	int lanesCount;
+
+	long durationMillis;
+
+	public BigDecimal getDocsPerSecond()
+	{
+		if (durationMillis <= 0)
+		{
+			return BigDecimal.ZERO;
+		}
+
+		return BigDecimal.valueOf(countPosted + countFailed)
+				.multiply(BigDecimal.valueOf(1000))
+				.divide(BigDecimal.valueOf(durationMillis), 2, RoundingMode.HALF_UP);
+	}
+
+	public String getSummary()
+	{
+		return "Posted " + countPosted + "/" + countTotal + " documents"
+				+ " (" + countFailed + " failed) in " + lanesCount + " lanes"
+				+ ", " + durationMillis + "ms, " + getDocsPerSecond() + " docs/sec";
+	}
+}
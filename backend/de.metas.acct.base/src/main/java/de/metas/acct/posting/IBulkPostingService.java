@@ -0,0 +1,36 @@
+package de.metas.acct.posting;
+
+import de.metas.util.ISingletonService;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Posts (or reposts) a bigger amount of documents in parallel.
+ * <p>
+ * The documents are split into lanes, such that documents which might touch the same costing segments end up in the same lane.
+ * Lanes are posted in parallel, the documents of one lane are posted one after the other, in the order in which they were given.
+ */
+public interface IBulkPostingService extends ISingletonService
+{
+	BulkPostingResult post(BulkPostingRequest request);
+}
@@ -0,0 +1,134 @@
+package de.metas.acct.posting.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_InvoiceLine;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_InOutLine;
+import org.compiere.model.I_M_Inventory;
+import org.compiere.model.I_M_InventoryLine;
+import org.compiere.model.I_M_MatchInv;
+import org.compiere.model.I_M_MatchPO;
+import org.compiere.model.I_M_Movement;
+import org.compiere.model.I_M_MovementLine;
+import org.compiere.util.DB;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Iterables;
+
+import de.metas.product.ProductId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Retrieves the products which are (potentially) costed when posting a document.
+ * <p>
+ * Documents of tables which are not known to touch costs are returned without products.
+ */
+final class BulkPostingDocumentProductsRetriever
+{
+	private static final int CHUNK_SIZE = 1000;
+
+	/** Document table name to the table which contains the M_Product_ID and the document's key column */
+	private static final ImmutableMap<String, String> productsTableNamesByDocumentTableName = ImmutableMap.<String, String> builder()
+			.put(I_M_InOut.Table_Name, I_M_InOutLine.Table_Name)
+			.put(I_C_Invoice.Table_Name, I_C_InvoiceLine.Table_Name)
+			.put(I_M_Inventory.Table_Name, I_M_InventoryLine.Table_Name)
+			.put(I_M_Movement.Table_Name, I_M_MovementLine.Table_Name)
+			.put(I_M_MatchInv.Table_Name, I_M_MatchInv.Table_Name)
+			.put(I_M_MatchPO.Table_Name, I_M_MatchPO.Table_Name)
+			.put("PP_Cost_Collector", "PP_Cost_Collector")
+			.build();
+
+	public ImmutableSetMultimap<TableRecordReference, ProductId> retrieveProductIds(@NonNull final Collection<TableRecordReference> documentRefs)
+	{
+		final ImmutableListMultimap<String, Integer> recordIdsByTableName = documentRefs.stream()
+				.filter(documentRef -> productsTableNamesByDocumentTableName.containsKey(documentRef.getTableName()))
+				.collect(ImmutableListMultimap.toImmutableListMultimap(TableRecordReference::getTableName, TableRecordReference::getRecord_ID));
+
+		final ImmutableSetMultimap.Builder<TableRecordReference, ProductId> result = ImmutableSetMultimap.builder();
+		for (final String documentTableName : recordIdsByTableName.keySet())
+		{
+			for (final List<Integer> recordIds : Iterables.partition(recordIdsByTableName.get(documentTableName), CHUNK_SIZE))
+			{
+				retrieveProductIds(documentTableName, recordIds, result);
+			}
+		}
+
+		return result.build();
+	}
+
+	private static void retrieveProductIds(
+			final String documentTableName,
+			final List<Integer> recordIds,
+			final ImmutableSetMultimap.Builder<TableRecordReference, ProductId> result)
+	{
+		final String keyColumnName = documentTableName + "_ID";
+		final String productsTableName = productsTableNamesByDocumentTableName.get(documentTableName);
+
+		final List<Object> sqlParams = new ArrayList<>(recordIds.size());
+		final String sql = "SELECT DISTINCT " + keyColumnName + ", M_Product_ID"
+				+ " FROM " + productsTableName
+				+ " WHERE " + keyColumnName + " IN " + DB.buildSqlList(recordIds, sqlParams)
+				+ " AND M_Product_ID IS NOT NULL";
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			while (rs.next())
+			{
+				final TableRecordReference documentRef = TableRecordReference.of(documentTableName, rs.getInt(keyColumnName));
+				final ProductId productId = ProductId.ofRepoIdOrNull(rs.getInt("M_Product_ID"));
+				if (productId != null)
+				{
+					result.put(documentRef, productId);
+				}
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package de.metas.acct.posting.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.product.ProductId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Splits documents into {@link BulkPostingLane}s.
+ * <p>
+ * Two documents end up in the same lane if they share a product, directly or via other documents of the same lane.
+ * A product is a conservative approximation of a costing segment (which would also be determined by accounting schema, organization and attributes),
+ * so documents of different lanes are never touching the same costs and can be posted in parallel.
+ * <p>
+ * Within a lane, documents keep the order in which they were added. The lanes are returned biggest first, so they can be started first.
+ */
+final class BulkPostingLanesBuilder
+{
+	private final LinkedHashMap<TableRecordReference, ImmutableSet<ProductId>> productIdsByDocumentRef = new LinkedHashMap<>();
+
+	public BulkPostingLanesBuilder addDocument(@NonNull final TableRecordReference documentRef, @NonNull final Collection<ProductId> productIds)
+	{
+		productIdsByDocumentRef.putIfAbsent(documentRef, ImmutableSet.copyOf(productIds));
+		return this;
+	}
+
+	public ImmutableList<BulkPostingLane> build()
+	{
+		final List<TableRecordReference> documentRefs = new ArrayList<>(productIdsByDocumentRef.keySet());
+		final int[] parents = new int[documentRefs.size()];
+		for (int i = 0; i < parents.length; i++)
+		{
+			parents[i] = i;
+		}
+
+		//
+		// Union the documents which share a product
+		final HashMap<ProductId, Integer> firstDocumentIndexByProductId = new HashMap<>();
+		for (int documentIndex = 0; documentIndex < documentRefs.size(); documentIndex++)
+		{
+			for (final ProductId productId : productIdsByDocumentRef.get(documentRefs.get(documentIndex)))
+			{
+				final Integer firstDocumentIndex = firstDocumentIndexByProductId.putIfAbsent(productId, documentIndex);
+				if (firstDocumentIndex != null)
+				{
+					union(parents, firstDocumentIndex, documentIndex);
+				}
+			}
+		}
+
+		//
+		// Collect the lanes, keeping the documents order
+		final LinkedHashMap<Integer, LaneBuilder> laneBuilders = new LinkedHashMap<>();
+		for (int documentIndex = 0; documentIndex < documentRefs.size(); documentIndex++)
+		{
+			final TableRecordReference documentRef = documentRefs.get(documentIndex);
+			laneBuilders.computeIfAbsent(find(parents, documentIndex), root -> new LaneBuilder())
+					.add(documentRef, productIdsByDocumentRef.get(documentRef));
+		}
+
+		return laneBuilders.values()
+				.stream()
+				.map(LaneBuilder::build)
+				.sorted(Comparator.comparing(BulkPostingLane::size).reversed())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static int find(final int[] parents, final int index)
+	{
+		int root = index;
+		while (parents[root] != root)
+		{
+			root = parents[root];
+		}
+
+		// path compression
+		int current = index;
+		while (parents[current] != root)
+		{
+			final int next = parents[current];
+			parents[current] = root;
+			current = next;
+		}
+
+		return root;
+	}
+
+	private static void union(final int[] parents, final int index1, final int index2)
+	{
+		final int root1 = find(parents, index1);
+		final int root2 = find(parents, index2);
+		if (root1 != root2)
+		{
+			// keep the smaller index as root, i.e. the lane's first document
+			parents[Math.max(root1, root2)] = Math.min(root1, root2);
+		}
+	}
+
+	private static final class LaneBuilder
+	{
+		private final ImmutableList.Builder<TableRecordReference> documentRefs = ImmutableList.builder();
+		private final ImmutableSet.Builder<ProductId> productIds = ImmutableSet.builder();
+
+		public void add(final TableRecordReference documentRef, final Collection<ProductId> productIds)
+		{
+			this.documentRefs.add(documentRef);
+			this.productIds.addAll(productIds);
+		}
+
+		public BulkPostingLane build()
+		{
+			return new BulkPostingLane(documentRefs.build(), productIds.build());
+		}
+	}
+}
@@ -0,0 +1,343 @@
+package de.metas.acct.posting.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import de.metas.acct.api.AcctSchema;
+import de.metas.acct.api.IAcctSchemaDAO;
+import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
+import de.metas.acct.api.IPostingService;
+import de.metas.acct.api.IProductAcctDAO;
+import de.metas.acct.posting.BulkPostingRequest;
+import de.metas.acct.posting.BulkPostingResult;
+import de.metas.acct.posting.IBulkPostingService;
+import de.metas.acct.tax.ITaxAcctBL;
+import de.metas.logging.LogManager;
+import de.metas.product.ProductId;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BulkPostingService implements IBulkPostingService
+{
+	private static final Logger logger = LogManager.getLogger(BulkPostingService.class);
+
+	/** How many lanes shall be posted in parallel, unless the request says otherwise */
+	private static final String SYSCONFIG_Parallelism = "de.metas.acct.posting.impl.BulkPostingService.Parallelism";
+	private static final int DEFAULT_Parallelism = 4;
+
+	/** Report the progress each time this amount of documents were posted */
+	private static final int PROGRESS_REPORT_INTERVAL = 100;
+
+	private final Function<List<TableRecordReference>, ImmutableSetMultimap<TableRecordReference, ProductId>> documentProductsRetriever;
+	private final BiConsumer<BulkPostingRequest, TableRecordReference> documentPoster;
+
+	private final BulkPostingStatistics statistics = new BulkPostingStatistics();
+
+	public BulkPostingService()
+	{
+		this(new BulkPostingDocumentProductsRetriever()::retrieveProductIds, BulkPostingService::postDocument);
+	}
+
+	@VisibleForTesting
+	BulkPostingService(
+			@NonNull final Function<List<TableRecordReference>, ImmutableSetMultimap<TableRecordReference, ProductId>> documentProductsRetriever,
+			@NonNull final BiConsumer<BulkPostingRequest, TableRecordReference> documentPoster)
+	{
+		this.documentProductsRetriever = documentProductsRetriever;
+		this.documentPoster = documentPoster;
+
+		JMXRegistry.get().registerJMX(new JMXBulkPosting(statistics), OnJMXAlreadyExistsPolicy.Replace);
+	}
+
+	@Override
+	public BulkPostingResult post(@NonNull final BulkPostingRequest request)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final ImmutableList<BulkPostingLane> lanes = createLanes(request.getDocumentRefs());
+		final int countTotal = lanes.stream().mapToInt(BulkPostingLane::size).sum();
+		if (countTotal <= 0)
+		{
+			return BulkPostingResult.builder().build();
+		}
+
+		warmUpCaches(request.getClientId(), lanes);
+		logger.debug("Prepared {} documents in {} lanes in {}", countTotal, lanes.size(), stopwatch);
+
+		final Progress progress = new Progress(countTotal, stopwatch, Loggables.get());
+		statistics.recordEnqueued(countTotal);
+		try
+		{
+			postLanes(request, lanes, progress);
+		}
+		finally
+		{
+			final long durationMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			statistics.recordRunDone(durationMillis, progress.getDocsPerSecond());
+		}
+
+		final BulkPostingResult result = BulkPostingResult.builder()
+				.countTotal(countTotal)
+				.countPosted(progress.getCountPosted())
+				.countFailed(progress.getCountFailed())
+				.lanesCount(lanes.size())
+				.durationMillis(stopwatch.elapsed(TimeUnit.MILLISECONDS))
+				.build();
+		logger.info("{}", result.getSummary());
+
+		return result;
+	}
+
+	private ImmutableList<BulkPostingLane> createLanes(final List<TableRecordReference> documentRefs)
+	{
+		final ImmutableSetMultimap<TableRecordReference, ProductId> productIdsByDocumentRef = documentProductsRetriever.apply(documentRefs);
+
+		final BulkPostingLanesBuilder lanesBuilder = new BulkPostingLanesBuilder();
+		for (final TableRecordReference documentRef : documentRefs)
+		{
+			lanesBuilder.addDocument(documentRef, productIdsByDocumentRef.get(documentRef));
+		}
+		return lanesBuilder.build();
+	}
+
+	/**
+	 * Loads the accounting schemas and the product and tax accounts once for the whole batch, instead of letting each document load them one by one.
+	 */
+	private static void warmUpCaches(final ClientId clientId, final List<BulkPostingLane> lanes)
+	{
+		final ImmutableSet<ProductId> productIds = lanes.stream()
+				.flatMap(lane -> lane.getProductIds().stream())
+				.collect(ImmutableSet.toImmutableSet());
+
+		final IProductAcctDAO productAcctDAO = Services.get(IProductAcctDAO.class);
+		final ITaxAcctBL taxAcctBL = Services.get(ITaxAcctBL.class);
+		for (final AcctSchema acctSchema : Services.get(IAcctSchemaDAO.class).getAllByClient(clientId))
+		{
+			productAcctDAO.warmUpCache(acctSchema.getId(), productIds);
+			taxAcctBL.warmUpCache(acctSchema.getId());
+		}
+	}
+
+	private void postLanes(final BulkPostingRequest request, final List<BulkPostingLane> lanes, final Progress progress)
+	{
+		final int parallelism = Math.min(getParallelism(request), lanes.size());
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				parallelism,
+				CustomizableThreadFactory.builder()
+						.setDaemon(true)
+						.setThreadNamePrefix(BulkPostingService.class.getSimpleName() + "-")
+						.build());
+		try
+		{
+			final Properties ctx = Env.copyCtx(Env.getCtx());
+			Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, request.getClientId().getRepoId());
+
+			final List<Future<?>> futures = new ArrayList<>(lanes.size());
+			for (final BulkPostingLane lane : lanes)
+			{
+				futures.add(executor.submit(() -> postLane(ctx, request, lane, progress)));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				try
+				{
+					future.get();
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw AdempiereException.wrapIfNeeded(e);
+				}
+				catch (final ExecutionException e)
+				{
+					// NOTE: posting errors are handled per document, so this shall not happen; anyways, we let the other lanes finish
+					logger.warn("Failed posting a lane", e.getCause());
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private static int getParallelism(final BulkPostingRequest request)
+	{
+		if (request.getParallelism() > 0)
+		{
+			return request.getParallelism();
+		}
+
+		final int parallelism = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism);
+		return parallelism > 0 ? parallelism : 1;
+	}
+
+	private void postLane(final Properties ctx, final BulkPostingRequest request, final BulkPostingLane lane, final Progress progress)
+	{
+		try (final IAutoCloseable ctxRestorer = Env.switchContext(Env.copyCtx(ctx)))
+		{
+			for (final TableRecordReference documentRef : lane.getDocumentRefs())
+			{
+				if (postDocumentNoFail(request, documentRef))
+				{
+					statistics.recordPosted();
+					progress.recordPosted();
+				}
+				else
+				{
+					statistics.recordFailed();
+					progress.recordFailed();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if posted, false if the posting failed
+	 */
+	private boolean postDocumentNoFail(final BulkPostingRequest request, final TableRecordReference documentRef)
+	{
+		try
+		{
+			documentPoster.accept(request, documentRef);
+			return true;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed posting {}", documentRef, ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Posts the given document directly, in current thread.
+	 */
+	private static void postDocument(final BulkPostingRequest request, final TableRecordReference documentRef)
+	{
+		Services.get(IPostingService.class)
+				.newPostingRequest()
+				.setClientId(request.getClientId())
+				.setDocumentRef(documentRef)
+				.setForce(request.isForce())
+				.setFailOnError(true) // we want to know if it failed
+				.setPostWithoutServer() // post it in this worker thread
+				.setPostImmediate(PostImmediate.Yes)
+				.postIt();
+	}
+
+	private static final class Progress
+	{
+		private final int countTotal;
+		private final Stopwatch stopwatch;
+		private final ILoggable loggable;
+
+		private final AtomicInteger countPosted = new AtomicInteger(0);
+		private final AtomicInteger countFailed = new AtomicInteger(0);
+
+		private Progress(final int countTotal, final Stopwatch stopwatch, final ILoggable loggable)
+		{
+			this.countTotal = countTotal;
+			this.stopwatch = stopwatch;
+			this.loggable = loggable;
+		}
+
+		public void recordPosted()
+		{
+			countPosted.incrementAndGet();
+			reportIfNeeded();
+		}
+
+		public void recordFailed()
+		{
+			countFailed.incrementAndGet();
+			reportIfNeeded();
+		}
+
+		private void reportIfNeeded()
+		{
+			final int countDone = getCountDone();
+			if (countDone % PROGRESS_REPORT_INTERVAL != 0 && countDone != countTotal)
+			{
+				return;
+			}
+
+			// NOTE: the loggable was created for the calling thread, so we don't let the workers use it concurrently
+			synchronized (this)
+			{
+				loggable.addLog("Posted {}/{} documents ({} failed), {} docs/sec", countDone, countTotal, countFailed.get(), getDocsPerSecond());
+			}
+		}
+
+		private int getCountDone()
+		{
+			return countPosted.get() + countFailed.get();
+		}
+
+		public int getCountPosted()
+		{
+			return countPosted.get();
+		}
+
+		public int getCountFailed()
+		{
+			return countFailed.get();
+		}
+
+		public long getDocsPerSecond()
+		{
+			final long millis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+			return millis > 0 ? getCountDone() * 1000L / millis : 0;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package de.metas.acct.posting.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+final class BulkPostingStatistics
+{
+	private final AtomicLong pendingDocumentsCount = new AtomicLong(0);
+	private final AtomicLong postedDocumentsCount = new AtomicLong(0);
+	private final AtomicLong failedDocumentsCount = new AtomicLong(0);
+	private final AtomicLong postingTimeMillis = new AtomicLong(0);
+	private final AtomicLong lastRunDocsPerSecond = new AtomicLong(0);
+
+	public void recordEnqueued(final int documentsCount)
+	{
+		pendingDocumentsCount.addAndGet(documentsCount);
+	}
+
+	public void recordPosted()
+	{
+		pendingDocumentsCount.decrementAndGet();
+		postedDocumentsCount.incrementAndGet();
+	}
+
+	public void recordFailed()
+	{
+		pendingDocumentsCount.decrementAndGet();
+		failedDocumentsCount.incrementAndGet();
+	}
+
+	public void recordRunDone(final long durationMillis, final long docsPerSecond)
+	{
+		postingTimeMillis.addAndGet(durationMillis);
+		lastRunDocsPerSecond.set(docsPerSecond);
+	}
+
+	/** @return documents which were handed over to the bulk posting but were not yet posted */
+	public long getPendingDocumentsCount()
+	{
+		return pendingDocumentsCount.get();
+	}
+
+	public long getPostedDocumentsCount()
+	{
+		return postedDocumentsCount.get();
+	}
+
+	public long getFailedDocumentsCount()
+	{
+		return failedDocumentsCount.get();
+	}
+
+	public long getPostingTimeMillis()
+	{
+		return postingTimeMillis.get();
+	}
+
+	public long getDocsPerSecond()
+	{
+		final long millis = postingTimeMillis.get();
+		return millis > 0 ? (postedDocumentsCount.get() + failedDocumentsCount.get()) * 1000 / millis : 0;
+	}
+
+	public long getLastRunDocsPerSecond()
+	{
+		return lastRunDocsPerSecond.get();
+	}
+
+	public void reset()
+	{
+		postedDocumentsCount.set(0);
+		failedDocumentsCount.set(0);
+		postingTimeMillis.set(0);
+		lastRunDocsPerSecond.set(0);
+	}
+}
@@ -0,0 +1,85 @@
+package de.metas.acct.posting.impl;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JMXBulkPosting implements JMXBulkPostingMBean, IJMXNameAware
+{
+	private final BulkPostingStatistics statistics;
+
+	JMXBulkPosting(@NonNull final BulkPostingStatistics statistics)
+	{
+		this.statistics = statistics;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return "de.metas.acct:type=BulkPosting";
+	}
+
+	@Override
+	public long getPendingDocumentsCount()
+	{
+		return statistics.getPendingDocumentsCount();
+	}
+
+	@Override
+	public long getPostedDocumentsCount()
+	{
+		return statistics.getPostedDocumentsCount();
+	}
+
+	@Override
+	public long getFailedDocumentsCount()
+	{
+		return statistics.getFailedDocumentsCount();
+	}
+
+	@Override
+	public long getPostingTimeMillis()
+	{
+		return statistics.getPostingTimeMillis();
+	}
+
+	@Override
+	public long getDocsPerSecond()
+	{
+		return statistics.getDocsPerSecond();
+	}
+
+	@Override
+	public long getLastRunDocsPerSecond()
+	{
+		return statistics.getLastRunDocsPerSecond();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		statistics.reset();
+	}
+}
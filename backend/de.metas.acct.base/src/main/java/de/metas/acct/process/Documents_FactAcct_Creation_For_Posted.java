@@ -2,14 +2,16 @@ package de.metas.acct.process;
 
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import org.adempiere.service.ClientId;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.TimeUtil;
 
-import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
-import de.metas.acct.api.IPostingService;
+import de.metas.acct.posting.BulkPostingRequest;
+import de.metas.acct.posting.BulkPostingResult;
+import de.metas.acct.posting.IBulkPostingService;
 import de.metas.acct.posting.IDocumentRepostingSupplierService;
 import de.metas.document.engine.IDocument;
 import de.metas.process.JavaProcess;
@@ -79,8 +81,8 @@ public class Documents_FactAcct_Creation_For_Posted extends JavaProcess
 
 		final ILoggable loggable = Loggables.get();
 
-		final IPostingService postingService = Services.get(IPostingService.class);
-
+		// NOTE: the documents might belong to different clients
+		final LinkedHashMap<ClientId, BulkPostingRequest.BulkPostingRequestBuilder> requestsByClientId = new LinkedHashMap<>();
 		for (final IDocument document : documentsPostedNoFacts)
 		{
 			final ClientId clientId = ClientId.ofRepoId(document.getAD_Client_ID());
@@ -91,14 +93,15 @@ public class Documents_FactAcct_Creation_For_Posted extends JavaProcess
 			// The view de_metas_acct.Reposted_Documents is based on it.
 			loggable.addLog("Document Reposted: {}, DocumentNo = {}.", documentRef, documentNo);
 
-			postingService.newPostingRequest()
-					.setClientId(clientId)
-					.setDocumentRef(documentRef) // the document to be posted
-					.setFailOnError(false) // don't fail because we don't want to fail the main document posting because one of it's depending documents are failing
-					.setPostImmediate(PostImmediate.Yes) // yes, post it immediate
-					.setForce(false) // don't force it
-					.setPostWithoutServer() // post directly (don't contact the server) because we want to post on client or server like the main document
-					.postIt(); // do it!
+			requestsByClientId.computeIfAbsent(clientId, id -> BulkPostingRequest.builder().clientId(id).force(false))
+					.documentRef(documentRef);
+		}
+
+		final IBulkPostingService bulkPostingService = Services.get(IBulkPostingService.class);
+		for (final BulkPostingRequest.BulkPostingRequestBuilder request : requestsByClientId.values())
+		{
+			final BulkPostingResult result = bulkPostingService.post(request.build());
+			loggable.addLog(result.getSummary());
 		}
 
 		return MSG_OK;
@@ -1,5 +1,6 @@
 package de.metas.acct.tax;
 
+import java.util.Collection;
 import java.util.Optional;
 
 import org.compiere.model.MAccount;
@@ -23,4 +24,14 @@ public interface ITaxAcctBL extends ISingletonService
 
 	Optional<AccountId> getAccountId(TaxId taxId, AcctSchemaId acctSchemaId, TaxAcctType acctType);
 
+	/**
+	 * Loads all tax accounting records of given accounting schema in one go, so that subsequent lookups are served from cache.
+	 */
+	void warmUpCache(AcctSchemaId acctSchemaId);
+
+	/**
+	 * Loads the tax accounting records of given taxes in one go, so that subsequent lookups are served from cache.
+	 */
+	void warmUpCache(AcctSchemaId acctSchemaId, Collection<TaxId> taxIds);
+
 }
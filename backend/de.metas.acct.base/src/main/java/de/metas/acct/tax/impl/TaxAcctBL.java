@@ -1,12 +1,17 @@
 package de.metas.acct.tax.impl;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.model.I_C_Tax_Acct;
 import org.compiere.model.MAccount;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.acct.api.AccountId;
 import de.metas.acct.api.AcctSchemaId;
 import de.metas.acct.api.IAccountDAO;
@@ -15,6 +20,7 @@ import de.metas.acct.tax.TaxAcctType;
 import de.metas.cache.CCache;
 import de.metas.cache.CCache.CacheMapType;
 import de.metas.tax.api.TaxId;
+import de.metas.util.GuavaCollectors;
 import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.Value;
@@ -25,7 +31,7 @@ public class TaxAcctBL implements ITaxAcctBL
 
 	private final CCache<TaxIdAndAcctSchemaId, I_C_Tax_Acct> taxAcctRecords = CCache.<TaxIdAndAcctSchemaId, I_C_Tax_Acct> builder()
 			.cacheMapType(CacheMapType.LRU)
-			.initialCapacity(100)
+			.initialCapacity(1000) // in case of LRU, that's the max size; shall be big enough to keep all taxes loaded by warmUpCache
 			.additionalTableNameToResetFor(I_C_Tax_Acct.Table_Name)
 			.build();
 
@@ -84,6 +90,47 @@ public class TaxAcctBL implements ITaxAcctBL
 		}
 	}
 
+	@Override
+	public void warmUpCache(@NonNull final AcctSchemaId acctSchemaId)
+	{
+		final IQueryBuilder<I_C_Tax_Acct> queryBuilder = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_Tax_Acct.class)
+				.addEqualsFilter(I_C_Tax_Acct.COLUMNNAME_C_AcctSchema_ID, acctSchemaId)
+				.addOnlyActiveRecordsFilter();
+
+		warmUpCache(acctSchemaId, queryBuilder);
+	}
+
+	@Override
+	public void warmUpCache(@NonNull final AcctSchemaId acctSchemaId, @NonNull final Collection<TaxId> taxIds)
+	{
+		final ImmutableSet<TaxId> taxIdsToLoad = taxIds.stream()
+				.filter(taxId -> !taxAcctRecords.containsKey(TaxIdAndAcctSchemaId.of(taxId, acctSchemaId)))
+				.collect(ImmutableSet.toImmutableSet());
+		if (taxIdsToLoad.isEmpty())
+		{
+			return;
+		}
+
+		final IQueryBuilder<I_C_Tax_Acct> queryBuilder = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_Tax_Acct.class)
+				.addEqualsFilter(I_C_Tax_Acct.COLUMNNAME_C_AcctSchema_ID, acctSchemaId)
+				.addInArrayFilter(I_C_Tax_Acct.COLUMNNAME_C_Tax_ID, taxIdsToLoad)
+				.addOnlyActiveRecordsFilter();
+
+		warmUpCache(acctSchemaId, queryBuilder);
+	}
+
+	private void warmUpCache(final AcctSchemaId acctSchemaId, final IQueryBuilder<I_C_Tax_Acct> queryBuilder)
+	{
+		final Map<TaxIdAndAcctSchemaId, I_C_Tax_Acct> records = queryBuilder
+				.create()
+				.stream(I_C_Tax_Acct.class)
+				.collect(GuavaCollectors.toImmutableMapByKey(record -> TaxIdAndAcctSchemaId.of(TaxId.ofRepoId(record.getC_Tax_ID()), acctSchemaId)));
+
+		taxAcctRecords.putAll(records);
+	}
+
 	private I_C_Tax_Acct getTaxAcctRecord(final AcctSchemaId acctSchemaId, final TaxId taxId)
 	{
 		return taxAcctRecords.getOrLoad(
@@ -3,8 +3,10 @@ package de.metas.acct.aggregation.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Function;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
@@ -20,6 +22,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.acct.aggregation.IFactAcctLogBL;
 import de.metas.acct.aggregation.IFactAcctLogDAO;
 import de.metas.acct.aggregation.IFactAcctSummaryKey;
@@ -60,9 +64,12 @@ public class FactAcctLogBLTest
 	private FactAcctLogDAO factAcctLogDAO;
 
 	private final int C_AcctSchema_ID1 = 1;
+	private final int C_AcctSchema_ID2 = 2;
 	private final int C_ElementValue_ID1 = 1;
+	private final int C_ElementValue_ID2 = 2;
 
 	private I_C_Period year2014_p1;
+	private I_C_Period year2014_p2;
 
 	private I_C_Period year2015_p1;
 
@@ -79,7 +86,7 @@ public class FactAcctLogBLTest
 		// Master data:
 		final I_C_Year year2014 = createYear(2014);
 		year2014_p1 = createPeriod(year2014, 1);
-		createPeriod(year2014, 2);
+		year2014_p2 = createPeriod(year2014, 2);
 
 		final I_C_Year year2015 = createYear(2015);
 		year2015_p1 = createPeriod(year2015, 1);
@@ -196,6 +203,68 @@ public class FactAcctLogBLTest
 
 	}
 
+	/**
+	 * Processes the same logs once all together (i.e. aggregated into one delta per summary key and DateAcct)
+	 * and once log by log, each on its own accounting schema, and expects the same summaries.
+	 */
+	@Test
+	public void test_AggregatedSameAsLogByLog()
+	{
+		// NOTE: every DateAcct has a non-zero net change, else the aggregated run would not create a summary record for it
+		final List<Function<Fact_Acct_Log_Builder, Fact_Acct_Log_Builder>> logs = ImmutableList.of(
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID1).setC_Period(year2014_p1).setDateAcct(2014, 01, 10).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(100).setQty(1),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID1).setC_Period(year2014_p1).setDateAcct(2014, 01, 10).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctCr(40).setQty(2),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID1).setC_Period(year2014_p1).setDateAcct(2014, 01, 10).setAction(X_Fact_Acct_Log.ACTION_Delete).setAmtAcctDr(30).setQty(1),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID2).setC_Period(year2014_p1).setDateAcct(2014, 01, 10).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(7),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID1).setC_Period(year2014_p2).setDateAcct(2014, 02, 3).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(11).setAmtAcctCr(5),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID1).setC_Period(year2015_p1).setDateAcct(2015, 01, 20).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(1000),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID2).setC_Period(year2015_p1).setDateAcct(2015, 01, 20).setAction(X_Fact_Acct_Log.ACTION_Delete).setAmtAcctCr(3).setQty(4),
+				// backdated logs, i.e. before already logged DateAccts
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID1).setC_Period(year2014_p1).setDateAcct(2014, 01, 5).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctCr(200),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID1).setC_Period(year2015_p1).setDateAcct(2015, 01, 2).setAction(X_Fact_Acct_Log.ACTION_Delete).setAmtAcctDr(50).setQty(3),
+				log -> log.setC_ElementValue_ID(C_ElementValue_ID2).setC_Period(year2014_p2).setDateAcct(2014, 02, 28).setAction(X_Fact_Acct_Log.ACTION_Insert).setAmtAcctDr(13).setAmtAcctCr(1));
+
+		//
+		// Accounting schema 1: all logs processed together
+		final List<I_Fact_Acct_Log> logsAggregated = logs.stream()
+				.map(log -> log.apply(newFactAcctLogBuilder().setC_AcctSchema_ID(C_AcctSchema_ID1)).build())
+				.collect(ImmutableList.toImmutableList());
+		processAllLogs();
+
+		//
+		// Accounting schema 2: each log processed on its own
+		final List<I_Fact_Acct_Log> logsLogByLog = new ArrayList<>();
+		for (final Function<Fact_Acct_Log_Builder, Fact_Acct_Log_Builder> log : logs)
+		{
+			logsLogByLog.add(log.apply(newFactAcctLogBuilder().setC_AcctSchema_ID(C_AcctSchema_ID2)).build());
+			processAllLogs();
+		}
+
+		for (int i = 0; i < logs.size(); i++)
+		{
+			final List<String> summariesAggregated = retrieveAllFactAcctSummariesAsString(logsAggregated.get(i));
+			final List<String> summariesLogByLog = retrieveAllFactAcctSummariesAsString(logsLogByLog.get(i));
+
+			assertThat(summariesAggregated).isNotEmpty();
+			assertThat(summariesAggregated).as("summaries of log " + (i + 1)).isEqualTo(summariesLogByLog);
+		}
+	}
+
+	private List<String> retrieveAllFactAcctSummariesAsString(final I_Fact_Acct_Log log)
+	{
+		return retrieveAllFactAcctSummariesFor(FactAcctSummaryKey.of(log))
+				.stream()
+				.map(summary -> "DateAcct=" + summary.getDateAcct()
+						+ ", C_Period_ID=" + summary.getC_Period_ID()
+						+ ", C_Year_ID=" + summary.getC_Year_ID()
+						+ ", AmtAcctDr=" + summary.getAmtAcctDr().stripTrailingZeros().toPlainString()
+						+ ", AmtAcctCr=" + summary.getAmtAcctCr().stripTrailingZeros().toPlainString()
+						+ ", AmtAcctDr_YTD=" + summary.getAmtAcctDr_YTD().stripTrailingZeros().toPlainString()
+						+ ", AmtAcctCr_YTD=" + summary.getAmtAcctCr_YTD().stripTrailingZeros().toPlainString()
+						+ ", Qty=" + summary.getQty().stripTrailingZeros().toPlainString())
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private final Fact_Acct_Log_Builder newFactAcctLogBuilder()
 	{
 		return Fact_Acct_Log_Builder.newBuilder()
@@ -0,0 +1,133 @@
+package de.metas.acct.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.QueryBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_Product;
+import org.compiere.model.I_M_Product_Acct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.acct.api.AccountId;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.api.ProductAcctType;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ProductAcctDAOTest
+{
+	private final AcctSchemaId acctSchemaId = AcctSchemaId.ofRepoId(1);
+
+	private IQueryBL queryBL;
+	private ProductAcctDAO productAcctDAO;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		queryBL = spy(new QueryBL());
+		Services.registerService(IQueryBL.class, queryBL);
+
+		productAcctDAO = new ProductAcctDAO();
+	}
+
+	private ProductId createProduct(final boolean withAcct)
+	{
+		final I_M_Product product = newInstance(I_M_Product.class);
+		saveRecord(product);
+		final ProductId productId = ProductId.ofRepoId(product.getM_Product_ID());
+
+		if (withAcct)
+		{
+			final I_M_Product_Acct productAcct = newInstance(I_M_Product_Acct.class);
+			productAcct.setC_AcctSchema_ID(acctSchemaId.getRepoId());
+			productAcct.setM_Product_ID(productId.getRepoId());
+			productAcct.setP_Asset_Acct(1000 + productId.getRepoId());
+			saveRecord(productAcct);
+		}
+
+		return productId;
+	}
+
+	@Test
+	public void warmedUpProducts_areServedWithoutQueries()
+	{
+		// more products than the cache used to hold
+		final List<ProductId> productIdsWithAcct = new ArrayList<>();
+		for (int i = 1; i <= 150; i++)
+		{
+			productIdsWithAcct.add(createProduct(true));
+		}
+		final ProductId productIdWithoutAcct = createProduct(false);
+
+		final List<ProductId> allProductIds = new ArrayList<>(productIdsWithAcct);
+		allProductIds.add(productIdWithoutAcct);
+		productAcctDAO.warmUpCache(acctSchemaId, allProductIds);
+		verify(queryBL, times(1)).createQueryBuilderOutOfTrx(I_M_Product_Acct.class);
+
+		for (final ProductId productId : productIdsWithAcct)
+		{
+			assertThat(productAcctDAO.getProductAccount(acctSchemaId, productId, ProductAcctType.Asset))
+					.contains(AccountId.ofRepoId(1000 + productId.getRepoId()));
+		}
+		assertThat(productAcctDAO.getProductAccount(acctSchemaId, productIdWithoutAcct, ProductAcctType.Asset)).isEmpty();
+
+		verify(queryBL, times(1)).createQueryBuilderOutOfTrx(I_M_Product_Acct.class);
+	}
+
+	@Test
+	public void warmUpCache_alreadyCachedProducts_areNotLoadedAgain()
+	{
+		final ProductId productId = createProduct(true);
+
+		productAcctDAO.warmUpCache(acctSchemaId, ImmutableList.of(productId));
+		productAcctDAO.warmUpCache(acctSchemaId, ImmutableList.of(productId));
+
+		verify(queryBL, times(1)).createQueryBuilderOutOfTrx(I_M_Product_Acct.class);
+	}
+
+	@Test
+	public void retrieveProductAcctRecords()
+	{
+		final ProductId productId1 = createProduct(true);
+		final ProductId productId2 = createProduct(false);
+
+		assertThat(productAcctDAO.retrieveProductAcctRecords(acctSchemaId, ImmutableList.of(productId1, productId2)))
+				.containsOnlyKeys(productId1);
+	}
+}
@@ -0,0 +1,149 @@
+package de.metas.acct.doc;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Charge_Acct;
+import org.compiere.model.I_M_Product_Acct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.api.AccountId;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.api.ProductAcctType;
+import de.metas.costing.ChargeId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AcctDocCacheTest
+{
+	private final AcctSchemaId acctSchemaId = AcctSchemaId.ofRepoId(1);
+
+	private AcctDocRequiredServicesFacade services;
+	private AcctDocCache cache;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		services = mock(AcctDocRequiredServicesFacade.class);
+		cache = new AcctDocCache(services);
+	}
+
+	private static I_M_Product_Acct productAcct(final ProductId productId, final int assetAccountId)
+	{
+		final I_M_Product_Acct record = newInstance(I_M_Product_Acct.class);
+		record.setM_Product_ID(productId.getRepoId());
+		record.setP_Asset_Acct(assetAccountId);
+		return record;
+	}
+
+	private static I_C_Charge_Acct chargeAcct(final ChargeId chargeId, final AcctSchemaId acctSchemaId)
+	{
+		final I_C_Charge_Acct record = newInstance(I_C_Charge_Acct.class);
+		record.setC_Charge_ID(chargeId.getRepoId());
+		record.setC_AcctSchema_ID(acctSchemaId.getRepoId());
+		record.setCh_Expense_Acct(301);
+		record.setCh_Revenue_Acct(302);
+		return record;
+	}
+
+	/**
+	 * Simulates posting a document with many lines: the accounts are prefetched once, the lines shall not cause any more queries.
+	 */
+	@Test
+	public void multiLineDocument_noPerLineAccountQueries()
+	{
+		final ProductId productId1 = ProductId.ofRepoId(1);
+		final ProductId productId2 = ProductId.ofRepoId(2);
+		final ProductId productIdWithoutAcct = ProductId.ofRepoId(3);
+		final ChargeId chargeId = ChargeId.ofRepoId(10);
+		when(services.retrieveProductAcctRecords(any(AcctSchemaId.class), anyCollection()))
+				.thenReturn(ImmutableMap.of(productId1, productAcct(productId1, 101), productId2, productAcct(productId2, 102)));
+		when(services.retrieveChargeAccts(anyCollection(), anyCollection()))
+				.thenReturn(ImmutableList.of(chargeAcct(chargeId, acctSchemaId)));
+
+		final List<ProductId> lineProductIds = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			lineProductIds.add(ImmutableList.of(productId1, productId2, productIdWithoutAcct).get(i % 3));
+		}
+
+		cache.prefetchProductAccts(ImmutableSet.copyOf(lineProductIds), ImmutableSet.of(acctSchemaId));
+		cache.prefetchChargeAccts(ImmutableSet.of(chargeId), ImmutableSet.of(acctSchemaId));
+
+		for (final ProductId productId : lineProductIds)
+		{
+			final AccountId expectedAccountId = productId.equals(productId1) ? AccountId.ofRepoId(101)
+					: productId.equals(productId2) ? AccountId.ofRepoId(102)
+					: null;
+			assertThat(cache.getProductAccountId(productId, acctSchemaId, ProductAcctType.Asset).orElse(null)).isEqualTo(expectedAccountId);
+			assertThat(cache.getChargeAccountId(chargeId, acctSchemaId, BigDecimal.ONE)).contains(AccountId.ofRepoId(301));
+		}
+
+		verify(services, times(1)).retrieveProductAcctRecords(any(AcctSchemaId.class), anyCollection());
+		verify(services, times(1)).retrieveChargeAccts(anyCollection(), anyCollection());
+	}
+
+	@Test
+	public void getProductAccountId_notPrefetched_isLoadedOnce()
+	{
+		final ProductId productId = ProductId.ofRepoId(1);
+		when(services.retrieveProductAcctRecords(any(AcctSchemaId.class), anyCollection()))
+				.thenReturn(ImmutableMap.of(productId, productAcct(productId, 101)));
+
+		assertThat(cache.getProductAccountId(productId, acctSchemaId, ProductAcctType.Asset)).contains(AccountId.ofRepoId(101));
+		assertThat(cache.getProductAccountId(productId, acctSchemaId, ProductAcctType.Asset)).contains(AccountId.ofRepoId(101));
+		assertThat(cache.getProductAccountId(productId, acctSchemaId, ProductAcctType.Revenue)).isEmpty();
+
+		verify(services, times(1)).retrieveProductAcctRecords(any(AcctSchemaId.class), anyCollection());
+	}
+
+	@Test
+	public void getChargeAccountId_negativeAmount_isRevenue()
+	{
+		final ChargeId chargeId = ChargeId.ofRepoId(10);
+		when(services.retrieveChargeAccts(anyCollection(), anyCollection()))
+				.thenReturn(ImmutableList.of(chargeAcct(chargeId, acctSchemaId)));
+
+		assertThat(cache.getChargeAccountId(chargeId, acctSchemaId, BigDecimal.ONE.negate())).contains(AccountId.ofRepoId(302));
+		assertThat(cache.getChargeAccountId(chargeId, acctSchemaId, BigDecimal.ZERO)).contains(AccountId.ofRepoId(301));
+	}
+}
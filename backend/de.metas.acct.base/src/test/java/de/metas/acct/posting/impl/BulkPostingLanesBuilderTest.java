@@ -0,0 +1,94 @@
+package de.metas.acct.posting.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BulkPostingLanesBuilderTest
+{
+	private static TableRecordReference inout(final int id)
+	{
+		return TableRecordReference.of("M_InOut", id);
+	}
+
+	private static ImmutableSet<ProductId> products(final int... ids)
+	{
+		return Arrays.stream(ids).mapToObj(ProductId::ofRepoId).collect(ImmutableSet.toImmutableSet());
+	}
+
+	@Test
+	public void documentsWithoutCommonProducts_areInSeparateLanes()
+	{
+		final ImmutableList<BulkPostingLane> lanes = new BulkPostingLanesBuilder()
+				.addDocument(inout(1), products(10))
+				.addDocument(inout(2), products(20))
+				.addDocument(inout(3), products())
+				.build();
+
+		assertThat(lanes).hasSize(3);
+		assertThat(lanes).allSatisfy(lane -> assertThat(lane.size()).isEqualTo(1));
+	}
+
+	@Test
+	public void documentsSharingProducts_transitively_areInSameLane_keepingTheirOrder()
+	{
+		final ImmutableList<BulkPostingLane> lanes = new BulkPostingLanesBuilder()
+				.addDocument(inout(1), products(10))
+				.addDocument(inout(2), products(20))
+				.addDocument(inout(3), products(30))
+				.addDocument(inout(4), products(20, 30)) // joins lane of 2 and 3
+				.addDocument(inout(5), products(10))
+				.build();
+
+		assertThat(lanes).hasSize(2);
+
+		// biggest lane first
+		assertThat(lanes.get(0).getDocumentRefs()).containsExactly(inout(2), inout(3), inout(4));
+		assertThat(lanes.get(0).getProductIds()).isEqualTo(products(20, 30));
+
+		assertThat(lanes.get(1).getDocumentRefs()).containsExactly(inout(1), inout(5));
+		assertThat(lanes.get(1).getProductIds()).isEqualTo(products(10));
+	}
+
+	@Test
+	public void duplicateDocuments_arePostedOnce()
+	{
+		final ImmutableList<BulkPostingLane> lanes = new BulkPostingLanesBuilder()
+				.addDocument(inout(1), products(10))
+				.addDocument(inout(1), products(10))
+				.build();
+
+		assertThat(lanes).hasSize(1);
+		assertThat(lanes.get(0).getDocumentRefs()).containsExactly(inout(1));
+	}
+}
@@ -0,0 +1,164 @@
+package de.metas.acct.posting.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import de.metas.acct.api.IAcctSchemaDAO;
+import de.metas.acct.posting.BulkPostingRequest;
+import de.metas.acct.posting.BulkPostingResult;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BulkPostingServiceTest
+{
+	private ImmutableSetMultimap<TableRecordReference, ProductId> productIdsByDocumentRef;
+	private Queue<TableRecordReference> postedDocumentRefs;
+	private ImmutableSet<TableRecordReference> failingDocumentRefs;
+
+	private BulkPostingService bulkPostingService;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		// no accounting schemas, so nothing to warm up
+		Services.registerService(IAcctSchemaDAO.class, mock(IAcctSchemaDAO.class));
+
+		productIdsByDocumentRef = ImmutableSetMultimap.of();
+		postedDocumentRefs = new ConcurrentLinkedQueue<>();
+		failingDocumentRefs = ImmutableSet.of();
+
+		bulkPostingService = new BulkPostingService(
+				documentRefs -> productIdsByDocumentRef,
+				(request, documentRef) -> {
+					if (failingDocumentRefs.contains(documentRef))
+					{
+						throw new AdempiereException("failing on purpose: " + documentRef);
+					}
+					postedDocumentRefs.add(documentRef);
+				});
+	}
+
+	private static TableRecordReference inout(final int id)
+	{
+		return TableRecordReference.of("M_InOut", id);
+	}
+
+	private static ProductId product(final int id)
+	{
+		return ProductId.ofRepoId(id);
+	}
+
+	private List<TableRecordReference> postedDocumentRefsAmong(final TableRecordReference... documentRefs)
+	{
+		final ImmutableSet<TableRecordReference> documentRefsSet = ImmutableSet.copyOf(documentRefs);
+		return postedDocumentRefs.stream()
+				.filter(documentRefsSet::contains)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void emptyRequest()
+	{
+		final BulkPostingResult result = bulkPostingService.post(BulkPostingRequest.builder()
+				.clientId(ClientId.METASFRESH)
+				.build());
+
+		assertThat(result.getCountTotal()).isZero();
+		assertThat(postedDocumentRefs).isEmpty();
+	}
+
+	@Test
+	public void allDocumentsArePosted_keepingTheOrderWithinLanes()
+	{
+		productIdsByDocumentRef = ImmutableSetMultimap.<TableRecordReference, ProductId> builder()
+				.put(inout(1), product(10))
+				.put(inout(2), product(20))
+				.put(inout(3), product(30))
+				.putAll(inout(4), product(20), product(30))
+				.put(inout(5), product(10))
+				.build();
+
+		final BulkPostingResult result = bulkPostingService.post(BulkPostingRequest.builder()
+				.clientId(ClientId.METASFRESH)
+				.documentRef(inout(1))
+				.documentRef(inout(2))
+				.documentRef(inout(3))
+				.documentRef(inout(4))
+				.documentRef(inout(5))
+				.documentRef(inout(6)) // no products
+				.parallelism(2)
+				.build());
+
+		assertThat(result.getCountTotal()).isEqualTo(6);
+		assertThat(result.getCountPosted()).isEqualTo(6);
+		assertThat(result.getCountFailed()).isZero();
+		assertThat(result.getLanesCount()).isEqualTo(3);
+
+		assertThat(postedDocumentRefs).containsOnly(inout(1), inout(2), inout(3), inout(4), inout(5), inout(6));
+		assertThat(postedDocumentRefsAmong(inout(2), inout(3), inout(4))).containsExactly(inout(2), inout(3), inout(4));
+		assertThat(postedDocumentRefsAmong(inout(1), inout(5))).containsExactly(inout(1), inout(5));
+	}
+
+	@Test
+	public void failingDocument_doesNotStopItsLane()
+	{
+		productIdsByDocumentRef = ImmutableSetMultimap.<TableRecordReference, ProductId> builder()
+				.put(inout(1), product(10))
+				.put(inout(2), product(10))
+				.put(inout(3), product(10))
+				.build();
+		failingDocumentRefs = ImmutableSet.of(inout(2));
+
+		final BulkPostingResult result = bulkPostingService.post(BulkPostingRequest.builder()
+				.clientId(ClientId.METASFRESH)
+				.documentRef(inout(1))
+				.documentRef(inout(2))
+				.documentRef(inout(3))
+				.build());
+
+		assertThat(result.getCountTotal()).isEqualTo(3);
+		assertThat(result.getCountPosted()).isEqualTo(2);
+		assertThat(result.getCountFailed()).isEqualTo(1);
+		assertThat(result.getLanesCount()).isEqualTo(1);
+		assertThat(postedDocumentRefs).containsExactly(inout(1), inout(3));
+	}
+}
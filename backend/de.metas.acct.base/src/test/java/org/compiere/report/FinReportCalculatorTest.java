@@ -0,0 +1,116 @@
+package org.compiere.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.compiere.report.FinReportCalculator.ColumnCalculation;
+import org.compiere.report.FinReportCalculator.ColumnCalculationType;
+import org.compiere.report.FinReportCalculator.LineCalculation;
+import org.compiere.report.FinReportCalculator.LineCalculationType;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class FinReportCalculatorTest
+{
+	@Test
+	public void divide_sameScaleAsPostgreSQL()
+	{
+		// SELECT 1::numeric/3 => 0.33333333333333333333
+		assertThat(FinReportCalculator.divide(new BigDecimal("1"), new BigDecimal("3"))).isEqualByComparingTo("0.33333333333333333333");
+		assertThat(FinReportCalculator.divide(new BigDecimal("1"), new BigDecimal("3")).scale()).isEqualTo(20);
+
+		// SELECT 100.00::numeric/7 => 14.2857142857142857
+		assertThat(FinReportCalculator.divide(new BigDecimal("100.00"), new BigDecimal("7")).toPlainString()).isEqualTo("14.2857142857142857");
+
+		// SELECT 12345678::numeric/2 => 6172839.000000000000
+		assertThat(FinReportCalculator.divide(new BigDecimal("12345678"), new BigDecimal("2")).toPlainString()).isEqualTo("6172839.000000000000");
+	}
+
+	@Test
+	public void lineCalculations()
+	{
+		final Map<Integer, BigDecimal[]> rows = new LinkedHashMap<>();
+		rows.put(1, new BigDecimal[] { new BigDecimal("10"), null });
+		rows.put(2, new BigDecimal[] { new BigDecimal("5.50"), new BigDecimal("4") });
+		rows.put(10, new BigDecimal[2]);
+		rows.put(11, new BigDecimal[2]);
+		rows.put(12, new BigDecimal[2]);
+
+		FinReportCalculator.builder()
+				.columnsCount(2)
+				.lineCalculation(LineCalculation.builder().reportLineId(10).type(LineCalculationType.ADD).operand1LineId(1).operand1LineId(2).operand1LineId(999).build())
+				.lineCalculation(LineCalculation.builder().reportLineId(11).type(LineCalculationType.SUBTRACT).operand1LineId(1).operand2LineId(2).build())
+				.lineCalculation(LineCalculation.builder().reportLineId(12).type(LineCalculationType.PERCENT).operand1LineId(2).operand2LineId(1).build())
+				.build()
+				.calculate(rows);
+
+		assertThat(rows.get(10)).containsExactly(new BigDecimal("15.50"), new BigDecimal("4"));
+		assertThat(rows.get(11)).containsExactly(new BigDecimal("4.50"), new BigDecimal("-4"));
+		assertThat(rows.get(12)[0]).isEqualByComparingTo("55");
+		assertThat(rows.get(12)[1]).isNull(); // divide by null
+	}
+
+	@Test
+	public void lineCalculation_missingOperandRow()
+	{
+		final Map<Integer, BigDecimal[]> rows = new LinkedHashMap<>();
+		rows.put(1, new BigDecimal[] { new BigDecimal("10") });
+		rows.put(10, new BigDecimal[1]);
+
+		FinReportCalculator.builder()
+				.columnsCount(1)
+				.lineCalculation(LineCalculation.builder().reportLineId(10).type(LineCalculationType.SUBTRACT).operand1LineId(1).operand2LineId(2).build())
+				.build()
+				.calculate(rows);
+
+		assertThat(rows.get(10)).containsExactly((BigDecimal)null);
+	}
+
+	@Test
+	public void columnCalculations()
+	{
+		final Map<Integer, BigDecimal[]> rows = new LinkedHashMap<>();
+		rows.put(1, new BigDecimal[] { new BigDecimal("10"), new BigDecimal("2"), null, null, null });
+		rows.put(2, new BigDecimal[] { null, BigDecimal.ZERO, null, null, null });
+
+		FinReportCalculator.builder()
+				.columnsCount(5)
+				.columnCalculation(ColumnCalculation.builder().columnIndex(2).type(ColumnCalculationType.SUBTRACT).operand1ColumnIndex(0).operand2ColumnIndex(1).build())
+				.columnCalculation(ColumnCalculation.builder().columnIndex(3).type(ColumnCalculationType.PERCENT).operand1ColumnIndex(1).operand2ColumnIndex(0).build())
+				.columnCalculation(ColumnCalculation.builder().columnIndex(4).type(ColumnCalculationType.RANGE).operand1ColumnIndex(0).operand2ColumnIndex(2).build())
+				.build()
+				.calculate(rows);
+
+		assertThat(rows.get(1)[2]).isEqualByComparingTo("8");
+		assertThat(rows.get(1)[3]).isEqualByComparingTo("20");
+		assertThat(rows.get(1)[4]).isEqualByComparingTo("20");
+
+		assertThat(rows.get(2)[2]).isEqualByComparingTo("0");
+		assertThat(rows.get(2)[3]).isNull();
+		assertThat(rows.get(2)[4]).isEqualByComparingTo("0");
+	}
+}
@@ -45,6 +45,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.compiere.Adempiere;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
@@ -162,6 +163,12 @@ public abstract class AbstractExcelExporter
 		this.constants = ExcelExportConstants.givenOrDefault(constants);
 
 		workbook = this.excelFormat.createWorkbook(this.constants.isUseStreamingWorkbookImplementation());
+		if (workbook instanceof SXSSFWorkbook)
+		{
+			final SXSSFWorkbook streamingWorkbook = (SXSSFWorkbook)workbook;
+			streamingWorkbook.setRandomAccessWindowSize(Math.max(this.constants.getStreamingWorkbookRowAccessWindowSize(), 1));
+			streamingWorkbook.setCompressTempFiles(true);
+		}
 		dataFormat = workbook.createDataFormat();
 
 	}
@@ -414,14 +421,6 @@ public abstract class AbstractExcelExporter
 
 	private void autoSizeColumnsWidth(final Sheet sheet, final int lastColumnIndex)
 	{
-		// #5922
-		// This is needed since we changed from 'poi.version 3.12' to 'poi.version 3.15'.
-		if (sheet instanceof SXSSFSheet)
-		{
-			final SXSSFSheet sxssfSheet = (SXSSFSheet)sheet;
-			sxssfSheet.trackAllColumnsForAutoSizing();
-		}
-
 		final int maxRowsToAllowCellWidthAutoSize = constants.getMaxRowsToAllowCellWidthAutoSize();
 		if (maxRowsToAllowCellWidthAutoSize <= 0
 				|| maxRowsToAllowCellWidthAutoSize < sheet.getLastRowNum())
@@ -429,6 +428,13 @@ public abstract class AbstractExcelExporter
 			return;
 		}
 
+		// a streaming sheet can only auto size the columns it tracked while the rows were written (see createTableSheet())
+		if (sheet instanceof SXSSFSheet
+				&& ((SXSSFSheet)sheet).getTrackedColumnsForAutoSizing().isEmpty())
+		{
+			return;
+		}
+
 		for (int colnum = 0; colnum < lastColumnIndex; colnum++)
 		{
 			sheet.autoSizeColumn(colnum);
@@ -467,6 +473,15 @@ public abstract class AbstractExcelExporter
 	private Sheet createTableSheet()
 	{
 		final Sheet sheet = getWorkbook().createSheet();
+
+		// #5922
+		// This is needed since we changed from 'poi.version 3.12' to 'poi.version 3.15'.
+		// NOTE: a streaming sheet flushes its rows, so the columns have to be tracked from the very first row on.
+		if (sheet instanceof SXSSFSheet && constants.getMaxRowsToAllowCellWidthAutoSize() > 0)
+		{
+			((SXSSFSheet)sheet).trackAllColumnsForAutoSizing();
+		}
+
 		formatPage(sheet);
 		createHeaderFooter(sheet);
 		createTableHeader(sheet);
@@ -547,9 +562,36 @@ public abstract class AbstractExcelExporter
 	 */
 	public final void export(@NonNull final OutputStream out) throws IOException
 	{
-		Workbook workbook = exportToWorkbook();
-		workbook.write(out);
-		out.close();
+		try
+		{
+			final Workbook workbook = exportToWorkbook();
+			workbook.write(out);
+			out.close();
+		}
+		finally
+		{
+			disposeTemporaryFiles();
+		}
+	}
+
+	private void disposeTemporaryFiles()
+	{
+		if (workbook instanceof SXSSFWorkbook)
+		{
+			((SXSSFWorkbook)workbook).dispose();
+		}
+	}
+
+	/**
+	 * Tracking the columns of a streaming sheet for auto sizing is expensive, so we stop doing it as soon as we know that the columns won't be auto sized anyway.
+	 */
+	private void stopTrackingColumnsForAutoSizingIfNeeded(final Sheet sheet, final int xls_rownum)
+	{
+		if (sheet instanceof SXSSFSheet
+				&& xls_rownum == constants.getMaxRowsToAllowCellWidthAutoSize() + 1)
+		{
+			((SXSSFSheet)sheet).untrackAllColumnsForAutoSizing();
+		}
 	}
 
 	@VisibleForTesting
@@ -565,6 +607,7 @@ public abstract class AbstractExcelExporter
 		while (hasNextRow())
 		{
 			boolean isPageBreak = false;
+			stopTrackingColumnsForAutoSizingIfNeeded(currentSheet, xls_rownum);
 			final Row excelRow = currentSheet.createRow(xls_rownum);
 
 			final List<CellValue> sourceRow = getNextRow();
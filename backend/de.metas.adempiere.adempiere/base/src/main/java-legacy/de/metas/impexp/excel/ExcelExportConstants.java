@@ -34,7 +34,7 @@ import lombok.Value;
  */
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class ExcelExportConstants
 {
 	public static ExcelExportConstants givenOrDefault(@Nullable final ExcelExportConstants constants)
@@ -49,12 +49,14 @@ public class ExcelExportConstants
 		return ExcelExportConstants.builder()
 				.maxRowsToAllowCellWidthAutoSize(sysconfigs.getIntValue(SYSCONFIG_MaxRowsToAllowCellWidthAutoSize, DEFAULT_MaxRowsToAllowCellWidthAutoSize))
 				.useStreamingWorkbookImplementation(sysconfigs.getBooleanValue(SYSCONFIG_UseStreamingWorkbookImplementation, DEFAULT_UseStreamingWorkbookImplementation))
+				.streamingWorkbookRowAccessWindowSize(sysconfigs.getIntValue(SYSCONFIG_StreamingWorkbookRowAccessWindowSize, DEFAULT_StreamingWorkbookRowAccessWindowSize))
 				.allRowsPageSize(sysconfigs.getIntValue(SYSCONFIG_ALL_ROWS_PAGE_SIZE, DEFAULT_ALL_ROWS_PAGE_SIZE))
 				.build();
 	}
 
 	private static final String SYSCONFIG_MaxRowsToAllowCellWidthAutoSize = "de.metas.excel.MaxRowsToAllowCellWidthAutoSize";
 	private static final String SYSCONFIG_UseStreamingWorkbookImplementation = "de.metas.excel.UseStreamingWorkbookImplementation";
+	private static final String SYSCONFIG_StreamingWorkbookRowAccessWindowSize = "de.metas.excel.StreamingWorkbookRowAccessWindowSize";
 	private static final String SYSCONFIG_ALL_ROWS_PAGE_SIZE = "de.metas.excel.ViewExcelExporter.AllRowsPageSize";
 
 	public static final int DEFAULT_MaxRowsToAllowCellWidthAutoSize = 100_000;
@@ -64,6 +66,11 @@ public class ExcelExportConstants
 	public static final boolean DEFAULT_UseStreamingWorkbookImplementation = false;
 	private boolean useStreamingWorkbookImplementation;
 
+	/** How many rows are kept in memory when using the streaming workbook implementation; the older rows are flushed to a temporary file */
+	public static final int DEFAULT_StreamingWorkbookRowAccessWindowSize = 100;
+	@Default
+	private int streamingWorkbookRowAccessWindowSize = DEFAULT_StreamingWorkbookRowAccessWindowSize;
+
 	public static final int DEFAULT_ALL_ROWS_PAGE_SIZE = 10000;
 	@Default
 	private int allRowsPageSize = DEFAULT_ALL_ROWS_PAGE_SIZE;
@@ -24,6 +24,7 @@ import java.util.Set;
 
 import org.adempiere.ad.persistence.IModelClassInfo;
 import org.adempiere.ad.persistence.IModelInternalAccessor;
+import org.adempiere.ad.persistence.IModelMethodInfo;
 import org.adempiere.ad.persistence.ModelClassIntrospector;
 import org.adempiere.ad.persistence.TableModelLoader;
 import org.adempiere.ad.persistence.exceptions.ModelClassNotSupportedException;
@@ -148,9 +149,18 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 			}
 		}
 
+		final POWrapper poWrapper = new POWrapper(cl, po, useOldValuesEffective, trlAdLanguageEffective);
+
+		// Use the generated model class if available, because it's much faster than the proxy
+		final T adapter = POWrapperAdapters.createAdapterOrNull(cl, poWrapper);
+		if (adapter != null)
+		{
+			return adapter;
+		}
+
 		return (T)Proxy.newProxyInstance(cl.getClassLoader(),
 				new Class<?>[] { cl },
-				new POWrapper(cl, po, useOldValuesEffective, trlAdLanguageEffective));
+				poWrapper);
 	}
 
 	/**
@@ -319,6 +329,12 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 			return (T)model;
 		}
 
+		final POWrapper adapterWrapper = POWrapperAdapters.getPOWrapperOrNull(model);
+		if (adapterWrapper != null)
+		{
+			return (T)adapterWrapper.getPO();
+		}
+
 		if (Proxy.isProxyClass(model.getClass()))
 		{
 			final InvocationHandler ih = Proxy.getInvocationHandler(model);
@@ -339,6 +355,12 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 
 	private static final POWrapper getPOWrapperOrNull(final Object model)
 	{
+		final POWrapper adapterWrapper = POWrapperAdapters.getPOWrapperOrNull(model);
+		if (adapterWrapper != null)
+		{
+			return adapterWrapper;
+		}
+
 		if (Proxy.isProxyClass(model.getClass()))
 		{
 			final InvocationHandler ih = Proxy.getInvocationHandler(model);
@@ -700,6 +722,25 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 		return modelClassInfo.getMethodInfo(method).invoke(modelInternalAccessor, args);
 	}
 
+	/**
+	 * Invokes the given method info directly. Called by the classes generated by {@link POWrapperAdapters}.
+	 */
+	public Object invoke(final IModelMethodInfo methodInfo, final Object[] args)
+	{
+		try
+		{
+			return methodInfo.invoke(modelInternalAccessor, args);
+		}
+		catch (final RuntimeException ex)
+		{
+			throw ex;
+		}
+		catch (final Exception ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
 	/**
 	 * Load object that is referenced by given property. Example: getReferencedObject("M_Product_ID", method) should load the M_Product record with ID given by M_Product_ID property name;
 	 *
@@ -304,6 +304,11 @@ public abstract class PO
 	private Object[] m_newValues = null;
 	/** Flag to mark that a value was loaded */
 	private boolean[] m_valueLoaded = null;
+	/**
+	 * If true, {@link #m_oldValues} and {@link #m_valueLoaded} are shared with other copies of this PO (see {@link #copy()}),
+	 * so they need to be copied before changing them.
+	 */
+	private boolean m_oldValuesShared = false;
 	/** Counts how many times this object was loaded/reloaded */
 	private int m_loadCount = 0;
 
@@ -1904,6 +1909,8 @@ public abstract class PO
 
 	private final boolean loadColumn(final int index, final ResultSet rs)
 	{
+		unshareOldValues();
+
 		boolean success = true;
 		final String columnName = p_info.getColumnName(index);
 		final Class<?> clazz = p_info.getColumnClass(index);
@@ -2020,6 +2027,7 @@ public abstract class PO
 		boolean success = true;
 		int index = 0;
 		log.trace("Loading from HashMap");
+		unshareOldValues();
 		// load column values
 		for (index = 0; index < size; index++)
 		{
@@ -3092,6 +3100,7 @@ public abstract class PO
 
 			//
 			// Copy New to Old values
+			unshareOldValues();
 			for (int i = 0; i < columnsCount; i++)
 			{
 				if (m_newValues[i] != null)
@@ -3113,6 +3122,7 @@ public abstract class PO
 		// Mark columns as loaded
 		if (success && newRecord)
 		{
+			unshareOldValues();
 			for (int i = 0; i < columnsCount; i++)
 			{
 				// Skip virtual columns, those need to be loaded for sure
@@ -4228,6 +4238,7 @@ public abstract class PO
 			m_oldValues = new Object[size];
 			m_newValues = new Object[size];
 			m_valueLoaded = new boolean[size]; // metas
+			m_oldValuesShared = false;
 			m_stale = false; // metas: 01537
 			m_idOld = 0;
 		}
@@ -5444,7 +5455,8 @@ public abstract class PO
 		poCopy.m_wasJustCreated = this.m_wasJustCreated;
 		poCopy.m_idOld = this.m_idOld;
 		poCopy.m_IDs = this.m_IDs == null ? null : Arrays.copyOf(this.m_IDs, this.m_IDs.length);
-		poCopy.m_oldValues = this.m_oldValues == null ? null : Arrays.copyOf(this.m_oldValues, this.m_oldValues.length);
+		// NOTE: old values are copied on write (see unshareOldValues()), because most copies (e.g. from model cache) are only read
+		poCopy.m_oldValues = this.m_oldValues;
 		poCopy.m_newValues = this.m_newValues == null ? null : Arrays.copyOf(this.m_newValues, this.m_newValues.length);
 		poCopy.m_KeyColumns = this.m_KeyColumns == null ? null : Arrays.copyOf(this.m_KeyColumns, this.m_KeyColumns.length);
 		// m_currentChangeType : int
@@ -5458,7 +5470,9 @@ public abstract class PO
 		poCopy.m_poCacheLocals = null; // don't copy the cache locals for now
 		poCopy.m_stale = this.m_stale;
 		poCopy.m_translations = m_translations;
-		poCopy.m_valueLoaded = this.m_valueLoaded == null ? null : Arrays.copyOf(this.m_valueLoaded, this.m_valueLoaded.length);
+		poCopy.m_valueLoaded = this.m_valueLoaded;
+		this.m_oldValuesShared = true;
+		poCopy.m_oldValuesShared = true;
 		poCopy.markedChangedColumns = this.markedChangedColumns == null ? null : new HashSet<>(this.markedChangedColumns);
 
 		//
@@ -5470,6 +5484,21 @@ public abstract class PO
 		return poCopy;
 	}
 
+	/**
+	 * Makes sure {@link #m_oldValues} and {@link #m_valueLoaded} are not shared with other copies of this PO, so they can be changed.
+	 */
+	private void unshareOldValues()
+	{
+		if (!m_oldValuesShared)
+		{
+			return;
+		}
+
+		m_oldValues = m_oldValues == null ? null : Arrays.copyOf(m_oldValues, m_oldValues.length);
+		m_valueLoaded = m_valueLoaded == null ? null : Arrays.copyOf(m_valueLoaded, m_valueLoaded.length);
+		m_oldValuesShared = false;
+	}
+
 	/**
 	 *
 	 * @return how many times this object was loaded/reloaded
@@ -13,15 +13,20 @@ import org.adempiere.util.proxy.Cached;
 import org.compiere.model.I_C_ValidCombination;
 import org.compiere.model.MAccount;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.acct.api.AccountDimension;
 import de.metas.acct.api.AccountId;
+import de.metas.acct.api.AcctSchemaId;
 import de.metas.acct.api.IAccountDAO;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -68,6 +73,13 @@ public class AccountDAO implements IAccountDAO
 			.put(AcctSegmentType.UserElement2, I_C_ValidCombination.COLUMN_UserElement2_ID)
 			.build();
 
+	/** Index of valid combinations by the dimensions tuple they were searched with */
+	private final CCache<ValidCombinationKey, Integer> validCombinationIdsByKey = CCache.<ValidCombinationKey, Integer> builder()
+			.tableName(I_C_ValidCombination.Table_Name)
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(10000)
+			.build();
+
 	@Override
 	@Cached(cacheName = MAccount.Table_Name)
 	public MAccount getById(@CacheCtx final Properties ctx, final int validCombinationId)
@@ -89,6 +101,24 @@ public class AccountDAO implements IAccountDAO
 
 	@Override
 	public MAccount retrieveAccount(final Properties ctx, final AccountDimension dimension)
+	{
+		final ValidCombinationKey key = ValidCombinationKey.of(dimension);
+		final Integer validCombinationId = validCombinationIdsByKey.get(key);
+		if (validCombinationId != null)
+		{
+			return getById(ctx, validCombinationId);
+		}
+
+		final MAccount account = retrieveAccountFromDB(ctx, dimension);
+		if (account != null)
+		{
+			// NOTE: we are not caching the "not found" case, because the caller will usually create the account right away
+			validCombinationIdsByKey.put(key, account.getC_ValidCombination_ID());
+		}
+		return account;
+	}
+
+	private MAccount retrieveAccountFromDB(final Properties ctx, final AccountDimension dimension)
 	{
 		final IQueryBL queryBL = Services.get(IQueryBL.class);
 		final IQueryBuilder<I_C_ValidCombination> queryBuilder = queryBL.createQueryBuilder(I_C_ValidCombination.class, ctx, ITrx.TRXNAME_None)
@@ -124,4 +154,24 @@ public class AccountDAO implements IAccountDAO
 		final I_C_ValidCombination existingAccount = queryBuilder.create().firstOnly(I_C_ValidCombination.class);
 		return LegacyAdapters.convertToPO(existingAccount);
 	}
+
+	/**
+	 * The dimensions tuple, as used by {@link #retrieveAccountFromDB(Properties, AccountDimension)}, i.e. without alias and with all "not set" values as zero.
+	 */
+	@Value
+	private static class ValidCombinationKey
+	{
+		AcctSchemaId acctSchemaId;
+		ImmutableList<Integer> segmentValues;
+
+		public static ValidCombinationKey of(@NonNull final AccountDimension dimension)
+		{
+			final ImmutableList<Integer> segmentValues = segmentType2column.keySet()
+					.stream()
+					.map(segmentType -> Math.max(dimension.getSegmentValue(segmentType), 0))
+					.collect(ImmutableList.toImmutableList());
+
+			return new ValidCombinationKey(dimension.getAcctSchemaId(), segmentValues);
+		}
+	}
 }
@@ -6,6 +6,7 @@ import java.util.Set;
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import de.metas.cache.interceptor.CacheInterceptor;
 import de.metas.logging.LogManager;
 
 /**
@@ -101,4 +102,16 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return getCacheMgt().reset(tableName, recordId);
 	}
 
+	@Override
+	public String[] getCachedMethodStats()
+	{
+		return CacheInterceptor.getCachedMethodStats().toArray(new String[0]);
+	}
+
+	@Override
+	public void resetCachedMethodStats()
+	{
+		CacheInterceptor.resetCachedMethodStats();
+	}
+
 }
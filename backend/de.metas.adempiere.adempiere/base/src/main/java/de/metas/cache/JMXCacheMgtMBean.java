@@ -25,4 +25,9 @@ public interface JMXCacheMgtMBean
 	long resetForTable(String tableName);
 
 	long resetForRecordId(String tableName, int recordId);
+
+	/** @return hit/miss/load time statistics of the @Cached methods */
+	String[] getCachedMethodStats();
+
+	void resetCachedMethodStats();
 }
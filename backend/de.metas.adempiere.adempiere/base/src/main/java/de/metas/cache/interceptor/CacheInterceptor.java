@@ -26,6 +26,10 @@ package de.metas.cache.interceptor;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -42,8 +46,7 @@ import org.slf4j.Logger;
 import com.google.common.base.Supplier;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 
 import de.metas.cache.CCache;
 import de.metas.logging.LogManager;
@@ -114,24 +117,8 @@ class CacheInterceptor implements Serializable
 	private static final transient Logger logger = LogManager.getLogger(CacheInterceptor.class);
 	private final transient ITrxManager trxManager = Services.get(ITrxManager.class);
 
-	private static final LoadingCache<Method, CachedMethodDescriptor> cachedMethodsDescriptor = CacheBuilder.newBuilder()
-			.build(new CacheLoader<Method, CachedMethodDescriptor>()
-			{
-
-				@Override
-				public CachedMethodDescriptor load(final Method method) throws Exception
-				{
-					try
-					{
-						return new CachedMethodDescriptor(method);
-					}
-					catch (Exception e)
-					{
-						throw CacheIntrospectionException.wrapIfNeeded(e)
-								.setMethod(method);
-					}
-				}
-			});
+	/** Method descriptors, built once per cached method */
+	private static final ConcurrentHashMap<Method, CachedMethodDescriptor> cachedMethodsDescriptor = new ConcurrentHashMap<>();
 
 	private static final CacheBuilder<Object, Object> _cacheStorageBuilder = CacheBuilder.newBuilder();
 	private final Cache<String, CCache<ArrayKey, Object>> _cacheStorage = _cacheStorageBuilder.build();
@@ -177,7 +164,7 @@ class CacheInterceptor implements Serializable
 		final CachedMethodDescriptor methodDescriptor;
 		try
 		{
-			methodDescriptor = cachedMethodsDescriptor.get(method);
+			methodDescriptor = getCachedMethodDescriptor(method);
 		}
 		catch (Exception e)
 		{
@@ -232,21 +219,60 @@ class CacheInterceptor implements Serializable
 
 		//
 		// Get method's cached value / update method's cached value
+		final CachedMethodStats stats = methodDescriptor.getStats();
+		stats.recordRequest();
+		final Callable<Object> loader = () -> stats.load(invCtx);
 		final Object cacheResult;
 		if (cacheKeyBuilder.isCacheReload())
 		{
-			cacheResult = invCtx.call();
+			cacheResult = loader.call();
 			methodCache.put(cacheKey, cacheResult);
 		}
 		else
 		{
-			cacheResult = methodCache.get(cacheKey, invCtx);
+			cacheResult = methodCache.get(cacheKey, loader);
 		}
 
 		// Unbox the NullResult and return the cached value
 		return cacheResult == IInvocationContext.NullResult ? null : cacheResult;
 	}
 
+	private static CachedMethodDescriptor getCachedMethodDescriptor(final Method method)
+	{
+		return cachedMethodsDescriptor.computeIfAbsent(method, CacheInterceptor::createCachedMethodDescriptor);
+	}
+
+	private static CachedMethodDescriptor createCachedMethodDescriptor(final Method method)
+	{
+		try
+		{
+			return new CachedMethodDescriptor(method);
+		}
+		catch (final Exception e)
+		{
+			throw CacheIntrospectionException.wrapIfNeeded(e)
+					.setMethod(method);
+		}
+	}
+
+	/**
+	 * @return hit/miss/load time statistics of all cached methods which were invoked so far, the most expensive ones first
+	 */
+	public static List<String> getCachedMethodStats()
+	{
+		return cachedMethodsDescriptor.values()
+				.stream()
+				.map(CachedMethodDescriptor::getStats)
+				.sorted(Comparator.comparing(CachedMethodStats::getLoadNanos).reversed())
+				.map(CachedMethodStats::toString)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public static void resetCachedMethodStats()
+	{
+		cachedMethodsDescriptor.values().forEach(methodDescriptor -> methodDescriptor.getStats().reset());
+	}
+
 	/**
 	 * @param trxName
 	 * @return cache storage or null if not found
@@ -23,11 +23,9 @@ package de.metas.cache.interceptor;
  */
 
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.adempiere.util.lang.ObjectUtils;
-import org.compiere.util.Util;
 import org.compiere.util.Util.ArrayKey;
 
 /**
@@ -39,7 +37,8 @@ import org.compiere.util.Util.ArrayKey;
  */
 final class CacheKeyBuilder
 {
-	private final List<Object> keyParts = new ArrayList<>();
+	private Object[] keyParts;
+	private int keyPartsCount = 0;
 	private String trxName;
 	private boolean skipCaching;
 	private boolean cacheReload = false;
@@ -50,14 +49,27 @@ final class CacheKeyBuilder
 		return ObjectUtils.toString(this);
 	}
 
+	/**
+	 * @param expectedKeyPartsCount how many key parts are expected to be added; used to avoid copying the key parts when building the key
+	 */
+	CacheKeyBuilder(final int expectedKeyPartsCount)
+	{
+		keyParts = new Object[Math.max(expectedKeyPartsCount, 1)];
+	}
+
 	public final ArrayKey buildKey()
 	{
-		return Util.mkKey(keyParts.toArray());
+		final Object[] keyPartsToUse = keyPartsCount == keyParts.length ? keyParts : Arrays.copyOf(keyParts, keyPartsCount);
+		return ArrayKey.of(keyPartsToUse);
 	}
 
 	public void add(final Object keyPart)
 	{
-		keyParts.add(keyPart);
+		if (keyPartsCount >= keyParts.length)
+		{
+			keyParts = Arrays.copyOf(keyParts, keyParts.length * 2);
+		}
+		keyParts[keyPartsCount++] = keyPart;
 	}
 
 	public void setTrxName(String trxName)
@@ -58,7 +58,10 @@ import de.metas.util.Check;
 	private final Cached cachedAnnotation;
 	private final boolean staticMethod;
 	private final String cacheName;
+	/** Method signature, as the first cache key part */
+	private final String methodKey;
 	private final List<ICachedMethodPartDescriptor> descriptors;
+	private final CachedMethodStats stats;
 	
 	private final Callable<CCache<ArrayKey, Object>> createCCacheCallable = new Callable<CCache<ArrayKey,Object>>()
 	{
@@ -81,6 +84,10 @@ import de.metas.util.Check;
 
 		cacheName = mkCacheName(cachedAnnotation);
 
+		// NOTE: avoid adding Class/Field/Method etc to key => would lead to ClassLoader(s) memory leaks/fucked-up
+		methodKey = method.getDeclaringClass().getName() + "#" + method.getName() + "#" + method.getReturnType().getName();
+		stats = new CachedMethodStats(method.getDeclaringClass().getSimpleName() + "." + method.getName() + " (" + cacheName + ")");
+
 		final Builder<ICachedMethodPartDescriptor> descriptorsBuilder = ImmutableList.<ICachedMethodPartDescriptor> builder();
 
 		//
@@ -255,14 +262,11 @@ import de.metas.util.Check;
 		final Class<?> methodDeclaringClass = method.getDeclaringClass();
 		final Object targetObjToUse = staticMethod ? methodDeclaringClass : targetObject;
 
-		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder();
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(1 + descriptors.size());
 
 		//
 		// Key: Method signature
-		// NOTE: avoid adding Class/Field/Method etc to key => would lead to ClassLoader(s) memory leaks/fucked-up
-		keyBuilder.add(methodDeclaringClass.getName());
-		keyBuilder.add(method.getName());
-		keyBuilder.add(method.getReturnType().getName());
+		keyBuilder.add(methodKey);
 
 		for (final ICachedMethodPartDescriptor descriptor : descriptors)
 		{
@@ -276,6 +280,11 @@ import de.metas.util.Check;
 		return keyBuilder;
 	}
 	
+	public CachedMethodStats getStats()
+	{
+		return stats;
+	}
+
 	/**
 	 * Creates a new {@link CCache} based on given {@link CachedMethodDescriptor}.
 	 * 
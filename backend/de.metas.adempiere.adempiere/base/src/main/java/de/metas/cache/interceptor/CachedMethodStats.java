@@ -0,0 +1,95 @@
+package de.metas.cache.interceptor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hit/miss/load time statistics of one {@link org.adempiere.util.proxy.Cached} method.
+ */
+final class CachedMethodStats
+{
+	private final String methodName;
+
+	private final LongAdder requestsCount = new LongAdder();
+	private final LongAdder loadsCount = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+
+	CachedMethodStats(final String methodName)
+	{
+		this.methodName = methodName;
+	}
+
+	@Override
+	public String toString()
+	{
+		final long requests = requestsCount.sum();
+		final long loads = loadsCount.sum();
+		final long hits = Math.max(requests - loads, 0);
+		final long loadMillis = TimeUnit.NANOSECONDS.toMillis(loadNanos.sum());
+
+		return methodName
+				+ ": requests=" + requests
+				+ ", hits=" + hits
+				+ ", misses=" + loads
+				+ ", hitRate=" + (requests > 0 ? (hits * 100 / requests) + "%" : "-")
+				+ ", loadTime=" + loadMillis + "ms"
+				+ ", avgLoadTime=" + (loads > 0 ? (loadMillis / loads) + "ms" : "-");
+	}
+
+	public long getLoadNanos()
+	{
+		return loadNanos.sum();
+	}
+
+	public void recordRequest()
+	{
+		requestsCount.increment();
+	}
+
+	/**
+	 * Calls the given loader (i.e. the cached method) and records it as a cache miss.
+	 */
+	public <V> V load(final Callable<V> loader) throws Exception
+	{
+		final long startNanos = System.nanoTime();
+		try
+		{
+			return loader.call();
+		}
+		finally
+		{
+			loadsCount.increment();
+			loadNanos.add(System.nanoTime() - startNanos);
+		}
+	}
+
+	public void reset()
+	{
+		requestsCount.reset();
+		loadsCount.reset();
+		loadNanos.reset();
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package org.adempiere.ad.dao.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryFilterModifier;
+
+import com.google.common.hash.Hashing;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+/**
+ * Compares the MD5 hashes of a (long) text column and the given value, instead of the text itself.
+ * <p>
+ * The value's hash is computed in java, so a database index on <code>md5(ColumnName)</code> can be used.
+ * Note that this modifier alone does not rule out hash collisions; callers shall also compare the actual column value.
+ */
+@EqualsAndHashCode
+public final class Md5QueryFilterModifier implements IQueryFilterModifier
+{
+	public static final transient Md5QueryFilterModifier instance = new Md5QueryFilterModifier();
+
+	private Md5QueryFilterModifier()
+	{
+	}
+
+	@Override
+	public @NonNull String getColumnSql(@NonNull final String columnName)
+	{
+		return "md5(" + columnName + ")";
+	}
+
+	@Override
+	public String getValueSql(final Object value, final List<Object> params)
+	{
+		if (value instanceof ModelColumnNameValue<?>)
+		{
+			final ModelColumnNameValue<?> modelValue = (ModelColumnNameValue<?>)value;
+			return getColumnSql(modelValue.getColumnName());
+		}
+
+		params.add(md5Hex(value));
+		return "?";
+	}
+
+	@Nullable
+	@Override
+	public Object convertValue(@Nullable final String columnName, @Nullable final Object value, @Nullable final Object model)
+	{
+		return md5Hex(value);
+	}
+
+	/**
+	 * @return the same lower-case hex string as PostgreSQL's <code>md5(text)</code>
+	 */
+	@Nullable
+	public static String md5Hex(@Nullable final Object value)
+	{
+		if (value == null)
+		{
+			return null;
+		}
+
+		return Hashing.md5().hashString(value.toString(), StandardCharsets.UTF_8).toString();
+	}
+}
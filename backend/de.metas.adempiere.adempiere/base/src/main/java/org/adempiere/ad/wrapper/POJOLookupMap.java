@@ -1156,6 +1156,20 @@ public final class POJOLookupMap implements IPOJOLookupMap, IModelValidationEngi
 		createSelection(selectionId, selection);
 	}
 
+	public void removeFromSelection(@NonNull final PInstanceId selectionId, @NonNull final Collection<Integer> idsToRemove)
+	{
+		final ImmutableSet<Integer> existingSelectionSet = this.selectionId2selection.get(selectionId);
+		if (existingSelectionSet == null)
+		{
+			return;
+		}
+
+		final ImmutableSet<Integer> remainingSelectionSet = existingSelectionSet.stream()
+				.filter(id -> !idsToRemove.contains(id))
+				.collect(ImmutableSet.toImmutableSet());
+		this.selectionId2selection.put(selectionId, remainingSelectionSet);
+	}
+
 	public boolean isInSelection(final PInstanceId selectionId, final int id)
 	{
 		return getSelectionIds(selectionId).contains(id);
@@ -23,6 +23,7 @@ package org.adempiere.archive.api;
  */
 
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import org.adempiere.ad.persistence.ModelDynAttributeAccessor;
 import org.compiere.model.I_AD_Archive;
@@ -124,5 +125,19 @@ public interface IArchiveBL extends ISingletonService
 
 	InputStream getBinaryDataAsStream(I_AD_Archive archive);
 
+	/**
+	 * Writes the archive's data to given output stream, without loading it into memory where the archive's storage allows it.
+	 *
+	 * @return number of bytes written or <code>-1</code> if there is no data
+	 */
+	long writeBinaryDataTo(I_AD_Archive archive, OutputStream out);
+
+	/**
+	 * @return size of the archive's data or <code>-1</code> if there is no data
+	 */
+	long getBinaryDataSize(I_AD_Archive archive);
+
 	void setBinaryData(I_AD_Archive archive, byte[] data);
+
+	void setBinaryData(I_AD_Archive archive, InputStream data);
 }
@@ -23,6 +23,7 @@ package org.adempiere.archive.api.impl;
  */
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Properties;
 
 import org.adempiere.ad.table.api.IADTableDAO;
@@ -370,4 +371,22 @@ public class ArchiveBL implements IArchiveBL
 	{
 		return Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).getBinaryDataAsStream(archive);
 	}
+
+	@Override
+	public long writeBinaryDataTo(final I_AD_Archive archive, final OutputStream out)
+	{
+		return Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).writeBinaryDataTo(archive, out);
+	}
+
+	@Override
+	public long getBinaryDataSize(final I_AD_Archive archive)
+	{
+		return Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).getBinaryDataSize(archive);
+	}
+
+	@Override
+	public void setBinaryData(final I_AD_Archive archive, final InputStream data)
+	{
+		Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive).setBinaryData(archive, data);
+	}
 }
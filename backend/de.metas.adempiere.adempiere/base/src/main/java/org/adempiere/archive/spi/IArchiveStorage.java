@@ -24,6 +24,7 @@ package org.adempiere.archive.spi;
 
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Properties;
 
 import org.compiere.model.I_AD_Archive;
@@ -51,9 +52,30 @@ public interface IArchiveStorage
 	 * Get Data as Input Stream
 	 * 
 	 * @param archive
-	 * @return input stream or null
+	 * @return input stream or null; the caller is responsible for closing it
 	 */
 	InputStream getBinaryDataAsStream(I_AD_Archive archive);
 
+	/**
+	 * Writes the archive's data to given output stream, without loading it into memory where the storage allows it.
+	 * 
+	 * NOTE: the output stream is not closed.
+	 * 
+	 * @return number of bytes written or <code>-1</code> if there is no data
+	 */
+	long writeBinaryDataTo(I_AD_Archive archive, OutputStream out);
+
+	/**
+	 * @return size of the (uncompressed) data or <code>-1</code> if there is no data
+	 */
+	long getBinaryDataSize(I_AD_Archive archive);
+
 	void setBinaryData(I_AD_Archive archive, byte[] data);
+
+	/**
+	 * Stores the data which is read from given input stream, without loading it into memory where the storage allows it.
+	 * 
+	 * NOTE: the input stream is consumed but not closed.
+	 */
+	void setBinaryData(I_AD_Archive archive, InputStream data);
 }
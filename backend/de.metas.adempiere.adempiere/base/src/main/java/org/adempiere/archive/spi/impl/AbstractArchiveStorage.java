@@ -24,15 +24,21 @@ package org.adempiere.archive.spi.impl;
 
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Properties;
 
 import org.adempiere.archive.api.IArchiveStorageFactory;
 import org.adempiere.archive.spi.IArchiveStorage;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_AD_Archive;
 
+import com.google.common.io.ByteStreams;
+
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /**
  * Abstract implementation of {@link IArchiveStorage}. At this level there is no reference to a particular storage support.
@@ -66,6 +72,53 @@ public abstract class AbstractArchiveStorage implements IArchiveStorage
 		return new ByteArrayInputStream(inflatedData);
 	}
 
+	/**
+	 * Copies the stream returned by {@link #getBinaryDataAsStream(I_AD_Archive)}. Storages which can do better shall override it.
+	 */
+	@Override
+	public long writeBinaryDataTo(@NonNull final I_AD_Archive archive, @NonNull final OutputStream out)
+	{
+		try (final InputStream in = getBinaryDataAsStream(archive))
+		{
+			if (in == null)
+			{
+				return -1;
+			}
+			return ByteStreams.copy(in, out);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Error writing the data of " + archive, e);
+		}
+	}
+
+	/**
+	 * Counts the bytes written by {@link #writeBinaryDataTo(I_AD_Archive, OutputStream)}. Storages which can do better shall override it.
+	 */
+	@Override
+	public long getBinaryDataSize(@NonNull final I_AD_Archive archive)
+	{
+		return writeBinaryDataTo(archive, ByteStreams.nullOutputStream());
+	}
+
+	/**
+	 * Reads the whole stream and delegates to {@link #setBinaryData(I_AD_Archive, byte[])}. Storages which can do better shall override it.
+	 */
+	@Override
+	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final InputStream data)
+	{
+		final byte[] dataBytes;
+		try
+		{
+			dataBytes = ByteStreams.toByteArray(data);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Error reading the data for " + archive, e);
+		}
+		setBinaryData(archive, dataBytes);
+	}
+
 	protected IArchiveStorageFactory getArchiveStorageFactory()
 	{
 		return Services.get(IArchiveStorageFactory.class);
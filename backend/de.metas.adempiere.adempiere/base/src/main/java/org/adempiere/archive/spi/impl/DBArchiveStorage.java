@@ -25,12 +25,18 @@ package org.adempiere.archive.spi.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Properties;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
 import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.model.I_AD_Archive;
@@ -107,6 +113,97 @@ public class DBArchiveStorage extends AbstractArchiveStorage
 		return inflatedData;
 	} // getBinaryData
 
+	/**
+	 * @return a stream which inflates the data while it's read, so the inflated data is never held in memory as a whole
+	 */
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		final byte[] deflatedData = archive.getBinaryData();
+		if (deflatedData == null || deflatedData.length == 0)
+		{
+			return null;
+		}
+
+		try
+		{
+			final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(deflatedData));
+			final ZipEntry entry = zip.getNextEntry();
+			if (entry == null)
+			{
+				zip.close();
+				return null;
+			}
+			return zip; // just one entry
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException(e);
+		}
+	}
+
+	/**
+	 * Reads the uncompressed size from the zip's central directory, so the data doesn't need to be inflated just to be counted.
+	 * Falls back to counting the inflated bytes if the zip does not look like what {@link #setBinaryData(I_AD_Archive, InputStream)} writes.
+	 */
+	@Override
+	public long getBinaryDataSize(@NonNull final I_AD_Archive archive)
+	{
+		final byte[] deflatedData = archive.getBinaryData();
+		if (deflatedData == null || deflatedData.length == 0)
+		{
+			return -1;
+		}
+
+		final long uncompressedSize = extractUncompressedSize(deflatedData);
+		return uncompressedSize >= 0 ? uncompressedSize : super.getBinaryDataSize(archive);
+	}
+
+	/**
+	 * @return the uncompressed size of the zip's only entry, as stored in the central directory, or <code>-1</code> if it can't be found there
+	 */
+	@VisibleForTesting
+	static long extractUncompressedSize(@NonNull final byte[] zipData)
+	{
+		final int eocdMinLength = 22;
+		final int eocdSignature = 0x06054b50;
+		final int centralDirectoryHeaderSignature = 0x02014b50;
+		final long zip64Marker = 0xFFFFFFFFL;
+
+		final ByteBuffer buffer = ByteBuffer.wrap(zipData).order(ByteOrder.LITTLE_ENDIAN);
+
+		// the "end of central directory" record is followed by the zip comment, so we have to search it backwards
+		int eocdOffset = -1;
+		for (int i = zipData.length - eocdMinLength; i >= 0 && i >= zipData.length - eocdMinLength - 0xFFFF; i--)
+		{
+			if (buffer.getInt(i) == eocdSignature)
+			{
+				eocdOffset = i;
+				break;
+			}
+		}
+		if (eocdOffset < 0)
+		{
+			return -1;
+		}
+
+		final int entriesCount = buffer.getShort(eocdOffset + 10) & 0xFFFF;
+		if (entriesCount != 1)
+		{
+			return -1;
+		}
+
+		final long centralDirectoryOffset = buffer.getInt(eocdOffset + 16) & zip64Marker;
+		if (centralDirectoryOffset + 28 > eocdOffset
+				|| buffer.getInt((int)centralDirectoryOffset) != centralDirectoryHeaderSignature)
+		{
+			return -1;
+		}
+
+		final long uncompressedSize = buffer.getInt((int)centralDirectoryOffset + 24) & zip64Marker;
+		return uncompressedSize == zip64Marker ? -1 : uncompressedSize;
+	}
+
 	@Override
 	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final byte[] uncompressedData)
 	{
@@ -116,35 +213,45 @@ public class DBArchiveStorage extends AbstractArchiveStorage
 					.appendParametersToMessage()
 					.setParameter("AD_Archive", archive);
 		}
+		setBinaryData(archive, new ByteArrayInputStream(uncompressedData));
+	}
+
+	/**
+	 * Deflates the data while it's read; only the compressed data is held in memory, because that's what goes into the <code>BinaryData</code> column.
+	 */
+	@Override
+	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final InputStream uncompressedData)
+	{
 		final ByteArrayOutputStream out = new ByteArrayOutputStream();
 		final ZipOutputStream zip = new ZipOutputStream(out);
 		zip.setMethod(ZipOutputStream.DEFLATED);
 		zip.setLevel(Deflater.BEST_COMPRESSION);
 		zip.setComment("adempiere");
 		//
-		byte[] compressedData = null;
+		final byte[] compressedData;
 		try
 		{
 			final ZipEntry entry = new ZipEntry("AdempiereArchive");
 			entry.setTime(System.currentTimeMillis());
 			entry.setMethod(ZipEntry.DEFLATED);
 			zip.putNextEntry(entry);
-			zip.write(uncompressedData, 0, uncompressedData.length);
+			final long uncompressedLength = ByteStreams.copy(uncompressedData, zip);
+			if (uncompressedLength == 0)
+			{
+				throw new AdempiereException("uncompressedData may not be empty")
+						.appendParametersToMessage()
+						.setParameter("AD_Archive", archive);
+			}
 			zip.closeEntry();
 			logger.debug(entry.getCompressedSize() + " (" + entry.getSize() + ") "
 					+ (entry.getCompressedSize() * 100 / entry.getSize()) + "%");
 			//
-			// zip.finish();
 			zip.close();
 			compressedData = out.toByteArray();
-			logger.debug("Length=" + uncompressedData.length);
-			// m_deflated = new Integer(compressedData.length);
+			logger.debug("Length=" + uncompressedLength);
 		}
 		catch (Exception e)
 		{
-			// log.error("saveLOBData", e);
-			// compressedData = null;
-			// m_deflated = null;
 			throw AdempiereException.wrapIfNeeded(e);
 		}
 
@@ -24,31 +24,57 @@ package org.adempiere.archive.spi.impl;
 
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Properties;
-import org.slf4j.Logger;
-import de.metas.logging.LogManager;
-import de.metas.util.Check;
-import de.metas.util.Services;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.service.IDeveloperModeBL;
 import org.adempiere.archive.api.IArchiveBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.IClientDAO;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_Client;
 import org.compiere.util.Ini;
 import org.compiere.util.MimeType;
-import org.compiere.util.Util;
+import org.slf4j.Logger;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import com.google.common.io.ByteStreams;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
 
 /**
- * File system archive storage
- * 
+ * File system archive storage.
+ * <p>
+ * By default the files are content-addressed, i.e. stored as <code>sha256/ab/cd/abcd...&lt;ext&gt;</code> below the archive root, where <code>abcd...</code> is the SHA-256 of the data.
+ * Archives with identical data (e.g. reprinted documents) therefore share one file. Set {@value #SYSCONFIG_ContentAddressed} to <code>N</code> to store one file per archive
+ * in the client/org/process/table/record folder, like it was done before. Archives stored in either way can always be read.
+ * <p>
+ * Note that because of the content addressing, an archive file must not be deleted together with its <code>AD_Archive</code> record.
+ *
  * @author tsa
- * 
+ *
  */
 public class FilesystemArchiveStorage extends AbstractArchiveStorage
 {
@@ -57,12 +83,18 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 
 	private static final Logger logger = LogManager.getLogger(FilesystemArchiveStorage.class);
 
+	public static final String SYSCONFIG_ContentAddressed = "org.adempiere.archive.spi.impl.FilesystemArchiveStorage.ContentAddressed";
+
 	/**
 	 * string replaces the archive root in stored xml file to allow the changing of the attachment root.
 	 */
 	private static final String ARCHIVE_FOLDER_PLACEHOLDER = "%ARCHIVE_FOLDER%";
 
+	private static final String CONTENT_ADDRESSED_FOLDER = "sha256";
+	private static final String TEMP_FOLDER = ".tmp";
+
 	private String archivePathRoot;
+	private boolean contentAddressed = true;
 
 	public FilesystemArchiveStorage()
 	{
@@ -74,7 +106,8 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	{
 		final I_AD_Client client = Services.get(IClientDAO.class).retriveClient(ctx, adClientId);
 		this.archivePathRoot = getArchivePath(client);
-		logger.info("Archive Path: {}, Config={}", new Object[] { archivePathRoot, client });
+		this.contentAddressed = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ContentAddressed, true, adClientId);
+		logger.info("Archive Path: {}, ContentAddressed={}, Config={}", archivePathRoot, contentAddressed, client);
 	}
 	
 	private final void checkContext()
@@ -140,10 +173,91 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 	public byte[] getBinaryData(final I_AD_Archive archive)
 	{
 		checkContext();
-		
-		byte[] data = archive.getBinaryData();
-		// m_deflated = null;
-		// m_inflated = null;
+
+		final File file = getFileOrNull(archive);
+		if (file == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			return Files.readAllBytes(file.toPath());
+		}
+		catch (IOException ioe)
+		{
+			throw new AdempiereException(ioe.getLocalizedMessage(), ioe);
+		}
+	}
+
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		checkContext();
+
+		final File file = getFileOrNull(archive);
+		if (file == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			return Files.newInputStream(file.toPath());
+		}
+		catch (IOException ioe)
+		{
+			throw new AdempiereException(ioe.getLocalizedMessage(), ioe);
+		}
+	}
+
+	/**
+	 * Transfers the file's content straight from the file channel, without copying it to the heap first.
+	 */
+	@Override
+	public long writeBinaryDataTo(@NonNull final I_AD_Archive archive, @NonNull final OutputStream out)
+	{
+		checkContext();
+
+		final File file = getFileOrNull(archive);
+		if (file == null)
+		{
+			return -1;
+		}
+
+		try (final FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			final WritableByteChannel target = Channels.newChannel(out);
+			final long size = in.size();
+			long position = 0;
+			while (position < size)
+			{
+				position += in.transferTo(position, size - position, target);
+			}
+			return position;
+		}
+		catch (IOException ioe)
+		{
+			throw new AdempiereException("Error writing the data of " + archive + " from " + file, ioe);
+		}
+	}
+
+	@Override
+	public long getBinaryDataSize(@NonNull final I_AD_Archive archive)
+	{
+		checkContext();
+
+		final File file = getFileOrNull(archive);
+		return file != null ? file.length() : -1;
+	}
+
+	/**
+	 * @return the archive's file or <code>null</code> if the archive has no path info
+	 */
+	@Nullable
+	private File getFileOrNull(final I_AD_Archive archive)
+	{
+		final byte[] data = archive.getBinaryData();
 		if (data == null)
 		{
 			return null;
@@ -167,97 +281,176 @@ public class FilesystemArchiveStorage extends AbstractArchiveStorage
 			}
 			filePath = filePath.replaceAll("/", replaceSeparator);
 			filePath = filePath.replaceAll("\\\\", replaceSeparator);
-			logger.debug("FilePath: " + filePath);
+			logger.debug("FilePath: {}", filePath);
 
 			final File file = new File(filePath);
 			if (!file.exists())
 			{
 				throw new AdempiereException("File not found: " + file.getAbsolutePath());
 			}
-
-			final byte[] dataEntry = Util.readBytes(file);
-			return dataEntry;
+			return file;
 		}
 		catch (IOException ioe)
 		{
 			// I/O error
-			// logger.error(ioe.getLocalizedMessage(), ioe);
 			throw new AdempiereException(ioe.getLocalizedMessage(), ioe);
 		}
-		// return null;
 	}
 
-	/**
-	 * Save to file system. If the MArchive is not saved yet (id==0) it will first save the MArchive object because it uses the id as filename.
-	 * 
-	 * @param inflatedData
-	 */
 	@Override
 	public void setBinaryData(final I_AD_Archive archive, final byte[] inflatedData)
 	{
-		checkContext();
-		
 		if (inflatedData == null || inflatedData.length == 0)
 		{
 			throw new IllegalArgumentException("InflatedData is NULL");
 		}
 
-		if (archive.getAD_Archive_ID() <= 0)
-		{
-			// set binary data otherwise save will fail
-			archive.setBinaryData(new byte[] { '0' });
-			InterfaceWrapperHelper.save(archive);
-		}
+		setBinaryData(archive, new ByteArrayInputStream(inflatedData));
+	}
 
-		// final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		BufferedOutputStream out = null;
+	/**
+	 * Save to file system. The data is streamed into a temporary file first (computing its SHA-256 on the way) and then moved to its final location.
+	 * <p>
+	 * If the storage is not content-addressed and the MArchive is not saved yet (id==0), it will first save the MArchive object because it uses the id as filename.
+	 */
+	@Override
+	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final InputStream data)
+	{
+		checkContext();
+
+		Path tempFile = null;
 		try
 		{
-			// create destination folder
-			final File destFolder = new File(archivePathRoot + File.separator + getArchivePathSnippet(archive));
-			if (!destFolder.exists())
+			final File tempFolder = new File(archivePathRoot, TEMP_FOLDER);
+			createFolderIfMissing(tempFolder);
+			tempFile = Files.createTempFile(tempFolder.toPath(), "archive", ".part");
+
+			final HashCode sha256;
+			final long size;
+			try (final HashingOutputStream out = new HashingOutputStream(Hashing.sha256(), new BufferedOutputStream(Files.newOutputStream(tempFile))))
 			{
-				if (!destFolder.mkdirs())
-				{
-					logger.warn("Unable to create folder: " + destFolder.getPath());
-				}
+				size = ByteStreams.copy(data, out);
+				out.flush();
+				sha256 = out.hash();
+			}
+			if (size <= 0)
+			{
+				throw new IllegalArgumentException("InflatedData is NULL");
 			}
-			// write to pdf
+
 			final String mimeType = Services.get(IArchiveBL.class).getContentType(archive);
 			final String fileExtension = MimeType.getExtensionByType(mimeType);
-			final String filenamePart = archive.getAD_Archive_ID() + fileExtension;
+
+			final String pathSnippet;
+			final String filenamePart;
+			if (contentAddressed)
+			{
+				final String hash = sha256.toString();
+				pathSnippet = CONTENT_ADDRESSED_FOLDER + File.separator
+						+ hash.substring(0, 2) + File.separator
+						+ hash.substring(2, 4) + File.separator;
+				filenamePart = hash + fileExtension;
+			}
+			else
+			{
+				if (archive.getAD_Archive_ID() <= 0)
+				{
+					// set binary data otherwise save will fail
+					archive.setBinaryData(new byte[] { '0' });
+					InterfaceWrapperHelper.save(archive);
+				}
+				pathSnippet = getArchivePathSnippet(archive);
+				filenamePart = archive.getAD_Archive_ID() + fileExtension;
+			}
+
+			// create destination folder
+			final File destFolder = new File(archivePathRoot + File.separator + pathSnippet);
+			createFolderIfMissing(destFolder);
 			final File destFile = new File(destFolder, filenamePart);
 
-			out = new BufferedOutputStream(new FileOutputStream(destFile));
-			out.write(inflatedData);
-			out.flush();
+			moveToDestination(tempFile, destFile.toPath(), contentAddressed);
+			tempFile = null;
 
 			// 04692: metas-ts removed xml processing because totally don't need it and it's prone to "content-is-not-allowed-in-prolog" errors
-			final String archiveInfo = ARCHIVE_FOLDER_PLACEHOLDER + getArchivePathSnippet(archive) + filenamePart;
+			final String archiveInfo = ARCHIVE_FOLDER_PLACEHOLDER + pathSnippet + filenamePart;
 			archive.setBinaryData(archiveInfo.getBytes(UTF_8));
 			archive.setIsFileSystem(true);
 		}
+		catch (IllegalArgumentException e)
+		{
+			throw e;
+		}
 		catch (Exception e)
 		{
 			archive.setBinaryData(null);
-			// m_deflated = null;
 			throw new AdempiereException("Error saving data to filesystem (archive=" + archive + ")", e);
 		}
 		finally
 		{
-			if (out != null)
+			deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * @param keepExisting if <code>true</code> and the destination file already exists, it is kept and the source file is deleted.
+	 *            That's the case for content-addressed files, because an existing file has the very same content.
+	 */
+	private static void moveToDestination(final Path source, final Path dest, final boolean keepExisting) throws IOException
+	{
+		if (keepExisting && Files.exists(dest))
+		{
+			logger.debug("Reusing existing file {}", dest);
+			Files.delete(source);
+			return;
+		}
+
+		try
+		{
+			if (keepExisting)
 			{
-				try
-				{
-					out.close();
-				}
-				catch (Exception e)
-				{
-				}
-				out = null;
+				Files.move(source, dest, StandardCopyOption.ATOMIC_MOVE);
+			}
+			else
+			{
+				Files.move(source, dest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (final FileAlreadyExistsException e)
+		{
+			// another thread stored the same content in the meantime
+			Files.delete(source);
+		}
+		catch (final AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, dest, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void createFolderIfMissing(final File folder)
+	{
+		if (!folder.exists())
+		{
+			if (!folder.mkdirs() && !folder.exists())
+			{
+				logger.warn("Unable to create folder: {}", folder.getPath());
 			}
 		}
+	}
 
+	private static void deleteIfExists(@Nullable final Path file)
+	{
+		if (file == null)
+		{
+			return;
+		}
+		try
+		{
+			Files.deleteIfExists(file);
+		}
+		catch (final IOException e)
+		{
+			logger.warn("Failed deleting temporary file {}. Ignored.", file, e);
+		}
 	}
 
 	/**
@@ -0,0 +1,329 @@
+package org.adempiere.model;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.persistence.IModelClassInfo;
+import org.adempiere.ad.persistence.IModelMethodInfo;
+import org.adempiere.ad.persistence.ModelClassIntrospector;
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Generates and caches concrete model classes which are used by {@link POWrapper} instead of {@link java.lang.reflect.Proxy}s.
+ * <p>
+ * For each model interface, a class named <code>&lt;model interface&gt;$POWrapperAdapter</code> is generated (once).
+ * Each of its methods is statically bound to the method's {@link IModelMethodInfo},
+ * so a getter/setter call does not need the reflective proxy dispatch and the method info lookup anymore.
+ * <p>
+ * If the adapter class cannot be generated for a given model interface, <code>null</code> is returned and the caller shall fall back to proxies.
+ */
+public final class POWrapperAdapters
+{
+	private static final transient Logger logger = LogManager.getLogger(POWrapperAdapters.class);
+
+	/**
+	 * Start with <code>-Dorg.adempiere.model.POWrapperAdapters.enabled=false</code> to always use proxies.
+	 */
+	private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("org.adempiere.model.POWrapperAdapters.enabled"));
+
+	private static final String ADAPTER_CLASSNAME_SUFFIX = "$POWrapperAdapter";
+
+	private static final ConcurrentHashMap<Class<?>, Optional<AdapterClass>> adapterClasses = new ConcurrentHashMap<>();
+
+	/**
+	 * Implemented by all generated adapter classes.
+	 */
+	public interface IPOWrapperAdapter
+	{
+		POWrapper getPOWrapper();
+	}
+
+	/**
+	 * The methods of one generated adapter class and their lazily resolved {@link IModelMethodInfo}s.
+	 * NOTE: needs to be public because it's referenced by the generated classes.
+	 */
+	public static final class AdapterMethods
+	{
+		private final IModelClassInfo modelClassInfo;
+		private final Method[] methods;
+		private final IModelMethodInfo[] methodInfos;
+
+		private AdapterMethods(@NonNull final IModelClassInfo modelClassInfo, @NonNull final List<Method> methods)
+		{
+			this.modelClassInfo = modelClassInfo;
+			this.methods = methods.toArray(new Method[0]);
+			this.methodInfos = new IModelMethodInfo[this.methods.length];
+		}
+
+		public IModelMethodInfo getMethodInfo(final int index)
+		{
+			IModelMethodInfo methodInfo = methodInfos[index];
+			if (methodInfo == null)
+			{
+				// NOTE: there is no harm if more threads are resolving it at the same time
+				methodInfo = modelClassInfo.getMethodInfo(methods[index]);
+				methodInfos[index] = methodInfo;
+			}
+			return methodInfo;
+		}
+	}
+
+	private static final class AdapterClass
+	{
+		private final Constructor<?> constructor;
+		private final AdapterMethods methods;
+
+		private AdapterClass(@NonNull final Constructor<?> constructor, @NonNull final AdapterMethods methods)
+		{
+			this.constructor = constructor;
+			this.methods = methods;
+		}
+
+		private Object newInstance(final POWrapper wrapper)
+		{
+			try
+			{
+				return constructor.newInstance(wrapper, methods);
+			}
+			catch (final Exception ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+		}
+	}
+
+	private POWrapperAdapters()
+	{
+	}
+
+	/**
+	 * @return <code>false</code> if the adapters were disabled by the system property and {@link POWrapper} always uses proxies
+	 */
+	public static boolean isEnabled()
+	{
+		return ENABLED;
+	}
+
+	/**
+	 * @return an instance of the generated adapter class for given model interface, or <code>null</code> if the adapter class is not available.
+	 */
+	@Nullable
+	static <T> T createAdapterOrNull(@NonNull final Class<T> interfaceClass, @NonNull final POWrapper wrapper)
+	{
+		if (!isEnabled())
+		{
+			return null;
+		}
+
+		final AdapterClass adapterClass = adapterClasses.computeIfAbsent(interfaceClass, POWrapperAdapters::createAdapterClass).orElse(null);
+		if (adapterClass == null)
+		{
+			return null;
+		}
+
+		return interfaceClass.cast(adapterClass.newInstance(wrapper));
+	}
+
+	@Nullable
+	static POWrapper getPOWrapperOrNull(@Nullable final Object model)
+	{
+		return model instanceof IPOWrapperAdapter
+				? ((IPOWrapperAdapter)model).getPOWrapper()
+				: null;
+	}
+
+	private static Optional<AdapterClass> createAdapterClass(@NonNull final Class<?> interfaceClass)
+	{
+		if (!interfaceClass.isInterface() || !Modifier.isPublic(interfaceClass.getModifiers()))
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			final List<Method> methods = getMethodsToImplement(interfaceClass);
+			if (methods == null)
+			{
+				return Optional.empty();
+			}
+
+			final Class<?> adapterClass = generateAdapterClass(interfaceClass, methods);
+			final Constructor<?> constructor = adapterClass.getConstructor(POWrapper.class, AdapterMethods.class);
+
+			final IModelClassInfo modelClassInfo = ModelClassIntrospector.getInstance().getModelClassInfo(interfaceClass);
+			return Optional.of(new AdapterClass(constructor, new AdapterMethods(modelClassInfo, methods)));
+		}
+		catch (final Throwable ex)
+		{
+			logger.warn("Failed generating the POWrapper adapter class for {}. Using proxies.", interfaceClass, ex);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return the methods which are dispatched to the {@link POWrapper} (same as the proxy does), or <code>null</code> if the interface is not supported
+	 */
+	@Nullable
+	private static List<Method> getMethodsToImplement(final Class<?> interfaceClass) throws NoSuchMethodException
+	{
+		final Map<String, Method> methodsBySignature = new LinkedHashMap<>();
+
+		// the proxies are dispatching those too
+		for (final Method method : new Method[] {
+				Object.class.getMethod("equals", Object.class),
+				Object.class.getMethod("hashCode"),
+				Object.class.getMethod("toString") })
+		{
+			methodsBySignature.put(toSignature(method), method);
+		}
+
+		for (final Method method : interfaceClass.getMethods())
+		{
+			if (Modifier.isStatic(method.getModifiers()))
+			{
+				continue;
+			}
+			if (method.getName().equals("getPOWrapper") && method.getParameterCount() == 0)
+			{
+				return null;
+			}
+
+			final String signature = toSignature(method);
+			final Method existingMethod = methodsBySignature.get(signature);
+			if (existingMethod == null || existingMethod.getReturnType().isAssignableFrom(method.getReturnType()))
+			{
+				methodsBySignature.put(signature, method);
+			}
+			else if (!method.getReturnType().isAssignableFrom(existingMethod.getReturnType()))
+			{
+				// incompatible return types
+				return null;
+			}
+		}
+
+		return new ArrayList<>(methodsBySignature.values());
+	}
+
+	private static String toSignature(final Method method)
+	{
+		final StringBuilder signature = new StringBuilder(method.getName()).append("(");
+		for (final Class<?> parameterType : method.getParameterTypes())
+		{
+			signature.append(parameterType.getName()).append(";");
+		}
+		return signature.append(")").toString();
+	}
+
+	private static Class<?> generateAdapterClass(final Class<?> interfaceClass, final List<Method> methods) throws Exception
+	{
+		final ClassPool pool = new ClassPool(true);
+		pool.appendClassPath(new LoaderClassPath(interfaceClass.getClassLoader()));
+		pool.appendClassPath(new LoaderClassPath(POWrapperAdapters.class.getClassLoader()));
+
+		final CtClass ctClass = pool.makeClass(interfaceClass.getName() + ADAPTER_CLASSNAME_SUFFIX);
+		ctClass.setModifiers(Modifier.PUBLIC | Modifier.FINAL);
+		ctClass.addInterface(pool.get(interfaceClass.getName()));
+		ctClass.addInterface(pool.get(IPOWrapperAdapter.class.getName()));
+
+		final CtClass ctPOWrapper = pool.get(POWrapper.class.getName());
+		final CtClass ctAdapterMethods = pool.get(AdapterMethods.class.getName());
+
+		ctClass.addField(new CtField(ctPOWrapper, "wrapper", ctClass));
+		ctClass.addField(new CtField(ctAdapterMethods, "methods", ctClass));
+
+		final CtConstructor constructor = new CtConstructor(new CtClass[] { ctPOWrapper, ctAdapterMethods }, ctClass);
+		constructor.setModifiers(Modifier.PUBLIC);
+		constructor.setBody("{ this.wrapper = $1; this.methods = $2; }");
+		ctClass.addConstructor(constructor);
+
+		ctClass.addMethod(CtNewMethod.make("public " + POWrapper.class.getName() + " getPOWrapper() { return this.wrapper; }", ctClass));
+
+		for (int index = 0; index < methods.size(); index++)
+		{
+			final Method method = methods.get(index);
+
+			final String invoke = "this.wrapper.invoke(this.methods.getMethodInfo(" + index + "), $args)";
+			final String body = method.getReturnType() == void.class
+					? "{ " + invoke + "; }"
+					: "{ return ($r)" + invoke + "; }";
+
+			final CtMethod ctMethod = CtNewMethod.make(
+					Modifier.PUBLIC,
+					toCtClass(pool, method.getReturnType()),
+					method.getName(),
+					toCtClasses(pool, method.getParameterTypes()),
+					toCtClasses(pool, method.getExceptionTypes()),
+					body,
+					ctClass);
+			ctClass.addMethod(ctMethod);
+		}
+
+		try
+		{
+			return ctClass.toClass(interfaceClass.getClassLoader(), interfaceClass.getProtectionDomain());
+		}
+		finally
+		{
+			ctClass.detach();
+		}
+	}
+
+	private static CtClass[] toCtClasses(final ClassPool pool, final Class<?>[] classes) throws Exception
+	{
+		final CtClass[] ctClasses = new CtClass[classes.length];
+		for (int i = 0; i < classes.length; i++)
+		{
+			ctClasses[i] = toCtClass(pool, classes[i]);
+		}
+		return ctClasses;
+	}
+
+	private static CtClass toCtClass(final ClassPool pool, final Class<?> clazz) throws Exception
+	{
+		return clazz.isArray()
+				? pool.get(toCtClass(pool, clazz.getComponentType()).getName() + "[]")
+				: pool.get(clazz.getName());
+	}
+}
@@ -368,4 +368,27 @@ public class CacheInterceptorTests
 		Assert.assertEquals("2", service.getReload(id1, false));
 	}
 
+
+	@Test
+	public void testCachedMethodStats()
+	{
+		final TestServiceWithCachedMethod obj = (TestServiceWithCachedMethod)Services.get(ITestServiceWithCachedMethod.class);
+		obj.cachedValueToReturn = "CachedValue";
+
+		obj.getCachedValue(1001); // miss
+		CacheInterceptor.resetCachedMethodStats();
+
+		obj.getCachedValue(1001); // hit
+		obj.getCachedValue(1001); // hit
+		obj.getCachedValue(1002); // miss
+		obj.getCachedValue(1003); // miss
+
+		final String stats = CacheInterceptor.getCachedMethodStats()
+				.stream()
+				.filter(methodStats -> methodStats.contains(".getCachedValue ("))
+				.findFirst()
+				.orElse(null);
+		Assert.assertNotNull("stats for getCachedValue", stats);
+		Assert.assertTrue("Invalid stats: " + stats, stats.contains("requests=4, hits=2, misses=2, hitRate=50%"));
+	}
 }
@@ -0,0 +1,88 @@
+package de.metas.cache.interceptor;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.compiere.util.Util.ArrayKey;
+import org.junit.Test;
+
+public class CacheKeyBuilderTest
+{
+	@Test
+	public void buildKey_expectedNumberOfParts()
+	{
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(3);
+		keyBuilder.add("methodKey");
+		keyBuilder.add(1);
+		keyBuilder.add("param");
+
+		assertEquals(ArrayKey.of("methodKey", 1, "param"), keyBuilder.buildKey());
+	}
+
+	@Test
+	public void buildKey_lessPartsThanExpected()
+	{
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(5);
+		keyBuilder.add("methodKey");
+		keyBuilder.add(1);
+
+		final ArrayKey key = keyBuilder.buildKey();
+		assertEquals("Unused slots shall not be part of the key", ArrayKey.of("methodKey", 1), key);
+		assertNotEquals(ArrayKey.of("methodKey", 1, null, null, null), key);
+	}
+
+	@Test
+	public void buildKey_morePartsThanExpected()
+	{
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(2);
+		for (int i = 1; i <= 7; i++)
+		{
+			keyBuilder.add(i);
+		}
+
+		assertEquals(ArrayKey.of(1, 2, 3, 4, 5, 6, 7), keyBuilder.buildKey());
+	}
+
+	@Test
+	public void buildKey_noPartsExpected()
+	{
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(0);
+		assertEquals(ArrayKey.of(), keyBuilder.buildKey());
+
+		keyBuilder.add("methodKey");
+		assertEquals(ArrayKey.of("methodKey"), keyBuilder.buildKey());
+	}
+
+	@Test
+	public void buildKey_nullParts()
+	{
+		final CacheKeyBuilder keyBuilder = new CacheKeyBuilder(2);
+		keyBuilder.add("methodKey");
+		keyBuilder.add(null);
+
+		assertEquals(ArrayKey.of("methodKey", null), keyBuilder.buildKey());
+		assertNotEquals(ArrayKey.of("methodKey"), keyBuilder.buildKey());
+	}
+}
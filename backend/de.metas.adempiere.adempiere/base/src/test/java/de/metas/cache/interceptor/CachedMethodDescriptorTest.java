@@ -28,6 +28,7 @@ import java.util.Properties;
 
 import org.adempiere.util.proxy.Cached;
 import org.compiere.util.Env;
+import org.compiere.util.Util.ArrayKey;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -64,6 +65,18 @@ public class CachedMethodDescriptorTest
 		{
 			return "testId=" + testId + ", trxName=" + trxName;
 		}
+
+		@Cached
+		public Object getById(final int testId)
+		{
+			return "" + testId;
+		}
+
+		@Cached
+		public Object getByIdOther(final int testId)
+		{
+			return "" + testId;
+		}
 	}
 
 	@Test
@@ -134,4 +147,27 @@ public class CachedMethodDescriptorTest
 				"Keys shall be equal because trxName shall not be included (we are using different cache storages)",
 				keyBuilder1.buildKey(), keyBuilder2.buildKey());
 	}
+
+	@Test
+	public void test_KeyIncludesMethod() throws Exception
+	{
+		final TestClass testObj = new TestClass();
+		final CachedMethodDescriptor methodDescriptor = new CachedMethodDescriptor(testObj.getClass().getMethod("getById", int.class));
+		final CachedMethodDescriptor otherMethodDescriptor = new CachedMethodDescriptor(testObj.getClass().getMethod("getByIdOther", int.class));
+
+		final Object key = methodDescriptor.createKeyBuilder(testObj, new Object[] { 100 }).buildKey();
+		Assert.assertEquals(
+				"Key shall be the method signature followed by the parameters",
+				ArrayKey.of(TestClass.class.getName() + "#getById#" + Object.class.getName(), 100),
+				key);
+		Assert.assertEquals(
+				"Keys of the same method and parameters shall be equal",
+				key, methodDescriptor.createKeyBuilder(testObj, new Object[] { 100 }).buildKey());
+		Assert.assertNotEquals(
+				"Keys of the same method but other parameters shall not be equal",
+				key, methodDescriptor.createKeyBuilder(testObj, new Object[] { 101 }).buildKey());
+		Assert.assertNotEquals(
+				"Keys of other methods with the same parameters shall not be equal",
+				key, otherMethodDescriptor.createKeyBuilder(testObj, new Object[] { 100 }).buildKey());
+	}
 }
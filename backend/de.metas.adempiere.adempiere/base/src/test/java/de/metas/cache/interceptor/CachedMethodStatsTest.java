@@ -0,0 +1,105 @@
+package de.metas.cache.interceptor;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class CachedMethodStatsTest
+{
+	@Test
+	public void noRequests()
+	{
+		final CachedMethodStats stats = new CachedMethodStats("method");
+		assertThat(stats.toString(), startsWith("method: requests=0, hits=0, misses=0, hitRate=-"));
+		assertEquals(0, stats.getLoadNanos());
+	}
+
+	@Test
+	public void hitsAndMisses() throws Exception
+	{
+		final CachedMethodStats stats = new CachedMethodStats("method");
+
+		// 4 requests, 1 of them loaded
+		stats.recordRequest();
+		stats.recordRequest();
+		stats.recordRequest();
+		stats.recordRequest();
+		assertEquals("value", stats.load(() -> "value"));
+
+		assertThat(stats.toString(), startsWith("method: requests=4, hits=3, misses=1, hitRate=75%"));
+	}
+
+	@Test
+	public void failedLoadIsCountedAsMiss()
+	{
+		final CachedMethodStats stats = new CachedMethodStats("method");
+		stats.recordRequest();
+		try
+		{
+			stats.load(() -> {
+				throw new IllegalStateException("load failed");
+			});
+			fail("exception expected");
+		}
+		catch (final Exception ex)
+		{
+			assertEquals("load failed", ex.getMessage());
+		}
+
+		assertThat(stats.toString(), startsWith("method: requests=1, hits=0, misses=1, hitRate=0%"));
+	}
+
+	@Test
+	public void loadTime() throws Exception
+	{
+		final CachedMethodStats stats = new CachedMethodStats("method");
+		stats.recordRequest();
+		stats.load(() -> {
+			Thread.sleep(20);
+			return null;
+		});
+
+		assertTrue("loadNanos=" + stats.getLoadNanos(), stats.getLoadNanos() >= 20_000_000);
+		assertThat(stats.toString(), containsString("avgLoadTime="));
+	}
+
+	@Test
+	public void reset() throws Exception
+	{
+		final CachedMethodStats stats = new CachedMethodStats("method");
+		stats.recordRequest();
+		stats.load(() -> "value");
+
+		stats.reset();
+
+		assertThat(stats.toString(), startsWith("method: requests=0, hits=0, misses=0, hitRate=-"));
+		assertEquals(0, stats.getLoadNanos());
+	}
+}
@@ -2,11 +2,15 @@ package de.metas.impexp.excel;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.adempiere.test.AdempiereTestHelper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -132,6 +136,51 @@ public class ArrayExcelExporterTest
 		assertThat(workbook.getSheetAt(0).getLastRowNum()).isEqualTo(2);
 	}
 
+	@Test
+	public void export_streaming_moreRowsThanRowAccessWindow() throws IOException
+	{
+		final int rowAccessWindowSize = 10;
+		final List<List<Object>> data = generateData(1000, 2);
+
+		final ArrayExcelExporter exporter = ArrayExcelExporter.builder()
+				.excelFormat(ExcelFormats.EXCEL_OPEN_XML)
+				.columnHeaders(ImmutableList.of("header 0", "header 1"))
+				.constants(ExcelExportConstants.builder()
+						.useStreamingWorkbookImplementation(true)
+						.streamingWorkbookRowAccessWindowSize(rowAccessWindowSize)
+						.build())
+				.data(data)
+				.build();
+		final SXSSFWorkbook streamingWorkbook = (SXSSFWorkbook)exporter.exportToWorkbook();
+
+		// only the last rows shall have been kept in memory
+		final Sheet streamingSheet = streamingWorkbook.getSheetAt(0);
+		assertThat(streamingSheet.getRow(1)).isNull();
+		assertThat(streamingSheet.getRow(1000 - rowAccessWindowSize)).isNull();
+		assertThat(streamingSheet.getRow(1000 - rowAccessWindowSize + 1)).isNotNull();
+		assertThat(streamingSheet.getRow(1000)).isNotNull();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		streamingWorkbook.write(out);
+		streamingWorkbook.dispose();
+
+		try (final Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray())))
+		{
+			assertThat(workbook.getNumberOfSheets()).isEqualTo(1);
+
+			final Sheet sheet = workbook.getSheetAt(0);
+			assertThat(sheet.getLastRowNum()).isEqualTo(1000);
+			assertThat(sheet.getRow(0).getCell(0).getStringCellValue()).isEqualTo("header 0");
+			assertThat(sheet.getRow(0).getCell(1).getStringCellValue()).isEqualTo("header 1");
+			for (int rowNo = 0; rowNo < data.size(); rowNo++)
+			{
+				final Row row = sheet.getRow(rowNo + 1);
+				assertThat(row.getCell(0).getStringCellValue()).isEqualTo("cell " + rowNo + " x 0");
+				assertThat(row.getCell(1).getStringCellValue()).isEqualTo("cell " + rowNo + " x 1");
+			}
+		}
+	}
+
 	private List<List<Object>> generateData(final int rowsCount, final int colsCount)
 	{
 		final ArrayList<List<Object>> rowsList = new ArrayList<>(rowsCount);
@@ -0,0 +1,72 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class Md5QueryFilterModifierTest
+{
+	private final Md5QueryFilterModifier modifier = Md5QueryFilterModifier.instance;
+
+	@Test
+	public void convertValue_knownVector()
+	{
+		// SELECT md5('abc') => 900150983cd24fb0d6963f7d28e17f72
+		assertThat(modifier.convertValue("Dummy", "abc", null)).isEqualTo("900150983cd24fb0d6963f7d28e17f72");
+	}
+
+	@Test
+	public void convertValue_emptyString()
+	{
+		// SELECT md5('') => d41d8cd98f00b204e9800998ecf8427e
+		assertThat(modifier.convertValue("Dummy", "", null)).isEqualTo("d41d8cd98f00b204e9800998ecf8427e");
+	}
+
+	@Test
+	public void convertValue_nonAscii()
+	{
+		// hashed as UTF-8, like PostgreSQL does in a UTF8 database: SELECT md5('ä') => 8419b71c87a225a2c70b50486fbee545
+		assertThat(modifier.convertValue("Dummy", "\u00e4", null)).isEqualTo("8419b71c87a225a2c70b50486fbee545");
+	}
+
+	@Test
+	public void convertValue_null()
+	{
+		assertThat(modifier.convertValue("Dummy", null, null)).isNull();
+	}
+
+	@Test
+	public void getValueSql()
+	{
+		final List<Object> params = new ArrayList<>();
+
+		assertThat(modifier.getColumnSql("HeaderAggregationKey")).isEqualTo("md5(HeaderAggregationKey)");
+		assertThat(modifier.getValueSql("abc", params)).isEqualTo("?");
+		assertThat(params).containsExactly("900150983cd24fb0d6963f7d28e17f72");
+	}
+}
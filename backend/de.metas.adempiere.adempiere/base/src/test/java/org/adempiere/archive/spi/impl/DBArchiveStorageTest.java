@@ -67,6 +67,33 @@ public class DBArchiveStorageTest
 		Assert.assertArrayEquals("Invalid data", data, dataActual);
 	}
 
+	@Test
+	public void test_getBinaryDataSize()
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Archive.class, ITrx.TRXNAME_None);
+		final byte[] data = createTestDataBytes();
+		storage.setBinaryData(archive, data);
+		InterfaceWrapperHelper.save(archive);
+
+		Assert.assertEquals("Invalid size from central directory", data.length, DBArchiveStorage.extractUncompressedSize(archive.getBinaryData()));
+		Assert.assertEquals("Invalid size", data.length, storage.getBinaryDataSize(archive));
+	}
+
+	@Test
+	public void test_getBinaryDataSize_noData()
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Archive.class, ITrx.TRXNAME_None);
+
+		Assert.assertEquals("Invalid size", -1, storage.getBinaryDataSize(archive));
+	}
+
+	@Test
+	public void test_extractUncompressedSize_notAZip()
+	{
+		Assert.assertEquals(-1, DBArchiveStorage.extractUncompressedSize(createTestDataBytes()));
+		Assert.assertEquals(-1, DBArchiveStorage.extractUncompressedSize(new byte[] { 1, 2, 3 }));
+	}
+
 	private final Random random = new Random();
 
 	private byte[] createTestDataBytes()
@@ -23,6 +23,8 @@ package org.adempiere.archive.spi.impl;
  */
 
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Properties;
 import java.util.Random;
 
@@ -90,6 +92,42 @@ public class FilesystemArchiveStorageTest
 		Assert.assertArrayEquals("Invalid data", data, dataActual);
 	}
 
+	@Test
+	public void test_identicalData_isStoredOnce()
+	{
+		Ini.setClient(false);
+
+		final byte[] data = createTestDataBytes();
+		final I_AD_Archive archive1 = createArchive(data);
+		final I_AD_Archive archive2 = createArchive(data);
+
+		Assert.assertArrayEquals("Same data shall point to the same file", archive1.getBinaryData(), archive2.getBinaryData());
+		Assert.assertArrayEquals("Invalid data", data, storage.getBinaryData(archive2));
+	}
+
+	@Test
+	public void test_writeBinaryDataTo()
+	{
+		Ini.setClient(false);
+
+		final byte[] data = createTestDataBytes();
+		final I_AD_Archive archive = createArchive(data);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final long written = storage.writeBinaryDataTo(archive, out);
+
+		Assert.assertEquals("Invalid number of bytes written", data.length, written);
+		Assert.assertArrayEquals("Invalid data", data, out.toByteArray());
+	}
+
+	private I_AD_Archive createArchive(final byte[] data)
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Archive.class, ITrx.TRXNAME_None);
+		storage.setBinaryData(archive, new ByteArrayInputStream(data));
+		InterfaceWrapperHelper.save(archive);
+		return archive;
+	}
+
 	private final Random random = new Random();
 
 	private byte[] createTestDataBytes()
@@ -0,0 +1,178 @@
+package org.adempiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.adempiere.ad.persistence.IModelInternalAccessor;
+import org.adempiere.ad.persistence.IModelMethodInfo;
+import org.adempiere.model.POWrapperAdapters.IPOWrapperAdapter;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.PO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class POWrapperAdaptersTest
+{
+	interface I_NotPublic extends I_C_UOM
+	{
+	}
+
+	public interface I_WithGetPOWrapper extends I_C_UOM
+	{
+		POWrapper getPOWrapper();
+	}
+
+	/**
+	 * Model interface without Table_Name, so {@link POWrapper#create(Object, Class)} does not need the PO's metadata to check it.
+	 */
+	public interface I_TestModel
+	{
+		String getName();
+	}
+
+	public interface I_OtherTestModel
+	{
+		String getName();
+	}
+
+	private I_C_UOM pojoModel;
+	private POWrapper wrapper;
+
+	@BeforeEach
+	public void init() throws Exception
+	{
+		AdempiereTestHelper.get().init();
+
+		// a PO needs the AD_Table/AD_Column metadata from the database, so we let the wrapper dispatch the calls to a POJO model instead
+		pojoModel = InterfaceWrapperHelper.newInstance(I_C_UOM.class);
+		final IModelInternalAccessor pojoAccessor = InterfaceWrapperHelper.getModelInternalAccessor(pojoModel);
+
+		wrapper = mock(POWrapper.class);
+		when(wrapper.invoke(any(IModelMethodInfo.class), any())).thenAnswer(invocation -> {
+			final IModelMethodInfo methodInfo = invocation.getArgument(0);
+			final Object[] args = invocation.getArgument(1);
+			return methodInfo.invoke(pojoAccessor, args);
+		});
+	}
+
+	@Test
+	public void getterSetterRoundTrip()
+	{
+		assertThat(POWrapperAdapters.isEnabled()).isTrue();
+
+		final I_C_UOM adapter = POWrapperAdapters.createAdapterOrNull(I_C_UOM.class, wrapper);
+		assertThat(adapter).isInstanceOf(IPOWrapperAdapter.class);
+		assertThat(POWrapperAdapters.getPOWrapperOrNull(adapter)).isSameAs(wrapper);
+
+		adapter.setName("Kilogram");
+		adapter.setStdPrecision(3);
+		adapter.setIsActive(true);
+
+		assertThat(adapter.getName()).isEqualTo("Kilogram");
+		assertThat(adapter.getStdPrecision()).isEqualTo(3);
+		assertThat(adapter.isActive()).isTrue();
+
+		// the calls went through to the wrapped model
+		assertThat(pojoModel.getName()).isEqualTo("Kilogram");
+		assertThat(pojoModel.getStdPrecision()).isEqualTo(3);
+
+		pojoModel.setName("Gram");
+		assertThat(adapter.getName()).isEqualTo("Gram");
+	}
+
+	@Test
+	public void adapterClassIsGeneratedOnce()
+	{
+		final I_C_UOM adapter1 = POWrapperAdapters.createAdapterOrNull(I_C_UOM.class, wrapper);
+		final I_C_UOM adapter2 = POWrapperAdapters.createAdapterOrNull(I_C_UOM.class, wrapper);
+
+		assertThat(adapter1).isNotSameAs(adapter2);
+		assertThat(adapter1.getClass()).isSameAs(adapter2.getClass());
+	}
+
+	@Test
+	public void noAdapterForNotPublicInterface()
+	{
+		assertThat(POWrapperAdapters.createAdapterOrNull(I_NotPublic.class, wrapper)).isNull();
+	}
+
+	@Test
+	public void noAdapterForInterfaceWithGetPOWrapper()
+	{
+		assertThat(POWrapperAdapters.createAdapterOrNull(I_WithGetPOWrapper.class, wrapper)).isNull();
+	}
+
+	@Test
+	public void create_overPO()
+	{
+		final PO po = mock(PO.class);
+
+		final I_TestModel model = POWrapper.create(po, I_TestModel.class);
+
+		assertThat(model).isInstanceOf(IPOWrapperAdapter.class);
+		assertThat(POWrapper.getPO(model)).isSameAs(po);
+		assertThat(POWrapper.getStrictPO(model)).isSameAs(po);
+		assertThat(POWrapper.isHandled(model)).isTrue();
+	}
+
+	@Test
+	public void create_overAdapter()
+	{
+		final PO po = mock(PO.class);
+		final I_TestModel model = POWrapper.create(po, I_TestModel.class);
+
+		assertThat(POWrapper.create(model, I_TestModel.class)).isSameAs(model);
+
+		final I_OtherTestModel otherModel = POWrapper.create(model, I_OtherTestModel.class);
+		assertThat(otherModel).isInstanceOf(IPOWrapperAdapter.class);
+		assertThat(POWrapper.getPO(otherModel)).isSameAs(po);
+	}
+
+	@Test
+	public void equalsAndHashCode_delegateToPO()
+	{
+		final PO po = mock(PO.class);
+		final I_TestModel model1 = POWrapper.create(po, I_TestModel.class);
+		final I_TestModel model2 = POWrapper.create(po, I_TestModel.class);
+		final I_TestModel modelOfOtherPO = POWrapper.create(mock(PO.class), I_TestModel.class);
+
+		assertThat(model1).isNotSameAs(model2);
+		assertThat(model1.equals(model2)).isTrue();
+		assertThat(model1.equals(po)).isTrue();
+		assertThat(model1.equals(POWrapper.create(po, I_OtherTestModel.class))).isTrue();
+		assertThat(model1.equals(modelOfOtherPO)).isFalse();
+		assertThat(model1.hashCode()).isEqualTo(po.hashCode());
+	}
+
+	@Test
+	public void getPOWrapperOrNull_notAnAdapter()
+	{
+		assertThat(POWrapperAdapters.getPOWrapperOrNull(pojoModel)).isNull();
+		assertThat(POWrapperAdapters.getPOWrapperOrNull(null)).isNull();
+	}
+}
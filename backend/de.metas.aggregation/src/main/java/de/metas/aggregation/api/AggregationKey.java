@@ -39,7 +39,7 @@ public final class AggregationKey
 	public static final AggregationKey NULL = new AggregationKey();
 
 	private final String keyString;
-	private final IStringExpression keyStringExpr;
+	private volatile IStringExpression _keyStringExpr; // lazy; only needed when parsing
 	private final AggregationId aggregationId;
 
 	public AggregationKey(final ArrayKey key, final AggregationId aggregationId)
@@ -50,7 +50,6 @@ public final class AggregationKey
 	public AggregationKey(final String keyString, final AggregationId aggregationId)
 	{
 		this.keyString = keyString;
-		keyStringExpr = Services.get(IExpressionFactory.class).compile(keyString, IStringExpression.class);
 		this.aggregationId = aggregationId;
 	}
 
@@ -58,7 +57,7 @@ public final class AggregationKey
 	private AggregationKey()
 	{
 		this.keyString = null;
-		this.keyStringExpr = NullStringExpression.instance;
+		this._keyStringExpr = NullStringExpression.instance;
 		this.aggregationId = null;
 	}
 
@@ -81,10 +80,21 @@ public final class AggregationKey
 
 	public AggregationKey parse(final Evaluatee ctx)
 	{
-		final String keyStringNew = keyStringExpr.evaluate(ctx, OnVariableNotFound.Preserve);
+		final String keyStringNew = getKeyStringExpr().evaluate(ctx, OnVariableNotFound.Preserve);
 		return new AggregationKey(keyStringNew, aggregationId);
 	}
 
+	private IStringExpression getKeyStringExpr()
+	{
+		// NOTE: keys are built on each invoice candidate update, but only parsed when invoicing, so we compile the expression on demand
+		IStringExpression keyStringExpr = _keyStringExpr;
+		if (keyStringExpr == null)
+		{
+			keyStringExpr = _keyStringExpr = Services.get(IExpressionFactory.class).compile(keyString, IStringExpression.class);
+		}
+		return keyStringExpr;
+	}
+
 	public AggregationKey append(final String keyPart)
 	{
 		Check.assumeNotEmpty(keyPart, "keyPart is not empty");
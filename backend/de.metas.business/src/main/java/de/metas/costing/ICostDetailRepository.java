@@ -33,6 +33,13 @@ public interface ICostDetailRepository
 {
 	CostDetail create(CostDetail.CostDetailBuilder costDetailBuilder);
 
+	/**
+	 * Inserts all given (not yet saved) cost details, using JDBC batch inserts.
+	 *
+	 * @return the saved cost details (i.e. with their IDs), in the same order as given
+	 */
+	List<CostDetail> createAll(List<CostDetail> costDetails);
+
 	void delete(CostDetail costDetail);
 
 	Optional<CostDetail> getCostDetail(CostDetailQuery query);
@@ -63,6 +63,11 @@ public interface ICostDetailService
 
 	CostDetail create(CostDetailBuilder costDetailBuilder);
 
+	/**
+	 * @return the saved cost details, in the same order as given
+	 */
+	List<CostDetail> createAll(List<CostDetail> costDetails);
+
 	void delete(CostDetail costDetail);
 
 }
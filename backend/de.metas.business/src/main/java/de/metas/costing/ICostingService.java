@@ -3,6 +3,7 @@ package de.metas.costing;
 import de.metas.order.OrderLineId;
 import de.metas.uom.UomId;
 
+import java.util.List;
 import java.util.Optional;
 
 /*
@@ -31,10 +32,25 @@ public interface ICostingService
 {
 	AggregatedCostAmount createCostDetail(CostDetailCreateRequest request);
 
+	/**
+	 * Creates the cost details for all given requests (usually the lines of one document) in one batch.
+	 * The requests are processed in given order, but the current costs are loaded once and saved once per cost segment and the cost details are inserted in a batch.
+	 *
+	 * @return aggregated cost amounts, in the same order as the requests
+	 */
+	List<AggregatedCostAmount> createCostDetails(List<CostDetailCreateRequest> requests);
+
 	AggregatedCostAmount createReversalCostDetails(CostDetailReverseRequest request);
 
 	MoveCostsResult moveCosts(MoveCostsRequest request);
 
+	/**
+	 * Same as {@link #moveCosts(MoveCostsRequest)} but for all given requests in one batch (see {@link #createCostDetails(List)}).
+	 *
+	 * @return results, in the same order as the requests
+	 */
+	List<MoveCostsResult> moveCosts(List<MoveCostsRequest> requests);
+
 	void voidAndDeleteForDocument(CostingDocumentRef documentRef);
 
 	/**
@@ -1,6 +1,7 @@
 package de.metas.costing;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -43,6 +44,18 @@ public interface ICurrentCostsRepository
 
 	CurrentCost create(CostSegmentAndElement costSegmentAndElement);
 
+	/**
+	 * @return new current cost, which is NOT saved
+	 */
+	CurrentCost newCurrentCost(CostSegmentAndElement costSegmentAndElement);
+
+	/**
+	 * Loads the current costs of all given cost segments, using one query per {@link CostSegment}.
+	 *
+	 * @return existing current costs; cost segments which have no current cost record are not included
+	 */
+	Map<CostSegmentAndElement, CurrentCost> getByCostSegmentAndElements(Set<CostSegmentAndElement> costSegmentAndElements);
+
 	void createIfMissing(CostSegmentAndElement costSegmentAndElement);
 
 	void createDefaultProductCosts(I_M_Product product);
@@ -1,6 +1,8 @@
 package de.metas.costing.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
 import de.metas.acct.api.AcctSchemaId;
 import de.metas.costing.CostAmount;
 import de.metas.costing.CostDetail;
@@ -19,18 +21,28 @@ import de.metas.uom.IUOMDAO;
 import de.metas.uom.UomId;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import de.metas.util.time.SystemTime;
 import lombok.NonNull;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.mm.attributes.AttributeSetInstanceId;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.compiere.Adempiere;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_CostDetail;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -73,6 +85,12 @@ public class CostDetailRepository implements ICostDetailRepository
 		final CostDetail cd = costDetailBuilder.build();
 		Check.assumeNull(cd.getId(), "RepoId shall NOT be set for {}", cd);
 
+		return createRecord(cd);
+	}
+
+	private CostDetail createRecord(@NonNull final CostDetail cd)
+	{
+
 		final I_M_CostDetail record = newInstance(I_M_CostDetail.class);
 		Check.assumeEquals(cd.getClientId().getRepoId(), record.getAD_Client_ID(), "AD_Client_ID");
 		record.setAD_Org_ID(cd.getOrgId().getRepoId());
@@ -110,6 +128,151 @@ public class CostDetailRepository implements ICostDetailRepository
 		return cd.withId(id);
 	}
 
+	@Override
+	public ImmutableList<CostDetail> createAll(@NonNull final List<CostDetail> costDetails)
+	{
+		if (costDetails.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		costDetails.forEach(cd -> Check.assumeNull(cd.getId(), "RepoId shall NOT be set for {}", cd));
+
+		if (Adempiere.isUnitTestMode())
+		{
+			// the JDBC batch insert is not supported by the in-memory database which is used in unit tests
+			return costDetails.stream()
+					.map(this::createRecord)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		// allocate the IDs in one go, so that we can return the cost details with their IDs
+		final List<CostDetailId> ids = retrieveNextCostDetailIds(costDetails.size());
+		final ImmutableList.Builder<CostDetail> savedCostDetails = ImmutableList.builder();
+		for (int i = 0; i < costDetails.size(); i++)
+		{
+			savedCostDetails.add(costDetails.get(i).withId(ids.get(i)));
+		}
+		final ImmutableList<CostDetail> result = savedCostDetails.build();
+
+		// NOTE: the document column is not the same for all cost details, so we do one batch for each of them
+		final ImmutableListMultimap<String, CostDetail> costDetailsByDocumentColumnName = Multimaps.index(result, costDetail -> costDetail.getDocumentRef().getCostDetailColumnName());
+		for (final String documentColumnName : costDetailsByDocumentColumnName.keySet())
+		{
+			insertBatch(documentColumnName, costDetailsByDocumentColumnName.get(documentColumnName));
+		}
+
+		return result;
+	}
+
+	private static List<CostDetailId> retrieveNextCostDetailIds(final int count)
+	{
+		final String sql = "SELECT " + DB.TO_TABLESEQUENCE_NEXTVAL(I_M_CostDetail.Table_Name) + " FROM generate_series(1, ?)";
+		final List<CostDetailId> ids = DB.retrieveRowsOutOfTrx(sql, ImmutableList.of(count), rs -> CostDetailId.ofRepoId(rs.getInt(1)));
+		if (ids.size() != count)
+		{
+			throw new AdempiereException("Expected " + count + " new M_CostDetail_IDs but got " + ids.size());
+		}
+		return ids;
+	}
+
+	private static void insertBatch(
+			@NonNull final String documentColumnName,
+			@NonNull final List<CostDetail> costDetails)
+	{
+		final String sql = "INSERT INTO " + I_M_CostDetail.Table_Name + "("
+				+ I_M_CostDetail.COLUMNNAME_M_CostDetail_ID + "," // 1
+				+ I_M_CostDetail.COLUMNNAME_AD_Client_ID + "," // 2
+				+ I_M_CostDetail.COLUMNNAME_AD_Org_ID + "," // 3
+				+ I_M_CostDetail.COLUMNNAME_C_AcctSchema_ID + "," // 4
+				+ I_M_CostDetail.COLUMNNAME_M_CostElement_ID + "," // 5
+				+ I_M_CostDetail.COLUMNNAME_M_Product_ID + "," // 6
+				+ I_M_CostDetail.COLUMNNAME_M_AttributeSetInstance_ID + "," // 7
+				+ I_M_CostDetail.COLUMNNAME_Amt + "," // 8
+				+ I_M_CostDetail.COLUMNNAME_C_Currency_ID + "," // 9
+				+ I_M_CostDetail.COLUMNNAME_Qty + "," // 10
+				+ I_M_CostDetail.COLUMNNAME_C_UOM_ID + "," // 11
+				+ I_M_CostDetail.COLUMNNAME_IsChangingCosts + "," // 12
+				+ I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPrice + "," // 13
+				+ I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPriceLL + "," // 14
+				+ I_M_CostDetail.COLUMNNAME_Prev_CurrentQty + "," // 15
+				+ I_M_CostDetail.COLUMNNAME_Prev_CumulatedAmt + "," // 16
+				+ I_M_CostDetail.COLUMNNAME_Prev_CumulatedQty + "," // 17
+				+ I_M_CostDetail.COLUMNNAME_IsSOTrx + "," // 18
+				+ documentColumnName + "," // 19
+				+ I_M_CostDetail.COLUMNNAME_Description + "," // 20
+				+ I_M_CostDetail.COLUMNNAME_Processed + "," // 21
+				+ I_M_CostDetail.COLUMNNAME_IsActive + "," // 22
+				+ I_M_CostDetail.COLUMNNAME_Created + "," // 23
+				+ I_M_CostDetail.COLUMNNAME_CreatedBy + "," // 24
+				+ I_M_CostDetail.COLUMNNAME_Updated + "," // 25
+				+ I_M_CostDetail.COLUMNNAME_UpdatedBy // 26
+				+ ")"
+				+ " VALUES ("
+				+ "?,?,?,?,?,?,?," // 1..7
+				+ "?,?,?,?," // 8..11
+				+ "?," // 12 - IsChangingCosts
+				+ "?,?,?,?,?," // 13..17 - Prev_*
+				+ "?,?,?," // 18..20
+				+ "'Y'," // 21 - Processed
+				+ "'Y'," // 22 - IsActive
+				+ "?,?,?,?" // 23..26
+				+ ")";
+
+		final Timestamp now = SystemTime.asTimestamp();
+		final int userId = Env.getAD_User_ID();
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+
+			for (final CostDetail cd : costDetails)
+			{
+				final CostDetailPreviousAmounts previousAmounts = cd.getPreviousAmounts();
+				DB.setParameters(pstmt, new Object[] {
+						cd.getId(), // 1 - M_CostDetail_ID
+						cd.getClientId(), // 2 - AD_Client_ID
+						cd.getOrgId(), // 3 - AD_Org_ID
+						cd.getAcctSchemaId(), // 4 - C_AcctSchema_ID
+						cd.getCostElementId(), // 5 - M_CostElement_ID
+						cd.getProductId(), // 6 - M_Product_ID
+						cd.getAttributeSetInstanceId(), // 7 - M_AttributeSetInstance_ID
+						cd.getAmt().getValue(), // 8 - Amt
+						cd.getAmt().getCurrencyId(), // 9 - C_Currency_ID
+						cd.getQty().toBigDecimal(), // 10 - Qty
+						cd.getQty().getUomId(), // 11 - C_UOM_ID
+						cd.isChangingCosts(), // 12 - IsChangingCosts
+						previousAmounts != null ? previousAmounts.getCostPrice().getOwnCostPrice().getValue() : BigDecimal.ZERO, // 13 - Prev_CurrentCostPrice
+						previousAmounts != null ? previousAmounts.getCostPrice().getComponentsCostPrice().getValue() : BigDecimal.ZERO, // 14 - Prev_CurrentCostPriceLL
+						previousAmounts != null ? previousAmounts.getQty().toBigDecimal() : BigDecimal.ZERO, // 15 - Prev_CurrentQty
+						previousAmounts != null ? previousAmounts.getCumulatedAmt().getValue() : BigDecimal.ZERO, // 16 - Prev_CumulatedAmt
+						previousAmounts != null ? previousAmounts.getCumulatedQty().toBigDecimal() : BigDecimal.ZERO, // 17 - Prev_CumulatedQty
+						cd.isOutboundTrx(), // 18 - IsSOTrx
+						cd.getDocumentRef().getRecordId(), // 19 - document column
+						cd.getDescription(), // 20 - Description
+						// 21 - Processed
+						// 22 - IsActive
+						now, // 23 - Created
+						userId, // 24 - CreatedBy
+						now, // 25 - Updated
+						userId, // 26 - UpdatedBy
+				});
+				pstmt.addBatch();
+			}
+
+			pstmt.executeBatch();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+
 	private static void updateRecordFromDocumentRef(
 			final I_M_CostDetail record,
 			final CostingDocumentRef documentRef)
@@ -27,6 +27,7 @@ import de.metas.costing.ICostElementRepository;
 import de.metas.costing.IProductCostingBL;
 import de.metas.costing.MoveCostsRequest;
 import de.metas.product.ProductId;
+import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
 
@@ -103,6 +104,12 @@ public class CostDetailService implements ICostDetailService
 		return costDetailsRepo.create(costDetailBuilder);
 	}
 
+	@Override
+	public List<CostDetail> createAll(@NonNull final List<CostDetail> costDetails)
+	{
+		return costDetailsRepo.createAll(costDetails);
+	}
+
 	@Override
 	public boolean hasCostDetailsForProductId(@NonNull final ProductId productId)
 	{
@@ -124,6 +131,8 @@ public class CostDetailService implements ICostDetailService
 	@Override
 	public Stream<CostDetail> streamAllCostDetailsAfter(final CostDetail costDetail)
 	{
+		Check.assumeNotNull(costDetail.getId(), "costDetail is saved: {}", costDetail);
+
 		final CostingLevel costingLevel = productCostingBL.getCostingLevel(costDetail.getProductId(), costDetail.getAcctSchemaId());
 		return costDetailsRepo.streamOrderedById(CostDetailQuery.builder()
 				.acctSchemaId(costDetail.getAcctSchemaId())
@@ -130,10 +130,54 @@ public class CostingService implements ICostingService
 	@Override
 	public AggregatedCostAmount createCostDetail(@NonNull final CostDetailCreateRequest request)
 	{
-		final ImmutableList<CostDetailCreateResult> costElementResults = Stream.of(request)
+		return createCostDetail(request, explodeRequest(request));
+	}
+
+	@Override
+	public ImmutableList<AggregatedCostAmount> createCostDetails(@NonNull final List<CostDetailCreateRequest> requests)
+	{
+		if (requests.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList<ImmutableList<CostDetailCreateRequest>> explodedRequests = requests
+				.stream()
+				.map(this::explodeRequest)
+				.collect(ImmutableList.toImmutableList());
+
+		final ImmutableSet<CostSegmentAndElement> costSegmentAndElements = explodedRequests
+				.stream()
+				.flatMap(List::stream)
+				.map(utils::extractCostSegmentAndElement)
+				.collect(ImmutableSet.toImmutableSet());
+
+		// NOTE: the requests are processed in given order, so the running averages are computed like they would be computed line by line
+		return utils.runInBatch(costSegmentAndElements, () -> {
+			final ImmutableList.Builder<AggregatedCostAmount> results = ImmutableList.builder();
+			for (int i = 0; i < requests.size(); i++)
+			{
+				results.add(createCostDetail(requests.get(i), explodedRequests.get(i)));
+			}
+			return results.build();
+		});
+	}
+
+	private ImmutableList<CostDetailCreateRequest> explodeRequest(final CostDetailCreateRequest request)
+	{
+		return Stream.of(request)
 				.flatMap(this::explodeAcctSchemas)
 				.map(this::convertToAcctSchemaCurrency)
 				.flatMap(this::explodeCostElements)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private AggregatedCostAmount createCostDetail(
+			final CostDetailCreateRequest request,
+			final List<CostDetailCreateRequest> explodedRequests)
+	{
+		final ImmutableList<CostDetailCreateResult> costElementResults = explodedRequests
+				.stream()
 				.flatMap(this::createCostDetailUsingHandlersAndStream)
 				.collect(ImmutableList.toImmutableList());
 
@@ -471,6 +515,30 @@ public class CostingService implements ICostingService
 				.map(AggregatedCostPrice::getTotalPrice);
 	}
 
+	@Override
+	public ImmutableList<MoveCostsResult> moveCosts(@NonNull final List<MoveCostsRequest> requests)
+	{
+		if (requests.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableSet<CostSegmentAndElement> costSegmentAndElements = requests
+				.stream()
+				.flatMap(request -> extractCostElements(request)
+						.stream()
+						.map(request::withCostElement))
+				.flatMap(request -> Stream.of(
+						utils.extractOutboundCostSegmentAndElement(request),
+						utils.extractInboundCostSegmentAndElement(request)))
+				.collect(ImmutableSet.toImmutableSet());
+
+		return utils.runInBatch(costSegmentAndElements, () -> requests
+				.stream()
+				.map(this::moveCosts)
+				.collect(ImmutableList.toImmutableList()));
+	}
+
 	@Override
 	public MoveCostsResult moveCosts(@NonNull final MoveCostsRequest request)
 	{
@@ -2,6 +2,7 @@ package de.metas.costing.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
 import de.metas.acct.api.AcctSchema;
 import de.metas.acct.api.AcctSchemaId;
 import de.metas.acct.api.IAcctSchemaDAO;
@@ -220,24 +221,54 @@ public class CurrentCostsRepository implements ICurrentCostsRepository
 				.collect(ImmutableList.toImmutableList());
 	}
 
+	@Override
+	public ImmutableMap<CostSegmentAndElement, CurrentCost> getByCostSegmentAndElements(@NonNull final Set<CostSegmentAndElement> costSegmentAndElements)
+	{
+		if (costSegmentAndElements.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final ImmutableSetMultimap<CostSegment, CostElementId> costElementIdsByCostSegment = costSegmentAndElements
+				.stream()
+				.collect(ImmutableSetMultimap.toImmutableSetMultimap(
+						CostSegmentAndElement::toCostSegment,
+						CostSegmentAndElement::getCostElementId));
+
+		final ImmutableMap.Builder<CostSegmentAndElement, CurrentCost> result = ImmutableMap.builder();
+		for (final CostSegment costSegment : costElementIdsByCostSegment.keySet())
+		{
+			for (final CurrentCost currentCost : getByCostSegmentAndCostElements(costSegment, costElementIdsByCostSegment.get(costSegment)))
+			{
+				result.put(costSegment.withCostElementId(currentCost.getCostElementId()), currentCost);
+			}
+		}
+
+		return result.build();
+	}
+
 	@Override
 	public CurrentCost create(@NonNull final CostSegmentAndElement costSegmentAndElement)
+	{
+		final CurrentCost currentCost = newCurrentCost(costSegmentAndElement);
+		save(currentCost);
+		return currentCost;
+	}
+
+	@Override
+	public CurrentCost newCurrentCost(@NonNull final CostSegmentAndElement costSegmentAndElement)
 	{
 		final CostElement costElement = costElementRepo.getById(costSegmentAndElement.getCostElementId());
 		final AcctSchema acctSchema = acctSchemasRepo.getById(costSegmentAndElement.getAcctSchemaId());
 		final I_C_UOM uom = productBL.getStockUOM(costSegmentAndElement.getProductId());
 
-		final CurrentCost currentCost = CurrentCost.builder()
+		return CurrentCost.builder()
 				.costSegment(costSegmentAndElement.toCostSegment())
 				.costElement(costElement)
 				.currencyId(acctSchema.getCurrencyId())
 				.precision(acctSchema.getCosting().getCostingPrecision())
 				.uom(uom)
 				.build();
-
-		save(currentCost);
-
-		return currentCost;
 	}
 
 	@Override
@@ -0,0 +1,202 @@
+package de.metas.costing.methods;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.costing.CostDetail;
+import de.metas.costing.CostDetailCreateRequest;
+import de.metas.costing.CostSegmentAndElement;
+import de.metas.costing.CurrentCost;
+import de.metas.costing.ICostDetailService;
+import de.metas.costing.ICurrentCostsRepository;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Unit of work used while creating the costs of a whole document.
+ * <p>
+ * The current costs are loaded once per cost segment and then kept in memory, so the handlers are calculating the running averages in memory, in document order.
+ * Changed current costs and new cost details are written only on {@link #flush()}.
+ * <p>
+ * Not thread safe, a batch is bound to the thread which is creating the costs (see {@link CostingMethodHandlerUtils#runInBatch(Set, java.util.function.Supplier)}).
+ */
+final class CostingBatch
+{
+	private final ICurrentCostsRepository currentCostsRepo;
+	private final ICostDetailService costDetailsService;
+
+	private final HashMap<CostSegmentAndElement, CurrentCost> currentCosts = new HashMap<>();
+	private final Set<CurrentCost> currentCostsToSave = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final ArrayList<CostDetail> costDetailsToSave = new ArrayList<>();
+	/** Not saved cost detail to saved cost detail (i.e. with ID) */
+	private final IdentityHashMap<CostDetail, CostDetail> savedCostDetails = new IdentityHashMap<>();
+
+	CostingBatch(
+			@NonNull final ICurrentCostsRepository currentCostsRepo,
+			@NonNull final ICostDetailService costDetailsService)
+	{
+		this.currentCostsRepo = currentCostsRepo;
+		this.costDetailsService = costDetailsService;
+	}
+
+	public void preload(@NonNull final Set<CostSegmentAndElement> costSegmentAndElements)
+	{
+		final ImmutableSet<CostSegmentAndElement> costSegmentAndElementsToLoad = costSegmentAndElements
+				.stream()
+				.filter(costSegmentAndElement -> !currentCosts.containsKey(costSegmentAndElement))
+				.collect(ImmutableSet.toImmutableSet());
+		if (costSegmentAndElementsToLoad.isEmpty())
+		{
+			return;
+		}
+
+		final Map<CostSegmentAndElement, CurrentCost> existingCurrentCosts = currentCostsRepo.getByCostSegmentAndElements(costSegmentAndElementsToLoad);
+		for (final CostSegmentAndElement costSegmentAndElement : costSegmentAndElementsToLoad)
+		{
+			final CurrentCost existingCurrentCost = existingCurrentCosts.get(costSegmentAndElement);
+			if (existingCurrentCost != null)
+			{
+				currentCosts.put(costSegmentAndElement, existingCurrentCost);
+			}
+			else
+			{
+				newCurrentCost(costSegmentAndElement);
+			}
+		}
+	}
+
+	public CurrentCost getCurrentCost(@NonNull final CostSegmentAndElement costSegmentAndElement)
+	{
+		final CurrentCost currentCost = currentCosts.get(costSegmentAndElement);
+		if (currentCost != null)
+		{
+			return currentCost;
+		}
+
+		final CurrentCost existingCurrentCost = currentCostsRepo.getOrNull(costSegmentAndElement);
+		if (existingCurrentCost != null)
+		{
+			currentCosts.put(costSegmentAndElement, existingCurrentCost);
+			return existingCurrentCost;
+		}
+
+		return newCurrentCost(costSegmentAndElement);
+	}
+
+	private CurrentCost newCurrentCost(final CostSegmentAndElement costSegmentAndElement)
+	{
+		final CurrentCost currentCost = currentCostsRepo.newCurrentCost(costSegmentAndElement);
+		currentCosts.put(costSegmentAndElement, currentCost);
+
+		// NOTE: same as ICurrentCostsRepository.getOrCreate, the record shall be created even if nobody is changing it
+		currentCostsToSave.add(currentCost);
+
+		return currentCost;
+	}
+
+	public void saveCurrentCost(@NonNull final CurrentCost currentCost)
+	{
+		currentCostsToSave.add(currentCost);
+	}
+
+	public void addCostDetail(@NonNull final CostDetail costDetail)
+	{
+		costDetailsToSave.add(costDetail);
+	}
+
+	/**
+	 * @return the cost detail which was created in this batch (but not yet saved) for the given request's document, accounting schema and cost element
+	 */
+	public Optional<CostDetail> getNotSavedCostDetail(@NonNull final CostDetailCreateRequest request)
+	{
+		return costDetailsToSave
+				.stream()
+				.filter(costDetail -> costDetail.getAcctSchemaId().equals(request.getAcctSchemaId())
+						&& costDetail.getCostElementId().equals(request.getCostElementId())
+						&& costDetail.getDocumentRef().equals(request.getDocumentRef()))
+				.findFirst();
+	}
+
+	public void flush()
+	{
+		flushCurrentCosts();
+		flushCostDetails();
+	}
+
+	private void flushCurrentCosts()
+	{
+		if (currentCostsToSave.isEmpty())
+		{
+			return;
+		}
+
+		final List<CurrentCost> currentCostsToSaveNow = ImmutableList.copyOf(currentCostsToSave);
+		currentCostsToSave.clear();
+
+		currentCostsToSaveNow.forEach(currentCostsRepo::save);
+	}
+
+	public void flushCostDetails()
+	{
+		if (costDetailsToSave.isEmpty())
+		{
+			return;
+		}
+
+		final List<CostDetail> costDetailsToSaveNow = ImmutableList.copyOf(costDetailsToSave);
+		costDetailsToSave.clear();
+
+		final List<CostDetail> costDetailsSaved = costDetailsService.createAll(costDetailsToSaveNow);
+		for (int i = 0; i < costDetailsToSaveNow.size(); i++)
+		{
+			final CostDetail costDetailSaved = costDetailsSaved.get(i);
+			Check.assumeNotNull(costDetailSaved.getId(), "costDetail is saved: {}", costDetailSaved);
+			savedCostDetails.put(costDetailsToSaveNow.get(i), costDetailSaved);
+		}
+	}
+
+	/**
+	 * @return the saved version (i.e. with ID) of a cost detail which was created in this batch and then flushed, else the given cost detail
+	 */
+	public CostDetail getSavedCostDetail(@NonNull final CostDetail costDetail)
+	{
+		if (costDetail.getId() != null)
+		{
+			return costDetail;
+		}
+
+		final CostDetail costDetailSaved = savedCostDetails.get(costDetail);
+		return costDetailSaved != null ? costDetailSaved : costDetail;
+	}
+}
@@ -36,6 +36,8 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /*
@@ -70,6 +72,8 @@ public class CostingMethodHandlerUtils
 	private final ICostDetailService costDetailsService;
 	private final ICurrentCostsRepository currentCostsRepo;
 
+	private final ThreadLocal<CostingBatch> currentBatchHolder = new ThreadLocal<>();
+
 	public CostingMethodHandlerUtils(
 			@NonNull final CurrencyRepository currenciesRepo,
 			@NonNull final ICurrentCostsRepository currentCostsRepo,
@@ -127,6 +131,41 @@ public class CostingMethodHandlerUtils
 		return acctSchemaRepo.getById(acctSchemaId);
 	}
 
+	/**
+	 * Runs the given action in a costing batch.
+	 * While the batch is running, the current costs are loaded only once per cost segment and kept in memory.
+	 * The changed current costs and the new cost details are saved at the end, using batched writes.
+	 * <p>
+	 * If there is already a batch running in current thread, the action is joining it.
+	 *
+	 * @param costSegmentAndElementsToPreload the current costs which will be needed (loaded with one query per cost segment)
+	 */
+	public <T> T runInBatch(
+			@NonNull final Set<CostSegmentAndElement> costSegmentAndElementsToPreload,
+			@NonNull final Supplier<T> action)
+	{
+		final CostingBatch currentBatch = currentBatchHolder.get();
+		if (currentBatch != null)
+		{
+			currentBatch.preload(costSegmentAndElementsToPreload);
+			return action.get();
+		}
+
+		final CostingBatch batch = new CostingBatch(currentCostsRepo, costDetailsService);
+		currentBatchHolder.set(batch);
+		try
+		{
+			batch.preload(costSegmentAndElementsToPreload);
+			final T result = action.get();
+			batch.flush();
+			return result;
+		}
+		finally
+		{
+			currentBatchHolder.remove();
+		}
+	}
+
 	public CostSegmentAndElement extractCostSegmentAndElement(final CostDetailCreateRequest request)
 	{
 		return costDetailsService.extractCostSegmentAndElement(request);
@@ -146,6 +185,12 @@ public class CostingMethodHandlerUtils
 			@NonNull final CostDetailCreateRequest request,
 			@NonNull final CostDetailPreviousAmounts previousCosts)
 	{
+		final CostingBatch batch = currentBatchHolder.get();
+		if (batch != null)
+		{
+			return addCostDetailToBatch(batch, request, true, previousCosts);
+		}
+
 		return costDetailsService.createCostDetailRecordWithChangedCosts(request, previousCosts);
 	}
 
@@ -153,9 +198,30 @@ public class CostingMethodHandlerUtils
 			@NonNull final CostDetailCreateRequest request,
 			@NonNull final CostDetailPreviousAmounts currentCosts)
 	{
+		final CostingBatch batch = currentBatchHolder.get();
+		if (batch != null)
+		{
+			return addCostDetailToBatch(batch, request, false, currentCosts);
+		}
+
 		return costDetailsService.createCostDetailRecordNoCostsChanged(request, currentCosts);
 	}
 
+	private CostDetailCreateResult addCostDetailToBatch(
+			@NonNull final CostingBatch batch,
+			@NonNull final CostDetailCreateRequest request,
+			final boolean changingCosts,
+			@NonNull final CostDetailPreviousAmounts previousCosts)
+	{
+		final CostDetail costDetail = request.toCostDetailBuilder()
+				.changingCosts(changingCosts)
+				.previousAmounts(previousCosts)
+				.build();
+		batch.addCostDetail(costDetail);
+
+		return costDetailsService.toCostDetailCreateResult(costDetail);
+	}
+
 	public CostDetailCreateResult toCostDetailCreateResult(final CostDetail costDetail)
 	{
 		return costDetailsService.toCostDetailCreateResult(costDetail);
@@ -163,6 +229,16 @@ public class CostingMethodHandlerUtils
 
 	protected final Optional<CostDetail> getExistingCostDetail(final CostDetailCreateRequest request)
 	{
+		final CostingBatch batch = currentBatchHolder.get();
+		if (batch != null)
+		{
+			final Optional<CostDetail> notSavedCostDetail = batch.getNotSavedCostDetail(request);
+			if (notSavedCostDetail.isPresent())
+			{
+				return notSavedCostDetail;
+			}
+		}
+
 		return costDetailsService.getExistingCostDetail(request);
 	}
 
@@ -180,6 +256,12 @@ public class CostingMethodHandlerUtils
 
 	public final CurrentCost getCurrentCost(final CostSegmentAndElement costSegmentAndElement)
 	{
+		final CostingBatch batch = currentBatchHolder.get();
+		if (batch != null)
+		{
+			return batch.getCurrentCost(costSegmentAndElement);
+		}
+
 		return currentCostsRepo.getOrCreate(costSegmentAndElement);
 	}
 
@@ -190,6 +272,13 @@ public class CostingMethodHandlerUtils
 
 	public final void saveCurrentCost(final CurrentCost currentCost)
 	{
+		final CostingBatch batch = currentBatchHolder.get();
+		if (batch != null)
+		{
+			batch.saveCurrentCost(currentCost);
+			return;
+		}
+
 		currentCostsRepo.save(currentCost);
 	}
 
@@ -247,6 +336,16 @@ public class CostingMethodHandlerUtils
 
 	public Stream<CostDetail> streamAllCostDetailsAfter(final CostDetail costDetail)
 	{
+		// make sure the cost details created in current batch are considered too
+		final CostingBatch batch = currentBatchHolder.get();
+		if (batch != null)
+		{
+			batch.flushCostDetails();
+
+			// the given cost detail might have been created in current batch, so it got its ID only now
+			return costDetailsService.streamAllCostDetailsAfter(batch.getSavedCostDetail(costDetail));
+		}
+
 		return costDetailsService.streamAllCostDetailsAfter(costDetail);
 	}
 }
@@ -3,6 +3,8 @@ package de.metas.pricing.rules;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import javax.annotation.Nullable;
+
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_ProductPrice;
@@ -20,6 +22,7 @@ import de.metas.pricing.IPricingResult;
 import de.metas.pricing.InvoicableQtyBasedOn;
 import de.metas.pricing.PriceListVersionId;
 import de.metas.pricing.service.IPriceListDAO;
+import de.metas.pricing.service.PrefetchedMainProductPrices;
 import de.metas.pricing.service.ProductPrices;
 import de.metas.product.IProductBL;
 import de.metas.product.IProductDAO;
@@ -63,7 +66,8 @@ public class PriceListVersion extends AbstractPriceListBasedRule
 		final ZoneId timeZone = orgDAO.getTimeZone(pricingCtx.getOrgId());
 		final I_M_ProductPrice productPrice = getProductPriceOrNull(pricingCtx.getProductId(),
 				ctxPriceListVersion,
-				TimeUtil.asZonedDateTime(pricingCtx.getPriceDate(), timeZone));
+				TimeUtil.asZonedDateTime(pricingCtx.getPriceDate(), timeZone),
+				getPrefetchedMainProductPrices(pricingCtx));
 
 		if (productPrice == null)
 		{
@@ -119,14 +123,23 @@ public class PriceListVersion extends AbstractPriceListBasedRule
 
 	private I_M_ProductPrice getProductPriceOrNull(final ProductId productId,
 			final I_M_PriceList_Version ctxPriceListVersion,
-			final ZonedDateTime promisedDate)
+			final ZonedDateTime promisedDate,
+			@Nullable final PrefetchedMainProductPrices prefetchedMainProductPrices)
 	{
 		return ProductPrices.iterateAllPriceListVersionsAndFindProductPrice(
 				ctxPriceListVersion,
-				priceListVersion -> ProductPrices.retrieveMainProductPriceOrNull(priceListVersion, productId),
+				priceListVersion -> ProductPrices.retrieveMainProductPriceOrNull(priceListVersion, productId, prefetchedMainProductPrices),
 				promisedDate);
 	}
 
+	@Nullable
+	private static PrefetchedMainProductPrices getPrefetchedMainProductPrices(final IPricingContext pricingCtx)
+	{
+		return pricingCtx.isPropertySet(PrefetchedMainProductPrices.PROPERTY_NAME)
+				? pricingCtx.getProperty(PrefetchedMainProductPrices.PROPERTY_NAME, PrefetchedMainProductPrices.class)
+				: null;
+	}
+
 	private I_M_PriceList_Version getOrLoadPriceListVersion(
 			@NonNull final PriceListVersionId priceListVersionId,
 			final I_M_PriceList_Version existingPriceListVersion)
@@ -23,6 +23,8 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import de.metas.bpartner.BPartnerId;
@@ -66,6 +68,21 @@ public interface IPricingBL extends ISingletonService
 
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Calculates the prices of all given pricing contexts. Same as {@link #calculatePrices(Collection, boolean)}, but does not capture the pricing rules' loggable messages.
+	 */
+	List<IPricingResult> calculatePrices(Collection<? extends IPricingContext> pricingCtxs);
+
+	/**
+	 * Calculates the prices of all given pricing contexts.
+	 * Compared to calling {@link #calculatePrice(IPricingContext)} for each context, the pricing rules are instantiated only once
+	 * and the main product prices and pricing conditions are loaded in bulk.
+	 *
+	 * @param captureLoggableMessages if true, the pricing rules' messages are collected into each {@link IPricingResult#getLoggableMessages()}
+	 * @return pricing results, in the same order as the given pricing contexts. Fails on first error.
+	 */
+	List<IPricingResult> calculatePrices(Collection<? extends IPricingContext> pricingCtxs, boolean captureLoggableMessages);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
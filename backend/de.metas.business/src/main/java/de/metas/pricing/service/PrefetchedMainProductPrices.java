@@ -0,0 +1,78 @@
+package de.metas.pricing.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.compiere.model.I_M_ProductPrice;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.pricing.PriceListVersionId;
+import de.metas.product.ProductId;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Main product prices of a price list version, retrieved in one go for a bunch of products.
+ * <p>
+ * Set it as pricing context property ({@link #PROPERTY_NAME}) and the pricing rules will use it instead of retrieving the main product price of each product one by one.
+ *
+ * @see ProductPrices#retrieveMainProductPrices(org.compiere.model.I_M_PriceList_Version, java.util.Collection)
+ * @see ProductPrices#retrieveMainProductPriceOrNull(org.compiere.model.I_M_PriceList_Version, ProductId, PrefetchedMainProductPrices)
+ */
+@ToString(of = { "priceListVersionId", "productIds" })
+public final class PrefetchedMainProductPrices
+{
+	public static final String PROPERTY_NAME = PrefetchedMainProductPrices.class.getName();
+
+	private final PriceListVersionId priceListVersionId;
+	private final ImmutableSet<ProductId> productIds;
+	private final ImmutableListMultimap<ProductId, I_M_ProductPrice> mainProductPrices;
+
+	PrefetchedMainProductPrices(
+			@NonNull final PriceListVersionId priceListVersionId,
+			@NonNull final Set<ProductId> productIds,
+			@NonNull final ImmutableListMultimap<ProductId, I_M_ProductPrice> mainProductPrices)
+	{
+		this.priceListVersionId = priceListVersionId;
+		this.productIds = ImmutableSet.copyOf(productIds);
+		this.mainProductPrices = mainProductPrices;
+	}
+
+	public boolean isPrefetched(@NonNull final PriceListVersionId priceListVersionId, @NonNull final ProductId productId)
+	{
+		return this.priceListVersionId.equals(priceListVersionId)
+				&& productIds.contains(productId);
+	}
+
+	/**
+	 * @return main product prices; empty if the product has no main product price (or it was not prefetched)
+	 */
+	List<I_M_ProductPrice> getMainProductPrices(@NonNull final ProductId productId)
+	{
+		return mainProductPrices.get(productId);
+	}
+}
@@ -6,6 +6,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -23,6 +24,10 @@ import org.compiere.model.I_M_PricingSystem;
 import org.compiere.model.I_M_ProductPrice;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -72,6 +77,8 @@ public class ProductPrices
 
 	private static final Logger logger = LogManager.getLogger(ProductPrices.class);
 
+	private static final int PREFETCH_CHUNK_SIZE = 1000;
+
 	public static final ProductPriceQuery newQuery(@NonNull final I_M_PriceList_Version plv)
 	{
 		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
@@ -169,6 +176,50 @@ public class ProductPrices
 		return getFirstOrThrowExceptionIfMoreThanOne(allMainPrices);
 	}
 
+	/**
+	 * Same as {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)}, but takes the product price from the given prefetched ones, if possible.
+	 */
+	public static I_M_ProductPrice retrieveMainProductPriceOrNull(
+			@NonNull final I_M_PriceList_Version plv,
+			@NonNull final ProductId productId,
+			@Nullable final PrefetchedMainProductPrices prefetchedMainProductPrices)
+	{
+		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+		if (prefetchedMainProductPrices != null && prefetchedMainProductPrices.isPrefetched(priceListVersionId, productId))
+		{
+			return getFirstOrThrowExceptionIfMoreThanOne(prefetchedMainProductPrices.getMainProductPrices(productId));
+		}
+
+		return retrieveMainProductPriceOrNull(plv, productId);
+	}
+
+	/**
+	 * Retrieves the main product prices of all given products, using one query for each {@value #PREFETCH_CHUNK_SIZE} products.
+	 */
+	public static PrefetchedMainProductPrices retrieveMainProductPrices(
+			@NonNull final I_M_PriceList_Version plv,
+			@NonNull final Collection<ProductId> productIds)
+	{
+		final ImmutableSet<ProductId> productIdsSet = ImmutableSet.copyOf(productIds);
+
+		final ImmutableListMultimap.Builder<ProductId, I_M_ProductPrice> mainProductPrices = ImmutableListMultimap.builder();
+		for (final List<ProductId> productIdsChunk : Iterables.partition(productIdsSet, PREFETCH_CHUNK_SIZE))
+		{
+			newQuery(plv)
+					.setProductIds(productIdsChunk)
+					.noAttributePricing()
+					.onlyValidPrices(true)
+					.addMatchersIfAbsent(MATCHERS_MainProductPrice) // IMORTANT: keep it last
+					.list()
+					.forEach(productPrice -> mainProductPrices.put(ProductId.ofRepoId(productPrice.getM_Product_ID()), productPrice));
+		}
+
+		return new PrefetchedMainProductPrices(
+				PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID()),
+				productIdsSet,
+				mainProductPrices.build());
+	}
+
 	private static List<I_M_ProductPrice> retrieveAllMainPrices(
 			@NonNull final I_M_PriceList_Version plv,
 			@NonNull final ProductId productId)
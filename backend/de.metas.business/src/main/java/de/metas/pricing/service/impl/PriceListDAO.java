@@ -27,6 +27,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPartnerLocationId;
 import de.metas.bpartner.service.IBPartnerDAO;
+import de.metas.cache.CCache;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.currency.ICurrencyBL;
 import de.metas.lang.SOTrx;
@@ -47,7 +48,6 @@ import de.metas.pricing.service.UpdateProductPriceRequest;
 import de.metas.product.ProductId;
 import de.metas.tax.api.TaxCategoryId;
 import de.metas.user.UserId;
-import de.metas.util.Check;
 import de.metas.util.NumberUtils;
 import de.metas.util.Services;
 import lombok.NonNull;
@@ -76,6 +76,7 @@ import org.compiere.model.I_M_ProductPrice;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
@@ -104,6 +105,12 @@ public class PriceListDAO implements IPriceListDAO
 {
 	private static final transient Logger logger = LogManager.getLogger(PriceListDAO.class);
 
+	/** Active price list versions, indexed by price list; any M_PriceList_Version change invalidates it */
+	private final CCache<ArrayKey, PriceListVersionsIndex> priceListVersionsIndexCache = CCache.<ArrayKey, PriceListVersionsIndex> builder()
+			.tableName(I_M_PriceList_Version.Table_Name)
+			.initialCapacity(50)
+			.build();
+
 	@Override
 	public I_M_PricingSystem getPricingSystemById(final PricingSystemId pricingSystemId)
 	{
@@ -281,46 +288,41 @@ public class PriceListDAO implements IPriceListDAO
 		return plv != null ? PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID()) : null;
 	}
 
-	@Cached(cacheName = I_M_PriceList_Version.Table_Name + "#By#M_PriceList_ID#Date#Processed")
-	public I_M_PriceList_Version retrievePriceListVersionOrNull(
-			@CacheCtx @NonNull final Properties ctx,
+	private I_M_PriceList_Version retrievePriceListVersionOrNull(
+			@NonNull final Properties ctx,
 			@NonNull final PriceListId priceListId,
 			@NonNull final ZonedDateTime date,
 			@Nullable final Boolean processed)
 	{
-		Check.assumeNotNull(date, "Param 'date' is not null; other params: priceListId={}, processed={}, ctx={}", priceListId, processed, ctx);
-
-		final IQueryBuilder<I_M_PriceList_Version> queryBuilder = Services.get(IQueryBL.class)
-				.createQueryBuilder(I_M_PriceList_Version.class, ctx, ITrx.TRXNAME_None)
-				// Same pricelist
-				.addEqualsFilter(I_M_PriceList_Version.COLUMNNAME_M_PriceList_ID, priceListId)
-				// valid from must be before the date we need it
-				.addCompareFilter(
-						I_M_PriceList_Version.COLUMNNAME_ValidFrom,
-						CompareQueryFilter.Operator.LESS_OR_EQUAL,
-						TimeUtil.asTimestamp(date),
-						DateTruncQueryFilterModifier.DAY)
-
-				// active
-				.addOnlyActiveRecordsFilter();
-
-		if (processed != null)
-		{
-			queryBuilder.addEqualsFilter(I_M_PriceList_Version.COLUMNNAME_Processed, processed);
-		}
-
-		// Order the version by validFrom, descending.
-		queryBuilder.orderByDescending(I_M_PriceList_Version.COLUMNNAME_ValidFrom);
-
-		final IQuery<I_M_PriceList_Version> query = queryBuilder.create();
-		final I_M_PriceList_Version result = query.first();
+		final PriceListVersionsIndex priceListVersions = getPriceListVersionsIndex(ctx, priceListId);
+		final I_M_PriceList_Version result = priceListVersions.getVersionValidAtOrNull(date, processed);
 		if (result == null)
 		{
-			logger.warn("None found M_PriceList_ID=" + priceListId + ", date=" + date + ", query=" + query);
+			logger.warn("None found M_PriceList_ID={}, date={}, processed={}", priceListId, date, processed);
 		}
 		return result;
 	}
 
+	private PriceListVersionsIndex getPriceListVersionsIndex(@NonNull final Properties ctx, @NonNull final PriceListId priceListId)
+	{
+		final ArrayKey key = ArrayKey.of(Env.getAD_Client_ID(ctx), priceListId);
+		return priceListVersionsIndexCache.getOrLoad(key, () -> retrievePriceListVersionsIndex(ctx, priceListId));
+	}
+
+	private PriceListVersionsIndex retrievePriceListVersionsIndex(@NonNull final Properties ctx, @NonNull final PriceListId priceListId)
+	{
+		final ImmutableList<I_M_PriceList_Version> versions = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_PriceList_Version.class, ctx, ITrx.TRXNAME_None)
+				.addEqualsFilter(I_M_PriceList_Version.COLUMNNAME_M_PriceList_ID, priceListId)
+				.addOnlyActiveRecordsFilter()
+				.orderBy(I_M_PriceList_Version.COLUMNNAME_ValidFrom)
+				.orderBy(I_M_PriceList_Version.COLUMNNAME_M_PriceList_Version_ID)
+				.create()
+				.listImmutable(I_M_PriceList_Version.class);
+
+		return new PriceListVersionsIndex(priceListId, versions);
+	}
+
 	@Override
 	@Cached(cacheName = I_M_PriceList_Version.Table_Name + "#By#M_PriceList_ID#Date")
 	public I_M_PriceList_Version retrievePriceListVersionWithExactValidDate(final PriceListId priceListId, @NonNull final Date date)
@@ -0,0 +1,113 @@
+package de.metas.pricing.service.impl;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.util.TimeUtil;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.pricing.PriceListId;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The active price list versions of one price list, sorted by <code>ValidFrom</code>.
+ * Answers "which version is valid at a given date" by binary search, without going to the database.
+ */
+@ToString(of = "priceListId")
+final class PriceListVersionsIndex
+{
+	private final PriceListId priceListId;
+
+	/** sorted by ValidFrom, M_PriceList_Version_ID */
+	private final ImmutableList<I_M_PriceList_Version> versions;
+	/** ValidFrom days of {@link #versions}, having the same order */
+	private final ImmutableList<LocalDate> validFromDays;
+
+	PriceListVersionsIndex(
+			@NonNull final PriceListId priceListId,
+			@NonNull final List<I_M_PriceList_Version> versionsSortedByValidFrom)
+	{
+		this.priceListId = priceListId;
+
+		final ImmutableList.Builder<I_M_PriceList_Version> versions = ImmutableList.builder();
+		final ImmutableList.Builder<LocalDate> validFromDays = ImmutableList.builder();
+		for (final I_M_PriceList_Version version : versionsSortedByValidFrom)
+		{
+			if (version.getValidFrom() == null)
+			{
+				continue;
+			}
+
+			versions.add(version);
+			validFromDays.add(TimeUtil.asLocalDate(version.getValidFrom()));
+		}
+		this.versions = versions.build();
+		this.validFromDays = validFromDays.build();
+	}
+
+	/**
+	 * @return the version with the latest <code>ValidFrom</code> day which is not after the given <code>date</code>'s day.
+	 * @param processed optional, if set then only versions with the given processed status are considered
+	 */
+	@Nullable
+	public I_M_PriceList_Version getVersionValidAtOrNull(@NonNull final ZonedDateTime date, @Nullable final Boolean processed)
+	{
+		final LocalDate day = TimeUtil.asLocalDate(TimeUtil.asTimestamp(date));
+
+		// index of the first version which is valid after the given day
+		int index = Collections.binarySearch(validFromDays, day);
+		if (index >= 0)
+		{
+			// there might be more versions valid from the same day; go to the last one of them
+			while (index + 1 < validFromDays.size() && validFromDays.get(index + 1).equals(day))
+			{
+				index++;
+			}
+			index++;
+		}
+		else
+		{
+			index = -index - 1;
+		}
+
+		for (int i = index - 1; i >= 0; i--)
+		{
+			final I_M_PriceList_Version version = versions.get(i);
+			if (processed == null || processed == version.isProcessed())
+			{
+				return version;
+			}
+		}
+
+		return null;
+	}
+}
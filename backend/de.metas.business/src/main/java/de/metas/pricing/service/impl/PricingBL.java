@@ -24,6 +24,9 @@ package de.metas.pricing.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -31,6 +34,7 @@ import javax.annotation.Nullable;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.ImmutablePair;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
@@ -41,9 +45,12 @@ import org.slf4j.Logger;
 
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
+import de.metas.bpartner.service.IBPartnerBL;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.lang.SOTrx;
@@ -57,6 +64,8 @@ import de.metas.pricing.IPricingResult;
 import de.metas.pricing.PriceListId;
 import de.metas.pricing.PriceListVersionId;
 import de.metas.pricing.PricingSystemId;
+import de.metas.pricing.conditions.PricingConditionsId;
+import de.metas.pricing.conditions.service.IPricingConditionsRepository;
 import de.metas.pricing.exceptions.PriceListVersionNotFoundException;
 import de.metas.pricing.exceptions.ProductNotOnPriceListException;
 import de.metas.pricing.limit.CompositePriceLimitRule;
@@ -69,6 +78,7 @@ import de.metas.pricing.service.IPriceListBL;
 import de.metas.pricing.service.IPriceListDAO;
 import de.metas.pricing.service.IPricingBL;
 import de.metas.pricing.service.IPricingDAO;
+import de.metas.pricing.service.PrefetchedMainProductPrices;
 import de.metas.pricing.service.PricingRuleDescriptor;
 import de.metas.pricing.service.ProductPrices;
 import de.metas.product.IProductBL;
@@ -86,6 +96,7 @@ import de.metas.util.PlainStringLoggable;
 import de.metas.util.Services;
 import de.metas.util.time.SystemTime;
 import lombok.NonNull;
+import lombok.Value;
 
 public class PricingBL implements IPricingBL
 {
@@ -93,6 +104,9 @@ public class PricingBL implements IPricingBL
 
 	private final CompositePriceLimitRule priceLimitRules = new CompositePriceLimitRule();
 
+	/** Pricing rules chain, created once and reused for as long as the pricing rule definitions are not changing */
+	private volatile PricingRulesChain pricingRulesChain;
+
 	@Override
 	public IEditablePricingContext createPricingContext()
 	{
@@ -164,7 +178,7 @@ public class PricingBL implements IPricingBL
 		final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
 		try (IAutoCloseable c = Loggables.temporarySetLoggable(plainStringLoggable))
 		{
-			final IPricingResult result = calculatePrice0(pricingCtx);
+			final IPricingResult result = calculatePrice0(pricingCtx, setupPricingContext(pricingCtx), getPricingRules());
 			return result.setLoggableMessages(plainStringLoggable.getSingleMessages());
 		}
 		catch (final ProductNotOnPriceListException e)
@@ -173,9 +187,118 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
-	private IPricingResult calculatePrice0(final IPricingContext pricingCtx)
+	@Override
+	public List<IPricingResult> calculatePrices(@NonNull final Collection<? extends IPricingContext> pricingCtxs)
+	{
+		final boolean captureLoggableMessages = false;
+		return calculatePrices(pricingCtxs, captureLoggableMessages);
+	}
+
+	@Override
+	public List<IPricingResult> calculatePrices(
+			@NonNull final Collection<? extends IPricingContext> pricingCtxs,
+			final boolean captureLoggableMessages)
+	{
+		if (pricingCtxs.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final AggregatedPricingRule rules = getPricingRules();
+
+		// NOTE: the pricing rules are quite chatty; don't flood the current loggable (e.g. the process log) with their messages
+		try (final IAutoCloseable c = Loggables.temporarySetLoggable(Loggables.nop()))
+		{
+			final ImmutableList<IEditablePricingContext> pricingCtxsToUse = pricingCtxs
+					.stream()
+					.map(this::setupPricingContext)
+					.collect(ImmutableList.toImmutableList());
+
+			prefetchMainProductPrices(pricingCtxsToUse);
+			prefetchPricingConditions(pricingCtxsToUse);
+
+			final ImmutableList.Builder<IPricingResult> results = ImmutableList.builder();
+			final Iterator<? extends IPricingContext> pricingCtxsIterator = pricingCtxs.iterator();
+			for (final IEditablePricingContext pricingCtxToUse : pricingCtxsToUse)
+			{
+				final IPricingContext pricingCtx = pricingCtxsIterator.next();
+				if (captureLoggableMessages)
+				{
+					final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
+					try (final IAutoCloseable c2 = Loggables.temporarySetLoggable(plainStringLoggable))
+					{
+						final IPricingResult result = calculatePrice0(pricingCtx, pricingCtxToUse, rules);
+						results.add(result.setLoggableMessages(plainStringLoggable.getSingleMessages()));
+					}
+					catch (final ProductNotOnPriceListException e)
+					{
+						throw e.setParameter("Log", plainStringLoggable.getConcatenatedMessages()); // augment&rethrow
+					}
+				}
+				else
+				{
+					results.add(calculatePrice0(pricingCtx, pricingCtxToUse, rules));
+				}
+			}
+
+			return results.build();
+		}
+	}
+
+	/**
+	 * Retrieves the main product prices of all products which are priced on the same price list version in one go.
+	 */
+	private void prefetchMainProductPrices(final List<IEditablePricingContext> pricingCtxs)
+	{
+		final ImmutableListMultimap<PriceListVersionId, IEditablePricingContext> pricingCtxsByPriceListVersionId = pricingCtxs
+				.stream()
+				.filter(pricingCtx -> pricingCtx.getPriceListVersionId() != null && pricingCtx.getProductId() != null)
+				.filter(pricingCtx -> !pricingCtx.isPropertySet(PrefetchedMainProductPrices.PROPERTY_NAME))
+				.collect(ImmutableListMultimap.toImmutableListMultimap(IPricingContext::getPriceListVersionId, pricingCtx -> pricingCtx));
+
+		for (final PriceListVersionId priceListVersionId : pricingCtxsByPriceListVersionId.keySet())
+		{
+			final ImmutableList<IEditablePricingContext> priceListVersionPricingCtxs = pricingCtxsByPriceListVersionId.get(priceListVersionId);
+			final I_M_PriceList_Version priceListVersion = priceListVersionPricingCtxs.get(0).getM_PriceList_Version();
+			final ImmutableSet<ProductId> productIds = priceListVersionPricingCtxs
+					.stream()
+					.map(IPricingContext::getProductId)
+					.collect(ImmutableSet.toImmutableSet());
+
+			final PrefetchedMainProductPrices prefetchedMainProductPrices = ProductPrices.retrieveMainProductPrices(priceListVersion, productIds);
+			priceListVersionPricingCtxs.forEach(pricingCtx -> pricingCtx.setProperty(PrefetchedMainProductPrices.PROPERTY_NAME, prefetchedMainProductPrices));
+		}
+	}
+
+	/**
+	 * Loads the pricing conditions (discount schemas and their breaks) of all involved business partners in one go, so the discount rule will find them in cache.
+	 */
+	private void prefetchPricingConditions(final List<IEditablePricingContext> pricingCtxs)
+	{
+		final IBPartnerBL bpartnerBL = Services.get(IBPartnerBL.class);
+		final IPricingConditionsRepository pricingConditionsRepo = Services.get(IPricingConditionsRepository.class);
+
+		final ImmutableSet<PricingConditionsId> pricingConditionsIds = pricingCtxs
+				.stream()
+				.filter(pricingCtx -> pricingCtx.getBPartnerId() != null && pricingCtx.getSoTrx() != null && !pricingCtx.isDisallowDiscount())
+				.map(pricingCtx -> ImmutablePair.of(pricingCtx.getBPartnerId(), pricingCtx.getSoTrx()))
+				.distinct()
+				.map(bpartnerAndSOTrx -> PricingConditionsId.ofRepoIdOrNull(bpartnerBL.getDiscountSchemaId(bpartnerAndSOTrx.getLeft(), bpartnerAndSOTrx.getRight())))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		if (pricingConditionsIds.isEmpty())
+		{
+			return;
+		}
+
+		pricingConditionsRepo.getPricingConditionsByIds(pricingConditionsIds);
+	}
+
+	private IPricingResult calculatePrice0(
+			@NonNull final IPricingContext pricingCtx,
+			@NonNull final IPricingContext pricingCtxToUse,
+			@NonNull final AggregatedPricingRule rules)
 	{
-		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -196,7 +319,6 @@ public class PricingBL implements IPricingBL
 			// return result;
 		}
 
-		final AggregatedPricingRule rules = createPricingRules();
 		rules.calculate(pricingCtxToUse, result);
 
 		//
@@ -258,7 +380,7 @@ public class PricingBL implements IPricingBL
 	 *
 	 * @return configured pricing context (to be used in pricing calculations)
 	 */
-	private IPricingContext setupPricingContext(final IPricingContext pricingCtx)
+	private IEditablePricingContext setupPricingContext(final IPricingContext pricingCtx)
 	{
 		final IEditablePricingContext pricingCtxToUse = pricingCtx.copy();
 		setupPriceListAndDate(pricingCtxToUse);
@@ -450,7 +572,10 @@ public class PricingBL implements IPricingBL
 		final I_M_PriceList_Version plv = pricingCtx.getM_PriceList_Version();
 		if (plv != null)
 		{
-			final I_M_ProductPrice productPrice = ProductPrices.retrieveMainProductPriceOrNull(plv, productId);
+			final PrefetchedMainProductPrices prefetchedMainProductPrices = pricingCtx.isPropertySet(PrefetchedMainProductPrices.PROPERTY_NAME)
+					? pricingCtx.getProperty(PrefetchedMainProductPrices.PROPERTY_NAME, PrefetchedMainProductPrices.class)
+					: null;
+			final I_M_ProductPrice productPrice = ProductPrices.retrieveMainProductPriceOrNull(plv, productId, prefetchedMainProductPrices);
 			if (productPrice == null)
 			{
 				final UomId uomId = Services.get(IProductBL.class).getStockUOMId(productId);
@@ -490,11 +615,27 @@ public class PricingBL implements IPricingBL
 		return result;
 	}
 
-	private AggregatedPricingRule createPricingRules()
+	/**
+	 * @return pricing rules chain; the rules are instantiated only when the pricing rule definitions have changed. That's why the pricing rules shall be stateless.
+	 */
+	private AggregatedPricingRule getPricingRules()
 	{
 		final IPricingDAO pricingRulesRepo = Services.get(IPricingDAO.class);
+		final ImmutableList<PricingRuleDescriptor> ruleDefs = ImmutableList.copyOf(pricingRulesRepo.getPricingRules());
+
+		PricingRulesChain pricingRulesChain = this.pricingRulesChain;
+		if (pricingRulesChain == null || !pricingRulesChain.getRuleDefs().equals(ruleDefs))
+		{
+			pricingRulesChain = new PricingRulesChain(ruleDefs, createPricingRules(ruleDefs));
+			this.pricingRulesChain = pricingRulesChain;
+		}
 
-		final ImmutableList<IPricingRule> rules = pricingRulesRepo.getPricingRules()
+		return pricingRulesChain.getRules();
+	}
+
+	private AggregatedPricingRule createPricingRules(final List<PricingRuleDescriptor> ruleDefs)
+	{
+		final ImmutableList<IPricingRule> rules = ruleDefs
 				.stream()
 				.map(this::createPricingRuleNoFail)
 				.filter(Objects::nonNull)
@@ -503,6 +644,16 @@ public class PricingBL implements IPricingBL
 		return AggregatedPricingRule.of(rules);
 	}
 
+	@Value
+	private static class PricingRulesChain
+	{
+		@NonNull
+		ImmutableList<PricingRuleDescriptor> ruleDefs;
+
+		@NonNull
+		AggregatedPricingRule rules;
+	}
+
 	private IPricingRule createPricingRuleNoFail(final PricingRuleDescriptor ruleDef)
 	{
 		try
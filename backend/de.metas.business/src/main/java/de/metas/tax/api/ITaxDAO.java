@@ -86,6 +86,11 @@ public interface ITaxDAO extends ISingletonService
 
 	I_C_TaxCategory getTaxCategoryById(TaxCategoryId id);
 
+	/**
+	 * @return the active taxes of the given tax category; the result is cached and invalidated when any C_Tax record changes
+	 */
+	TaxCategoryTaxes getTaxesByCategoryId(TaxCategoryId taxCategoryId);
+
 	ITranslatableString getTaxCategoryNameById(TaxCategoryId id);
 
 	Optional<TaxCategoryId> getTaxCategoryIdByName(@NonNull String name);
@@ -0,0 +1,82 @@
+package de.metas.tax.api;
+
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.List;
+
+import org.compiere.model.I_C_Tax;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The active taxes of one tax category, sorted by <code>ValidFrom</code>.
+ * Finds the taxes which are valid at a given date by binary search, without going to the database.
+ */
+@ToString(of = "taxCategoryId")
+public final class TaxCategoryTaxes
+{
+	private final TaxCategoryId taxCategoryId;
+
+	/** sorted by ValidFrom */
+	private final ImmutableList<I_C_Tax> taxes;
+
+	public TaxCategoryTaxes(
+			@NonNull final TaxCategoryId taxCategoryId,
+			@NonNull final List<I_C_Tax> taxes)
+	{
+		this.taxCategoryId = taxCategoryId;
+		this.taxes = taxes.stream()
+				.filter(tax -> tax.getValidFrom() != null)
+				.sorted(Comparator.comparing(I_C_Tax::getValidFrom))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return the taxes whose <code>ValidFrom</code> is not after the given <code>date</code>, sorted by <code>ValidFrom</code>
+	 */
+	public ImmutableList<I_C_Tax> getTaxesValidAt(@NonNull final Timestamp date)
+	{
+		// find the index of the first tax which becomes valid after the given date
+		int low = 0;
+		int high = taxes.size();
+		while (low < high)
+		{
+			final int mid = (low + high) >>> 1;
+			if (taxes.get(mid).getValidFrom().after(date))
+			{
+				high = mid;
+			}
+			else
+			{
+				low = mid + 1;
+			}
+		}
+
+		return taxes.subList(0, low);
+	}
+}
@@ -45,12 +45,14 @@ import org.compiere.model.I_C_TaxCategory;
 import org.compiere.model.Query;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CCache;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.TranslatableStrings;
 import de.metas.organization.OrgId;
 import de.metas.tax.api.ITaxDAO;
 import de.metas.tax.api.TaxCategoryId;
+import de.metas.tax.api.TaxCategoryTaxes;
 import de.metas.tax.api.TaxId;
 import de.metas.tax.model.I_C_VAT_SmallBusiness;
 import de.metas.util.Check;
@@ -62,6 +64,11 @@ public class TaxDAO implements ITaxDAO
 
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 
+	private final CCache<TaxCategoryId, TaxCategoryTaxes> taxesByCategoryId = CCache.<TaxCategoryId, TaxCategoryTaxes> builder()
+			.tableName(I_C_Tax.Table_Name)
+			.initialCapacity(20)
+			.build();
+
 	@Override
 	public I_C_Tax getTaxById(final int taxRepoId)
 	{
@@ -185,6 +192,23 @@ public class TaxDAO implements ITaxDAO
 		return loadOutOfTrx(id, I_C_TaxCategory.class);
 	}
 
+	@Override
+	public TaxCategoryTaxes getTaxesByCategoryId(@NonNull final TaxCategoryId taxCategoryId)
+	{
+		return taxesByCategoryId.getOrLoad(taxCategoryId, this::retrieveTaxesByCategoryId);
+	}
+
+	private TaxCategoryTaxes retrieveTaxesByCategoryId(@NonNull final TaxCategoryId taxCategoryId)
+	{
+		final List<I_C_Tax> taxes = queryBL.createQueryBuilderOutOfTrx(I_C_Tax.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_Tax.COLUMNNAME_C_TaxCategory_ID, taxCategoryId)
+				.create()
+				.listImmutable(I_C_Tax.class);
+
+		return new TaxCategoryTaxes(taxCategoryId, taxes);
+	}
+
 	@Override
 	public ITranslatableString getTaxCategoryNameById(@Nullable final TaxCategoryId id)
 	{
@@ -0,0 +1,327 @@
+package de.metas.costing.methods;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstanceOutOfTrx;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.mm.attributes.AttributeSetInstanceId;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.model.I_C_AcctSchema;
+import org.compiere.model.I_C_AcctSchema_Default;
+import org.compiere.model.I_C_AcctSchema_GL;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_CostDetail;
+import org.compiere.model.I_M_CostElement;
+import org.compiere.model.I_M_Product;
+import org.compiere.model.I_M_Product_Category_Acct;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.api.TaxCorrectionType;
+import de.metas.business.BusinessTestHelper;
+import de.metas.costing.CostAmount;
+import de.metas.costing.CostDetail;
+import de.metas.costing.CostDetailCreateRequest;
+import de.metas.costing.CostElement;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostElementType;
+import de.metas.costing.CostSegment;
+import de.metas.costing.CostSegmentAndElement;
+import de.metas.costing.CostTypeId;
+import de.metas.costing.CostingDocumentRef;
+import de.metas.costing.CostingLevel;
+import de.metas.costing.CostingMethod;
+import de.metas.costing.CurrentCost;
+import de.metas.costing.impl.CostDetailRepository;
+import de.metas.costing.impl.CostDetailService;
+import de.metas.costing.impl.CostElementRepository;
+import de.metas.costing.impl.CurrentCostsRepository;
+import de.metas.currency.CurrencyCode;
+import de.metas.currency.CurrencyRepository;
+import de.metas.currency.impl.PlainCurrencyDAO;
+import de.metas.money.CurrencyId;
+import de.metas.order.model.I_M_Product_Category;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+import de.metas.product.ProductType;
+import de.metas.quantity.Quantity;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ExtendWith(AdempiereTestWatcher.class)
+public class CostingBatchTest
+{
+	private static final CostTypeId costTypeId = CostTypeId.ofRepoId(1);
+
+	private CurrentCostsRepository currentCostsRepo;
+	private CostingMethodHandlerUtils utils;
+	private AveragePOCostingMethodHandler handler;
+
+	private CurrencyId euroCurrencyId;
+	private I_C_UOM eachUOM;
+	private CostElement costElement;
+	private AcctSchemaId acctSchemaId;
+	private ProductId productId;
+
+	private void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		BusinessTestHelper.createOrgWithTimeZone();
+
+		final Properties ctx = Env.getCtx();
+		Env.setClientId(ctx, ClientId.METASFRESH);
+
+		final CostElementRepository costElementRepo = new CostElementRepository();
+		currentCostsRepo = new CurrentCostsRepository(costElementRepo);
+		final CostDetailService costDetailsService = new CostDetailService(new CostDetailRepository(), costElementRepo);
+		utils = new CostingMethodHandlerUtils(new CurrencyRepository(), currentCostsRepo, costDetailsService);
+		handler = new AveragePOCostingMethodHandler(utils);
+
+		euroCurrencyId = PlainCurrencyDAO.createCurrency(CurrencyCode.EUR).getId();
+		eachUOM = BusinessTestHelper.createUomEach();
+
+		costElement = createAveragePOCostElement(costElementRepo);
+		acctSchemaId = createAcctSchema();
+		productId = createProduct();
+	}
+
+	private static CostElement createAveragePOCostElement(final CostElementRepository costElementRepo)
+	{
+		final I_M_CostElement record = InterfaceWrapperHelper.newInstanceOutOfTrx(I_M_CostElement.class);
+		record.setAD_Org_ID(OrgId.ANY.getRepoId());
+		record.setName(CostingMethod.AveragePO.name());
+		record.setCostElementType(CostElementType.Material.getCode());
+		record.setCostingMethod(CostingMethod.AveragePO.getCode());
+		record.setIsCalculated(false);
+		InterfaceWrapperHelper.saveRecord(record);
+
+		return costElementRepo.getById(CostElementId.ofRepoId(record.getM_CostElement_ID()));
+	}
+
+	private AcctSchemaId createAcctSchema()
+	{
+		final I_C_AcctSchema acctSchemaRecord = newInstance(I_C_AcctSchema.class);
+		acctSchemaRecord.setName("Test AcctSchema");
+		acctSchemaRecord.setC_Currency_ID(euroCurrencyId.getRepoId());
+		acctSchemaRecord.setM_CostType_ID(costTypeId.getRepoId());
+		acctSchemaRecord.setCostingLevel(CostingLevel.Client.getCode());
+		acctSchemaRecord.setCostingMethod(CostingMethod.AveragePO.getCode());
+		acctSchemaRecord.setSeparator("-");
+		acctSchemaRecord.setTaxCorrectionType(TaxCorrectionType.NONE.getCode());
+		saveRecord(acctSchemaRecord);
+
+		final I_C_AcctSchema_GL acctSchemaGL = newInstance(I_C_AcctSchema_GL.class);
+		acctSchemaGL.setC_AcctSchema_ID(acctSchemaRecord.getC_AcctSchema_ID());
+		acctSchemaGL.setIntercompanyDueFrom_Acct(1);
+		acctSchemaGL.setIntercompanyDueTo_Acct(1);
+		acctSchemaGL.setIncomeSummary_Acct(1);
+		acctSchemaGL.setRetainedEarning_Acct(1);
+		acctSchemaGL.setPPVOffset_Acct(1);
+		saveRecord(acctSchemaGL);
+
+		final I_C_AcctSchema_Default acctSchemaDefault = newInstance(I_C_AcctSchema_Default.class);
+		acctSchemaDefault.setC_AcctSchema_ID(acctSchemaRecord.getC_AcctSchema_ID());
+		acctSchemaDefault.setRealizedGain_Acct(1);
+		acctSchemaDefault.setRealizedLoss_Acct(1);
+		acctSchemaDefault.setUnrealizedGain_Acct(1);
+		acctSchemaDefault.setUnrealizedLoss_Acct(1);
+		saveRecord(acctSchemaDefault);
+
+		return AcctSchemaId.ofRepoId(acctSchemaRecord.getC_AcctSchema_ID());
+	}
+
+	private ProductId createProduct()
+	{
+		final I_M_Product_Category productCategory = newInstanceOutOfTrx(I_M_Product_Category.class);
+		saveRecord(productCategory);
+
+		final I_M_Product_Category_Acct productCategoryAcct = newInstanceOutOfTrx(I_M_Product_Category_Acct.class);
+		productCategoryAcct.setM_Product_Category_ID(productCategory.getM_Product_Category_ID());
+		productCategoryAcct.setC_AcctSchema_ID(acctSchemaId.getRepoId());
+		saveRecord(productCategoryAcct);
+
+		final I_M_Product product = newInstanceOutOfTrx(I_M_Product.class);
+		product.setValue("product");
+		product.setName("product");
+		product.setC_UOM_ID(eachUOM.getC_UOM_ID());
+		product.setProductType(ProductType.Item.getCode());
+		product.setIsStocked(true);
+		product.setM_Product_Category_ID(productCategory.getM_Product_Category_ID());
+		saveRecord(product);
+
+		return ProductId.ofRepoId(product.getM_Product_ID());
+	}
+
+	private CostDetailCreateRequest request(final CostingDocumentRef documentRef, final int amt, final int qty)
+	{
+		return CostDetailCreateRequest.builder()
+				.acctSchemaId(acctSchemaId)
+				.clientId(ClientId.METASFRESH)
+				.orgId(OrgId.ofRepoId(1))
+				.productId(productId)
+				.attributeSetInstanceId(AttributeSetInstanceId.NONE)
+				.costElement(costElement)
+				.date(LocalDate.parse("2020-08-13"))
+				.documentRef(documentRef)
+				.amt(CostAmount.of(amt, euroCurrencyId))
+				.qty(Quantity.of(qty, eachUOM))
+				.build();
+	}
+
+	/**
+	 * The lines of a document, in document order.
+	 */
+	private ImmutableList<CostDetailCreateRequest> documentLines()
+	{
+		return ImmutableList.of(
+				request(CostingDocumentRef.ofInventoryLineId(1), 100, 10),
+				request(CostingDocumentRef.ofInventoryLineId(2), 80, 5),
+				request(CostingDocumentRef.ofShipmentLineId(1), 0, -3),
+				request(CostingDocumentRef.ofInventoryLineId(3), 50, 2),
+				request(CostingDocumentRef.ofShipmentLineId(2), 0, -6));
+	}
+
+	private void runInBatch(final Runnable action)
+	{
+		final ImmutableSet<CostSegmentAndElement> costSegmentAndElements = documentLines()
+				.stream()
+				.map(utils::extractCostSegmentAndElement)
+				.collect(ImmutableSet.toImmutableSet());
+
+		utils.runInBatch(costSegmentAndElements, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	private static String toString(final BigDecimal value)
+	{
+		return value != null ? value.stripTrailingZeros().toPlainString() : null;
+	}
+
+	/**
+	 * @return the resulting M_CostDetail and M_Cost records, as comparable strings
+	 */
+	private ImmutableList<String> snapshot()
+	{
+		final ImmutableList.Builder<String> snapshot = ImmutableList.builder();
+
+		final List<I_M_CostDetail> costDetails = Services.get(IQueryBL.class).createQueryBuilder(I_M_CostDetail.class)
+				.orderBy(I_M_CostDetail.COLUMNNAME_M_CostDetail_ID)
+				.create()
+				.list();
+		for (final I_M_CostDetail costDetail : costDetails)
+		{
+			snapshot.add("M_CostDetail"
+					+ " ID=" + costDetail.getM_CostDetail_ID()
+					+ ", M_InventoryLine_ID=" + costDetail.getM_InventoryLine_ID()
+					+ ", M_InOutLine_ID=" + costDetail.getM_InOutLine_ID()
+					+ ", Amt=" + toString(costDetail.getAmt())
+					+ ", Qty=" + toString(costDetail.getQty())
+					+ ", IsChangingCosts=" + costDetail.isChangingCosts()
+					+ ", Prev_CurrentCostPrice=" + toString(costDetail.getPrev_CurrentCostPrice())
+					+ ", Prev_CurrentQty=" + toString(costDetail.getPrev_CurrentQty())
+					+ ", Prev_CumulatedAmt=" + toString(costDetail.getPrev_CumulatedAmt())
+					+ ", Prev_CumulatedQty=" + toString(costDetail.getPrev_CumulatedQty()));
+		}
+
+		final CostSegment costSegment = CostSegment.builder()
+				.costingLevel(CostingLevel.Client)
+				.acctSchemaId(acctSchemaId)
+				.costTypeId(costTypeId)
+				.clientId(ClientId.METASFRESH)
+				.orgId(OrgId.ANY)
+				.productId(productId)
+				.attributeSetInstanceId(AttributeSetInstanceId.NONE)
+				.build();
+		for (final CurrentCost currentCost : currentCostsRepo.getByCostSegmentAndCostingMethod(costSegment, CostingMethod.AveragePO))
+		{
+			snapshot.add("M_Cost"
+					+ " CostPrice=" + toString(currentCost.getCostPrice().toBigDecimal())
+					+ ", CurrentQty=" + toString(currentCost.getCurrentQty().toBigDecimal())
+					+ ", CumulatedAmt=" + toString(currentCost.getCumulatedAmt().getValue())
+					+ ", CumulatedQty=" + toString(currentCost.getCumulatedQty().toBigDecimal()));
+		}
+
+		return snapshot.build();
+	}
+
+	private ImmutableList<String> costDocument(final Consumer<List<CostDetailCreateRequest>> costingAction)
+	{
+		init();
+		costingAction.accept(documentLines());
+		return snapshot();
+	}
+
+	@Test
+	public void batched_sameResultAsLineByLine()
+	{
+		final ImmutableList<String> lineByLine = costDocument(lines -> lines.forEach(handler::createOrUpdateCost));
+		final ImmutableList<String> batched = costDocument(lines -> runInBatch(() -> lines.forEach(handler::createOrUpdateCost)));
+
+		assertThat(lineByLine).hasSize(6); // 5 cost details + 1 current cost
+		assertThat(batched).isEqualTo(lineByLine);
+	}
+
+	@Test
+	public void costDetailsCreatedInBatch_canBeStreamedAfter()
+	{
+		init();
+		final ImmutableList<CostDetailCreateRequest> lines = documentLines();
+
+		runInBatch(() -> {
+			lines.forEach(handler::createOrUpdateCost);
+
+			// not saved yet, so no ID
+			final CostDetail firstCostDetail = utils.getExistingCostDetail(lines.get(0)).get();
+			assertThat(firstCostDetail.getId()).isNull();
+
+			final List<CostDetail> nextCostDetails = utils.streamAllCostDetailsAfter(firstCostDetail).collect(ImmutableList.toImmutableList());
+			assertThat(nextCostDetails)
+					.extracting(CostDetail::getDocumentRef)
+					.containsExactly(
+							CostingDocumentRef.ofInventoryLineId(2),
+							CostingDocumentRef.ofShipmentLineId(1),
+							CostingDocumentRef.ofInventoryLineId(3),
+							CostingDocumentRef.ofShipmentLineId(2));
+		});
+	}
+}
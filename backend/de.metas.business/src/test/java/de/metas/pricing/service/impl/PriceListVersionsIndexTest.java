@@ -0,0 +1,101 @@
+package de.metas.pricing.service.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.util.TimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.pricing.PriceListId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PriceListVersionsIndexTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void getVersionValidAtOrNull()
+	{
+		final I_M_PriceList_Version plv1 = createVersion(LocalDate.of(2020, 1, 1), true);
+		final I_M_PriceList_Version plv2 = createVersion(LocalDate.of(2020, 2, 1), true);
+		final I_M_PriceList_Version plv3 = createVersion(LocalDate.of(2020, 3, 1), true);
+		final PriceListVersionsIndex index = new PriceListVersionsIndex(PriceListId.ofRepoId(1), ImmutableList.of(plv1, plv2, plv3));
+
+		assertThat(index.getVersionValidAtOrNull(date(2019, 12, 31), null)).isNull();
+		assertThat(index.getVersionValidAtOrNull(date(2020, 1, 1), null)).isSameAs(plv1);
+		assertThat(index.getVersionValidAtOrNull(date(2020, 1, 31), null)).isSameAs(plv1);
+		assertThat(index.getVersionValidAtOrNull(date(2020, 2, 1), null)).isSameAs(plv2);
+		assertThat(index.getVersionValidAtOrNull(date(2025, 1, 1), null)).isSameAs(plv3);
+	}
+
+	@Test
+	public void getVersionValidAtOrNull_sameValidFromDay_lastOneWins()
+	{
+		final I_M_PriceList_Version plv1 = createVersion(LocalDate.of(2020, 1, 1), true);
+		final I_M_PriceList_Version plv2 = createVersion(LocalDate.of(2020, 1, 1), true);
+		final PriceListVersionsIndex index = new PriceListVersionsIndex(PriceListId.ofRepoId(1), ImmutableList.of(plv1, plv2));
+
+		assertThat(index.getVersionValidAtOrNull(date(2020, 1, 1), null)).isSameAs(plv2);
+	}
+
+	@Test
+	public void getVersionValidAtOrNull_processed()
+	{
+		final I_M_PriceList_Version plv1 = createVersion(LocalDate.of(2020, 1, 1), true);
+		final I_M_PriceList_Version plv2 = createVersion(LocalDate.of(2020, 2, 1), false);
+		final PriceListVersionsIndex index = new PriceListVersionsIndex(PriceListId.ofRepoId(1), ImmutableList.of(plv1, plv2));
+
+		assertThat(index.getVersionValidAtOrNull(date(2020, 2, 15), true)).isSameAs(plv1);
+		assertThat(index.getVersionValidAtOrNull(date(2020, 2, 15), false)).isSameAs(plv2);
+		assertThat(index.getVersionValidAtOrNull(date(2020, 1, 15), false)).isNull();
+	}
+
+	private static ZonedDateTime date(final int year, final int month, final int day)
+	{
+		return LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault());
+	}
+
+	private I_M_PriceList_Version createVersion(final LocalDate validFrom, final boolean processed)
+	{
+		final I_M_PriceList_Version plv = newInstance(I_M_PriceList_Version.class);
+		plv.setValidFrom(TimeUtil.asTimestamp(validFrom));
+		plv.setProcessed(processed);
+		saveRecord(plv);
+		return plv;
+	}
+}
@@ -0,0 +1,216 @@
+package de.metas.pricing.service.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.ad.wrapper.POJOLookupMap;
+import org.adempiere.pricing.model.I_C_PricingRule;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_UOM;
+import org.compiere.model.I_M_DiscountSchema;
+import org.compiere.model.I_M_PriceList;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.model.X_M_DiscountSchema;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import de.metas.adempiere.model.I_M_Product;
+import de.metas.bpartner.BPartnerId;
+import de.metas.lang.SOTrx;
+import de.metas.pricing.IEditablePricingContext;
+import de.metas.pricing.IPricingResult;
+import de.metas.pricing.PriceListId;
+import de.metas.pricing.PriceListVersionId;
+import de.metas.pricing.rules.PriceListVersion;
+import de.metas.pricing.service.IPricingBL;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PricingBLTest
+{
+	@Rule
+	public AdempiereTestWatcher testWatcher = new AdempiereTestWatcher();
+
+	private PricingTestHelper helper;
+	private IPricingBL pricingBL;
+
+	private I_M_PriceList priceList2;
+	private I_M_PriceList_Version priceListVersion2;
+	private I_M_Product product2;
+	private I_M_Product productNotOnPriceList2;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		helper = new PricingTestHelper();
+		pricingBL = Services.get(IPricingBL.class);
+
+		final I_C_UOM uom = newInstance(I_C_UOM.class);
+		saveRecord(uom);
+		product2 = helper.createProduct("Product2", uom);
+		productNotOnPriceList2 = helper.createProduct("Product3", uom);
+
+		priceList2 = helper.createPriceList(helper.getDefaultPricingSystem(), helper.defaultCountry);
+		priceListVersion2 = helper.createPriceListVersion(priceList2);
+
+		final I_M_PriceList_Version priceListVersion1 = helper.getDefaultPriceListVerion();
+		createProductPrice(priceListVersion1, helper.getDefaultProduct(), 10);
+		createProductPrice(priceListVersion1, product2, 20);
+		createProductPrice(priceListVersion1, productNotOnPriceList2, 30);
+		createProductPrice(priceListVersion2, helper.getDefaultProduct(), 11);
+		createProductPrice(priceListVersion2, product2, 21);
+	}
+
+	private void createProductPrice(final I_M_PriceList_Version priceListVersion, final I_M_Product product, final int price)
+	{
+		new ProductPriceBuilder(priceListVersion, product)
+				.setTaxCategoryId(helper.getTaxCategoryId())
+				.setPrice(price)
+				.build();
+	}
+
+	/**
+	 * @return pricing contexts for all products on both price lists, alternating between the price lists
+	 */
+	private List<IEditablePricingContext> createPricingContexts()
+	{
+		final List<IEditablePricingContext> pricingCtxs = new ArrayList<>();
+		for (final I_M_Product product : new I_M_Product[] { helper.getDefaultProduct(), product2, productNotOnPriceList2 })
+		{
+			final IEditablePricingContext pricingCtx1 = helper.createPricingContext();
+			pricingCtx1.setProductId(ProductId.ofRepoId(product.getM_Product_ID()));
+			pricingCtxs.add(pricingCtx1);
+
+			final IEditablePricingContext pricingCtx2 = helper.createPricingContext();
+			pricingCtx2.setPriceListId(PriceListId.ofRepoId(priceList2.getM_PriceList_ID()));
+			pricingCtx2.setPriceListVersionId(PriceListVersionId.ofRepoId(priceListVersion2.getM_PriceList_Version_ID()));
+			pricingCtx2.setProductId(ProductId.ofRepoId(product.getM_Product_ID()));
+			pricingCtxs.add(pricingCtx2);
+		}
+		return pricingCtxs;
+	}
+
+	@Test
+	public void calculatePrices_sameAsCalculatePrice()
+	{
+		final List<IEditablePricingContext> pricingCtxs = createPricingContexts();
+
+		final List<IPricingResult> bulkResults = pricingBL.calculatePrices(pricingCtxs);
+
+		assertThat(bulkResults).hasSameSizeAs(pricingCtxs);
+		for (int i = 0; i < pricingCtxs.size(); i++)
+		{
+			final IPricingResult bulkResult = bulkResults.get(i);
+			final IPricingResult singleResult = pricingBL.calculatePrice(createPricingContexts().get(i));
+			assertSameResult(bulkResult, singleResult);
+		}
+
+		assertThat(bulkResults)
+				.extracting(IPricingResult::isCalculated)
+				.containsExactly(true, true, true, true, true, false);
+		assertThat(bulkResults.subList(0, 5))
+				.extracting(result -> result.getPriceStd().intValue())
+				.containsExactly(10, 11, 20, 21, 30);
+	}
+
+	@Test
+	public void calculatePrices_withPricingConditions_sameAsCalculatePrice()
+	{
+		final I_M_DiscountSchema discountSchema = newInstance(I_M_DiscountSchema.class);
+		discountSchema.setDiscountType(X_M_DiscountSchema.DISCOUNTTYPE_FlatPercent);
+		discountSchema.setFlatDiscount(BigDecimal.TEN);
+		saveRecord(discountSchema);
+
+		final I_C_BPartner bpartner = newInstance(I_C_BPartner.class);
+		bpartner.setM_DiscountSchema_ID(discountSchema.getM_DiscountSchema_ID());
+		bpartner.setFlatDiscount(BigDecimal.ZERO);
+		saveRecord(bpartner);
+
+		final List<IEditablePricingContext> pricingCtxs = createPricingContexts(bpartner);
+
+		final List<IPricingResult> bulkResults = pricingBL.calculatePrices(pricingCtxs);
+
+		assertThat(bulkResults).hasSameSizeAs(pricingCtxs);
+		for (int i = 0; i < pricingCtxs.size(); i++)
+		{
+			final IPricingResult bulkResult = bulkResults.get(i);
+			final IPricingResult singleResult = pricingBL.calculatePrice(createPricingContexts(bpartner).get(i));
+			assertSameResult(bulkResult, singleResult);
+			assertThat(bulkResult.getDiscount()).as("discount").isEqualTo(singleResult.getDiscount());
+		}
+
+		assertThat(bulkResults.get(0).getDiscount().toBigDecimal()).isEqualByComparingTo("10");
+	}
+
+	private List<IEditablePricingContext> createPricingContexts(final I_C_BPartner bpartner)
+	{
+		final List<IEditablePricingContext> pricingCtxs = createPricingContexts();
+		for (final IEditablePricingContext pricingCtx : pricingCtxs)
+		{
+			pricingCtx.setBPartnerId(BPartnerId.ofRepoId(bpartner.getC_BPartner_ID()));
+			pricingCtx.setSOTrx(SOTrx.SALES);
+			pricingCtx.setQty(BigDecimal.ONE);
+		}
+		return pricingCtxs;
+	}
+
+	@Test
+	public void calculatePrices_pricingRulesChainIsRebuiltOnChange()
+	{
+		assertThat(pricingBL.calculatePrices(createPricingContexts()).get(0).isCalculated()).isTrue();
+
+		final I_C_PricingRule priceListVersionRule = POJOLookupMap.get().getFirstOnly(
+				I_C_PricingRule.class,
+				pricingRule -> PriceListVersion.class.getName().equals(pricingRule.getClassname()));
+		priceListVersionRule.setIsActive(false);
+		saveRecord(priceListVersionRule);
+
+		assertThat(pricingBL.calculatePrices(createPricingContexts()))
+				.extracting(IPricingResult::isCalculated)
+				.containsOnly(false);
+		assertThat(pricingBL.calculatePrice(createPricingContexts().get(0)).isCalculated()).isFalse();
+	}
+
+	private static void assertSameResult(final IPricingResult actual, final IPricingResult expected)
+	{
+		assertThat(actual.isCalculated()).as("calculated").isEqualTo(expected.isCalculated());
+		assertThat(actual.getPriceListVersionId()).as("priceListVersionId").isEqualTo(expected.getPriceListVersionId());
+		assertThat(actual.getProductId()).as("productId").isEqualTo(expected.getProductId());
+		assertThat(actual.getCurrencyId()).as("currencyId").isEqualTo(expected.getCurrencyId());
+		assertThat(actual.getPrecision()).as("precision").isEqualTo(expected.getPrecision());
+		assertThat(actual.getPriceStd()).as("priceStd").isEqualByComparingTo(expected.getPriceStd());
+		assertThat(actual.getPriceList()).as("priceList").isEqualByComparingTo(expected.getPriceList());
+		assertThat(actual.getPriceLimit()).as("priceLimit").isEqualByComparingTo(expected.getPriceLimit());
+	}
+}
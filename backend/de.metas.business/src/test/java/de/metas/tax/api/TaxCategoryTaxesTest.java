@@ -0,0 +1,80 @@
+package de.metas.tax.api;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Tax;
+import org.compiere.util.TimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TaxCategoryTaxesTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void getTaxesValidAt()
+	{
+		final I_C_Tax tax2020 = createTax(TimeUtil.getDay(2020, 1, 1));
+		final I_C_Tax tax2019 = createTax(TimeUtil.getDay(2019, 1, 1));
+		final I_C_Tax tax2021 = createTax(TimeUtil.getDay(2021, 1, 1));
+		final I_C_Tax taxWithoutValidFrom = createTax(null);
+
+		final TaxCategoryTaxes taxes = new TaxCategoryTaxes(
+				TaxCategoryId.ofRepoId(1),
+				ImmutableList.of(tax2020, taxWithoutValidFrom, tax2019, tax2021));
+
+		assertThat(taxes.getTaxesValidAt(TimeUtil.getDay(2018, 12, 31))).isEmpty();
+		assertThat(taxes.getTaxesValidAt(TimeUtil.getDay(2019, 1, 1))).containsExactly(tax2019);
+		assertThat(taxes.getTaxesValidAt(TimeUtil.getDay(2020, 6, 1))).containsExactly(tax2019, tax2020);
+		assertThat(taxes.getTaxesValidAt(TimeUtil.getDay(2030, 1, 1))).containsExactly(tax2019, tax2020, tax2021);
+	}
+
+	@Test
+	public void getTaxesValidAt_noTaxes()
+	{
+		final TaxCategoryTaxes taxes = new TaxCategoryTaxes(TaxCategoryId.ofRepoId(1), ImmutableList.of());
+
+		assertThat(taxes.getTaxesValidAt(TimeUtil.getDay(2020, 1, 1))).isEmpty();
+	}
+
+	private I_C_Tax createTax(final Timestamp validFrom)
+	{
+		final I_C_Tax tax = newInstance(I_C_Tax.class);
+		tax.setValidFrom(validFrom);
+		saveRecord(tax);
+		return tax;
+	}
+}
@@ -1,21 +1,39 @@
 package de.metas.datev;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.UnsupportedEncodingException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.text.DateFormat;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAccessor;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
-import org.adempiere.exceptions.AdempiereException;
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.DBException;
+import org.adempiere.util.lang.ImmutablePair;
+import org.compiere.util.DB;
+import org.compiere.util.DisplayType;
 import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 
-import de.metas.data.export.api.IExportDataDestination;
-import de.metas.data.export.api.IExportDataSource;
-import de.metas.data.export.api.impl.AbstractExporter;
-import de.metas.data.export.api.impl.CSVWriter;
+import de.metas.datev.model.I_DATEV_ExportLine;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
 import de.metas.util.ThreadLocalDecimalFormatter;
 import lombok.Builder;
 import lombok.NonNull;
@@ -42,107 +60,237 @@ import lombok.NonNull;
  * #L%
  */
 
-public class DATEVCsvExporter extends AbstractExporter
+/**
+ * Exports the {@link I_DATEV_ExportLine}s of a DATEV export as CSV, in the given {@link DATEVExportFormat}.
+ * <p>
+ * The lines are streamed: they are read through a server side cursor and each row is formatted and written right away,
+ * using one formatter per column which is set up once per export. Nothing is kept in memory besides the current row.
+ */
+public class DATEVCsvExporter
 {
+	private static final Logger logger = LogManager.getLogger(DATEVCsvExporter.class);
+
+	private static final int DEFAULT_FetchSize = 1000;
+	private static final int WRITER_BUFFER_SIZE = 64 * 1024;
+	private static final String LINE_ENDING = "\n";
+
 	private final DATEVExportFormat exportFormat;
+	private final int datevExportId;
+	private final int fetchSize;
 
 	@Builder
 	private DATEVCsvExporter(
 			@NonNull final DATEVExportFormat exportFormat,
-			@NonNull final IExportDataSource dataSource)
+			final int datevExportId,
+			@Nullable final Integer fetchSize)
 	{
+		Check.assume(datevExportId > 0, "datevExportId > 0");
+
 		this.exportFormat = exportFormat;
-		setDataSource(dataSource);
+		this.datevExportId = datevExportId;
+		this.fetchSize = fetchSize != null && fetchSize > 0 ? fetchSize : DEFAULT_FetchSize;
+	}
+
+	/**
+	 * Writes the CSV to given output stream. The stream is flushed but not closed.
+	 *
+	 * @return how many lines were exported (excluding the header)
+	 */
+	public int export(@NonNull final OutputStream out) throws IOException
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final String sql = buildSql();
+		final List<Object> sqlParams = ImmutableList.of(datevExportId);
+
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(out, exportFormat.getCsvEncoding()), WRITER_BUFFER_SIZE);
+
+		Connection conn = null;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		int rowsCount = 0;
+		DB.saveConstraints();
+		try
+		{
+			// disabling trx timeout, as this might be a long-running process
+			DB.getConstraints().setTrxTimeoutSecs(-1, false);
+
+			final ImmutablePair<Connection, PreparedStatement> connAndStmt = DB.prepareConnectionAndStatementForDataExport(sql, sqlParams);
+			conn = connAndStmt.getLeft();
+			pstmt = connAndStmt.getRight();
+			pstmt.setFetchSize(fetchSize);
+			rs = pstmt.executeQuery();
+
+			rowsCount = export(rs, writer);
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.restoreConstraints();
+			DB.close(rs, pstmt);
+			DB.close(conn);
+		}
+
+		final long durationMillis = stopwatch.stop().elapsed(TimeUnit.MILLISECONDS);
+		logger.info("Exported {} DATEV lines in {}ms ({} lines/sec)",
+				rowsCount, durationMillis, durationMillis > 0 ? rowsCount * 1000L / durationMillis : rowsCount);
+
+		return rowsCount;
 	}
 
-	@Override
-	protected CSVWriter createDataDestination(final OutputStream out) throws UnsupportedEncodingException
+	/**
+	 * Writes the header and all rows of given result set to given writer, then flushes the writer.
+	 *
+	 * @return how many lines were exported (excluding the header)
+	 */
+	@VisibleForTesting
+	int export(@NonNull final ResultSet rs, @NonNull final Writer writer) throws SQLException, IOException
 	{
-		final Properties config = new Properties(getConfig());
-		config.setProperty(CSVWriter.CONFIG_Encoding, exportFormat.getCsvEncoding());
-		config.setProperty(CSVWriter.CONFIG_FieldDelimiter, exportFormat.getCsvFieldDelimiter());
-		config.setProperty(CSVWriter.CONFIG_FieldQuote, exportFormat.getCsvFieldQuote());
-
-		final CSVWriter csvWriter = new CSVWriter(out, config);
-		csvWriter.setHeader(getDataSource().getFieldNames());
-		return csvWriter;
+		final CellFormatter[] cellFormatters = createCellFormatters(rs.getMetaData());
+		final StringBuilder line = new StringBuilder(256);
+
+		int rowsCount = 0;
+		appendHeader(writer, line);
+		while (rs.next())
+		{
+			appendRow(writer, line, rs, cellFormatters);
+			rowsCount++;
+		}
+
+		writer.flush();
+		return rowsCount;
 	}
 
-	@Override
-	protected void appendRow(final IExportDataDestination dataDestination, final List<Object> row) throws IOException
+	private String buildSql()
 	{
-		final CSVWriter csvWriter = CSVWriter.cast(dataDestination);
-		final List<Object> rowFormatted = formatRow(row);
-		csvWriter.appendLine(rowFormatted);
+		final List<String> columnNames = exportFormat.getColumns()
+				.stream()
+				.map(DATEVExportFormatColumn::getColumnName)
+				.collect(ImmutableList.toImmutableList());
+
+		return "SELECT " + Joiner.on(", ").join(columnNames)
+				+ " FROM " + I_DATEV_ExportLine.Table_Name
+				+ " WHERE " + I_DATEV_ExportLine.COLUMNNAME_DATEV_Export_ID + "=?"
+				+ " ORDER BY " + I_DATEV_ExportLine.COLUMNNAME_DATEV_ExportLine_ID;
 	}
 
-	private List<Object> formatRow(final List<Object> row)
+	private CellFormatter[] createCellFormatters(final ResultSetMetaData metaData) throws SQLException
 	{
+		// NOTE: the default date format is not thread-safe, so we need our own instance
+		final DateFormat defaultDateFormat = (DateFormat)DisplayType.getDateFormat(DisplayType.Date).clone();
+
 		final List<DATEVExportFormatColumn> formatColumns = exportFormat.getColumns();
-		final int rowSize = row.size();
-		final List<Object> rowFormatted = new ArrayList<>(rowSize);
-		for (int i = 0; i < rowSize; i++)
+		final CellFormatter[] cellFormatters = new CellFormatter[formatColumns.size()];
+		for (int i = 0; i < cellFormatters.length; i++)
 		{
-			final Object cell = row.get(i);
-			final DATEVExportFormatColumn columnFormat = formatColumns.get(i);
-			final Object cellFormated = formatCell(cell, columnFormat);
-			rowFormatted.add(cellFormated);
+			final DATEVExportFormatColumn formatColumn = formatColumns.get(i);
+			final int sqlType = metaData.getColumnType(i + 1);
+
+			cellFormatters[i] = createCellFormatter(formatColumn, sqlType, defaultDateFormat);
 		}
 
-		return rowFormatted;
+		return cellFormatters;
 	}
 
-	private Object formatCell(final Object value, final DATEVExportFormatColumn columnFormat)
+	private static CellFormatter createCellFormatter(
+			final DATEVExportFormatColumn formatColumn,
+			final int sqlType,
+			final DateFormat defaultDateFormat)
 	{
-		if (value == null)
+		final DateTimeFormatter dateFormatter = formatColumn.getDateFormatter();
+		final ThreadLocalDecimalFormatter numberFormatter = formatColumn.getNumberFormatter();
+		if (dateFormatter != null)
 		{
-			return null;
+			return (rs, columnIndex) -> {
+				final Timestamp value = rs.getTimestamp(columnIndex);
+				return value != null ? dateFormatter.format(TimeUtil.asLocalDate(value)) : null;
+			};
 		}
-
-		if (columnFormat.getDateFormatter() != null)
+		else if (numberFormatter != null)
 		{
-			return formatDateCell(value, columnFormat.getDateFormatter());
+			return (rs, columnIndex) -> {
+				final Object value = rs.getObject(columnIndex);
+				return value != null ? numberFormatter.format(value) : null;
+			};
 		}
-		else if (columnFormat.getNumberFormatter() != null)
+		else if (sqlType == Types.DATE || sqlType == Types.TIMESTAMP)
 		{
-			return formatNumberCell(value, columnFormat.getNumberFormatter());
+			return (rs, columnIndex) -> {
+				final Timestamp value = rs.getTimestamp(columnIndex);
+				return value != null ? defaultDateFormat.format(value) : null;
+			};
 		}
 		else
 		{
-			return value;
+			return (rs, columnIndex) -> {
+				final Object value = rs.getObject(columnIndex);
+				return value != null ? value.toString() : null;
+			};
 		}
 	}
 
-	private static String formatDateCell(final Object value, final DateTimeFormatter dateFormatter)
+	private void appendHeader(final Writer writer, final StringBuilder line) throws IOException
 	{
-		if (value == null)
+		line.setLength(0);
+		for (final DATEVExportFormatColumn formatColumn : exportFormat.getColumns())
 		{
-			return null;
+			if (line.length() > 0)
+			{
+				line.append(exportFormat.getCsvFieldDelimiter());
+			}
+			appendQuoted(line, formatColumn.getCsvHeaderName());
 		}
-		else if (value instanceof java.util.Date)
+
+		line.append(LINE_ENDING);
+		writer.append(line);
+	}
+
+	private void appendRow(
+			final Writer writer,
+			final StringBuilder line,
+			final ResultSet rs,
+			final CellFormatter[] cellFormatters) throws SQLException, IOException
+	{
+		final String fieldDelimiter = exportFormat.getCsvFieldDelimiter();
+
+		line.setLength(0);
+		for (int i = 0; i < cellFormatters.length; i++)
 		{
-			final java.util.Date date = (java.util.Date)value;
-			return dateFormatter.format(TimeUtil.asLocalDate(date));
+			if (i > 0)
+			{
+				line.append(fieldDelimiter);
+			}
+
+			final String value = cellFormatters[i].format(rs, i + 1);
+			appendQuoted(line, value != null ? value : "");
 		}
-		else if (value instanceof TemporalAccessor)
+
+		line.append(LINE_ENDING);
+		writer.append(line);
+	}
+
+	private void appendQuoted(final StringBuilder line, final String value)
+	{
+		final String fieldQuote = exportFormat.getCsvFieldQuote();
+		if (fieldQuote.isEmpty())
 		{
-			TemporalAccessor temporal = (TemporalAccessor)value;
-			return dateFormatter.format(temporal);
+			line.append(value);
 		}
 		else
 		{
-			throw new AdempiereException("Cannot convert/format value to Date: " + value + " (" + value.getClass() + ")");
+			line.append(fieldQuote)
+					.append(value.replace(fieldQuote, fieldQuote + fieldQuote))
+					.append(fieldQuote);
 		}
 	}
 
-	private static String formatNumberCell(final Object value, final ThreadLocalDecimalFormatter numberFormatter)
+	@FunctionalInterface
+	private interface CellFormatter
 	{
-		if (value == null)
-		{
-			return null;
-		}
-
-		return numberFormatter.format(value);
+		@Nullable
+		String format(ResultSet rs, int columnIndex) throws SQLException;
 	}
-
 }
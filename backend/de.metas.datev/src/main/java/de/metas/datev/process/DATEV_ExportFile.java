@@ -1,30 +1,33 @@
 package de.metas.datev.process;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
 
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
 import org.compiere.util.TimeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.google.common.base.Joiner;
 
-import de.metas.data.export.api.IExportDataSource;
-import de.metas.data.export.api.impl.JdbcExporterBuilder;
 import de.metas.datev.DATEVCsvExporter;
 import de.metas.datev.DATEVExportFormat;
 import de.metas.datev.DATEVExportFormatRepository;
 import de.metas.datev.model.I_DATEV_Export;
 import de.metas.datev.model.I_DATEV_ExportFormat;
-import de.metas.datev.model.I_DATEV_ExportLine;
 import de.metas.process.IProcessPrecondition;
 import de.metas.process.IProcessPreconditionsContext;
 import de.metas.process.JavaProcess;
 import de.metas.process.Param;
 import de.metas.process.ProcessPreconditionsResolution;
-import de.metas.util.Check;
-import lombok.NonNull;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -50,6 +53,9 @@ import lombok.NonNull;
 
 public class DATEV_ExportFile extends JavaProcess implements IProcessPrecondition
 {
+	private static final String SYSCONFIG_Gzip = "de.metas.datev.process.DATEV_ExportFile.Gzip";
+	private static final String SYSCONFIG_FetchSize = "de.metas.datev.process.DATEV_ExportFile.FetchSize";
+
 	@Autowired
 	private DATEVExportFormatRepository exportFormatRepo;
 
@@ -82,36 +88,45 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 		final DATEVExportFormat exportFormat = exportFormatRepo.getById(datevExportFormatId);
 		final I_DATEV_Export datevExport = getRecord(I_DATEV_Export.class);
 
-		final IExportDataSource dataSource = createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final boolean gzip = sysConfigBL.getBooleanValue(SYSCONFIG_Gzip, false);
 
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-		DATEVCsvExporter.builder()
+		final DATEVCsvExporter exporter = DATEVCsvExporter.builder()
 				.exportFormat(exportFormat)
-				.dataSource(dataSource)
-				.build()
-				.export(out);
+				.datevExportId(datevExport.getDATEV_Export_ID())
+				.fetchSize(sysConfigBL.getIntValue(SYSCONFIG_FetchSize, -1))
+				.build();
 
-		getResult().setReportData(
-				out.toByteArray(), // data
-				buildFilename(datevExport), // filename
-				"text/csv"); // content type
+		// Stream the CSV to a temporary file rather than growing it in memory
+		final File file = File.createTempFile("datev", gzip ? ".csv.gz" : ".csv");
+		try
+		{
+			try (final OutputStream out = createOutputStream(file, gzip))
+			{
+				exporter.export(out);
+			}
+
+			final String filename = buildFilename(datevExport);
+			getResult().setReportData(
+					Files.readAllBytes(file.toPath()), // data
+					gzip ? filename + ".gz" : filename, // filename
+					gzip ? "application/gzip" : "text/csv"); // content type
+		}
+		finally
+		{
+			if (!file.delete())
+			{
+				file.deleteOnExit();
+			}
+		}
 
 		return MSG_OK;
 	}
 
-	private IExportDataSource createDataSource(@NonNull final DATEVExportFormat exportFormat, final int datevExportId)
+	private static OutputStream createOutputStream(final File file, final boolean gzip) throws IOException
 	{
-		Check.assume(datevExportId > 0, "datevExportId > 0");
-
-		final JdbcExporterBuilder builder = new JdbcExporterBuilder(I_DATEV_ExportLine.Table_Name)
-				.addEqualsWhereClause(I_DATEV_ExportLine.COLUMNNAME_DATEV_Export_ID, datevExportId)
-				.addOrderBy(I_DATEV_ExportLine.COLUMNNAME_DATEV_ExportLine_ID);
-
-		exportFormat
-				.getColumns()
-				.forEach(formatColumn -> builder.addField(formatColumn.getCsvHeaderName(), formatColumn.getColumnName()));
-
-		return builder.createDataSource();
+		final OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		return gzip ? new GZIPOutputStream(out) : out;
 	}
 
 	private static String buildFilename(final I_DATEV_Export datevExport)
@@ -0,0 +1,226 @@
+package de.metas.datev;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.TimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.data.export.api.impl.CSVWriter;
+import de.metas.util.ThreadLocalDecimalFormatter;
+
+/*
+ * #%L
+ * metasfresh-datev
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DATEVCsvExporterTest
+{
+	private static final int[] SQL_TYPES = { Types.VARCHAR, Types.TIMESTAMP, Types.NUMERIC, Types.TIMESTAMP, Types.NUMERIC };
+
+	private DATEVExportFormat exportFormat;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		exportFormat = DATEVExportFormat.builder()
+				.name("test")
+				.csvEncoding("UTF-8")
+				.csvFieldDelimiter(";")
+				.csvFieldQuote("\"")
+				.column(DATEVExportFormatColumn.builder().columnName("Description").csvHeaderName("Buchungstext").build())
+				.column(DATEVExportFormatColumn.builder().columnName("DateAcct").csvHeaderName("Belegdatum")
+						.dateFormatter(DateTimeFormatter.ofPattern("ddMM"))
+						.build())
+				.column(DATEVExportFormatColumn.builder().columnName("Amt").csvHeaderName("Umsatz")
+						.numberFormatter(ThreadLocalDecimalFormatter.ofPattern("0.00"))
+						.build())
+				.column(DATEVExportFormatColumn.builder().columnName("DateTrx").csvHeaderName("Datum").build())
+				.column(DATEVExportFormatColumn.builder().columnName("C_Invoice_ID").csvHeaderName("Rechnung").build())
+				.build();
+	}
+
+	@Test
+	public void export_sameAsPreviousCSVWriterOutput() throws Exception
+	{
+		final List<Object[]> rows = new ArrayList<>();
+		for (int i = 1; i <= 2500; i++)
+		{
+			final Timestamp date = TimeUtil.asTimestamp(LocalDate.of(2020, 1, 1).plusDays(i % 366));
+			rows.add(new Object[] {
+					"Line " + i + (i % 10 == 0 ? " with \"quotes\";delimiter" : ""),
+					date,
+					new BigDecimal(i).divide(new BigDecimal(3), 4, BigDecimal.ROUND_HALF_UP),
+					date,
+					new BigDecimal(1000 + i) });
+		}
+		rows.add(new Object[] { null, null, null, null, null });
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		final int rowsCount = DATEVCsvExporter.builder()
+				.exportFormat(exportFormat)
+				.datevExportId(1)
+				.build()
+				.export(createResultSet(rows), writer);
+
+		assertThat(rowsCount, equalTo(rows.size()));
+		assertThat(out.toString("UTF-8"), equalTo(exportUsingCSVWriter(rows)));
+	}
+
+	@Test
+	public void export_noRows_onlyHeader() throws Exception
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final int rowsCount = DATEVCsvExporter.builder()
+				.exportFormat(exportFormat)
+				.datevExportId(1)
+				.build()
+				.export(createResultSet(ImmutableList.of()), new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+		assertThat(rowsCount, equalTo(0));
+		assertThat(out.toString("UTF-8"), equalTo("\"Buchungstext\";\"Belegdatum\";\"Umsatz\";\"Datum\";\"Rechnung\"\n"));
+	}
+
+	/**
+	 * Formats the rows the way the DATEV export did before it was streamed, i.e. through the generic {@link CSVWriter}.
+	 */
+	private String exportUsingCSVWriter(final List<Object[]> rows) throws IOException
+	{
+		final Properties config = new Properties();
+		config.setProperty(CSVWriter.CONFIG_Encoding, exportFormat.getCsvEncoding());
+		config.setProperty(CSVWriter.CONFIG_FieldDelimiter, exportFormat.getCsvFieldDelimiter());
+		config.setProperty(CSVWriter.CONFIG_FieldQuote, exportFormat.getCsvFieldQuote());
+
+		final List<String> header = new ArrayList<>();
+		exportFormat.getColumns().forEach(column -> header.add(column.getCsvHeaderName()));
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final CSVWriter csvWriter = new CSVWriter(out, config);
+		csvWriter.setHeader(header);
+		for (final Object[] row : rows)
+		{
+			final List<Object> rowFormatted = new ArrayList<>(row.length);
+			for (int i = 0; i < row.length; i++)
+			{
+				rowFormatted.add(formatCell(row[i], exportFormat.getColumns().get(i)));
+			}
+			csvWriter.appendLine(rowFormatted);
+		}
+		csvWriter.close();
+
+		return out.toString("UTF-8");
+	}
+
+	private static Object formatCell(final Object value, final DATEVExportFormatColumn columnFormat)
+	{
+		if (value == null)
+		{
+			return null;
+		}
+		else if (columnFormat.getDateFormatter() != null)
+		{
+			return columnFormat.getDateFormatter().format(TimeUtil.asLocalDate((Timestamp)value));
+		}
+		else if (columnFormat.getNumberFormatter() != null)
+		{
+			return columnFormat.getNumberFormatter().format(value);
+		}
+		else
+		{
+			return value;
+		}
+	}
+
+	private static ResultSet createResultSet(final List<Object[]> rows)
+	{
+		final ResultSetMetaData metaData = (ResultSetMetaData)Proxy.newProxyInstance(
+				DATEVCsvExporterTest.class.getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class },
+				(proxy, method, args) -> {
+					if ("getColumnType".equals(method.getName()))
+					{
+						return SQL_TYPES[(Integer)args[0] - 1];
+					}
+					else if ("getColumnCount".equals(method.getName()))
+					{
+						return SQL_TYPES.length;
+					}
+					throw new UnsupportedOperationException(method.toString());
+				});
+
+		final Iterator<Object[]> rowsIterator = rows.iterator();
+		final Object[][] currentRow = new Object[1][];
+		return (ResultSet)Proxy.newProxyInstance(
+				DATEVCsvExporterTest.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> {
+					switch (method.getName())
+					{
+						case "next":
+							currentRow[0] = rowsIterator.hasNext() ? rowsIterator.next() : null;
+							return currentRow[0] != null;
+						case "getMetaData":
+							return metaData;
+						case "getObject":
+							return getValue(currentRow[0], args);
+						case "getTimestamp":
+							return (Timestamp)getValue(currentRow[0], args);
+						default:
+							throw new UnsupportedOperationException(method.toString());
+					}
+				});
+	}
+
+	private static Object getValue(final Object[] row, final Object[] args) throws SQLException
+	{
+		if (row == null || args.length != 1 || !(args[0] instanceof Integer))
+		{
+			throw new SQLException("No current row or unsupported arguments: " + Arrays.toString(args));
+		}
+		return row[(Integer)args[0] - 1];
+	}
+}
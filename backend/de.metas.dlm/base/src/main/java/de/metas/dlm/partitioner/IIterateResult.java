@@ -103,6 +103,23 @@ public interface IIterateResult
 	 */
 	ITableRecordReference nextFromQueue();
 
+	/**
+	 * Puts the given records back to the head of the queue, so that the next invocations of {@link #nextFromQueue()} return them again, in the given order.
+	 * <p>
+	 * The crawler takes whole batches from the queue; if it is signaled to stop in the middle of a batch, it uses this method to hand back the records it did not yet process.
+	 *
+	 * @param records records that were returned by {@link #nextFromQueue()} earlier.
+	 */
+	void putBackToQueue(List<ITableRecordReference> records);
+
+	/**
+	 * @return {@code true} if the crawler found what it was looking for and shall not process any further record, even if it already took it from the queue. Also see {@link #isQueueEmpty()}.
+	 */
+	default boolean isGoalReached()
+	{
+		return false;
+	}
+
 	/**
 	 * Register a handler.
 	 * <p>
@@ -13,6 +13,7 @@ import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 import de.metas.dlm.partitioner.IIterateResult;
 import de.metas.dlm.partitioner.IIterateResultHandler;
@@ -148,6 +149,18 @@ public class FindPathIterateResult implements IIterateResult
 		return queueItemsToProcess.removeFirst();
 	}
 
+	@Override
+	public void putBackToQueue(final List<ITableRecordReference> records)
+	{
+		Lists.reverse(records).forEach(queueItemsToProcess::addFirst);
+	}
+
+	@Override
+	public boolean isGoalReached()
+	{
+		return foundGoal;
+	}
+
 	@Override
 	public void registerHandler(IIterateResultHandler handler)
 	{
@@ -14,6 +14,7 @@ import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ITableRecordReference;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 import de.metas.dlm.Partition;
 import de.metas.dlm.Partition.WorkQueue;
@@ -224,6 +225,31 @@ public class CreatePartitionIterateResult implements IStorableIterateResult
 		return queueItemsToProcess.removeFirst();
 	}
 
+	/**
+	 * Note that records which came with a <code>DLM_Partition_Workqueue_ID</code> are put back with that ID, so they won't be deleted from the DB queue before they are actually processed.
+	 */
+	@Override
+	public void putBackToQueue(final List<ITableRecordReference> records)
+	{
+		for (final ITableRecordReference record : Lists.reverse(records))
+		{
+			queueItemsToProcess.addFirst(removeFromQueueItemsToDelete(record));
+		}
+	}
+
+	private WorkQueue removeFromQueueItemsToDelete(final ITableRecordReference tableRecordReference)
+	{
+		// search backwards, because the records to put back were the latest ones to be taken from the queue
+		for (int i = queueItemsToDelete.size() - 1; i >= 0; i--)
+		{
+			if (queueItemsToDelete.get(i).getTableRecordReference().equals(tableRecordReference))
+			{
+				return queueItemsToDelete.remove(i);
+			}
+		}
+		return WorkQueue.of(tableRecordReference);
+	}
+
 	@Override
 	public List<WorkQueue> getQueueRecordsToStore()
 	{
@@ -24,9 +24,14 @@ package de.metas.dlm.partitioner.impl;
 
 import ch.qos.logback.classic.Level;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import de.metas.adempiere.service.IColumnBL;
 import de.metas.dlm.IDLMService;
 import de.metas.dlm.Partition;
+import de.metas.dlm.Partition.WorkQueue;
 import de.metas.dlm.migrator.IMigratorService;
 import de.metas.dlm.model.IDLMAware;
 import de.metas.dlm.model.I_DLM_Partition;
@@ -45,251 +50,486 @@ import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.model.PlainContextAware;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ITableRecordReference;
-import org.adempiere.util.lang.Mutable;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.compiere.util.TrxRunnable;
 import org.slf4j.Logger;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class RecordCrawlerService implements IRecordCrawlerService
 {
 	private final transient Logger logger = LogManager.getLogger(getClass());
 
+	/**
+	 * The max number of records which {@link #crawl(PartitionConfig, IContextAware, IIterateResult)} takes from the queue at once and expands with set-based queries.
+	 */
+	private static final int CRAWL_BATCH_SIZE = 10000;
+
+	/**
+	 * The max number of IDs per <code>IN</code> query. Postgres' JDBC driver supports only 2^15 parameters per statement; also see {@link de.metas.dlm.impl.AbstractDLMService}.
+	 */
+	private static final int MAX_IN_ARRAY_SIZE = 30000;
+
 	@Override
 	public IIterateResult crawl(
 			final PartitionConfig config,
 			final IContextAware ctxAware,
 			final IIterateResult result)
 	{
-
-		final IColumnBL columnBL = Services.get(IColumnBL.class);
-		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
-
 		// store what we are setting out to do here. E.g. if we are called from a DLMException, we want the situation such as
 		// "partition is not complete because testMigrate failed, and there are e.g. 20 orderlines to backtrack from" to be stored here.
 		// otherwise, the partiton we are in truth working on just now would be flagged as "completed" in the DB until further notice
 		storeIterateResult(config, result, ctxAware);
 
+		// the records we already expanded during this crawl, per table name
+		final Map<String, RecordIdBitmap> tableName2ExpandedIds = new HashMap<>();
+
 		mainLoop:
 		while (!result.isQueueEmpty())
 		{
-			final ITableRecordReference currentReference = result.nextFromQueue();
-			final IDLMAware currentRecord = currentReference.getModel(ctxAware, IDLMAware.class);
-			if (currentRecord == null)
-			{
-				continue;
-			}
-
 			if (shallStoreResult(result))
 			{
 				storeIterateResult(config, result, ctxAware);
 			}
 
-			final String currentTableName = currentReference.getTableName();
-			final int currentRecordId = InterfaceWrapperHelper.getId(currentRecord);
+			// take the current frontier from the queue; the queue is FIFO, so we still process the records in the same order as if we took them one by one
+			final List<ITableRecordReference> batch = new ArrayList<>();
+			while (batch.size() < CRAWL_BATCH_SIZE && !result.isQueueEmpty())
+			{
+				batch.add(result.nextFromQueue());
+			}
 
-			// there might or migth not be a line for the current reference's table name. That would mean that we can only search "backward"
-			final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+			final CrawlBatch crawlBatch = loadBatch(config, ctxAware, result, batch, tableName2ExpandedIds);
 
-			if (currentLineOrNull.isPresent())
+			for (int i = 0; i < batch.size(); i++)
 			{
-				final List<PartitionerConfigReference> forwardRefs = currentLineOrNull.get().getReferences();
+				if (result.isGoalReached())
+				{
+					break mainLoop;
+				}
 
-				// look FORWARD
-				//
-				// look at all the records that are referenced by 'currentRecord' and add them to 'hull',
-				// but only add them if they were not yet identified as parts of this partition (i.e. not yet added to 'records').
-				for (final PartitionerConfigReference forwardRef : forwardRefs)
+				final ITableRecordReference currentReference = batch.get(i);
+				final IDLMAware currentRecord = crawlBatch.getRecord(currentReference.getTableName(), currentReference.getRecord_ID());
+				if (currentRecord == null)
 				{
-					if (forwardRef.isPartitionBoundary())
-					{
-						continue; // don't follow it
-					}
+					continue;
+				}
+				if (!tableName2ExpandedIds.computeIfAbsent(currentReference.getTableName(), k -> new RecordIdBitmap()).add(currentReference.getRecord_ID()))
+				{
+					continue; // e.g. the record was added again after an earlier part of the result was stored. We already followed its references, no need to do it twice
+				}
 
-					// the table name for the foreign record which has 'foreignKey' as its ID
-					final String forwardTableName = forwardRef.getReferencedTableName();
-					final String forwardColumnName = forwardRef.getReferencingColumnName();
+				final AddResult addResult = expandRecord(config, result, crawlBatch, currentReference, currentRecord);
+				if (AddResult.STOP.equals(addResult))
+				{
+					// hand back the records we took from the queue, but did not yet expand
+					result.putBackToQueue(batch.subList(i + 1, batch.size()));
+					break mainLoop;
+				}
+			}
+		}
 
-					// first check if this is all about a Record_ID/AD_Table_ID reference.
-					// if that is the case, then we need to verify that the AD_Table_ID of 'record' actually points to the table named 'forwardTableName'
-					if (columnBL.isRecordIdColumnName(forwardColumnName))
-					{
-						final String tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
-								.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
+		logger.info("Found {} records via config.name={}", result.size(), config.getName());
+		storeIterateResult(config, result, ctxAware);
+		return result;
+	}
 
-						final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
-						if (tableId == null || tableId <= 0)
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference any table; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableColumnName);
-							continue;
-						}
+	/**
+	 * Follows the forward and backward references of the given <code>currentRecord</code> and adds the records it finds to the given <code>result</code>.
+	 *
+	 * @param crawlBatch has all the records which this method might need to look at; see {@link #loadBatch(PartitionConfig, IContextAware, IIterateResult, List, Map)}.
+	 * @return {@link AddResult#STOP} if the crawler was signaled to stop.
+	 */
+	private AddResult expandRecord(
+			final PartitionConfig config,
+			final IIterateResult result,
+			final CrawlBatch crawlBatch,
+			final ITableRecordReference currentReference,
+			final IDLMAware currentRecord)
+	{
+		final String currentTableName = currentReference.getTableName();
+		final int currentRecordId = InterfaceWrapperHelper.getId(currentRecord);
 
-						final String tableName = adTableDAO.retrieveTableName(tableId);
-						if (!tableName.equals(forwardTableName))
-						{
-							logger.trace("{}[{}] forward: the column={} does not reference a {}-record, but a {}-record; skipping", currentTableName, currentRecordId, forwardColumnName, forwardTableName, tableName);
-							continue;
-						}
-					}
+		// there might or migth not be a line for the current reference's table name. That would mean that we can only search "backward"
+		final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+
+		if (currentLineOrNull.isPresent())
+		{
+			final List<PartitionerConfigReference> forwardRefs = currentLineOrNull.get().getReferences();
+
+			// look FORWARD
+			//
+			// look at all the records that are referenced by 'currentRecord' and add them to 'hull',
+			// but only add them if they were not yet identified as parts of this partition (i.e. not yet added to 'records').
+			for (final PartitionerConfigReference forwardRef : forwardRefs)
+			{
+				if (forwardRef.isPartitionBoundary())
+				{
+					continue; // don't follow it
+				}
+
+				// the table name for the foreign record which has 'foreignKey' as its ID
+				final String forwardTableName = forwardRef.getReferencedTableName();
+				final String forwardColumnName = forwardRef.getReferencingColumnName();
+
+				final Integer forwardKey = getForwardKeyOrNull(currentTableName, currentRecord, forwardRef, true);
+				if (forwardKey == null)
+				{
+					continue;
+				}
 
-					// get the foreign key ID of
-					// table DLM_PartitionLine_Config.AD_Table_ID,
-					// column DLM_PartitionReference_Config.DLM_Referencing_Column_ID
-					final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
-					if (forwardKey == null || forwardKey <= 0)
+				final TableRecordReference forwardReference = TableRecordReference.of(forwardTableName, forwardKey);
+
+				final boolean recordWasAlreadyAddedBefore = result.contains(forwardReference);
+				if (recordWasAlreadyAddedBefore)
+				{
+					logger.trace("{}[{}] forward: ITableRecordReference={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, forwardReference); // avoid circles and also avoid loading the whole PO again
+				}
+				else
+				{
+					// the foreign record was not yet added before. It was already loaded together with the whole batch
+					final IDLMAware forwardRecord = crawlBatch.getRecord(forwardTableName, forwardKey);
+					if (forwardRecord == null)
 					{
-						logger.trace("{}[{}] forward: the column={} does not reference anything; skipping", currentTableName, currentRecordId, forwardColumnName);
+						// this happens with our "minidump" where we left out the HUs
+						Loggables.withLogger(logger, Level.WARN).addLog(
+								"{}[{}] forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
+								currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey);
 						continue;
 					}
 
-					final TableRecordReference forwardReference = TableRecordReference.of(forwardTableName, forwardKey);
+					logger.debug("{}[{}] forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
+							currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey, forwardRecord);
 
-					final boolean recordWasAlreadyAddedBefore = result.contains(forwardReference);
-					if (recordWasAlreadyAddedBefore)
+					final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
+					if (forwardRecord.getDLM_Partition_ID() > 0)
 					{
-						logger.trace("{}[{}] forward: ITableRecordReference={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, forwardReference); // avoid circles and also avoid loading the whole PO again
+						// log why we do not search further using the new found foreign record
+						logger.debug("{}[{}] forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+								currentTableName, currentRecordId, forwardRecord, forwardRecord.getDLM_Partition_ID());
 					}
-					else
+					if (AddResult.STOP.equals(addResult))
 					{
-						// the foreign record was not yet added before. Load it now.
-						final IDLMAware forwardRecord = forwardReference.getModel(ctxAware, IDLMAware.class);
-						if (forwardRecord == null)
-						{
-							// this happens with our "minidump" where we left out the HUs
-							Loggables.withLogger(logger, Level.WARN).addLog(
-									"{}[{}] forward: the record from table={} which we attempted to load via {}.{}={} is NULL",
-									currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey);
-							continue;
-						}
+						Loggables.withLogger(logger, Level.WARN)
+								.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
+						return AddResult.STOP;
+					}
+				}
+			}
+		}
 
-						logger.debug("{}[{}] forward: loaded from table={} via {}.{}={}: referenced IDLMAware={}",
-								currentTableName, currentRecordId, forwardTableName, currentTableName, forwardColumnName, forwardKey, forwardRecord);
+		// Look BACKWARD, i.e. get all config-references that point to 'currentTableName'.
+		// Then, for each of them, get the records that reference 'currentRecord' via the respective config-reference.
+		//
+		final List<PartitionerConfigReference> backwardRefs = config.getReferences(currentTableName);
+		for (final PartitionerConfigReference backwardRef : backwardRefs)
+		{
+			if (backwardRef.isPartitionBoundary())
+			{
+				continue;
+			}
 
-						final AddResult addResult = result.addReferencedRecord(currentReference, forwardReference, forwardRecord.getDLM_Partition_ID());
-						if (forwardRecord.getDLM_Partition_ID() > 0)
-						{
-							// log why we do not search further using the new found foreign record
-							logger.debug("{}[{}] forward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-									currentTableName, currentRecordId, forwardRecord, forwardRecord.getDLM_Partition_ID());
-						}
-						if (AddResult.STOP.equals(addResult))
+			final String backwardTableName = backwardRef.getParent().getTableName();
+			final String backwardColumnName = backwardRef.getReferencingColumnName();
+
+			// all records which reference currentRecord; they were already loaded together with the whole batch.
+			// they include records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
+			final List<IDLMAware> backwardRecords = crawlBatch.getReferencingRecords(backwardRef, currentRecordId);
+
+			for (final IDLMAware backwardRecord : backwardRecords)
+			{
+				final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
+
+				final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
+
+				switch (addRecordResult)
+				{
+					case ADDED_CONTINUE:
+						// log that the foreign record was not yet added before. We added it now
+						logger.debug("{}[{}] backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
+								currentTableName, currentRecordId, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
+
+						if (backwardRecord.getDLM_Partition_ID() > 0)
 						{
-							Loggables.withLogger(logger, Level.WARN)
-									.addLog("The crawler was signaled to stop when it added ReferencedRecord={} to the result. Stopping now", forwardReference);
-							break mainLoop;
+							// log why we did not search further using the new found foreign record
+							logger.debug("{}[{}] backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
+									currentTableName, currentRecordId, backwardRecord, backwardRecord.getDLM_Partition_ID());
 						}
-					}
+						break;
+					case NOT_ADDED_CONTINUE:
+						logger.trace("{}[{}] backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, backwardTableRecordReference);
+						break;
+					case STOP:
+						Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
+						return AddResult.STOP;
+					default:
+						Check.errorIf(true, "Unexpected result={}", addRecordResult);
+						break;
 				}
 			}
+		}
+		return AddResult.ADDED_CONTINUE;
+	}
 
-			// Look BACKWARD, i.e. get all config-references that point to 'currentTableName'.
-			// Then, for each of them, load the records that reference 'currentRecord' via the respective config-reference.
-			//
-			final List<PartitionerConfigReference> backwardRefs = config.getReferences(currentTableName);
-			for (final PartitionerConfigReference backwardRef : backwardRefs)
+	/**
+	 * Gets the foreign key ID of table <code>DLM_PartitionLine_Config.AD_Table_ID</code>, column <code>DLM_PartitionReference_Config.DLM_Referencing_Column_ID</code>.
+	 *
+	 * @return the ID of the record that is referenced by the given <code>currentRecord</code> via the given <code>forwardRef</code>, or {@code null}.
+	 */
+	private Integer getForwardKeyOrNull(
+			final String currentTableName,
+			final IDLMAware currentRecord,
+			final PartitionerConfigReference forwardRef,
+			final boolean logSkipReason)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+
+		final String forwardTableName = forwardRef.getReferencedTableName();
+		final String forwardColumnName = forwardRef.getReferencingColumnName();
+
+		// first check if this is all about a Record_ID/AD_Table_ID reference.
+		// if that is the case, then we need to verify that the AD_Table_ID of 'record' actually points to the table named 'forwardTableName'
+		if (columnBL.isRecordIdColumnName(forwardColumnName))
+		{
+			final String tableColumnName = columnBL.getTableIdColumnName(currentTableName, forwardColumnName)
+					.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", currentTableName, forwardColumnName));
+
+			final Integer tableId = InterfaceWrapperHelper.getValueOrNull(currentRecord, tableColumnName);
+			if (tableId == null || tableId <= 0)
 			{
-				if (backwardRef.isPartitionBoundary())
+				if (logSkipReason)
 				{
-					continue;
+					logger.trace("{}[{}] forward: the column={} does not reference any table; skipping", currentTableName, InterfaceWrapperHelper.getId(currentRecord), forwardColumnName);
 				}
+				return null;
+			}
 
-				final PartitionerConfigLine backwardLine = backwardRef.getParent();
-				final String backwardTableName = backwardLine.getTableName();
-				final String backwardColumnName = backwardRef.getReferencingColumnName();
+			final String tableName = Services.get(IADTableDAO.class).retrieveTableName(tableId);
+			if (!tableName.equals(forwardTableName))
+			{
+				if (logSkipReason)
+				{
+					logger.trace("{}[{}] forward: the column={} does not reference a {}-record, but a {}-record; skipping", currentTableName, InterfaceWrapperHelper.getId(currentRecord), forwardColumnName, forwardTableName, tableName);
+				}
+				return null;
+			}
+		}
 
-				// load all records which reference foreignRecord
-				// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building
-				final IQueryBuilder<IDLMAware> queryBuilder = Services.get(IQueryBL.class)
-						.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
-						.addEqualsFilter(backwardRef.getReferencingColumnName(), currentRecordId);
+		final Integer forwardKey = InterfaceWrapperHelper.getValueOrNull(currentRecord, forwardColumnName);
+		if (forwardKey == null || forwardKey <= 0)
+		{
+			if (logSkipReason)
+			{
+				logger.trace("{}[{}] forward: the column={} does not reference anything; skipping", currentTableName, InterfaceWrapperHelper.getId(currentRecord), forwardColumnName);
+			}
+			return null;
+		}
+		return forwardKey;
+	}
 
-				// if we have a case of AD_Table_ID/Record_ID,
-				// then we need to make sure to only load records whose AD_Table_ID references currentRecord
-				if (columnBL.isRecordIdColumnName(backwardColumnName))
+	/**
+	 * Loads the given <code>batch</code>'s records and all the records they reference or are referenced by, with one query per table resp. per (table, reference), instead of a couple of queries per record.
+	 *
+	 * @param tableName2ExpandedIds the records we don't need to load, because they were already expanded earlier
+	 */
+	private CrawlBatch loadBatch(
+			final PartitionConfig config,
+			final IContextAware ctxAware,
+			final IIterateResult result,
+			final List<ITableRecordReference> batch,
+			final Map<String, RecordIdBitmap> tableName2ExpandedIds)
+	{
+		final IColumnBL columnBL = Services.get(IColumnBL.class);
+		final IADTableDAO adTableDAO = Services.get(IADTableDAO.class);
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+		final CrawlBatch crawlBatch = new CrawlBatch();
+
+		// the batch's records themselves
+		final Map<String, Set<Integer>> tableName2Ids = new LinkedHashMap<>();
+		for (final ITableRecordReference reference : batch)
+		{
+			final RecordIdBitmap expandedIds = tableName2ExpandedIds.get(reference.getTableName());
+			if (expandedIds != null && expandedIds.contains(reference.getRecord_ID()))
+			{
+				continue;
+			}
+			tableName2Ids.computeIfAbsent(reference.getTableName(), k -> new LinkedHashSet<>()).add(reference.getRecord_ID());
+		}
+		tableName2Ids.forEach((tableName, ids) -> crawlBatch.putRecords(tableName, retrieveRecords(ctxAware, tableName, ids)));
+
+		// look FORWARD: the records which are referenced by the batch's records and that were not yet added to the result
+		final Map<String, Set<Integer>> forwardTableName2Ids = new LinkedHashMap<>();
+		for (final String currentTableName : tableName2Ids.keySet())
+		{
+			final Optional<PartitionerConfigLine> currentLineOrNull = config.getLine(currentTableName);
+			if (!currentLineOrNull.isPresent())
+			{
+				continue;
+			}
+			for (final IDLMAware currentRecord : crawlBatch.getRecords(currentTableName))
+			{
+				for (final PartitionerConfigReference forwardRef : currentLineOrNull.get().getReferences())
 				{
-					// note that referencedTableColumnName = AD_Table_ID, in most cases
-					final String referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardRef.getReferencingColumnName())
-							.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
+					if (forwardRef.isPartitionBoundary())
+					{
+						continue;
+					}
+					final Integer forwardKey = getForwardKeyOrNull(currentTableName, currentRecord, forwardRef, false);
+					if (forwardKey == null
+							|| crawlBatch.getRecord(forwardRef.getReferencedTableName(), forwardKey) != null
+							|| result.contains(TableRecordReference.of(forwardRef.getReferencedTableName(), forwardKey)))
+					{
+						continue;
+					}
+					forwardTableName2Ids.computeIfAbsent(forwardRef.getReferencedTableName(), k -> new LinkedHashSet<>()).add(forwardKey);
+				}
+			}
+		}
+		forwardTableName2Ids.forEach((tableName, ids) -> crawlBatch.putRecords(tableName, retrieveRecords(ctxAware, tableName, ids)));
 
-					final int referencedTableID = adTableDAO.retrieveTableId(currentTableName);
+		// look BACKWARD: for each config-reference that points to one of the batch's tables, load all records which reference any of the batch's records of that table.
+		// don't excluded records with DLM_Partition_ID>0 becase we might need to merge them into the partition we are currently building.
+		// also, don't try to exclude the records we already added before; a NOT IN over all of them is not performant and exceeds the JDBC driver's max number of parameters.
+		for (final String currentTableName : tableName2Ids.keySet())
+		{
+			final List<Integer> currentRecordIds = crawlBatch.getRecords(currentTableName).stream()
+					.map(InterfaceWrapperHelper::getId)
+					.collect(Collectors.toList());
+			if (currentRecordIds.isEmpty())
+			{
+				continue;
+			}
 
-					queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
+			for (final PartitionerConfigReference backwardRef : config.getReferences(currentTableName))
+			{
+				if (backwardRef.isPartitionBoundary())
+				{
+					continue;
 				}
 
-				// avoid loading the records we already added before.
-				// This doesn't work well. NOT IN is probably not very performant, see
-				// http://stackoverflow.com/questions/7125291/postgresql-not-in-versus-except-performance-difference-edited-2
-				// maybe it would become better when we do something along the lines of
-				// https://www.datadoghq.com/blog/100x-faster-postgres-performance-by-changing-1-line/
-				// at any rate it looks the postgresql jdbc driver "only" supports prepared statements with 65536 parameters,
-				// Solutions:
-				// 1. don't try to exclude anything and live with records beeing returned that we already saw earlier
-				// 2. store the partition more regularly and add some sort of negative left-join to the query
-				// {
-				// final String columnName = columnBL.getSingleKeyColumn(backwardTableName);
-				// final Collection<Integer> alreadyAddedBackwardIds = result.getIds(backwardTableName);
-				//
-				// queryBuilder.addNotInArrayFilter(columnName, alreadyAddedBackwardIds);
-				// }
-
-				// de.metas.dlm.partitioner.PartitionerTools.dumpHistogram(result)
-				final List<IDLMAware> backwardRecords = queryBuilder
-						.create()
-						.list();
+				final String backwardTableName = backwardRef.getParent().getTableName();
+				final String backwardColumnName = backwardRef.getReferencingColumnName();
 
-				for (final IDLMAware backwardRecord : backwardRecords)
+				for (final List<Integer> currentRecordIdsChunk : Lists.partition(currentRecordIds, MAX_IN_ARRAY_SIZE))
 				{
-					InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
+					final IQueryBuilder<IDLMAware> queryBuilder = queryBL
+							.createQueryBuilder(IDLMAware.class, backwardTableName, ctxAware)
+							.addInArrayFilter(backwardColumnName, currentRecordIdsChunk);
 
-					final ITableRecordReference backwardTableRecordReference = TableRecordReference.ofOrNull(backwardRecord);
+					// if we have a case of AD_Table_ID/Record_ID,
+					// then we need to make sure to only load records whose AD_Table_ID references currentTableName
+					if (columnBL.isRecordIdColumnName(backwardColumnName))
+					{
+						// note that referencedTableColumnName = AD_Table_ID, in most cases
+						final String referencedTableColumnName = columnBL.getTableIdColumnName(backwardTableName, backwardColumnName)
+								.orElseThrow(Check.supplyEx("Table={} has no table column name for recordColumnName={}", backwardTableName, backwardColumnName));
 
-					final AddResult addRecordResult = result.addReferencingRecord(backwardTableRecordReference, currentReference, backwardRecord.getDLM_Partition_ID());
+						final int referencedTableID = adTableDAO.retrieveTableId(currentTableName);
 
-					// should not happen because we excluded alreadyAddedBackwardIds from the loading query
-					// Check.errorUnless(recordWasNotYetAddedBefore, "{}[{}] backward: WAS ALREADY ADDED! - loaded referencing IDLMAware={} from table={} via {}.{}={}",
-					// currentTableName, currentRecordId, backwardRecord, backwardTableName, backwardTableName, backwardColumnName, currentRecordId);
+						queryBuilder.addEqualsFilter(referencedTableColumnName, referencedTableID);
+					}
 
-					switch (addRecordResult)
+					final List<IDLMAware> backwardRecords = queryBuilder
+							.orderBy(columnBL.getSingleKeyColumn(backwardTableName))
+							.create()
+							.list();
+					for (final IDLMAware backwardRecord : backwardRecords)
 					{
-						case ADDED_CONTINUE:
-							// log that the foreign record was not yet added before. We added it now
-							logger.debug("{}[{}] backward: loaded from table={} via {}.{}={}: referencing IDLMAware={}",
-									currentTableName, currentRecordId, backwardTableName, backwardTableName, backwardColumnName, currentRecordId, backwardRecord);
-
-							if (backwardRecord.getDLM_Partition_ID() > 0)
-							{
-								// log why we did not search further using the new found foreign record
-								logger.debug("{}[{}] backward: referenced IDLMAware={} already has DLM_Partition_ID={}",
-										currentTableName, currentRecordId, backwardRecord, backwardRecord.getDLM_Partition_ID());
-							}
-							break;
-						case NOT_ADDED_CONTINUE:
-							logger.trace("{}[{}] backward: ReferencingRecord={} was already added in a previous iteration. Returning", currentTableName, currentRecordId, backwardTableRecordReference);
-							break;
-						case STOP:
-							Loggables.addLog("The crawler was signaled to stop when it added ReferencingRecord={} the result. Stopping now", backwardTableRecordReference);
-							break mainLoop;
-						default:
-							Check.errorIf(true, "Unexpected result={}", addRecordResult);
-							break;
+						InterfaceWrapperHelper.setTrxName(backwardRecord, ctxAware.getTrxName()); // we need this for MPinstance, because it explicitly ignores the trx it is loaded with in its constructor.
+
+						final Integer referencedRecordId = InterfaceWrapperHelper.getValueOrNull(backwardRecord, backwardColumnName);
+						crawlBatch.addReferencingRecord(backwardRef, referencedRecordId, backwardRecord);
 					}
 				}
 			}
 		}
 
-		logger.info("Found {} records via config.name={}", result.size(), config.getName());
-		storeIterateResult(config, result, ctxAware);
-		return result;
+		return crawlBatch;
+	}
+
+	private List<IDLMAware> retrieveRecords(final IContextAware ctxAware, final String tableName, final Collection<Integer> ids)
+	{
+		final String keyColumnName = Services.get(IColumnBL.class).getSingleKeyColumn(tableName);
+
+		final List<IDLMAware> records = new ArrayList<>(ids.size());
+		for (final List<Integer> idsChunk : Iterables.partition(ids, MAX_IN_ARRAY_SIZE))
+		{
+			final List<IDLMAware> recordsChunk = Services.get(IQueryBL.class)
+					.createQueryBuilder(IDLMAware.class, tableName, ctxAware)
+					.addInArrayFilter(keyColumnName, idsChunk)
+					.create()
+					.list();
+			for (final IDLMAware record : recordsChunk)
+			{
+				InterfaceWrapperHelper.setTrxName(record, ctxAware.getTrxName()); // see the comment in loadBatch
+				records.add(record);
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * The records which were loaded for one batch of the crawler's queue.
+	 */
+	private static final class CrawlBatch
+	{
+		private final Map<String, Map<Integer, IDLMAware>> tableName2Id2Record = new HashMap<>();
+
+		/** Using an identity map because a config reference's equality is not relevant here; we only look up the very instances we put. */
+		private final Map<PartitionerConfigReference, Map<Integer, List<IDLMAware>>> backwardRef2ReferencedId2Records = new IdentityHashMap<>();
+
+		public void putRecords(final String tableName, final List<IDLMAware> records)
+		{
+			final Map<Integer, IDLMAware> id2Record = tableName2Id2Record.computeIfAbsent(tableName, k -> new LinkedHashMap<>());
+			records.forEach(record -> id2Record.put(InterfaceWrapperHelper.getId(record), record));
+		}
+
+		public Collection<IDLMAware> getRecords(final String tableName)
+		{
+			return tableName2Id2Record.getOrDefault(tableName, ImmutableMap.of()).values();
+		}
+
+		public IDLMAware getRecord(final String tableName, final int recordId)
+		{
+			return tableName2Id2Record.getOrDefault(tableName, ImmutableMap.of()).get(recordId);
+		}
+
+		public void addReferencingRecord(final PartitionerConfigReference backwardRef, final Integer referencedRecordId, final IDLMAware referencingRecord)
+		{
+			backwardRef2ReferencedId2Records
+					.computeIfAbsent(backwardRef, k -> new HashMap<>())
+					.computeIfAbsent(referencedRecordId, k -> new ArrayList<>())
+					.add(referencingRecord);
+		}
+
+		public List<IDLMAware> getReferencingRecords(final PartitionerConfigReference backwardRef, final int referencedRecordId)
+		{
+			return backwardRef2ReferencedId2Records.getOrDefault(backwardRef, ImmutableMap.of()).getOrDefault(referencedRecordId, ImmutableList.of());
+		}
 	}
 
 	private boolean shallStoreResult(final IIterateResult result)
@@ -428,43 +668,124 @@ public class RecordCrawlerService implements IRecordCrawlerService
 
 		// store and delete DLM_Partition_Workqueue records according to the records we processed and the records we newly added since the last time this method was called.
 		{
-			// delete DLM_Partition_Workqueue records we already processed
-			final Mutable<Integer> deletedSum = new Mutable<>(0);
-			result.getQueueRecordsToDelete()
-					.forEach(r -> {
-
-						// It's not a must to delete them 1-by-1, but we can't just create one chuck with unknow size!
-						// If we want to delete more than one at a time, we need to create chuncks of a fixed size that is less than 2^32.
-						final int delete = queryBL.createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
-								.addEqualsFilter(I_DLM_Partition_Workqueue.COLUMN_DLM_Partition_Workqueue_ID, r.getDLM_Partition_Workqueue_ID())
-								.create()
-								.deleteDirectly();
-						deletedSum.setValue(deletedSum.getValue() + delete);
-					});
-			logger.debug("storeIterateResult: Deleted {} DLM_Partition_Workqueue records", deletedSum.getValue());
+			// delete DLM_Partition_Workqueue records we already processed.
+			// we delete them in chunks of a fixed size, because we can't just create one chuck with unknow size.
+			final List<Integer> queueRecordIdsToDelete = result.getQueueRecordsToDelete()
+					.stream()
+					.map(WorkQueue::getDLM_Partition_Workqueue_ID)
+					.collect(Collectors.toList());
+			int deletedSum = 0;
+			for (final List<Integer> queueRecordIdsChunk : Lists.partition(queueRecordIdsToDelete, MAX_IN_ARRAY_SIZE))
+			{
+				deletedSum += queryBL.createQueryBuilder(I_DLM_Partition_Workqueue.class, ctxAware)
+						.addInArrayFilter(I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID, queueRecordIdsChunk)
+						.create()
+						.deleteDirectly();
+			}
+			logger.debug("storeIterateResult: Deleted {} DLM_Partition_Workqueue records", deletedSum);
 
 			// persist DLM_Partition_Workqueue record we still need to process.
-			final Mutable<Integer> storedSum = new Mutable<>(0);
-			result.getQueueRecordsToStore()
-					.forEach(queueRecordsToStore -> {
+			// skip those which already have an ID, because they were stored by an earlier invocation and are still in the queue.
+			final List<WorkQueue> queueRecordsToStore = result.getQueueRecordsToStore()
+					.stream()
+					.filter(queueRecord -> queueRecord.getDLM_Partition_Workqueue_ID() <= 0)
+					.collect(Collectors.toList());
+			insertQueueRecords(ctxAware, storedPartition.getDLM_Partition_ID(), queueRecordsToStore);
+			logger.debug("storeIterateResult: Stored {} DLM_Partition_Workqueue records", queueRecordsToStore.size());
+		}
+
+		result.clearAfterPartitionStored(storedPartition);
+	}
 
-						final ITableRecordReference tableRecordReference = queueRecordsToStore.getTableRecordReference();
+	private static final String SQL_InsertInto_DLM_Partition_Workqueue = "INSERT INTO " + I_DLM_Partition_Workqueue.Table_Name
+			+ "(" + I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_Workqueue_ID
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Client_ID
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Org_ID
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_Created
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_CreatedBy
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_Updated
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_UpdatedBy
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_IsActive
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_DLM_Partition_ID
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_AD_Table_ID
+			+ "," + I_DLM_Partition_Workqueue.COLUMNNAME_Record_ID
+			+ ") VALUES (?, ?, ?, now(), ?, now(), ?, 'Y', ?, ?, ?)";
 
-						final I_DLM_Partition_Workqueue newQueueRecord = InterfaceWrapperHelper.newInstance(I_DLM_Partition_Workqueue.class);
-						newQueueRecord.setDLM_Partition_ID(storedPartition.getDLM_Partition_ID());
-						newQueueRecord.setAD_Table_ID(tableRecordReference.getAD_Table_ID());
-						newQueueRecord.setRecord_ID(tableRecordReference.getRecord_ID());
+	/**
+	 * Inserts the given queue records with JDBC batches and sets their new <code>DLM_Partition_Workqueue_ID</code>s.
+	 * The IDs are allocated with one statement per batch, so there is no roundtrip per record.
+	 */
+	private void insertQueueRecords(final IContextAware ctxAware, final int dlmPartitionId, final List<WorkQueue> queueRecords)
+	{
+		if (queueRecords.isEmpty())
+		{
+			return;
+		}
 
-						InterfaceWrapperHelper.save(newQueueRecord);
+		final Properties ctx = ctxAware.getCtx();
+		if (Adempiere.isUnitTestMode() || !DB.isUseNativeSequences(Env.getAD_Client_ID(ctx), I_DLM_Partition_Workqueue.Table_Name))
+		{
+			// we have no database to talk JDBC with, or we can't allocate the IDs ourselves; so save them one by one
+			for (final WorkQueue queueRecord : queueRecords)
+			{
+				final ITableRecordReference tableRecordReference = queueRecord.getTableRecordReference();
 
-						queueRecordsToStore.setDLM_Partition_Workqueue_ID(newQueueRecord.getDLM_Partition_Workqueue_ID());
+				final I_DLM_Partition_Workqueue newQueueRecord = InterfaceWrapperHelper.newInstance(I_DLM_Partition_Workqueue.class);
+				newQueueRecord.setDLM_Partition_ID(dlmPartitionId);
+				newQueueRecord.setAD_Table_ID(tableRecordReference.getAD_Table_ID());
+				newQueueRecord.setRecord_ID(tableRecordReference.getRecord_ID());
+				InterfaceWrapperHelper.save(newQueueRecord);
 
-						storedSum.setValue(storedSum.getValue() + 1);
-					});
-			logger.debug("storeIterateResult: Stored {} DLM_Partition_Workqueue records", storedSum.getValue());
+				queueRecord.setDLM_Partition_Workqueue_ID(newQueueRecord.getDLM_Partition_Workqueue_ID());
+			}
+			return;
 		}
 
-		result.clearAfterPartitionStored(storedPartition);
+		final String sqlNextIds = "SELECT array_agg(" + DB.TO_TABLESEQUENCE_NEXTVAL(I_DLM_Partition_Workqueue.Table_Name) + "::integer) FROM generate_series(1, ?)";
+
+		for (final List<WorkQueue> queueRecordsChunk : Lists.partition(queueRecords, MAX_IN_ARRAY_SIZE))
+		{
+			final Integer[] ids = DB.getSQLValueArrayEx(ctxAware.getTrxName(), sqlNextIds, queueRecordsChunk.size());
+			Check.errorIf(ids == null || ids.length != queueRecordsChunk.size(), "Expected {} new IDs for {}, but got {}", queueRecordsChunk.size(), I_DLM_Partition_Workqueue.Table_Name, ids);
+
+			PreparedStatement pstmt = null;
+			try
+			{
+				pstmt = DB.prepareStatement(SQL_InsertInto_DLM_Partition_Workqueue, ctxAware.getTrxName());
+				for (int i = 0; i < queueRecordsChunk.size(); i++)
+				{
+					final ITableRecordReference tableRecordReference = queueRecordsChunk.get(i).getTableRecordReference();
+
+					final Object[] sqlParams = new Object[] {
+							ids[i],
+							Env.getAD_Client_ID(ctx),
+							Env.getAD_Org_ID(ctx),
+							Env.getAD_User_ID(ctx),
+							Env.getAD_User_ID(ctx),
+							dlmPartitionId,
+							tableRecordReference.getAD_Table_ID(),
+							tableRecordReference.getRecord_ID()
+					};
+					DB.setParameters(pstmt, sqlParams);
+					pstmt.addBatch();
+				}
+
+				pstmt.executeBatch();
+			}
+			catch (final SQLException e)
+			{
+				throw new DBException(e, SQL_InsertInto_DLM_Partition_Workqueue);
+			}
+			finally
+			{
+				DB.close(pstmt);
+			}
+
+			for (int i = 0; i < queueRecordsChunk.size(); i++)
+			{
+				queueRecordsChunk.get(i).setDLM_Partition_Workqueue_ID(ids[i]);
+			}
+		}
 	}
 
 	private int getPartitionSize(final IContextAware ctxAware, Integer dlmPartitionId)
@@ -0,0 +1,85 @@
+package de.metas.dlm.partitioner.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compact set of (non-negative) record IDs, used by the {@link RecordCrawlerService} to remember which records of a given table it already expanded.
+ * <p>
+ * The IDs are kept in bitmap chunks of 2^16 IDs each, which are allocated on demand. Record IDs of one table tend to be dense,
+ * so this needs a small fraction of the memory of a {@code Set<Integer>}, which is why the crawler can keep one per table for the whole crawl.
+ */
+final class RecordIdBitmap
+{
+	private static final int CHUNK_BITS = 16;
+	private static final int WORDS_PER_CHUNK = (1 << CHUNK_BITS) / Long.SIZE;
+
+	private final Map<Integer, long[]> chunks = new HashMap<>();
+
+	private int size = 0;
+
+	/**
+	 * @return {@code true} if the given ID was not yet contained.
+	 */
+	public boolean add(final int id)
+	{
+		final long[] chunk = chunks.computeIfAbsent(id >>> CHUNK_BITS, k -> new long[WORDS_PER_CHUNK]);
+
+		final int bitIndex = id & ((1 << CHUNK_BITS) - 1);
+		final long mask = 1L << bitIndex; // note: shifting a long only considers the lowest 6 bits of bitIndex
+		final int wordIndex = bitIndex >>> 6;
+
+		if ((chunk[wordIndex] & mask) != 0)
+		{
+			return false;
+		}
+		chunk[wordIndex] |= mask;
+		size++;
+		return true;
+	}
+
+	public boolean contains(final int id)
+	{
+		final long[] chunk = chunks.get(id >>> CHUNK_BITS);
+		if (chunk == null)
+		{
+			return false;
+		}
+
+		final int bitIndex = id & ((1 << CHUNK_BITS) - 1);
+		return (chunk[bitIndex >>> 6] & (1L << bitIndex)) != 0;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RecordIdBitmap [size=" + size + ", chunks.size()=" + chunks.size() + "]";
+	}
+}
@@ -119,4 +119,43 @@ public class IterateResultTests
 		assertThat(iterateResult.isQueueEmpty(), is(true));
 		assertThat(iterateResult.size(), is(2));
 	}
+
+	/**
+	 * Verifies that records which are put back return to the head of the queue and keep their <code>DLM_Partition_Workqueue_ID</code>, i.e. are not deleted from the DB queue.
+	 */
+	@Test
+	public void testPutBackToQueue()
+	{
+		final I_AD_Color color1 = InterfaceWrapperHelper.newInstance(I_AD_Color.class);
+		InterfaceWrapperHelper.save(color1);
+
+		final I_AD_Color color2 = InterfaceWrapperHelper.newInstance(I_AD_Color.class);
+		InterfaceWrapperHelper.save(color2);
+
+		final ITableRecordReference tableRecordReference1 = TableRecordReference.ofOrNull(color1);
+		final ITableRecordReference tableRecordReference2 = TableRecordReference.ofOrNull(color2);
+
+		final WorkQueue workQueue1 = WorkQueue.of(tableRecordReference1);
+		workQueue1.setDLM_Partition_Workqueue_ID(10);
+
+		final Iterator<WorkQueue> initialQueue = ImmutableList.of(workQueue1).iterator();
+		final IContextAware ctxAware = PlainContextAware.newWithThreadInheritedTrx();
+
+		final CreatePartitionIterateResult iterateResult = new CreatePartitionIterateResult(initialQueue, ctxAware);
+		iterateResult.addReferencedRecord(null, tableRecordReference2, 0);
+
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference1));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference2));
+		assertThat(iterateResult.isQueueEmpty(), is(true));
+		assertThat(iterateResult.getQueueRecordsToDelete().size(), is(1));
+
+		iterateResult.putBackToQueue(ImmutableList.of(tableRecordReference1, tableRecordReference2));
+
+		assertThat(iterateResult.getQueueRecordsToDelete().isEmpty(), is(true));
+		assertThat(iterateResult.getQueueRecordsToStore().get(0).getDLM_Partition_Workqueue_ID(), is(10));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference1));
+		assertThat(iterateResult.nextFromQueue(), is(tableRecordReference2));
+		assertThat(iterateResult.isQueueEmpty(), is(true));
+		assertThat(iterateResult.size(), is(2));
+	}
 }
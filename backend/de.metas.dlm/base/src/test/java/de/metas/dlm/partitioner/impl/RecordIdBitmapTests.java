@@ -0,0 +1,55 @@
+package de.metas.dlm.partitioner.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * metasfresh-dlm-base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class RecordIdBitmapTests
+{
+	@Test
+	public void test()
+	{
+		final RecordIdBitmap bitmap = new RecordIdBitmap();
+		assertThat(bitmap.contains(1), is(false));
+
+		assertThat(bitmap.add(1), is(true));
+		assertThat(bitmap.add(1), is(false));
+		assertThat(bitmap.add(63), is(true));
+		assertThat(bitmap.add(64), is(true));
+		assertThat(bitmap.add(65536), is(true)); // first ID of the second chunk
+		assertThat(bitmap.add(Integer.MAX_VALUE), is(true));
+
+		assertThat(bitmap.contains(1), is(true));
+		assertThat(bitmap.contains(2), is(false));
+		assertThat(bitmap.contains(63), is(true));
+		assertThat(bitmap.contains(64), is(true));
+		assertThat(bitmap.contains(65535), is(false));
+		assertThat(bitmap.contains(65536), is(true));
+		assertThat(bitmap.contains(65537), is(false));
+		assertThat(bitmap.contains(Integer.MAX_VALUE), is(true));
+		assertThat(bitmap.size(), is(5));
+	}
+}
@@ -22,11 +22,28 @@ package de.metas.migration.applier.impl;
  * #L%
  */
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.migration.IDatabase;
 import de.metas.migration.IScript;
 import de.metas.migration.IScriptsRegistry;
@@ -34,28 +51,52 @@ import de.metas.migration.applier.IScriptsApplier;
 import de.metas.migration.applier.IScriptsApplierListener;
 import de.metas.migration.applier.IScriptsApplierListener.ScriptFailedResolution;
 import de.metas.migration.applier.IScriptsProvider;
+import de.metas.migration.exception.ScriptException;
 import de.metas.migration.exception.ScriptExecutionException;
 import de.metas.migration.executor.IScriptExecutor;
 import de.metas.migration.executor.IScriptExecutorFactory;
 import de.metas.migration.executor.impl.DefaultScriptExecutorFactory;
+import de.metas.migration.impl.SQLDatabase;
 import lombok.NonNull;
 import lombok.Setter;
+import lombok.Value;
 
 public class ScriptsApplier implements IScriptsApplier
 {
 	private static final transient Logger logger = LoggerFactory.getLogger(ScriptsApplier.class);
 
+	private static final int SLOWEST_SCRIPTS_TO_REPORT = 10;
+
 	private final IDatabase targetDatabase;
 	@Setter
 	private boolean skipExecutingAfterScripts = false;
 
+	/**
+	 * Projects (i.e. script folders) whose scripts don't depend on the scripts of other projects and vice versa.
+	 * The scripts of each of these projects are applied in their own thread and connection, in parallel to all other scripts.
+	 * Within each project and among all the other projects' scripts, the scripts are still applied in the order of the {@link IScriptsProvider}.
+	 */
+	@Setter
+	@NonNull
+	private Set<String> independentProjectNames = ImmutableSet.of();
+
 	private IScriptsApplierListener listener = NullScriptsApplierListener.instance;
 	private IScriptExecutorFactory scriptExecutorFactory = new DefaultScriptExecutorFactory();
 
+	/** Synchronizes the access to the scripts registry, the listener and the counters when scripts are applied in parallel */
+	private final Object lock = new Object();
+	/**
+	 * Serializes the {@link IScriptsApplierListener#onScriptFailed(IScript, ScriptExecutionException)} calls when scripts are applied in parallel.
+	 * It's not {@link #lock} because the listener might wait for the user's decision, while the other lanes shall carry on.
+	 */
+	private final Object scriptFailedLock = new Object();
+
 	private int countAll = 0;
 	private int countApplied = 0;
 	private int countIgnored = 0;
 
+	private final List<ScriptDuration> scriptDurations = new ArrayList<>();
+
 	private static enum ScriptApplyResult
 	{
 		Applied, Ignored,
@@ -106,6 +147,39 @@ public class ScriptsApplier implements IScriptsApplier
 
 		logger.info("Migrating {} using {}", targetDatabase, scriptsProvider);
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			if (independentProjectNames.isEmpty())
+			{
+				applySequentially(scriptsProvider);
+			}
+			else
+			{
+				applyInParallel(scriptsProvider);
+			}
+		}
+		finally
+		{
+			stopwatch.stop();
+			logScriptDurations(stopwatch);
+		}
+
+		//
+		// Execute after migration scripts
+		if (skipExecutingAfterScripts)
+		{
+			logger.info("Skip executing after migration scripts");
+		}
+		else
+		{
+			logger.info("Executing after migration scripts...");
+			getSqlExecutor().executeAfterScripts();
+		}
+	}
+
+	private void applySequentially(final IScriptsProvider scriptsProvider)
+	{
 		final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
 
 		final Iterator<IScript> scripts = scriptsProvider.getScripts();
@@ -130,40 +204,192 @@ public class ScriptsApplier implements IScriptsApplier
 			}
 			countSkippedFromLastAction = 0;
 			
-			final ScriptApplyResult result = apply(script);
-			if (result == ScriptApplyResult.Applied)
+			applyAndRegister(script, targetDatabase);
+		}
+
+		//
+		if(countSkippedFromLastAction > 0)
+		{
+			logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
+		}
+		countSkippedFromLastAction = 0;
+	}
+
+	/**
+	 * Splits the scripts which were not yet applied into one lane per independent project and one lane for all other scripts, preserving their order.
+	 * Then applies the lanes in parallel, each with its own database connection.
+	 * While the listener decides how to handle a failed script, the other lanes carry on.
+	 * When a script fails the run, the other lanes stop after their current script.
+	 */
+	private void applyInParallel(final IScriptsProvider scriptsProvider)
+	{
+		final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
+
+		final String mainLaneName = "<other projects>";
+		final Map<String, List<IScript>> lanes = new LinkedHashMap<>();
+		lanes.put(mainLaneName, new ArrayList<>());
+
+		int countAlreadyApplied = 0;
+		final Iterator<IScript> scripts = scriptsProvider.getScripts();
+		while (scripts.hasNext())
+		{
+			countAll++;
+
+			final IScript script = scripts.next();
+			if (scriptsRegistry.isApplied(script))
 			{
-				countApplied++;
-				scriptsRegistry.markApplied(script);
+				logger.debug("Script already applied: {}", script);
+				countAlreadyApplied++;
+				continue;
 			}
-			else if (result == ScriptApplyResult.Ignored)
+
+			final String laneName = independentProjectNames.contains(script.getProjectName()) ? script.getProjectName() : mainLaneName;
+			lanes.computeIfAbsent(laneName, k -> new ArrayList<>()).add(script);
+		}
+		lanes.values().removeIf(List::isEmpty);
+
+		logger.info("Skipped {} scripts that were already applied", countAlreadyApplied);
+		if (lanes.isEmpty())
+		{
+			return;
+		}
+		lanes.forEach((laneName, laneScripts) -> logger.info("Applying {} scripts of {} in parallel", laneScripts.size(), laneName));
+
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		final ExecutorService executorService = Executors.newFixedThreadPool(lanes.size());
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (final List<IScript> laneScripts : lanes.values())
 			{
-				countIgnored++;
-				scriptsRegistry.markIgnored(script);
+				futures.add(executorService.submit(() -> applyLane(laneScripts, failed)));
 			}
-			else
+
+			ScriptException error = null;
+			for (final Future<?> future : futures)
 			{
-				throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+				try
+				{
+					future.get();
+				}
+				catch (final ExecutionException e)
+				{
+					final ScriptException laneError = toScriptException(e.getCause());
+					if (error == null)
+					{
+						error = laneError;
+					}
+					else
+					{
+						error.addSuppressed(laneError);
+					}
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new ScriptException("Interrupted while waiting for the scripts to be applied", e);
+				}
+			}
+
+			if (error != null)
+			{
+				throw error;
 			}
 		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+	}
 
-		//
-		if(countSkippedFromLastAction > 0)
+	private void applyLane(final List<IScript> laneScripts, final AtomicBoolean failed)
+	{
+		final IDatabase laneDatabase = newDatabaseWithOwnConnection();
+		try
 		{
-			logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
+			for (final IScript script : laneScripts)
+			{
+				if (failed.get())
+				{
+					logger.info("Stop applying scripts because another script failed");
+					return;
+				}
+
+				try
+				{
+					applyAndRegister(script, laneDatabase);
+				}
+				catch (final RuntimeException e)
+				{
+					failed.set(true);
+					throw e;
+				}
+			}
 		}
-		countSkippedFromLastAction = 0;
+		finally
+		{
+			closeConnection(laneDatabase);
+		}
+	}
 
-		//
-		// Execute after migration scripts
-		if (skipExecutingAfterScripts)
+	@VisibleForTesting
+	IDatabase newDatabaseWithOwnConnection()
+	{
+		return new SQLDatabase(
+				targetDatabase.getDbType(),
+				targetDatabase.getDbHostname(),
+				targetDatabase.getDbPort(),
+				targetDatabase.getDbName(),
+				targetDatabase.getDbUser(),
+				targetDatabase.getDbPassword());
+	}
+
+	private static void closeConnection(final IDatabase database)
+	{
+		try
 		{
-			logger.info("Skip executing after migration scripts");
+			database.getConnection().close();
 		}
-		else
+		catch (final SQLException | RuntimeException e)
 		{
-			logger.info("Executing after migration scripts...");
-			getSqlExecutor().executeAfterScripts();
+			logger.warn("Failed closing the connection of {}. Ignored.", database, e);
+		}
+	}
+
+	private static ScriptException toScriptException(final Throwable throwable)
+	{
+		if (throwable instanceof ScriptException)
+		{
+			return (ScriptException)throwable;
+		}
+		return new ScriptException("Error applying scripts", throwable);
+	}
+
+	/**
+	 * Applies the given script using the given database's connection and records the outcome in the {@link #targetDatabase}'s registry.
+	 */
+	private void applyAndRegister(final IScript script, final IDatabase executorDatabase)
+	{
+		final ScriptApplyResult result = apply(script, executorDatabase);
+
+		synchronized (lock)
+		{
+			final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
+			if (result == ScriptApplyResult.Applied)
+			{
+				countApplied++;
+				scriptsRegistry.markApplied(script);
+				scriptDurations.add(ScriptDuration.of(script, script.getLastDurationMillis()));
+			}
+			else if (result == ScriptApplyResult.Ignored)
+			{
+				countIgnored++;
+				scriptsRegistry.markIgnored(script);
+			}
+			else
+			{
+				throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+			}
 		}
 	}
 
@@ -172,10 +398,10 @@ public class ScriptsApplier implements IScriptsApplier
 	 * @param script
 	 * @return
 	 */
-	private ScriptApplyResult apply(final IScript script)
+	private ScriptApplyResult apply(final IScript script, final IDatabase executorDatabase)
 	{
 		final IScriptsApplierListener listener = getListener();
-		final IScriptExecutor executor = getExecutor(script);
+		final IScriptExecutor executor = scriptExecutorFactory.createScriptExecutor(executorDatabase, script);
 
 		logger.info("Applying {}", script);
 
@@ -198,7 +424,7 @@ public class ScriptsApplier implements IScriptsApplier
 			{
 				error = new ScriptExecutionException("Error running script", e)
 						.setScript(script)
-						.setDatabase(targetDatabase)
+						.setDatabase(executorDatabase)
 						.setExecutor(executor);
 			}
 			finally
@@ -206,14 +432,22 @@ public class ScriptsApplier implements IScriptsApplier
 				final long durationMillis = System.currentTimeMillis() - startTS;
 				if (error == null)
 				{
-					logger.info("... Applied in {}ms", durationMillis);
+					logger.info("... Applied {} in {}ms", script.getFileName(), durationMillis);
 					script.setLastDurationMillis(durationMillis);
-					listener.onScriptApplied(script);
+					synchronized (lock)
+					{
+						listener.onScriptApplied(script);
+					}
 					return ScriptApplyResult.Applied;
 				}
 				else
 				{
-					final ScriptFailedResolution scriptFailedResolution = listener.onScriptFailed(script, error);
+					final ScriptFailedResolution scriptFailedResolution;
+					synchronized (scriptFailedLock)
+					{
+						scriptFailedResolution = listener.onScriptFailed(script, error);
+					}
+
 					if (scriptFailedResolution == ScriptFailedResolution.Fail)
 					{
 						throw error;
@@ -239,14 +473,33 @@ public class ScriptsApplier implements IScriptsApplier
 		throw new IllegalStateException("Internal error: Shall never reach this point");
 	}
 
-	private IScriptsRegistry getScriptsRegistry()
+	private void logScriptDurations(final Stopwatch stopwatch)
 	{
-		return targetDatabase.getScriptsRegistry();
+		final List<ScriptDuration> durations;
+		synchronized (lock)
+		{
+			durations = new ArrayList<>(scriptDurations);
+		}
+		if (durations.isEmpty())
+		{
+			return;
+		}
+
+		final long sumMillis = durations.stream().mapToLong(ScriptDuration::getDurationMillis).sum();
+		logger.info("Applied {} scripts in {} (sum of script durations: {}ms)", durations.size(), stopwatch, sumMillis);
+
+		durations.sort(Comparator.comparingLong(ScriptDuration::getDurationMillis).reversed());
+		final StringBuilder slowest = new StringBuilder();
+		for (final ScriptDuration duration : durations.subList(0, Math.min(SLOWEST_SCRIPTS_TO_REPORT, durations.size())))
+		{
+			slowest.append("\n\t").append(duration.getDurationMillis()).append("ms\t").append(duration.getScriptName());
+		}
+		logger.info("Slowest scripts:{}", slowest);
 	}
 
-	private IScriptExecutor getExecutor(final IScript script)
+	private IScriptsRegistry getScriptsRegistry()
 	{
-		return scriptExecutorFactory.createScriptExecutor(targetDatabase, script);
+		return targetDatabase.getScriptsRegistry();
 	}
 
 	private IScriptExecutor getSqlExecutor()
@@ -271,4 +524,16 @@ public class ScriptsApplier implements IScriptsApplier
 	{
 		return countIgnored;
 	}
+
+	@Value(staticConstructor = "of")
+	private static class ScriptDuration
+	{
+		String scriptName;
+		long durationMillis;
+
+		public static ScriptDuration of(final IScript script, final long durationMillis)
+		{
+			return of(script.getProjectName() + "/" + script.getFileName(), durationMillis);
+		}
+	}
 }
@@ -0,0 +1,273 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.IScriptExecutor;
+import de.metas.migration.impl.AnonymousScript;
+import de.metas.migration.impl.SQLDatabase;
+import de.metas.migration.impl.SQLHelper;
+import lombok.NonNull;
+
+/**
+ * Executes SQL scripts over the database's JDBC connection, instead of starting a <code>psql</code> process for each script (see {@link PostgresqlNativeExecutor}).
+ * <p>
+ * Behaves like <code>psql --single-transaction --set ON_ERROR_STOP=1</code>:
+ * <ul>
+ * <li>the script is split into statements by {@link SQLStatementSplitter} and all of them are executed in one transaction
+ * <li>the first failing statement rolls back the transaction and fails the script
+ * <li>a <code>COMMIT</code> within the script commits what was executed so far; the remaining statements are executed in a new transaction. <code>BEGIN</code> statements are ignored.
+ * </ul>
+ * Because the connection is reused, session settings and temporary tables are reset after each script, so that scripts don't affect each other.
+ * <p>
+ * <code>psql</code> meta commands (e.g. <code>\i</code>) are not supported.
+ */
+public class PostgresqlJdbcExecutor implements IScriptExecutor
+{
+	private static final transient Logger logger = LoggerFactory.getLogger(PostgresqlJdbcExecutor.class);
+
+	private static final String AFTER_MIGRATION_FUNC_PATTERN = "after_migration%";
+
+	private static final Pattern PATTERN_Begin = Pattern.compile("^(BEGIN|START\\s+TRANSACTION)(\\s+(WORK|TRANSACTION))?$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern PATTERN_Commit = Pattern.compile("^(COMMIT|END)(\\s+(WORK|TRANSACTION))?$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern PATTERN_Rollback = Pattern.compile("^(ROLLBACK|ABORT)(\\s+(WORK|TRANSACTION))?$", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern PATTERN_PsqlMetaCommand = Pattern.compile("^\\s*\\\\[a-z]", Pattern.MULTILINE | Pattern.CASE_INSENSITIVE);
+
+	private static final int LOG_TAIL_SIZE = 100;
+
+	private final IDatabase database;
+	private final SQLHelper sqlHelper;
+
+	public PostgresqlJdbcExecutor(@NonNull final IDatabase database)
+	{
+		this.database = database;
+		this.sqlHelper = new SQLHelper(SQLDatabase.cast(database));
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [database=" + database + "]";
+	}
+
+	@Override
+	public void execute(@NonNull final IScript script)
+	{
+		executeAndReturnLog(script);
+	}
+
+	private ImmutableList<String> executeAndReturnLog(final IScript script)
+	{
+		final ImmutableList<String> statements = readStatements(script);
+		final List<String> log = new ArrayList<>();
+
+		final Connection conn = database.getConnection();
+		String currentStatement = null;
+		try
+		{
+			conn.setAutoCommit(false);
+
+			for (final String sql : statements)
+			{
+				currentStatement = sql;
+				if (PATTERN_Begin.matcher(sql).matches())
+				{
+					continue;
+				}
+				else if (PATTERN_Commit.matcher(sql).matches())
+				{
+					conn.commit();
+				}
+				else if (PATTERN_Rollback.matcher(sql).matches())
+				{
+					conn.rollback();
+				}
+				else
+				{
+					executeStatement(conn, sql, log);
+				}
+			}
+			currentStatement = null;
+
+			conn.commit();
+		}
+		catch (final SQLException e)
+		{
+			rollback(conn);
+
+			throw new ScriptExecutionException("Script execution failed", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this)
+					.addParameter("Statement", currentStatement)
+					.setLog(tail(log));
+		}
+		finally
+		{
+			resetSession(conn);
+		}
+
+		return ImmutableList.copyOf(log);
+	}
+
+	private ImmutableList<String> readStatements(final IScript script)
+	{
+		final String content;
+		try
+		{
+			content = new String(Files.readAllBytes(script.getLocalFile().toPath()), StandardCharsets.UTF_8);
+		}
+		catch (final IOException e)
+		{
+			throw new ScriptExecutionException("Error reading the script file", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this);
+		}
+
+		if (PATTERN_PsqlMetaCommand.matcher(content).find())
+		{
+			throw new ScriptExecutionException("psql meta commands are not supported by " + getClass().getSimpleName() + ". Please use " + PostgresqlNativeExecutor.class.getSimpleName())
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this);
+		}
+
+		return SQLStatementSplitter.split(content);
+	}
+
+	private static void executeStatement(final Connection conn, final String sql, final List<String> log) throws SQLException
+	{
+		try (final Statement stmt = conn.createStatement())
+		{
+			stmt.execute(sql);
+
+			// collect the server's notices (e.g. RAISE NOTICE), like psql prints them
+			for (SQLWarning warning = stmt.getWarnings(); warning != null; warning = warning.getNextWarning())
+			{
+				log.add(warning.getMessage());
+			}
+		}
+	}
+
+	private static void rollback(final Connection conn)
+	{
+		try
+		{
+			conn.rollback();
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed rolling back {}. Ignored.", conn, e);
+		}
+	}
+
+	/**
+	 * Restores the autocommit mode and discards the session settings and temporary tables which were created by the script.
+	 */
+	private static void resetSession(final Connection conn)
+	{
+		try
+		{
+			conn.setAutoCommit(true);
+			try (final Statement stmt = conn.createStatement())
+			{
+				stmt.execute("RESET ALL");
+				stmt.execute("DISCARD TEMP");
+			}
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed resetting the session of {}. Ignored.", conn, e);
+		}
+	}
+
+	private static ImmutableList<String> tail(final List<String> log)
+	{
+		if (log.size() <= LOG_TAIL_SIZE)
+		{
+			return ImmutableList.copyOf(log);
+		}
+
+		final int truncatedLines = log.size() - LOG_TAIL_SIZE;
+		return ImmutableList.<String> builder()
+				.add("(Truncated " + truncatedLines + " lines. Preserved last " + LOG_TAIL_SIZE + " lines)")
+				.addAll(log.subList(truncatedLines, log.size()))
+				.build();
+	}
+
+	@Override
+	public void executeAfterScripts()
+	{
+		final Set<String> functionNames = sqlHelper.getDBFunctionsMatchingPattern(AFTER_MIGRATION_FUNC_PATTERN)
+				.stream()
+				.sorted()
+				.collect(ImmutableSet.toImmutableSet());
+
+		if (functionNames.isEmpty())
+		{
+			logger.warn("Skip executing after migration scripts because no function matching pattern '{}' was found in {}", AFTER_MIGRATION_FUNC_PATTERN, database);
+			return;
+		}
+
+		final AnonymousScript script = AnonymousScript.builder()
+				.fileName("after_migration.sql")
+				.scriptContent(functionNames.stream()
+						.map(functionName -> "select " + functionName + "();\n")
+						.collect(Collectors.joining()))
+				.build();
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final ImmutableList<String> log = executeAndReturnLog(script);
+		stopwatch.stop();
+
+		logger.info("Executed {} in {} and got following result:\n{}",
+				functionNames,
+				stopwatch,
+				Joiner.on("\n").join(log));
+	}
+}
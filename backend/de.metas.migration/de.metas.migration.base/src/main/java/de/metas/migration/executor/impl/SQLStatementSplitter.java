@@ -0,0 +1,265 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+
+/**
+ * Splits a PostgreSQL script into its statements, the way <code>psql</code> does.
+ * <p>
+ * A semicolon ends a statement, unless it is inside a string literal (incl. <code>E'..'</code> strings), a quoted identifier, a comment or a dollar quoted string (e.g. a function body between <code>$BODY$</code> and <code>$BODY$</code>).
+ * Statements which consist only of comments are skipped.
+ */
+final class SQLStatementSplitter
+{
+	public static ImmutableList<String> split(@NonNull final String script)
+	{
+		return new SQLStatementSplitter(script).split();
+	}
+
+	private final String script;
+	private final int length;
+
+	private final ImmutableList.Builder<String> statements = ImmutableList.builder();
+	private int statementStart = 0;
+	private boolean statementHasCode = false;
+
+	private SQLStatementSplitter(final String script)
+	{
+		this.script = script;
+		this.length = script.length();
+	}
+
+	private ImmutableList<String> split()
+	{
+		int pos = 0;
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			final char next = pos + 1 < length ? script.charAt(pos + 1) : 0;
+
+			if (ch == '-' && next == '-')
+			{
+				pos = skipLineComment(pos);
+			}
+			else if (ch == '/' && next == '*')
+			{
+				pos = skipBlockComment(pos);
+			}
+			else if (ch == '\'')
+			{
+				statementHasCode = true;
+				pos = skipStringLiteral(pos, isEscapeStringPrefix(pos));
+			}
+			else if (ch == '"')
+			{
+				statementHasCode = true;
+				pos = skipQuotedIdentifier(pos);
+			}
+			else if (ch == '$')
+			{
+				statementHasCode = true;
+				final String tag = getDollarQuoteTagOrNull(pos);
+				pos = tag != null ? skipDollarQuotedString(pos, tag) : pos + 1;
+			}
+			else if (ch == ';')
+			{
+				addStatement(pos);
+				pos++;
+				statementStart = pos;
+			}
+			else
+			{
+				if (!Character.isWhitespace(ch))
+				{
+					statementHasCode = true;
+				}
+				pos++;
+			}
+		}
+
+		addStatement(length);
+
+		return statements.build();
+	}
+
+	private void addStatement(final int endPos)
+	{
+		if (statementHasCode)
+		{
+			statements.add(script.substring(statementStart, endPos).trim());
+		}
+		statementHasCode = false;
+	}
+
+	/** @return the position right after the line's end */
+	private int skipLineComment(final int pos)
+	{
+		final int eol = script.indexOf('\n', pos);
+		return eol < 0 ? length : eol + 1;
+	}
+
+	/** Note that in PostgreSQL, block comments can be nested. */
+	private int skipBlockComment(final int startPos)
+	{
+		int depth = 0;
+		int pos = startPos;
+		while (pos < length)
+		{
+			if (script.startsWith("/*", pos))
+			{
+				depth++;
+				pos += 2;
+			}
+			else if (script.startsWith("*/", pos))
+			{
+				depth--;
+				pos += 2;
+				if (depth == 0)
+				{
+					return pos;
+				}
+			}
+			else
+			{
+				pos++;
+			}
+		}
+		return length;
+	}
+
+	/** @return true if the string literal starting at given position is an escape string constant, like <code>E'It\'s'</code>. */
+	private boolean isEscapeStringPrefix(final int quotePos)
+	{
+		if (quotePos < 1)
+		{
+			return false;
+		}
+
+		final char prefix = script.charAt(quotePos - 1);
+		if (prefix != 'E' && prefix != 'e')
+		{
+			return false;
+		}
+
+		return quotePos < 2 || !isIdentifierChar(script.charAt(quotePos - 2));
+	}
+
+	private int skipStringLiteral(final int quotePos, final boolean backslashEscapes)
+	{
+		int pos = quotePos + 1;
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			if (backslashEscapes && ch == '\\')
+			{
+				pos += 2;
+			}
+			else if (ch == '\'')
+			{
+				if (pos + 1 < length && script.charAt(pos + 1) == '\'')
+				{
+					pos += 2; // escaped quote
+				}
+				else
+				{
+					return pos + 1;
+				}
+			}
+			else
+			{
+				pos++;
+			}
+		}
+		return length;
+	}
+
+	private int skipQuotedIdentifier(final int quotePos)
+	{
+		int pos = quotePos + 1;
+		while (pos < length)
+		{
+			if (script.charAt(pos) == '"')
+			{
+				if (pos + 1 < length && script.charAt(pos + 1) == '"')
+				{
+					pos += 2; // escaped quote
+				}
+				else
+				{
+					return pos + 1;
+				}
+			}
+			else
+			{
+				pos++;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * @return the dollar quote's tag (e.g. <code>$$</code> or <code>$BODY$</code>) which starts at given position or <code>null</code> if there is none,
+	 *         e.g. because it's a parameter like <code>$1</code> or because the <code>$</code> is part of an identifier.
+	 */
+	private String getDollarQuoteTagOrNull(final int dollarPos)
+	{
+		if (dollarPos > 0 && isIdentifierChar(script.charAt(dollarPos - 1)))
+		{
+			return null;
+		}
+
+		int pos = dollarPos + 1;
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			if (ch == '$')
+			{
+				return script.substring(dollarPos, pos + 1);
+			}
+
+			final boolean validTagChar = pos == dollarPos + 1
+					? Character.isLetter(ch) || ch == '_'
+					: Character.isLetterOrDigit(ch) || ch == '_';
+			if (!validTagChar)
+			{
+				return null;
+			}
+			pos++;
+		}
+		return null;
+	}
+
+	private int skipDollarQuotedString(final int dollarPos, final String tag)
+	{
+		final int endTagPos = script.indexOf(tag, dollarPos + tag.length());
+		return endTagPos < 0 ? length : endTagPos + tag.length();
+	}
+
+	private static boolean isIdentifierChar(final char ch)
+	{
+		return Character.isLetterOrDigit(ch) || ch == '_' || ch == '$';
+	}
+}
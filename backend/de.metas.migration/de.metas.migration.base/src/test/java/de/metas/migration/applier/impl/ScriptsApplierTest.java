@@ -0,0 +1,360 @@
+package de.metas.migration.applier.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.IScriptsRegistry;
+import de.metas.migration.ScriptType;
+import de.metas.migration.applier.IScriptsApplierListener;
+import de.metas.migration.exception.ScriptException;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.IScriptExecutor;
+import de.metas.migration.executor.IScriptExecutorFactory;
+import de.metas.migration.impl.AnonymousScript;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ScriptsApplierTest
+{
+	private static final String INDEPENDENT_PROJECT = "independent";
+	private static final String OTHER_PROJECT = "other";
+
+	private final List<IScript> executedScripts = Collections.synchronizedList(new ArrayList<>());
+	private final List<IScript> appliedScripts = Collections.synchronizedList(new ArrayList<>());
+	private final List<IScript> ignoredScripts = Collections.synchronizedList(new ArrayList<>());
+
+	/** Counted down when a script of {@link #INDEPENDENT_PROJECT} was registered as applied */
+	private CountDownLatch independentScriptsApplied;
+
+	private ScriptsApplier applier;
+
+	@Before
+	public void init()
+	{
+		final IDatabase database = new TestDatabase(new TestScriptsRegistry());
+
+		applier = new ScriptsApplier(database)
+		{
+			@Override
+			IDatabase newDatabaseWithOwnConnection()
+			{
+				return database;
+			}
+		};
+		applier.setScriptExecutorFactory(new TestScriptExecutorFactory());
+		applier.setSkipExecutingAfterScripts(true);
+		applier.setIndependentProjectNames(ImmutableSet.of(INDEPENDENT_PROJECT));
+	}
+
+	private static IScript script(final String projectName, final String fileName)
+	{
+		return AnonymousScript.builder()
+				.projectName(projectName)
+				.fileName(fileName)
+				.scriptContent("-- " + fileName)
+				.build();
+	}
+
+	private static List<String> fileNames(final List<IScript> scripts, final String projectName)
+	{
+		synchronized (scripts)
+		{
+			return scripts.stream()
+					.filter(script -> projectName.equals(script.getProjectName()))
+					.map(IScript::getFileName)
+					.collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void lanesAreAppliedInParallel_preservingTheOrderWithinEachLane()
+	{
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				script(OTHER_PROJECT, "1.sql"),
+				script(INDEPENDENT_PROJECT, "1.sql"),
+				script(OTHER_PROJECT, "2.sql"),
+				script(INDEPENDENT_PROJECT, "2.sql"),
+				script(OTHER_PROJECT, "3.sql"));
+		independentScriptsApplied = new CountDownLatch(2);
+
+		applier.apply(scripts::iterator);
+
+		assertThat(applier.getCountAll(), is(5));
+		assertThat(applier.getCountApplied(), is(5));
+		assertThat(appliedScripts, containsInAnyOrder(scripts.toArray()));
+		assertThat(fileNames(executedScripts, OTHER_PROJECT), contains("1.sql", "2.sql", "3.sql"));
+		assertThat(fileNames(executedScripts, INDEPENDENT_PROJECT), contains("1.sql", "2.sql"));
+	}
+
+	/**
+	 * While the listener decides how to handle a failed script (e.g. by asking the user), the other lanes shall carry on.
+	 */
+	@Test
+	public void otherLanesCarryOnWhileTheListenerDecides()
+	{
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				script(OTHER_PROJECT, "fail.sql"),
+				script(INDEPENDENT_PROJECT, "1.sql"),
+				script(INDEPENDENT_PROJECT, "2.sql"),
+				script(INDEPENDENT_PROJECT, "3.sql"));
+		independentScriptsApplied = new CountDownLatch(3);
+
+		applier.setListener(new FailedScriptListener()
+		{
+			@Override
+			public ScriptFailedResolution onScriptFailed(final IScript script, final ScriptExecutionException e)
+			{
+				try
+				{
+					return independentScriptsApplied.await(10, TimeUnit.SECONDS)
+							? ScriptFailedResolution.Ignore
+							: ScriptFailedResolution.Fail;
+				}
+				catch (final InterruptedException ie)
+				{
+					Thread.currentThread().interrupt();
+					return ScriptFailedResolution.Fail;
+				}
+			}
+		});
+
+		applier.apply(scripts::iterator);
+
+		assertThat(applier.getCountApplied(), is(3));
+		assertThat(applier.getCountIgnored(), is(1));
+		assertThat(fileNames(ignoredScripts, OTHER_PROJECT), contains("fail.sql"));
+	}
+
+	@Test
+	public void failedScriptFailsTheRun()
+	{
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				script(OTHER_PROJECT, "1.sql"),
+				script(OTHER_PROJECT, "fail.sql"),
+				script(OTHER_PROJECT, "3.sql"),
+				script(INDEPENDENT_PROJECT, "1.sql"));
+		independentScriptsApplied = new CountDownLatch(1);
+
+		applier.setListener(new FailedScriptListener()
+		{
+			@Override
+			public ScriptFailedResolution onScriptFailed(final IScript script, final ScriptExecutionException e)
+			{
+				return ScriptFailedResolution.Fail;
+			}
+		});
+
+		try
+		{
+			applier.apply(scripts::iterator);
+			fail("ScriptException expected");
+		}
+		catch (final ScriptException expected)
+		{
+			// expected
+		}
+
+		assertThat(fileNames(appliedScripts, OTHER_PROJECT), contains("1.sql"));
+	}
+
+	private static abstract class FailedScriptListener implements IScriptsApplierListener
+	{
+		@Override
+		public void onScriptApplied(final IScript script)
+		{
+			// nothing
+		}
+	}
+
+	private class TestScriptsRegistry implements IScriptsRegistry
+	{
+		@Override
+		public boolean isApplied(final IScript script)
+		{
+			return appliedScripts.contains(script);
+		}
+
+		@Override
+		public void markApplied(final IScript script)
+		{
+			appliedScripts.add(script);
+			if (INDEPENDENT_PROJECT.equals(script.getProjectName()))
+			{
+				independentScriptsApplied.countDown();
+			}
+		}
+
+		@Override
+		public void markIgnored(final IScript script)
+		{
+			ignoredScripts.add(script);
+		}
+	}
+
+	/**
+	 * Executes nothing, but records the scripts. Scripts whose file name contains "fail" fail.
+	 */
+	private class TestScriptExecutorFactory implements IScriptExecutorFactory
+	{
+		private final IScriptExecutor executor = script -> {
+			executedScripts.add(script);
+			if (script.getFileName().contains("fail"))
+			{
+				throw new RuntimeException("failed: " + script.getFileName());
+			}
+		};
+
+		@Override
+		public void registerScriptExecutorClass(final String dbType, final ScriptType scriptType, final Class<? extends IScriptExecutor> executorClass)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void removeAllScriptExecutorClasses()
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Set<ScriptType> getSupportedScriptTypes()
+		{
+			return ImmutableSet.of(ScriptType.SQL);
+		}
+
+		@Override
+		public IScriptExecutor createScriptExecutor(final IDatabase targetDatabase, final IScript script)
+		{
+			return executor;
+		}
+
+		@Override
+		public IScriptExecutor createScriptExecutor(final IDatabase targetDatabase)
+		{
+			return executor;
+		}
+
+		@Override
+		public void setDryRunMode(final boolean dryRunMode)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isDryRunMode()
+		{
+			return false;
+		}
+	}
+
+	private static class TestDatabase implements IDatabase
+	{
+		private final IScriptsRegistry scriptsRegistry;
+
+		/** Connection which can only be closed, because the scripts are not executed for real */
+		private final Connection connection = (Connection)Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					if ("close".equals(method.getName()))
+					{
+						return null;
+					}
+					throw new UnsupportedOperationException(method.toString());
+				});
+
+		private TestDatabase(final IScriptsRegistry scriptsRegistry)
+		{
+			this.scriptsRegistry = scriptsRegistry;
+		}
+
+		@Override
+		public String getDbType()
+		{
+			return "postgresql";
+		}
+
+		@Override
+		public String getDbHostname()
+		{
+			return "localhost";
+		}
+
+		@Override
+		public String getDbPort()
+		{
+			return "5432";
+		}
+
+		@Override
+		public String getDbName()
+		{
+			return "test";
+		}
+
+		@Override
+		public String getDbUser()
+		{
+			return "test";
+		}
+
+		@Override
+		public String getDbPassword()
+		{
+			return "test";
+		}
+
+		@Override
+		public Connection getConnection()
+		{
+			return connection;
+		}
+
+		@Override
+		public IScriptsRegistry getScriptsRegistry()
+		{
+			return scriptsRegistry;
+		}
+	}
+}
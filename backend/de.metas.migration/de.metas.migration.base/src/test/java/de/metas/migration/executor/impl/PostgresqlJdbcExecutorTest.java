@@ -0,0 +1,179 @@
+package de.metas.migration.executor.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.impl.AnonymousScript;
+import de.metas.migration.impl.SQLDatabase;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PostgresqlJdbcExecutorTest
+{
+	/**
+	 * Records the calls on the connection and its statements. Statements containing "fail" throw an {@link SQLException}.
+	 */
+	private final List<String> calls = new ArrayList<>();
+
+	private PostgresqlJdbcExecutor executor;
+
+	@Before
+	public void init()
+	{
+		final Connection connection = createRecordingConnection();
+		final SQLDatabase database = new SQLDatabase("postgresql", "localhost", "5432", "test", "test", "test")
+		{
+			@Override
+			public Connection getConnection()
+			{
+				return connection;
+			}
+		};
+
+		executor = new PostgresqlJdbcExecutor(database);
+	}
+
+	private Connection createRecordingConnection()
+	{
+		return (Connection)Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					switch (method.getName())
+					{
+						case "setAutoCommit":
+							calls.add("setAutoCommit(" + args[0] + ")");
+							return null;
+						case "commit":
+						case "rollback":
+							calls.add(method.getName());
+							return null;
+						case "createStatement":
+							return createRecordingStatement();
+						case "toString":
+							return "recording connection";
+						default:
+							throw new UnsupportedOperationException(method.toString());
+					}
+				});
+	}
+
+	private Statement createRecordingStatement()
+	{
+		return (Statement)Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] { Statement.class },
+				(proxy, method, args) -> {
+					switch (method.getName())
+					{
+						case "execute":
+							final String sql = (String)args[0];
+							calls.add(sql);
+							if (sql.contains("fail"))
+							{
+								throw new SQLException("failed: " + sql);
+							}
+							return false;
+						case "getWarnings":
+						case "close":
+							return null;
+						default:
+							throw new UnsupportedOperationException(method.toString());
+					}
+				});
+	}
+
+	private static AnonymousScript script(final String content)
+	{
+		return AnonymousScript.builder()
+				.fileName("test.sql")
+				.scriptContent(content)
+				.build();
+	}
+
+	@Test
+	public void statementsAreExecutedInOneTransaction()
+	{
+		executor.execute(script("insert into a values (1);\ninsert into a values (2);\n"));
+
+		assertThat(calls, contains(
+				"setAutoCommit(false)",
+				"insert into a values (1)",
+				"insert into a values (2)",
+				"commit",
+				"setAutoCommit(true)",
+				"RESET ALL",
+				"DISCARD TEMP"));
+	}
+
+	@Test
+	public void commitWithinScript()
+	{
+		executor.execute(script("BEGIN;\ninsert into a values (1);\nCOMMIT;\ninsert into a values (2);\n"));
+
+		assertThat(calls, contains(
+				"setAutoCommit(false)",
+				"insert into a values (1)",
+				"commit",
+				"insert into a values (2)",
+				"commit",
+				"setAutoCommit(true)",
+				"RESET ALL",
+				"DISCARD TEMP"));
+	}
+
+	@Test
+	public void failingStatementRollsBackAndResetsTheSession()
+	{
+		try
+		{
+			executor.execute(script("insert into a values (1);\nselect fail();\ninsert into a values (2);\n"));
+			fail("ScriptExecutionException expected");
+		}
+		catch (final ScriptExecutionException expected)
+		{
+			// expected
+		}
+
+		assertThat(calls, contains(
+				"setAutoCommit(false)",
+				"insert into a values (1)",
+				"select fail()",
+				"rollback",
+				"setAutoCommit(true)",
+				"RESET ALL",
+				"DISCARD TEMP"));
+	}
+}
@@ -0,0 +1,90 @@
+package de.metas.migration.executor.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SQLStatementSplitterTest
+{
+	@Test
+	public void simpleStatements()
+	{
+		assertThat(SQLStatementSplitter.split("select 1;\nselect 2;\n\nselect 3"),
+				contains("select 1", "select 2", "select 3"));
+	}
+
+	@Test
+	public void semicolonInStringLiterals()
+	{
+		assertThat(SQLStatementSplitter.split("INSERT INTO t VALUES ('a;b', 'it''s;');select E'x\\';y';"),
+				contains("INSERT INTO t VALUES ('a;b', 'it''s;')", "select E'x\\';y'"));
+	}
+
+	@Test
+	public void semicolonInQuotedIdentifier()
+	{
+		assertThat(SQLStatementSplitter.split("select 1 as \"a;\"\"b\"; select 2"),
+				contains("select 1 as \"a;\"\"b\"", "select 2"));
+	}
+
+	@Test
+	public void semicolonInComments()
+	{
+		assertThat(SQLStatementSplitter.split("-- comment; \nselect 1 /* a; /* nested; */ b; */ + 1;"),
+				contains("-- comment; \nselect 1 /* a; /* nested; */ b; */ + 1"));
+	}
+
+	@Test
+	public void commentOnlyStatementsAreSkipped()
+	{
+		assertThat(SQLStatementSplitter.split("-- 05.05.2016 17:48\n;\n/* nothing */;  ;\n"),
+				empty());
+	}
+
+	@Test
+	public void dollarQuotedFunctionBody()
+	{
+		final String createFunction = "CREATE FUNCTION f() RETURNS void AS $BODY$ BEGIN PERFORM 1; RAISE NOTICE 'x;'; END; $BODY$ LANGUAGE plpgsql";
+		assertThat(SQLStatementSplitter.split(createFunction + ";\nselect f();"),
+				contains(createFunction, "select f()"));
+	}
+
+	@Test
+	public void nestedDollarQuotes()
+	{
+		final String doBlock = "DO $$ BEGIN EXECUTE $x$ select 1; $x$; END $$";
+		assertThat(SQLStatementSplitter.split(doBlock + ";commit;"),
+				contains(doBlock, "commit"));
+	}
+
+	@Test
+	public void dollarWhichIsNoQuote()
+	{
+		assertThat(SQLStatementSplitter.split("PREPARE p AS select $1, foo$bar from t; select 2"),
+				contains("PREPARE p AS select $1, foo$bar from t", "select 2"));
+	}
+}
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.net.URL;
+import java.util.Arrays;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -65,6 +66,8 @@ class CommandlineParams
 	public static final String OPTION_DoNotFailIfRolloutIsGreaterThanDB = "i";
 
 	public static final String OPTION_LONG_AddSqlDir = "add-sql-dir";
+	public static final String OPTION_LONG_UseJdbcExecutor = "jdbc-executor";
+	public static final String OPTION_LONG_IndependentProject = "parallel-project";
 
 	private final Options options;
 
@@ -169,6 +172,25 @@ class CommandlineParams
 			options.addOption(option);
 		}
 
+		{
+			final Option option = new Option(/* opt */null, "Execute the scripts over one JDBC connection, instead of starting a psql process for each script. psql meta commands are not supported in this mode.");
+			option.setLongOpt(OPTION_LONG_UseJdbcExecutor);
+			option.setArgs(0);
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
+		{
+			final Option option = new Option(/* opt */null, "Name of a script folder (project) whose scripts neither depend on nor are required by the scripts of other folders.\n"
+					+ "The scripts of such folders are applied in parallel to all other scripts, each folder in its own connection. Within each folder, the global order is preserved.\n"
+					+ "May be specified multiple times. WARNING: Only use if you know what you are doing!");
+			option.setLongOpt(OPTION_LONG_IndependentProject);
+			option.setArgs(1);
+			option.setArgName("Folder name");
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
 		return options;
 	}
 
@@ -240,6 +262,19 @@ class CommandlineParams
 
 		configBuilder.additionalSqlDirs(extractAdditionalSqlDirs(cmd));
 
+		if (cmd.hasOption(OPTION_LONG_UseJdbcExecutor))
+		{
+			logger.info("Will execute the scripts over JDBC");
+			configBuilder.useJdbcExecutor(true);
+		}
+
+		final String[] independentProjectNames = cmd.getOptionValues(OPTION_LONG_IndependentProject);
+		if (independentProjectNames != null && independentProjectNames.length > 0)
+		{
+			logger.info("Will apply the scripts of {} in parallel", Arrays.asList(independentProjectNames));
+			configBuilder.independentProjectNames(ImmutableSet.copyOf(independentProjectNames));
+		}
+
 		final Config config = configBuilder.canRun(true).build();
 		logger.info("config={}", config);
 
@@ -89,4 +89,17 @@ class Config
 	@Default
 	@NonNull
 	ImmutableSet<IFileRef> additionalSqlDirs = ImmutableSet.of();
+
+	/**
+	 * If {@code true}, the scripts are executed over a JDBC connection, instead of starting a {@code psql} process for each of them.
+	 */
+	@Default
+	boolean useJdbcExecutor = false;
+
+	/**
+	 * Projects (i.e. script folders) whose scripts may be applied in parallel to the scripts of all other projects.
+	 */
+	@Default
+	@NonNull
+	ImmutableSet<String> independentProjectNames = ImmutableSet.of();
 }
@@ -96,6 +96,9 @@ public final class ESRConstants
 
 	public static final String SYSCONFIG_CHECK_DUPLICATED = "de.metas.payment.esr.CheckDuplicated";
 
+	/** How many import lines are matched against the invoice reference numbers at once */
+	public static final String SYSCONFIG_EVALUATE_BATCH_SIZE = "de.metas.payment.esr.EvaluateBatchSize";
+
 	public static final String ESR_DIFF_INV_PARTNER = "ESR_Diff_Inv_partner";
 
 	public static final String ESR_DIFF_PAYMENT_PARTNER = "ESR_Diff_Payment_partner";
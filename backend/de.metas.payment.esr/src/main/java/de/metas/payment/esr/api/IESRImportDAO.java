@@ -34,6 +34,7 @@ import javax.annotation.Nullable;
 import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.banking.BankStatementAndLineAndRefId;
@@ -80,6 +81,13 @@ public interface IESRImportDAO extends ISingletonService
 	 */
 	I_C_ReferenceNo_Doc retrieveESRInvoiceReferenceNumberDocument(OrgId orgId, String esrReferenceNumber);
 
+	/**
+	 * Set based version of {@link #retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}.
+	 *
+	 * @return documents indexed by the given ESR reference numbers; reference numbers without document are not contained.
+	 */
+	ImmutableMap<String, I_C_ReferenceNo_Doc> retrieveESRInvoiceReferenceNumberDocuments(OrgId orgId, Collection<String> esrReferenceNumbers);
+
 	/**
 	 * Retrieve the existing esr imports of the organization given as parameter (through ID)
 	 */
@@ -100,13 +108,10 @@ public interface IESRImportDAO extends ISingletonService
 	 */
 	int countLines(I_ESR_Import esrImport, @Nullable Boolean processed);
 
-	/***
-	 * gets the esr line for the specified esr import header and esrlinetext
-	 *
-	 * @param import1
-	 * @param esrImportLineText
+	/**
+	 * @return the trimmed, lower case {@link I_ESR_ImportLine#COLUMNNAME_ESRLineText}s of all the given import's lines
 	 */
-	I_ESR_ImportLine fetchLineForESRLineText(I_ESR_Import import1, String esrImportLineText);
+	ImmutableSet<String> retrieveLineTexts(I_ESR_Import esrImport);
 
 	List<I_ESR_Import> getByIds(@NonNull Set<ESRImportId> esrImportIds);
 
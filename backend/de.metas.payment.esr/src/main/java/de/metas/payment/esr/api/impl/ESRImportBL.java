@@ -21,6 +21,8 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
@@ -44,10 +46,14 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import ch.qos.logback.classic.Level;
+
 import de.metas.allocation.api.IAllocationBL;
 import de.metas.allocation.api.IAllocationDAO;
 import de.metas.attachments.AttachmentEntry;
@@ -61,6 +67,7 @@ import de.metas.banking.api.IBPBankAccountDAO;
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.calendar.IPeriodBL;
+import de.metas.common.util.CoalesceUtil;
 import de.metas.document.engine.IDocument;
 import de.metas.document.engine.IDocumentBL;
 import de.metas.i18n.IMsgBL;
@@ -85,6 +92,7 @@ import de.metas.payment.esr.dataimporter.ESRDataLoaderUtil;
 import de.metas.payment.esr.dataimporter.ESRImportEnqueuer;
 import de.metas.payment.esr.dataimporter.ESRImportEnqueuerDataSource;
 import de.metas.payment.esr.dataimporter.ESRImportEnqueuerDuplicateFilePolicy;
+import de.metas.payment.esr.dataimporter.ESRInvoiceReferenceNumberDocuments;
 import de.metas.payment.esr.dataimporter.ESRStatement;
 import de.metas.payment.esr.dataimporter.ESRTransaction;
 import de.metas.payment.esr.dataimporter.IESRDataImporter;
@@ -94,6 +102,7 @@ import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.payment.esr.model.I_ESR_ImportLine;
 import de.metas.payment.esr.model.X_ESR_ImportLine;
 import de.metas.util.Check;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
 
@@ -192,6 +201,7 @@ public class ESRImportBL implements IESRImportBL
 			countLines = esrImportDAO.countLines(esrImport, null);
 		}
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		final IESRDataImporter loader = ESRDataLoaderFactory.createImporter(esrImport, in);
 		final ESRStatement esrStatement = loader.importData();
 		try
@@ -214,6 +224,12 @@ public class ESRImportBL implements IESRImportBL
 		// TODO verify that the bankaccounts match!
 		esrImportDAO.save(esrImport);
 
+		// if there are already lines before starting reading the file, means that we already tried to import once;
+		// the line texts are loaded once and we add the texts of the lines we create, so also duplicates within the file are skipped
+		final Set<String> existingLineTexts = countLines > 0
+				? new HashSet<>(esrImportDAO.retrieveLineTexts(esrImport))
+				: null;
+
 		final List<ESRTransaction> transactions = esrStatement.getTransactions();
 		int lineNo = 0;
 		for (final ESRTransaction esrTransaction : transactions)
@@ -222,21 +238,47 @@ public class ESRImportBL implements IESRImportBL
 
 			//
 			// create line only if does not exist
-			I_ESR_ImportLine existentLine = null;
-			// if there are already lines before starting reading the file, means that we already tried to import once
-			if (countLines > 0)
+			if (existingLineTexts != null && containsLineText(existingLineTexts, esrTransaction.getTransactionKey()))
 			{
-				existentLine = esrImportDAO.fetchLineForESRLineText(esrImport, esrTransaction.getTransactionKey());
-				if (existentLine != null)
-				{
-					continue;
-				}
+				continue;
 			}
 
-			createEsrImportLine(esrImport, lineNo, esrTransaction);
+			final I_ESR_ImportLine importLine = createEsrImportLine(esrImport, lineNo, esrTransaction);
+			if (existingLineTexts != null && importLine.getESRLineText() != null)
+			{
+				existingLineTexts.add(normalizeLineText(importLine.getESRLineText()));
+			}
 		}
+		final long loadMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
 
 		evaluate(esrImport);
+
+		final long totalMillis = stopwatch.stop().elapsed(TimeUnit.MILLISECONDS);
+		Loggables.withLogger(logger, Level.INFO).addLog("Imported {} transactions in {}ms (loading: {}ms, {} transactions/sec)",
+				transactions.size(), totalMillis, loadMillis, totalMillis > 0 ? transactions.size() * 1000L / totalMillis : transactions.size());
+	}
+
+	/**
+	 * Same match as the former per transaction <code>ESRLineText ILIKE '%transactionKey%'</code> query: the transaction is considered as already imported
+	 * if its (trimmed) key is contained in one of the given line texts, ignoring the case.
+	 *
+	 * @param lineTexts line texts as returned by {@link IESRImportDAO#retrieveLineTexts(I_ESR_Import)}
+	 */
+	@VisibleForTesting
+	static boolean containsLineText(@NonNull final Set<String> lineTexts, @NonNull final String transactionKey)
+	{
+		final String transactionKeyNorm = normalizeLineText(transactionKey);
+		if (lineTexts.contains(transactionKeyNorm))
+		{
+			return true;
+		}
+
+		return lineTexts.stream().anyMatch(lineText -> lineText.contains(transactionKeyNorm));
+	}
+
+	private static String normalizeLineText(@NonNull final String lineText)
+	{
+		return lineText.trim().toLowerCase();
 	}
 
 	private I_ESR_ImportLine createEsrImportLine(final I_ESR_Import esrImport, final int lineNo, final ESRTransaction esrTransaction)
@@ -269,16 +311,24 @@ public class ESRImportBL implements IESRImportBL
 
 		final List<I_ESR_ImportLine> esrImportLines = esrImportDAO.retrieveLines(esrImport);
 
-		for (final I_ESR_ImportLine importLine : esrImportLines)
+		// match the lines batch-wise, so we can fetch their invoice reference numbers with a few queries per batch
+		final int batchSize = Math.max(sysConfigBL.getIntValue(ESRConstants.SYSCONFIG_EVALUATE_BATCH_SIZE, 500), 1);
+		for (final List<I_ESR_ImportLine> batch : Lists.partition(esrImportLines, batchSize))
 		{
-			//
-			// now do different validations with the values loaded from the input file
-			evaluateLine(esrImport, importLine);
+			final ESRInvoiceReferenceNumberDocuments referenceNumberDocuments = ESRInvoiceReferenceNumberDocuments.prefetch(batch);
+			for (final I_ESR_ImportLine importLine : batch)
+			{
+				//
+				// now do different validations with the values loaded from the input file
+				evaluateLine(esrImport, importLine, referenceNumberDocuments);
 
-			importAmt = importAmt.add(importLine.getAmount());
-			trxQty++;
+				importAmt = importAmt.add(importLine.getAmount());
+				trxQty++;
+			}
 		}
 
+		logMatchingStatistics(esrImportLines);
+
 		final boolean hasLines = esrImportLines.size() > 0;
 		final boolean fitAmounts = importAmt.compareTo(esrImport.getESR_Control_Amount()) == 0;
 		final boolean fitTrxQtys = evaluateTrxQty(esrImport, trxQty);
@@ -324,8 +374,30 @@ public class ESRImportBL implements IESRImportBL
 		return fitTrxQtys;
 	}
 
+	private static void logMatchingStatistics(final List<I_ESR_ImportLine> esrImportLines)
+	{
+		final Map<String, Long> countsByDocumentStatus = esrImportLines.stream()
+				.collect(Collectors.groupingBy(
+						line -> CoalesceUtil.coalesce(line.getESR_Document_Status(), X_ESR_ImportLine.ESR_DOCUMENT_STATUS_NotMatched),
+						Collectors.counting()));
+		final long withInvoice = esrImportLines.stream()
+				.filter(line -> line.getC_Invoice_ID() > 0)
+				.count();
+
+		Loggables.withLogger(logger, Level.INFO).addLog("Matched {} lines: {} with invoice; by document status: {}",
+				esrImportLines.size(), withInvoice, countsByDocumentStatus);
+	}
+
 	@VisibleForTesting
 	public void evaluateLine(@NonNull final I_ESR_Import esrImport, @NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateLine(esrImport, importLine, ESRInvoiceReferenceNumberDocuments.NOT_PREFETCHED);
+	}
+
+	private void evaluateLine(
+			@NonNull final I_ESR_Import esrImport,
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRInvoiceReferenceNumberDocuments referenceNumberDocuments)
 	{
 		if (isReverseBookingLine(importLine))
 		{
@@ -343,7 +415,7 @@ public class ESRImportBL implements IESRImportBL
 		}
 
 		// The reference number of the ESR Import line
-		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine);
+		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine, referenceNumberDocuments);
 
 		// task 05917: check if the the payment date from the ESR file is OK for us
 		try
@@ -28,16 +28,18 @@ import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
-import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
@@ -49,6 +51,8 @@ import org.compiere.model.I_C_Payment;
 import org.compiere.util.Env;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.banking.BankStatementAndLineAndRefId;
@@ -248,17 +252,108 @@ public class ESRImportDAO implements IESRImportDAO
 		return invoiceDocs.get(0);
 	}
 
-	private I_C_ReferenceNo fetchESRInvoiceReferenceNumber(@NonNull final String esrReferenceNumber, @NonNull final OrgId orgId)
+	@Override
+	public ImmutableMap<String, I_C_ReferenceNo_Doc> retrieveESRInvoiceReferenceNumberDocuments(
+			@NonNull final OrgId orgId,
+			@NonNull final Collection<String> esrReferenceNumbers)
+	{
+		if (esrReferenceNumbers.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final ImmutableMap<String, I_C_ReferenceNo> referenceNos = fetchESRInvoiceReferenceNumbers(esrReferenceNumbers, orgId);
+		if (referenceNos.isEmpty())
+		{
+			return ImmutableMap.of();
+		}
+
+		final ImmutableSet<Integer> referenceNoIds = referenceNos.values()
+				.stream()
+				.map(I_C_ReferenceNo::getC_ReferenceNo_ID)
+				.collect(ImmutableSet.toImmutableSet());
+
+		final ImmutableListMultimap<Integer, I_C_ReferenceNo_Doc> invoiceDocsByReferenceNoId = queryBL.createQueryBuilder(I_C_ReferenceNo_Doc.class)
+				.addOnlyActiveRecordsFilter()
+				.addInArrayFilter(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_ID, referenceNoIds)
+				.addEqualsFilter(I_C_ReferenceNo_Doc.COLUMNNAME_AD_Table_ID, getTableId(I_C_Invoice.class))
+				.orderBy(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_Doc_ID)
+				.create()
+				.setRequiredAccess(Access.READ)
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(I_C_ReferenceNo_Doc::getC_ReferenceNo_ID, doc -> doc));
+
+		final ImmutableMap.Builder<String, I_C_ReferenceNo_Doc> result = ImmutableMap.builder();
+		for (final Map.Entry<String, I_C_ReferenceNo> entry : referenceNos.entrySet())
+		{
+			final String esrReferenceNumber = entry.getKey();
+			final I_C_ReferenceNo referenceNo = entry.getValue();
+
+			final List<I_C_ReferenceNo_Doc> invoiceDocs = invoiceDocsByReferenceNoId.get(referenceNo.getC_ReferenceNo_ID());
+			if (invoiceDocs.isEmpty())
+			{
+				continue;
+			}
+			else if (invoiceDocs.size() > 1)
+			{
+				throw new AdempiereException("More then one assigned invoice found for " + esrReferenceNumber + " (" + referenceNo + ")");
+			}
+
+			result.put(esrReferenceNumber, invoiceDocs.get(0));
+		}
+		return result.build();
+	}
+
+	/**
+	 * Fetches the invoice reference numbers like {@link #fetchESRInvoiceReferenceNumber(String, OrgId)} does, but with one query for all given ESR reference numbers.
+	 */
+	private ImmutableMap<String, I_C_ReferenceNo> fetchESRInvoiceReferenceNumbers(@NonNull final Collection<String> esrReferenceNumbers, @NonNull final OrgId orgId)
 	{
 		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
 		final I_C_ReferenceNo_Type refNoType = refNoDAO.retrieveRefNoTypeByName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
 
-		// Use wild cards because we won't match after the bank account no (first digits) and the check digit (the last one)
-		final String esrReferenceNoToMatch = "%" + esrReferenceNumber + "_";
+		// we won't match the bank account no (first digits) and the check digit (the last one);
+		// the OR-ed equals filters on the same expression can all use its index
+		final ICompositeQueryFilter<I_C_ReferenceNo> referenceNoFilter = queryBL.createCompositeQueryFilter(I_C_ReferenceNo.class)
+				.setJoinOr();
+		for (final String esrReferenceNumber : esrReferenceNumbers)
+		{
+			referenceNoFilter.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_ReferenceNo, esrReferenceNumber, ESRReferenceNumberQueryFilterModifier.instance);
+		}
+
+		final List<I_C_ReferenceNo> referenceNoRecords = queryBL.createQueryBuilder(I_C_ReferenceNo.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_Type_ID, refNoType.getC_ReferenceNo_Type_ID())
+				.addInArrayFilter(I_C_ReferenceNo_Type.COLUMNNAME_AD_Org_ID, orgId, OrgId.ANY)
+				.filter(referenceNoFilter)
+				.orderBy(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_ID)
+				.create()
+				.setRequiredAccess(Access.READ)
+				.list(I_C_ReferenceNo.class);
+
+		// Index the records by the part of their ReferenceNo which we matched
+		final Map<String, I_C_ReferenceNo> result = new HashMap<>();
+		for (final I_C_ReferenceNo referenceNoRecord : referenceNoRecords)
+		{
+			final String esrReferenceNumber = ESRReferenceNumberQueryFilterModifier.extractESRReferenceNumber(referenceNoRecord.getReferenceNo());
+			result.putIfAbsent(esrReferenceNumber, referenceNoRecord);
+		}
+
+		return esrReferenceNumbers.stream()
+				.filter(result::containsKey)
+				.distinct()
+				.collect(ImmutableMap.toImmutableMap(esrReferenceNumber -> esrReferenceNumber, result::get));
+	}
+
+	private I_C_ReferenceNo fetchESRInvoiceReferenceNumber(@NonNull final String esrReferenceNumber, @NonNull final OrgId orgId)
+	{
+		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
+		final I_C_ReferenceNo_Type refNoType = refNoDAO.retrieveRefNoTypeByName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
 
 		final I_C_ReferenceNo referenceNoRecord = queryBL.createQueryBuilder(I_C_ReferenceNo.class)
 				.addOnlyActiveRecordsFilter()
-				.addCompareFilter(I_C_ReferenceNo.COLUMNNAME_ReferenceNo, Operator.STRING_LIKE, esrReferenceNoToMatch)
+				// we won't match the bank account no (first digits) and the check digit (the last one)
+				.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_ReferenceNo, esrReferenceNumber, ESRReferenceNumberQueryFilterModifier.instance)
 				.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_Type_ID, refNoType.getC_ReferenceNo_Type_ID())
 				.addInArrayFilter(I_C_ReferenceNo_Type.COLUMNNAME_AD_Org_ID, orgId, OrgId.ANY) // Note that we do need to filter by AD_Org_ID, because 'esrReferenceNumber' is not guaranteed to be unique!
 				.create()
@@ -337,19 +432,21 @@ public class ESRImportDAO implements IESRImportDAO
 	}
 
 	@Override
-	public I_ESR_ImportLine fetchLineForESRLineText(@NonNull final I_ESR_Import esrImport, @NonNull final String esrImportLineText)
+	public ImmutableSet<String> retrieveLineTexts(@NonNull final I_ESR_Import esrImport)
 	{
 		final Properties ctx = InterfaceWrapperHelper.getCtx(esrImport);
 		final String trxName = InterfaceWrapperHelper.getTrxName(esrImport);
 		final ESRImportId esrImportId = ESRImportId.ofRepoId(esrImport.getESR_Import_ID());
-		final String strippedText = esrImportLineText.trim();
 
 		return queryBL.createQueryBuilder(I_ESR_ImportLine.class, ctx, trxName)
 				.addOnlyActiveRecordsFilter()
 				.addEqualsFilter(I_ESR_ImportLine.COLUMNNAME_ESR_Import_ID, esrImportId)
-				.addStringLikeFilter(I_ESR_ImportLine.COLUMNNAME_ESRLineText, strippedText, /* ignoreCase */true)
+				.addNotNull(I_ESR_ImportLine.COLUMNNAME_ESRLineText)
 				.create()
-				.firstOnly(I_ESR_ImportLine.class);
+				.listDistinct(I_ESR_ImportLine.COLUMNNAME_ESRLineText, String.class)
+				.stream()
+				.map(esrLineText -> esrLineText.trim().toLowerCase())
+				.collect(ImmutableSet.toImmutableSet());
 	}
 
 	@Override
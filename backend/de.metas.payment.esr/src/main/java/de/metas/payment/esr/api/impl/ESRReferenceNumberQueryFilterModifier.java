@@ -0,0 +1,101 @@
+package de.metas.payment.esr.api.impl;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryFilterModifier;
+import org.adempiere.ad.dao.impl.ModelColumnNameValue;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compares the part of a <code>C_ReferenceNo.ReferenceNo</code> which is matched against an ESR import line's reference number,
+ * i.e. the {@value #ESR_REFERENCE_NUMBER_LENGTH} characters before the last one (the check digit).
+ * <p>
+ * Same match as <code>ReferenceNo LIKE '%&lt;esrReferenceNumber&gt;_'</code>, but unlike that one it can use the expression index
+ * <code>c_referenceno_esr_referenceno</code>.
+ * Constants are compared as they are, so they shall already be ESR reference numbers to match.
+ */
+@EqualsAndHashCode
+final class ESRReferenceNumberQueryFilterModifier implements IQueryFilterModifier
+{
+	public static final transient ESRReferenceNumberQueryFilterModifier instance = new ESRReferenceNumberQueryFilterModifier();
+
+	/** Length of the ESR reference number without the bank account no (first 7 digits) and the check digit (last digit) */
+	@VisibleForTesting
+	static final int ESR_REFERENCE_NUMBER_LENGTH = 19;
+
+	private ESRReferenceNumberQueryFilterModifier()
+	{
+	}
+
+	@Override
+	public @NonNull String getColumnSql(@NonNull final String columnName)
+	{
+		// NOTE: keep in sync with the expression of index c_referenceno_esr_referenceno
+		return "substr(" + columnName + ", length(" + columnName + ") - " + ESR_REFERENCE_NUMBER_LENGTH + ", " + ESR_REFERENCE_NUMBER_LENGTH + ")";
+	}
+
+	@Override
+	public String getValueSql(final Object value, final List<Object> params)
+	{
+		if (value instanceof ModelColumnNameValue<?>)
+		{
+			final ModelColumnNameValue<?> modelValue = (ModelColumnNameValue<?>)value;
+			return getColumnSql(modelValue.getColumnName());
+		}
+
+		params.add(value);
+		return "?";
+	}
+
+	@Nullable
+	@Override
+	public Object convertValue(@Nullable final String columnName, @Nullable final Object value, @Nullable final Object model)
+	{
+		if (value == null || columnName == COLUMNNAME_Constant)
+		{
+			return value;
+		}
+
+		return extractESRReferenceNumber(value.toString());
+	}
+
+	/**
+	 * Java version of {@link #getColumnSql(String)}.
+	 */
+	@VisibleForTesting
+	static String extractESRReferenceNumber(@NonNull final String referenceNo)
+	{
+		// like postgres' substr(), we get less characters if the start is before the string's beginning
+		final int endIndex = Math.max(referenceNo.length() - 1, 0);
+		final int beginIndex = Math.max(endIndex - ESR_REFERENCE_NUMBER_LENGTH, 0);
+		return referenceNo.substring(beginIndex, endIndex);
+	}
+}
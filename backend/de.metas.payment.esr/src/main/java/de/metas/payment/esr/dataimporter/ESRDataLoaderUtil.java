@@ -3,7 +3,6 @@ package de.metas.payment.esr.dataimporter;
 import java.util.List;
 
 import org.adempiere.ad.table.api.IADTableDAO;
-import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_AD_Org;
 import org.compiere.model.I_C_BPartner;
@@ -24,7 +23,6 @@ import de.metas.organization.IOrgDAO;
 import de.metas.organization.OrgId;
 import de.metas.payment.esr.api.IESRBPBankAccountDAO;
 import de.metas.payment.esr.api.IESRImportBL;
-import de.metas.payment.esr.api.IESRImportDAO;
 import de.metas.payment.esr.api.IESRLineHandlersService;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.payment.esr.model.I_ESR_ImportLine;
@@ -82,7 +80,6 @@ public class ESRDataLoaderUtil
 
 	private final IBPBankAccountDAO bpBankAccountRepo = Services.get(IBPBankAccountDAO.class);
 	private final IESRBPBankAccountDAO esrbpBankAccountRepo = Services.get(IESRBPBankAccountDAO.class);
-	private final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
 	private final IESRImportBL esrImportBL = Services.get(IESRImportBL.class);
 
 	public I_ESR_ImportLine newLine(@NonNull final I_ESR_Import esrImport)
@@ -113,20 +110,28 @@ public class ESRDataLoaderUtil
 	 * @param completeEsrReferenceNumberStr
 	 */
 	public void evaluateEsrReferenceNumber(@NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateEsrReferenceNumber(importLine, ESRInvoiceReferenceNumberDocuments.NOT_PREFETCHED);
+	}
+
+	/**
+	 * Same as {@link #evaluateEsrReferenceNumber(I_ESR_ImportLine)}, but gets the reference number documents and invoices from the given {@code referenceNumberDocuments}.
+	 */
+	public void evaluateEsrReferenceNumber(
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRInvoiceReferenceNumberDocuments referenceNumberDocuments)
 	{
 		final String completeEsrReferenceNumberStr = importLine.getESRFullReferenceNumber();
-		if (Check.isEmpty(completeEsrReferenceNumberStr, true))
+		final String esrReferenceNumberToMatch = ESRInvoiceReferenceNumberDocuments.extractESRReferenceNumberToMatchOrNull(completeEsrReferenceNumberStr);
+		if (esrReferenceNumberToMatch == null)
 		{
 			return; // there is nothing to do. Note that we don't log an error because if this string is empty, something already failed and was logged before.
 		}
 
-		// When matching, we will ignore the first 7 digits (the bank account no), and the last digit (check digit)
-		final String esrReferenceNumberToMatch = completeEsrReferenceNumberStr.substring(7, 26);
-
 		importLine.setESRReferenceNumber(esrReferenceNumberToMatch);
 
-		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = esrImportDAO
-				.retrieveESRInvoiceReferenceNumberDocument(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), esrReferenceNumberToMatch);
+		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = referenceNumberDocuments
+				.getDocument(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), esrReferenceNumberToMatch);
 
 		if (esrReferenceNumberDocument == null)
 		{
@@ -148,7 +153,7 @@ public class ESRDataLoaderUtil
 				importLine.setC_ReferenceNo_ID(esrReferenceNumberDocument.getC_ReferenceNo_ID());
 
 				final int invoiceID = esrReferenceNumberDocument.getRecord_ID();
-				final I_C_Invoice invoice = InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
+				final I_C_Invoice invoice = referenceNumberDocuments.getInvoice(invoiceID);
 
 				final boolean match = Services.get(IESRLineHandlersService.class)
 						.applyESRMatchingBPartnerOfTheInvoice(invoice, importLine);
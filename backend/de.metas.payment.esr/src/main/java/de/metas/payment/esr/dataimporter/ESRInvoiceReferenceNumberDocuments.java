@@ -0,0 +1,142 @@
+package de.metas.payment.esr.dataimporter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.util.Env;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.organization.OrgId;
+import de.metas.payment.esr.api.IESRImportDAO;
+import de.metas.payment.esr.model.I_ESR_ImportLine;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Provides the invoice reference number documents and their invoices to {@link ESRDataLoaderUtil#evaluateEsrReferenceNumber(I_ESR_ImportLine, ESRInvoiceReferenceNumberDocuments)}.
+ * <p>
+ * Use {@link #prefetch(Collection)} to load them for a whole batch of import lines with a few set based queries, instead of querying them line by line.
+ */
+public final class ESRInvoiceReferenceNumberDocuments
+{
+	/** Instance which does not prefetch anything, but retrieves the documents and invoices when asked for */
+	public static final ESRInvoiceReferenceNumberDocuments NOT_PREFETCHED = new ESRInvoiceReferenceNumberDocuments(null, ImmutableMap.of());
+
+	public static ESRInvoiceReferenceNumberDocuments prefetch(@NonNull final Collection<I_ESR_ImportLine> importLines)
+	{
+		final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
+
+		final ImmutableListMultimap<OrgId, String> esrReferenceNumbersByOrgId = importLines.stream()
+				.filter(importLine -> extractESRReferenceNumberToMatchOrNull(importLine.getESRFullReferenceNumber()) != null)
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						importLine -> OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()),
+						importLine -> extractESRReferenceNumberToMatchOrNull(importLine.getESRFullReferenceNumber())));
+
+		final Map<OrgId, ImmutableMap<String, I_C_ReferenceNo_Doc>> documentsByOrgId = new HashMap<>();
+		for (final OrgId orgId : esrReferenceNumbersByOrgId.keySet())
+		{
+			final ImmutableSet<String> esrReferenceNumbers = ImmutableSet.copyOf(esrReferenceNumbersByOrgId.get(orgId));
+			documentsByOrgId.put(orgId, esrImportDAO.retrieveESRInvoiceReferenceNumberDocuments(orgId, esrReferenceNumbers));
+		}
+
+		final int invoiceTableId = InterfaceWrapperHelper.getTableId(I_C_Invoice.class);
+		final ImmutableSet<Integer> invoiceIds = documentsByOrgId.values()
+				.stream()
+				.flatMap(documents -> documents.values().stream())
+				.filter(document -> document.getAD_Table_ID() == invoiceTableId)
+				.map(I_C_ReferenceNo_Doc::getRecord_ID)
+				.collect(ImmutableSet.toImmutableSet());
+		final List<I_C_Invoice> invoices = !invoiceIds.isEmpty()
+				? InterfaceWrapperHelper.loadByIdsOutOfTrx(invoiceIds, I_C_Invoice.class)
+				: ImmutableList.of();
+
+		return new ESRInvoiceReferenceNumberDocuments(
+				ImmutableMap.copyOf(documentsByOrgId),
+				Maps.uniqueIndex(invoices, I_C_Invoice::getC_Invoice_ID));
+	}
+
+	/**
+	 * When matching, we ignore the first 7 digits (the bank account no), and the last digit (check digit).
+	 *
+	 * @return the part of the given ESR reference number which is matched against the <code>C_ReferenceNo</code>s or <code>null</code> if there is nothing to match.
+	 */
+	@Nullable
+	public static String extractESRReferenceNumberToMatchOrNull(@Nullable final String completeEsrReferenceNumberStr)
+	{
+		if (completeEsrReferenceNumberStr == null || completeEsrReferenceNumberStr.trim().isEmpty())
+		{
+			return null;
+		}
+		return completeEsrReferenceNumberStr.substring(7, 26);
+	}
+
+	/** {@code null} means that nothing was prefetched */
+	private final ImmutableMap<OrgId, ImmutableMap<String, I_C_ReferenceNo_Doc>> documentsByOrgId;
+	private final ImmutableMap<Integer, I_C_Invoice> invoicesById;
+
+	private ESRInvoiceReferenceNumberDocuments(
+			@Nullable final ImmutableMap<OrgId, ImmutableMap<String, I_C_ReferenceNo_Doc>> documentsByOrgId,
+			@NonNull final ImmutableMap<Integer, I_C_Invoice> invoicesById)
+	{
+		this.documentsByOrgId = documentsByOrgId;
+		this.invoicesById = invoicesById;
+	}
+
+	@Nullable
+	public I_C_ReferenceNo_Doc getDocument(@NonNull final OrgId orgId, @NonNull final String esrReferenceNumber)
+	{
+		if (documentsByOrgId == null)
+		{
+			return Services.get(IESRImportDAO.class).retrieveESRInvoiceReferenceNumberDocument(orgId, esrReferenceNumber);
+		}
+
+		final ImmutableMap<String, I_C_ReferenceNo_Doc> documents = documentsByOrgId.get(orgId);
+		return documents != null ? documents.get(esrReferenceNumber) : null;
+	}
+
+	public I_C_Invoice getInvoice(final int invoiceId)
+	{
+		final I_C_Invoice invoice = invoicesById.get(invoiceId);
+		if (invoice != null)
+		{
+			return invoice;
+		}
+
+		return InterfaceWrapperHelper.create(Env.getCtx(), invoiceId, I_C_Invoice.class, ITrx.TRXNAME_None);
+	}
+}
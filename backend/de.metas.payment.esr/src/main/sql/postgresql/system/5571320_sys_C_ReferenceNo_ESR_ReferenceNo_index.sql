@@ -0,0 +1,5 @@
+-- ESR import lines are matched against the invoice reference numbers without their first digits (bank account no) and their last digit (check digit);
+-- index that part, see de.metas.payment.esr.api.impl.ESRReferenceNumberQueryFilterModifier
+CREATE INDEX IF NOT EXISTS c_referenceno_esr_referenceno
+  ON public.c_referenceno
+  (substr(ReferenceNo, length(ReferenceNo) - 19, 19));
@@ -42,6 +42,8 @@ import java.util.Set;
 
 import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_AD_Org;
 import org.compiere.model.I_C_AllocationLine;
 import org.compiere.model.I_C_Payment;
@@ -49,6 +51,8 @@ import org.compiere.model.X_C_DocType;
 import org.compiere.util.Env;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.adempiere.model.I_C_Invoice;
 import de.metas.allocation.api.IAllocationDAO;
 import de.metas.allocation.api.impl.PlainAllocationDAO;
@@ -60,7 +64,9 @@ import de.metas.document.refid.model.I_C_ReferenceNo_Type;
 import de.metas.interfaces.I_C_BPartner;
 import de.metas.interfaces.I_C_DocType;
 import de.metas.money.CurrencyId;
+import de.metas.organization.OrgId;
 import de.metas.payment.PaymentId;
+import de.metas.payment.esr.ESRConstants;
 import de.metas.payment.esr.ESRTestBase;
 import de.metas.payment.esr.ESRTestUtil;
 import de.metas.payment.esr.ESRValidationRuleTools;
@@ -863,4 +869,51 @@ public class ESRImportBLTest extends ESRTestBase
 				line1.getESR_Invoice_Openamt(), comparesEqualTo(INVOICE_GRANDTOTAL.subtract(alreadyAllocatedAmt).subtract(ESR_LINE_1_AMOUNT)));
 	}
 
+	@Test
+	public void containsLineText()
+	{
+		final Set<String> lineTexts = ImmutableSet.of("01201067789300000001060012345600654321400000025009072");
+
+		assertThat(ESRImportBL.containsLineText(lineTexts, "  01201067789300000001060012345600654321400000025009072  ")).as("trimmed key").isTrue();
+		assertThat(ESRImportBL.containsLineText(lineTexts, "0012345600654321")).as("key is part of a line text").isTrue();
+		assertThat(ESRImportBL.containsLineText(ImmutableSet.of("abc def"), "ABC")).as("case is ignored").isTrue();
+		assertThat(ESRImportBL.containsLineText(lineTexts, "01201067789300000001060012345600654321400000050009072")).isFalse();
+	}
+
+	/**
+	 * With {@link ESRConstants#SYSCONFIG_CHECK_DUPLICATED}, re-importing a file into the same import shall skip the transactions which were already imported,
+	 * and also the ones which are contained more than once in the re-imported file.
+	 */
+	@Test
+	public void loadAndEvaluateESRImportStream_reimport_skipsExistingAndDuplicatedTransactions()
+	{
+		Services.get(ISysConfigBL.class).setValue(ESRConstants.SYSCONFIG_CHECK_DUPLICATED, true, ClientId.SYSTEM, OrgId.ANY);
+
+		final String esrLineText1 = "01201067789300000001060012345600654321400000025009072  030014040914041014041100001006800000000000090";
+		final String esrLineText2 = "01201067789300000001060012345600654321400000050009072  030014040914041014041100001006800000000000090";
+
+		final I_C_ReferenceNo_Type refNoType = newInstance(I_C_ReferenceNo_Type.class);
+		refNoType.setName("InvoiceReference");
+		save(refNoType);
+
+		final I_C_BP_BankAccount account = createBankAccount(true,
+				Env.getAD_Org_ID(getCtx()),
+				Env.getAD_User_ID(getCtx()),
+				"01-067789-3",
+				PlainCurrencyDAO.createCurrencyId(CurrencyCode.EUR));
+
+		final I_ESR_Import esrImport = createImport();
+		esrImport.setC_BP_BankAccount_ID(account.getC_BP_BankAccount_ID());
+		save(esrImport);
+
+		esrImportBL.loadAndEvaluateESRImportStream(esrImport, new ByteArrayInputStream(esrLineText1.getBytes()));
+		assertThat(dao.retrieveLines(esrImport)).hasSize(1); // guard
+
+		// invoke the code under test: line 1 already exists and line 2 is contained twice
+		esrImportBL.loadAndEvaluateESRImportStream(esrImport, new ByteArrayInputStream((esrLineText1 + '\n' + esrLineText2 + '\n' + esrLineText2).getBytes()));
+
+		assertThat(dao.retrieveLines(esrImport))
+				.extracting(I_ESR_ImportLine::getESRLineText)
+				.containsExactly(esrLineText1, esrLineText2);
+	}
 }
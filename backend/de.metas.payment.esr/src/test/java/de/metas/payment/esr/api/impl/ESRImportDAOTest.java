@@ -0,0 +1,150 @@
+package de.metas.payment.esr.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.getTableId;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.compiere.model.I_AD_Org;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.adempiere.model.I_C_Invoice;
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.document.refid.model.I_C_ReferenceNo_Type;
+import de.metas.organization.OrgId;
+import de.metas.payment.esr.ESRConstants;
+import de.metas.payment.esr.ESRTestBase;
+import de.metas.payment.esr.model.I_ESR_Import;
+import de.metas.payment.esr.model.I_ESR_ImportLine;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESRImportDAOTest extends ESRTestBase
+{
+	private I_C_ReferenceNo_Type refNoType;
+	private OrgId orgId;
+
+	@Override
+	protected void init()
+	{
+		refNoType = newInstance(I_C_ReferenceNo_Type.class);
+		refNoType.setName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+		save(refNoType);
+
+		orgId = OrgId.ofRepoId(getAD_Org().getAD_Org_ID());
+	}
+
+	@Test
+	public void extractESRReferenceNumber()
+	{
+		// the part which ESRInvoiceReferenceNumberDocuments.extractESRReferenceNumberToMatchOrNull() extracts from the import line's complete reference number
+		assertThat(ESRReferenceNumberQueryFilterModifier.extractESRReferenceNumber("300000001060012345600654321")).isEqualTo("0106001234560065432");
+		// reference numbers with more leading digits
+		assertThat(ESRReferenceNumberQueryFilterModifier.extractESRReferenceNumber("0000000105015364170001206869")).isEqualTo("0501536417000120686");
+
+		// like postgres' substr(ReferenceNo, length(ReferenceNo) - 19, 19)
+		assertThat(ESRReferenceNumberQueryFilterModifier.extractESRReferenceNumber("12345")).isEqualTo("1234");
+		assertThat(ESRReferenceNumberQueryFilterModifier.extractESRReferenceNumber("")).isEqualTo("");
+	}
+
+	@Test
+	public void retrieveESRInvoiceReferenceNumberDocuments()
+	{
+		final I_C_ReferenceNo_Doc doc1 = createInvoiceReferenceNoDoc("300000001060012345600654321", orgId);
+		final I_C_ReferenceNo_Doc doc2 = createInvoiceReferenceNoDoc("0000000105015364170001206869", OrgId.ANY);
+
+		final I_AD_Org otherOrg = newInstance(I_AD_Org.class);
+		save(otherOrg);
+		createInvoiceReferenceNoDoc("300000001060099999900654321", OrgId.ofRepoId(otherOrg.getAD_Org_ID()));
+
+		final ImmutableMap<String, I_C_ReferenceNo_Doc> docs = dao.retrieveESRInvoiceReferenceNumberDocuments(
+				orgId,
+				ImmutableList.of("0106001234560065432", "0501536417000120686", "0106009999990065432", "0000000000000000000"));
+
+		assertThat(docs).containsOnlyKeys("0106001234560065432", "0501536417000120686");
+		assertThat(docs.get("0106001234560065432").getC_ReferenceNo_Doc_ID()).isEqualTo(doc1.getC_ReferenceNo_Doc_ID());
+		assertThat(docs.get("0501536417000120686").getC_ReferenceNo_Doc_ID()).isEqualTo(doc2.getC_ReferenceNo_Doc_ID());
+
+		// same result as the single reference number version
+		for (final String esrReferenceNumber : docs.keySet())
+		{
+			assertThat(dao.retrieveESRInvoiceReferenceNumberDocument(orgId, esrReferenceNumber).getC_ReferenceNo_Doc_ID())
+					.isEqualTo(docs.get(esrReferenceNumber).getC_ReferenceNo_Doc_ID());
+		}
+		assertThat(dao.retrieveESRInvoiceReferenceNumberDocument(orgId, "0106009999990065432")).isNull();
+	}
+
+	@Test
+	public void retrieveESRInvoiceReferenceNumberDocuments_noReferenceNumbers()
+	{
+		assertThat(dao.retrieveESRInvoiceReferenceNumberDocuments(orgId, ImmutableList.of())).isEmpty();
+	}
+
+	@Test
+	public void retrieveLineTexts()
+	{
+		final I_ESR_Import esrImport = createImport();
+		createImportLine(esrImport, "  ABC def ");
+		createImportLine(esrImport, "ghi");
+		createImportLine(esrImport, null);
+
+		final I_ESR_Import otherEsrImport = createImport();
+		createImportLine(otherEsrImport, "jkl");
+
+		assertThat(dao.retrieveLineTexts(esrImport)).containsExactlyInAnyOrder("abc def", "ghi");
+	}
+
+	private I_C_ReferenceNo_Doc createInvoiceReferenceNoDoc(final String referenceNoStr, final OrgId orgId)
+	{
+		final I_C_Invoice invoice = newInstance(I_C_Invoice.class);
+		invoice.setAD_Org_ID(orgId.getRepoId());
+		save(invoice);
+
+		final I_C_ReferenceNo referenceNo = newInstance(I_C_ReferenceNo.class);
+		referenceNo.setReferenceNo(referenceNoStr);
+		referenceNo.setC_ReferenceNo_Type(refNoType);
+		referenceNo.setIsManual(true);
+		referenceNo.setAD_Org_ID(orgId.getRepoId());
+		save(referenceNo);
+
+		final I_C_ReferenceNo_Doc referenceNoDoc = newInstance(I_C_ReferenceNo_Doc.class);
+		referenceNoDoc.setAD_Table_ID(getTableId(I_C_Invoice.class));
+		referenceNoDoc.setRecord_ID(invoice.getC_Invoice_ID());
+		referenceNoDoc.setC_ReferenceNo(referenceNo);
+		save(referenceNoDoc);
+
+		return referenceNoDoc;
+	}
+
+	private void createImportLine(final I_ESR_Import esrImport, final String esrLineText)
+	{
+		final I_ESR_ImportLine importLine = newInstance(I_ESR_ImportLine.class);
+		importLine.setESR_Import_ID(esrImport.getESR_Import_ID());
+		importLine.setESRLineText(esrLineText);
+		save(importLine);
+	}
+}
@@ -0,0 +1,146 @@
+package de.metas.payment.esr.dataimporter;
+
+import static org.adempiere.model.InterfaceWrapperHelper.getTableId;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.compiere.model.I_AD_Org;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.adempiere.model.I_C_Invoice;
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.document.refid.model.I_C_ReferenceNo_Type;
+import de.metas.organization.OrgId;
+import de.metas.payment.esr.ESRConstants;
+import de.metas.payment.esr.ESRTestBase;
+import de.metas.payment.esr.model.I_ESR_Import;
+import de.metas.payment.esr.model.I_ESR_ImportLine;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ESRInvoiceReferenceNumberDocumentsTest extends ESRTestBase
+{
+	private I_C_ReferenceNo_Type refNoType;
+
+	@Override
+	protected void init()
+	{
+		refNoType = newInstance(I_C_ReferenceNo_Type.class);
+		refNoType.setName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+		save(refNoType);
+	}
+
+	@Test
+	public void extractESRReferenceNumberToMatchOrNull()
+	{
+		assertThat(ESRInvoiceReferenceNumberDocuments.extractESRReferenceNumberToMatchOrNull("300000001060012345600654321")).isEqualTo("0106001234560065432");
+		assertThat(ESRInvoiceReferenceNumberDocuments.extractESRReferenceNumberToMatchOrNull("   ")).isNull();
+		assertThat(ESRInvoiceReferenceNumberDocuments.extractESRReferenceNumberToMatchOrNull(null)).isNull();
+	}
+
+	@Test
+	public void prefetch_sameAsNotPrefetched()
+	{
+		final OrgId orgId = OrgId.ofRepoId(getAD_Org().getAD_Org_ID());
+		final I_C_Invoice invoice1 = createInvoiceWithReferenceNo("300000001060012345600654321", orgId);
+		final I_C_Invoice invoice2 = createInvoiceWithReferenceNo("000000010501536417000120686", orgId);
+
+		final I_ESR_Import esrImport = createImport();
+		final I_ESR_ImportLine line1 = createImportLine(esrImport, "300000001060012345600654321", orgId);
+		final I_ESR_ImportLine line2 = createImportLine(esrImport, "000000010501536417000120686", orgId);
+		final I_ESR_ImportLine lineWithoutDocument = createImportLine(esrImport, "300000001060099999900654321", orgId);
+		final I_ESR_ImportLine lineWithoutReferenceNo = createImportLine(esrImport, null, orgId);
+
+		final ESRInvoiceReferenceNumberDocuments prefetched = ESRInvoiceReferenceNumberDocuments.prefetch(
+				ImmutableList.of(line1, line2, lineWithoutDocument, lineWithoutReferenceNo));
+
+		final I_C_ReferenceNo_Doc doc1 = prefetched.getDocument(orgId, "0106001234560065432");
+		assertThat(doc1.getRecord_ID()).isEqualTo(invoice1.getC_Invoice_ID());
+		assertThat(doc1.getC_ReferenceNo_Doc_ID()).isEqualTo(ESRInvoiceReferenceNumberDocuments.NOT_PREFETCHED.getDocument(orgId, "0106001234560065432").getC_ReferenceNo_Doc_ID());
+
+		final I_C_ReferenceNo_Doc doc2 = prefetched.getDocument(orgId, "1050153641700012068");
+		assertThat(doc2.getRecord_ID()).isEqualTo(invoice2.getC_Invoice_ID());
+		assertThat(doc2.getC_ReferenceNo_Doc_ID()).isEqualTo(ESRInvoiceReferenceNumberDocuments.NOT_PREFETCHED.getDocument(orgId, "1050153641700012068").getC_ReferenceNo_Doc_ID());
+
+		assertThat(prefetched.getDocument(orgId, "0106009999990065432")).isNull();
+		assertThat(ESRInvoiceReferenceNumberDocuments.NOT_PREFETCHED.getDocument(orgId, "0106009999990065432")).isNull();
+
+		assertThat(prefetched.getInvoice(invoice1.getC_Invoice_ID()).getC_Invoice_ID()).isEqualTo(invoice1.getC_Invoice_ID());
+		assertThat(prefetched.getInvoice(invoice2.getC_Invoice_ID()).getC_Invoice_ID()).isEqualTo(invoice2.getC_Invoice_ID());
+	}
+
+	@Test
+	public void prefetch_otherOrg()
+	{
+		final OrgId orgId = OrgId.ofRepoId(getAD_Org().getAD_Org_ID());
+		createInvoiceWithReferenceNo("300000001060012345600654321", orgId);
+
+		final I_AD_Org otherOrg = newInstance(I_AD_Org.class);
+		save(otherOrg);
+		final OrgId otherOrgId = OrgId.ofRepoId(otherOrg.getAD_Org_ID());
+
+		final I_ESR_Import esrImport = createImport();
+		final I_ESR_ImportLine line = createImportLine(esrImport, "300000001060012345600654321", otherOrgId);
+
+		final ESRInvoiceReferenceNumberDocuments prefetched = ESRInvoiceReferenceNumberDocuments.prefetch(ImmutableList.of(line));
+
+		assertThat(prefetched.getDocument(otherOrgId, "0106001234560065432")).isNull();
+		assertThat(prefetched.getDocument(orgId, "0106001234560065432")).as("nothing was prefetched for this org").isNull();
+	}
+
+	private I_C_Invoice createInvoiceWithReferenceNo(final String referenceNoStr, final OrgId orgId)
+	{
+		final I_C_Invoice invoice = newInstance(I_C_Invoice.class);
+		invoice.setAD_Org_ID(orgId.getRepoId());
+		save(invoice);
+
+		final I_C_ReferenceNo referenceNo = newInstance(I_C_ReferenceNo.class);
+		referenceNo.setReferenceNo(referenceNoStr);
+		referenceNo.setC_ReferenceNo_Type(refNoType);
+		referenceNo.setIsManual(true);
+		referenceNo.setAD_Org_ID(orgId.getRepoId());
+		save(referenceNo);
+
+		final I_C_ReferenceNo_Doc referenceNoDoc = newInstance(I_C_ReferenceNo_Doc.class);
+		referenceNoDoc.setAD_Table_ID(getTableId(I_C_Invoice.class));
+		referenceNoDoc.setRecord_ID(invoice.getC_Invoice_ID());
+		referenceNoDoc.setC_ReferenceNo(referenceNo);
+		save(referenceNoDoc);
+
+		return invoice;
+	}
+
+	private I_ESR_ImportLine createImportLine(final I_ESR_Import esrImport, final String esrFullReferenceNumber, final OrgId orgId)
+	{
+		final I_ESR_ImportLine importLine = newInstance(I_ESR_ImportLine.class);
+		importLine.setESR_Import_ID(esrImport.getESR_Import_ID());
+		importLine.setAD_Org_ID(orgId.getRepoId());
+		importLine.setESRFullReferenceNumber(esrFullReferenceNumber);
+		save(importLine);
+		return importLine;
+	}
+}
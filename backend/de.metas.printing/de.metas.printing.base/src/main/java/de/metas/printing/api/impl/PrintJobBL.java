@@ -39,10 +39,12 @@ import de.metas.printing.api.IPrintingQueueBL;
 import de.metas.user.UserId;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.archive.api.IArchiveBL;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.model.PlainContextAware;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.Mutable;
+import org.compiere.model.I_AD_Archive;
 import org.compiere.util.TrxRunnable;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
@@ -95,6 +97,12 @@ public class PrintJobBL implements IPrintJobBL
 
 	public final static String SYSCONFIG_MAX_LINES_PER_JOB = Printing_Constants.SYSCONFIG_Printing_PREFIX + "MaxLinesPerJob";
 
+	/**
+	 * Upper bound for the summed up archive sizes of one print job, so that the print packages (which are assembled per job) don't grow without limit. Zero or less means "no limit".
+	 */
+	public final static String SYSCONFIG_MAX_ARCHIVE_BYTES_PER_JOB = Printing_Constants.SYSCONFIG_Printing_PREFIX + "MaxArchiveBytesPerJob";
+	public final static long DEFAULT_MAX_ARCHIVE_BYTES_PER_JOB = 100 * 1024 * 1024;
+
 	private final static transient Logger logger = LogManager.getLogger(PrintJobBL.class);
 
 	private final IPrinterRoutingDAO printerRoutingDAO = Services.get(IPrinterRoutingDAO.class);
@@ -103,6 +111,7 @@ public class PrintJobBL implements IPrintJobBL
 	private final IPrinterBL printerBL = Services.get(IPrinterBL.class);
 	private final IPrintingQueueBL printingQueueBL = Services.get(IPrintingQueueBL.class);
 	private final IPrintClientsBL printClientsBL = Services.get(IPrintClientsBL.class);
+	private final IArchiveBL archiveBL = Services.get(IArchiveBL.class);
 
 	private int maxLinesPerJob = -1;
 
@@ -349,6 +358,7 @@ public class PrintJobBL implements IPrintJobBL
 	{
 		I_C_Print_Job printJob = null;
 		int lineCount = 0;
+		long archiveBytes = 0;
 		I_C_Print_Job_Line firstLine = null;
 		I_C_Print_Job_Line lastLine = null;
 		int lastItemCopies = -1; // -1 means "not yet set"
@@ -383,6 +393,18 @@ public class PrintJobBL implements IPrintJobBL
 					break;
 				}
 
+				final long maxArchiveBytesPerJob = getMaxArchiveBytesPerJob(printJob);
+				if (maxArchiveBytesPerJob > 0)
+				{
+					final long itemArchiveBytes = getArchiveBytes(item);
+					if (lineCount > 0 && archiveBytes + itemArchiveBytes > maxArchiveBytesPerJob)
+					{
+						logger.info("Max archive bytes per print job = {} reached with {} lines and {} bytes; not adding further items", maxArchiveBytesPerJob, lineCount, archiveBytes);
+						break;
+					}
+					archiveBytes += itemArchiveBytes;
+				}
+
 				lastLine = createPrintJobLine(source, printJob, item, lineCount + 1);
 				lineCount++;
 				lastItemCopies = item.getCopies();
@@ -443,6 +465,33 @@ public class PrintJobBL implements IPrintJobBL
 		return maxLinesPerJobToUse;
 	}
 
+	private long getMaxArchiveBytesPerJob(final I_C_Print_Job printJob)
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MAX_ARCHIVE_BYTES_PER_JOB,
+				(int)DEFAULT_MAX_ARCHIVE_BYTES_PER_JOB,
+				printJob.getAD_Client_ID(),
+				printJob.getAD_Org_ID());
+	}
+
+	private long getArchiveBytes(final I_C_Printing_Queue item)
+	{
+		final I_AD_Archive archive = item.getAD_Archive_ID() > 0 ? item.getAD_Archive() : null;
+		if (archive == null)
+		{
+			return 0;
+		}
+		try
+		{
+			return Math.max(archiveBL.getBinaryDataSize(archive), 0);
+		}
+		catch (final RuntimeException e)
+		{
+			// the size is only used to cut the print jobs; a broken archive shall fail later, when its data is actually needed
+			logger.warn("Failed getting the data size of {}; assuming 0", archive, e);
+			return 0;
+		}
+	}
+
 	private I_C_Print_Job_Line createPrintJobLine(final IPrintingQueueSource source,
 			final I_C_Print_Job printJob,
 			final I_C_Printing_Queue item,
@@ -1,5 +1,7 @@
 package de.metas.printing.api.impl;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.io.FileBackedOutputStream;
 import de.metas.logging.LogManager;
 import de.metas.printing.api.IPrintJobLinesAggregator;
 import de.metas.printing.api.IPrintPackageCtx;
@@ -34,7 +36,7 @@ import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import javax.print.attribute.standard.MediaSize;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
@@ -43,6 +45,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /*
  * #%L
@@ -70,6 +73,8 @@ public class PrintJobLinesAggregator implements IPrintJobLinesAggregator
 {
 	public static final String DEFAULT_BinaryFormat = "application/pdf";
 
+	private static final int PDF_IN_MEMORY_THRESHOLD_BYTES = 1024 * 1024;
+
 	// Services
 	private static final transient Logger logger = LogManager.getLogger(PrintJobLinesAggregator.class);
 	private final transient IPrintingDAO dao = Services.get(IPrintingDAO.class);
@@ -176,17 +181,36 @@ public class PrintJobLinesAggregator implements IPrintJobLinesAggregator
 	@Override
 	public I_C_Print_Package createPrintPackage()
 	{
-		final ByteArrayOutputStream pdfBuf = new ByteArrayOutputStream();
-		final int pages = createPDFData(pdfBuf);
-		if (pages <= 0)
+		final byte[] data;
+		final int pages;
+
+		// the PDF is assembled in a temporary file once it exceeds the threshold, to avoid the growing (and copying) of an in-memory buffer
+		final FileBackedOutputStream pdfBuf = new FileBackedOutputStream(PDF_IN_MEMORY_THRESHOLD_BYTES);
+		try
 		{
-			throw new AdempiereException("No PDF pages found. No package created."); // TRL
-		}
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			pages = createPDFData(pdfBuf);
+			if (pages <= 0)
+			{
+				throw new AdempiereException("No PDF pages found. No package created."); // TRL
+			}
 
-		final byte[] data = pdfBuf.toByteArray();
-		if (data.length == 0)
+			data = pdfBuf.asByteSource().read();
+			if (data.length == 0)
+			{
+				throw new AdempiereException("No PDF data found. No package created."); // TRL
+			}
+
+			final long elapsedMillis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+			logger.info("Created PDF data for {}: {} pages, {} bytes in {}ms ({} pages/sec)", printJob, pages, data.length, elapsedMillis, pages * 1000L / elapsedMillis);
+		}
+		catch (final IOException e)
 		{
-			throw new AdempiereException("No PDF data found. No package created."); // TRL
+			throw new AdempiereException("Failed reading the PDF data for " + printJob, e);
+		}
+		finally
+		{
+			resetQuietly(pdfBuf);
 		}
 
 		final I_C_Print_Package printPackage = printPackageToUse == null ? InterfaceWrapperHelper.create(ctx, I_C_Print_Package.class, trxName) : printPackageToUse;
@@ -228,6 +252,18 @@ public class PrintJobLinesAggregator implements IPrintJobLinesAggregator
 		return printPackage;
 	}
 
+	private static void resetQuietly(final FileBackedOutputStream pdfBuf)
+	{
+		try
+		{
+			pdfBuf.reset(); // deletes the temporary file, if any
+		}
+		catch (final IOException e)
+		{
+			logger.warn("Failed deleting the temporary PDF file. Ignored.", e);
+		}
+	}
+
 	private void updatePrintJobLines(final I_C_Print_PackageInfo printPackageInfo, final I_C_Print_Package printPackage)
 	{
 		final List<PrintItemPart> archiveParts = mapArchiveParts.get(printPackageInfo);
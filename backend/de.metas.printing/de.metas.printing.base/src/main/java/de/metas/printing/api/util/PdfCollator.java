@@ -24,6 +24,7 @@ package de.metas.printing.api.util;
 
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -36,15 +37,23 @@ import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.BadPdfFormatException;
 import com.lowagie.text.pdf.PdfCopy;
 import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
 
 import de.metas.util.Check;
 
+/**
+ * Concatenates (ranges of) PDF pages into one PDF which is written to the given output stream.
+ * <p>
+ * The sources are opened in iText's partial mode, i.e. their objects are read on demand and released after each source,
+ * so the memory which is needed does not grow with the number of sources. Use {@link #addPages(File, int, int)} to also avoid loading a source's bytes into memory.
+ */
 public class PdfCollator
 {
 	private final OutputStream out;
 	private PdfCopy pdfCopy = null;
 	private Document pdfDocument = null;
 	private boolean closed = false;
+	private int pagesAdded = 0;
 
 	public PdfCollator()
 	{
@@ -98,17 +107,50 @@ public class PdfCollator
 
 	public PdfCollator addPages(final byte[] pdfData, final int pageFrom, final int pageTo)
 	{
-		final PdfReader reader;
+		final PdfReader reader = createPartialReader(new RandomAccessFileOrArray(pdfData));
+		return addPages(reader, pageFrom, pageTo);
+	}
+
+	/**
+	 * Adds the given file's pages, reading them straight from the file.
+	 */
+	public PdfCollator addPages(@NonNull final File pdfFile, final int pageFrom, final int pageTo)
+	{
+		final PdfReader reader = createPartialReader(pdfFile);
+		return addPages(reader, pageFrom, pageTo);
+	}
+
+	public PdfCollator addAllPages(@NonNull final File pdfFile)
+	{
+		final PdfReader reader = createPartialReader(pdfFile);
+		return addPages(reader, 1, reader.getNumberOfPages());
+	}
+
+	private static PdfReader createPartialReader(final File pdfFile)
+	{
 		try
 		{
-			reader = new PdfReader(pdfData);
+			return createPartialReader(new RandomAccessFileOrArray(pdfFile.getAbsolutePath(), false, true));
 		}
 		catch (final IOException e)
 		{
-			throw new AdempiereException(e);
+			throw new AdempiereException("Failed opening " + pdfFile, e);
 		}
+	}
 
-		return addPages(reader, pageFrom, pageTo);
+	/**
+	 * @return a reader which parses the PDF objects only when they are needed (instead of all of them up-front).
+	 */
+	public static PdfReader createPartialReader(final RandomAccessFileOrArray pdfData)
+	{
+		try
+		{
+			return new PdfReader(pdfData, null);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException(e);
+		}
 	}
 
 	private PdfCollator addPages(final PdfReader reader, final int pageFrom, final int pageTo)
@@ -123,6 +165,7 @@ public class PdfCollator
 			try
 			{
 				copy.addPage(copy.getImportedPage(reader, page));
+				pagesAdded++;
 			}
 			catch (final BadPdfFormatException e)
 			{
@@ -149,6 +192,14 @@ public class PdfCollator
 		return this;
 	}
 
+	/**
+	 * @return number of pages which were added so far
+	 */
+	public int getPagesAdded()
+	{
+		return pagesAdded;
+	}
+
 	public PdfCollator close()
 	{
 		if (closed)
@@ -27,7 +27,9 @@ import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.BadPdfFormatException;
 import com.lowagie.text.pdf.PdfCopy;
 import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
 import de.metas.logging.LogManager;
+import de.metas.printing.api.util.PdfCollator;
 import de.metas.printing.exception.PrintingQueueAggregationException;
 import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
@@ -79,7 +81,8 @@ public class PrintingDataToPDFWriter implements IAutoCloseable
 		}
 		logger.debug("Adding data={}; segment={}", data, segment);
 
-		final PdfReader reader = new PdfReader(data.getData());
+		// partial mode: the page objects are parsed only when they are copied
+		final PdfReader reader = PdfCollator.createPartialReader(new RandomAccessFileOrArray(data.getData()));
 
 		final int archivePageNums = reader.getNumberOfPages();
 
@@ -23,11 +23,14 @@ package de.metas.printing.process;
  */
 
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Iterator;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.archive.api.IArchiveBL;
@@ -36,12 +39,10 @@ import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.util.Env;
 
-import com.lowagie.text.Document;
-import com.lowagie.text.DocumentException;
-import com.lowagie.text.pdf.PdfCopy;
-import com.lowagie.text.pdf.PdfReader;
+import com.google.common.base.Stopwatch;
 
 import de.metas.printing.api.IPrintingDAO;
+import de.metas.printing.api.util.PdfCollator;
 import de.metas.printing.model.I_C_Print_Job;
 import de.metas.printing.model.I_C_Print_Job_Line;
 import de.metas.printing.model.I_C_Printing_Queue;
@@ -69,7 +70,7 @@ public class ConcatenatePdfs extends JavaProcess
 	}
 
 	@Override
-	protected String doIt() throws IOException, DocumentException
+	protected String doIt() throws IOException
 	{
 		final Properties ctx = Env.getCtx();
 		final String trxName = ITrx.TRXNAME_None;
@@ -96,36 +97,44 @@ public class ConcatenatePdfs extends JavaProcess
 			file = new File(outputDir, fileName + ".pdf");
 		}
 
-		final Document document = new Document();
+		final IArchiveBL archiveBL = Services.get(IArchiveBL.class);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 
-		final FileOutputStream fos = new FileOutputStream(file, false);
-		final PdfCopy copy = new PdfCopy(document, fos);
-
-		document.open();
-
-		for (final I_C_Print_Job_Line jobLine : IteratorUtils.asIterable(jobLines))
+		// each archive is copied to a temporary file and read from there (on demand), so neither the sources nor the result are held in memory
+		final File archiveFile = File.createTempFile("printjob_line", ".pdf");
+		final PdfCollator collator;
+		try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(file, false)))
 		{
-			final I_C_Printing_Queue queue = jobLine.getC_Printing_Queue();
-			Check.assume(queue != null, jobLine + " references a C_Printing_Queue");
-
-			final I_AD_Archive archive = queue.getAD_Archive();
-			Check.assume(archive != null, queue + " references an AD_Archive record");
+			collator = new PdfCollator(out);
+			for (final I_C_Print_Job_Line jobLine : IteratorUtils.asIterable(jobLines))
+			{
+				final I_C_Printing_Queue queue = jobLine.getC_Printing_Queue();
+				Check.assume(queue != null, jobLine + " references a C_Printing_Queue");
 
-			final byte[] data = Services.get(IArchiveBL.class).getBinaryData(archive);
-			final PdfReader reader = new PdfReader(data);
+				final I_AD_Archive archive = queue.getAD_Archive();
+				Check.assume(archive != null, queue + " references an AD_Archive record");
 
-			for (int page = 0; page < reader.getNumberOfPages();)
+				try (final OutputStream archiveOut = new BufferedOutputStream(new FileOutputStream(archiveFile, false)))
+				{
+					archiveBL.writeBinaryDataTo(archive, archiveOut);
+				}
+				collator.addAllPages(archiveFile);
+			}
+			collator.close();
+		}
+		finally
+		{
+			if (!archiveFile.delete())
 			{
-				copy.addPage(copy.getImportedPage(reader, ++page));
+				archiveFile.deleteOnExit();
 			}
-			copy.freeReader(reader);
-			reader.close();
 		}
-		document.close();
-		fos.close();
-		outputFile = new File(outputDir);
+		outputFile = file;
+
+		final long elapsedMillis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		addLog("Collated {} pages in {}ms ({} pages/sec)", collator.getPagesAdded(), elapsedMillis, collator.getPagesAdded() * 1000L / elapsedMillis);
 
-		return "@Created@ " + fileName + ".pdf" + " in " + outputDir;
+		return "@Created@ " + fileName + ".pdf" + " in " + file.getParent();
 	}
 
 	public File getOutputFile()
@@ -29,12 +29,15 @@ import static org.junit.Assert.assertThat;
 import java.util.List;
 
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.apache.commons.collections4.IteratorUtils;
 import org.assertj.core.api.Assertions;
 import org.compiere.model.I_AD_SysConfig;
 import org.junit.Before;
 import org.junit.Test;
 
+import de.metas.organization.OrgId;
 import de.metas.printing.api.IPrintingDAO;
 import de.metas.printing.model.I_AD_PrinterRouting;
 import de.metas.printing.model.I_C_Print_Job;
@@ -145,4 +148,37 @@ public class PrintJobBLTest extends AbstractPrintingTest
 		Assertions.assertThat(printJobs).as("Invalid Print Jobs count").hasSize(3);
 	}
 
+	/**
+	 * document01..03.pdf have about 26KB each, document04..05.pdf have about 23KB each.
+	 */
+	@Test
+	public void test_Splitting_byArchiveBytes()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(PrintJobBL.SYSCONFIG_MAX_LINES_PER_JOB, 100, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(PrintJobBL.SYSCONFIG_MAX_ARCHIVE_BYTES_PER_JOB, 60000, ClientId.SYSTEM, OrgId.ANY);
+
+		final int c_DocType_ID = 12;
+		final I_AD_PrinterRouting routing11 = helper.createPrinterRouting("printer01", "tray01", 10, c_DocType_ID, -1, -1);
+		routing11.setAD_Org_ID(1);
+		InterfaceWrapperHelper.save(routing11);
+
+		helper.addToPrintQueue("01", 1, c_DocType_ID);
+		helper.addToPrintQueue("02", 1, c_DocType_ID);
+		helper.addToPrintQueue("03", 1, c_DocType_ID);
+		helper.addToPrintQueue("04", 1, c_DocType_ID);
+		helper.addToPrintQueue("05", 1, c_DocType_ID);
+
+		// when
+		helper.createAllPrintJobs();
+
+		// then
+		// 01+02 (~52KB), 03+04 (~49KB), 05 (~23KB); adding the next document would exceed 60000 bytes
+		final List<I_C_Print_Job> printJobs = helper.getDB().getRecords(I_C_Print_Job.class);
+		Assertions.assertThat(printJobs).as("Invalid Print Jobs count").hasSize(3);
+		Assertions.assertThat(printJobs)
+				.extracting(this::getPrintJobLinesCount)
+				.containsExactly(2, 2, 1);
+	}
+
 }
@@ -43,6 +43,7 @@ public final class ReportConstants
 	// 03337: Actions for the reports management
 	public static final String MGTSERVLET_PARAM_Action = "action";
 	public static final String MGTSERVLET_ACTION_CacheReset = "cacheReset";
+	public static final String MGTSERVLET_ACTION_CacheWarmUp = "cacheWarmUp";
 
 	/**
 	 * Specifies an alternative SQL query to be used by the report.
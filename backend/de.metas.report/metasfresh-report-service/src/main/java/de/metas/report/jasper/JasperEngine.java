@@ -37,6 +37,9 @@ import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
 import org.compiere.SpringContextHolder;
@@ -51,10 +54,12 @@ import com.google.common.collect.ImmutableSet;
 
 import de.metas.i18n.Language;
 import de.metas.logging.LogManager;
+import de.metas.organization.OrgId;
 import de.metas.process.AdProcessId;
 import de.metas.process.IADProcessDAO;
 import de.metas.process.PInstanceId;
 import de.metas.process.ProcessInfoParameter;
+import de.metas.report.jasper.JasperReportsCache.CachedJasperReport;
 import de.metas.report.server.AbstractReportEngine;
 import de.metas.report.server.OutputType;
 import de.metas.report.server.ReportConstants;
@@ -74,7 +79,6 @@ import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.export.JRXlsAbstractExporterParameter;
 import net.sf.jasperreports.engine.query.JsonQLQueryExecuterFactory;
-import net.sf.jasperreports.engine.util.JRLoader;
 import net.sf.jasperreports.export.XlsReportConfiguration;
 
 public class JasperEngine extends AbstractReportEngine
@@ -92,6 +96,9 @@ public class JasperEngine extends AbstractReportEngine
 
 	private static final String JRPROPERTY_ReportPath = JasperEngine.class.getName() + ".ReportPath";
 
+	/** Report path prefix which indicates that the report shall be loaded using an ordinary class loader */
+	private static final String RESOURCE_PREFIX = "resource:";
+
 	/**
 	 * Desired output type.
 	 *
@@ -118,6 +125,51 @@ public class JasperEngine extends AbstractReportEngine
 
 	}
 
+	/**
+	 * Loads the main reports of all active jasper processes into {@link JasperReportsCache}, so that the first report requests don't have to.
+	 *
+	 * @return how many reports were loaded
+	 */
+	public int warmUpCache()
+	{
+		final ClassLoader jasperLoader = createReportClassLoader(OrgId.ANY);
+
+		final List<I_AD_Process> processes = Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_AD_Process.class)
+				.addOnlyActiveRecordsFilter()
+				.addNotNull(I_AD_Process.COLUMNNAME_JasperReport)
+				.create()
+				.listImmutable(I_AD_Process.class);
+
+		int count = 0;
+		for (final I_AD_Process process : processes)
+		{
+			for (final String reportPath : new String[] { process.getJasperReport(), process.getJasperReport_Tabular() })
+			{
+				if (Check.isEmpty(reportPath, true)
+						|| !REPORT_FILE_EXTENSIONS.contains(FileUtil.getFileExtension(reportPath)))
+				{
+					continue;
+				}
+
+				try
+				{
+					if (getCachedJasperReport(reportPath, jasperLoader) != null)
+					{
+						count++;
+					}
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed warming up the cache for {} ({}). Skipped.", reportPath, process, ex);
+				}
+			}
+		}
+
+		logger.info("Warmed up the jasper reports cache with {} reports", count);
+		return count;
+	}
+
 	/**
 	 * Retrieves the server's direct database connection.
 	 *
@@ -192,32 +244,28 @@ public class JasperEngine extends AbstractReportEngine
 			final ClassLoader jasperLoader) throws JRException
 	{
 		final String reportPath = getReportPath(adProcessId, jrParameters);
-		final InputStream jasperInputStream;
-		if (reportPath.startsWith("resource:"))
+		if (reportPath.startsWith(RESOURCE_PREFIX))
 		{
 			// load the jasper file(s) using an ordinary class loader.
-			final String name = reportPath.substring("resource:".length()).trim();
 			logger.debug("reportPath = {}", reportPath);
-			// logger.debug("getting resource from = {}", jasperLoader.getResource(name));
-
-			jasperInputStream = jasperLoader.getResourceAsStream(name);
 		}
 		else
 		{
-			jasperInputStream = jasperLoader.getResourceAsStream(reportPath);
 			jrParameters.put(JRParameter.REPORT_CLASS_LOADER, jasperLoader);
 		}
 
-		// Make sure the jasper input stream is not null
-		if (jasperInputStream == null)
+		//
+		// Load the jasper report (or get it from cache)
+		final CachedJasperReport cachedReport = getCachedJasperReport(reportPath, jasperLoader);
+
+		// Make sure the jasper report was found
+		if (cachedReport == null)
 		{
 			// TODO ->A AD_Message
 			throw new AdempiereException("Berichtsdatei '" + reportPath + "' konnte nicht geöffnet werden");
 		}
 
-		//
-		// Load the jasper report from stream
-		final JasperReport jasperReport = (JasperReport)JRLoader.loadObject(jasperInputStream);
+		final JasperReport jasperReport = cachedReport.getJasperReport();
 
 		//
 		// Load report's resource bundles, if any.
@@ -229,11 +277,22 @@ public class JasperEngine extends AbstractReportEngine
 			loadJasperReportResourceBundle(resourceBundleName, jrParameters, jasperLoader);
 		}
 
-		jasperReport.setProperty(JRPROPERTY_ReportPath, reportPath);
-
 		return jasperReport;
 	}
 
+	@Nullable
+	private static CachedJasperReport getCachedJasperReport(final String reportPath, final ClassLoader jasperLoader) throws JRException
+	{
+		final String resourceName = reportPath.startsWith(RESOURCE_PREFIX)
+				? reportPath.substring(RESOURCE_PREFIX.length()).trim()
+				: reportPath;
+
+		return JasperReportsCache.getInstance().getOrLoad(
+				resourceName,
+				jasperLoader,
+				loadedReport -> loadedReport.setProperty(JRPROPERTY_ReportPath, reportPath));
+	}
+
 	private final Map<String, Object> createJRParameters(final ReportContext reportContext) throws JRException
 	{
 		final Properties ctx = reportContext.getCtx();
@@ -0,0 +1,294 @@
+package de.metas.report.jasper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+
+import de.metas.cache.CCache;
+import de.metas.logging.LogManager;
+import de.metas.util.FileUtil;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/*
+ * #%L
+ * de.metas.report.jasper.server.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Cache of loaded {@link JasperReport}s, keyed by the resolved resource URL.
+ * <p>
+ * A cached report is revalidated at most every {@value #DEFAULT_RevalidateIntervalMillis}ms (configurable):
+ * first by the resource's last modified timestamp and, if that is not available or changed, by the checksum of its content.
+ * The report is deserialized again only if its content really changed.
+ */
+public final class JasperReportsCache
+{
+	private static final Logger logger = LogManager.getLogger(JasperReportsCache.class);
+
+	private static final String SYSCONFIG_MaxSize = "de.metas.report.jasper.JasperReportsCache.maxSize";
+	private static final int DEFAULT_MaxSize = 500;
+	private static final String SYSCONFIG_RevalidateIntervalMillis = "de.metas.report.jasper.JasperReportsCache.revalidateIntervalMillis";
+	private static final int DEFAULT_RevalidateIntervalMillis = 60 * 1000;
+
+	private static final Supplier<JasperReportsCache> instance = Suppliers.memoize(() -> new JasperReportsCache(
+			Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxSize, DEFAULT_MaxSize),
+			() -> Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_RevalidateIntervalMillis, DEFAULT_RevalidateIntervalMillis)));
+
+	public static JasperReportsCache getInstance()
+	{
+		return instance.get();
+	}
+
+	private final CCache<String, CachedJasperReport> reportsByUrl;
+	private final IntSupplier revalidateIntervalMillisSupplier;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder notCacheable = new LongAdder();
+
+	@VisibleForTesting
+	JasperReportsCache(final int maxSize, @NonNull final IntSupplier revalidateIntervalMillisSupplier)
+	{
+		this.reportsByUrl = CCache.newLRUCache(JasperReportsCache.class.getSimpleName() + "#by#URL", maxSize, 0);
+		this.revalidateIntervalMillisSupplier = revalidateIntervalMillisSupplier;
+	}
+
+	/**
+	 * @param resourceName report resource name, as understood by given <code>jasperLoader</code>
+	 * @param afterLoad called once, right after the report was deserialized and before it is shared
+	 * @return report or <code>null</code> if the resource was not found
+	 */
+	@Nullable
+	public CachedJasperReport getOrLoad(
+			@NonNull final String resourceName,
+			@NonNull final ClassLoader jasperLoader,
+			@NonNull final Consumer<JasperReport> afterLoad) throws JRException
+	{
+		final URL url = jasperLoader.getResource(resourceName);
+		if (url == null)
+		{
+			// we don't know where the report comes from, so we can't cache it
+			notCacheable.increment();
+			final byte[] data = readBytesOrNull(resourceName, jasperLoader);
+			return data != null ? load(null, data, -1, afterLoad) : null;
+		}
+
+		final String key = url.toString();
+		final CachedJasperReport cachedReport = reportsByUrl.get(key);
+		final long now = System.currentTimeMillis();
+		if (cachedReport != null && now - cachedReport.getCheckedMillis() < getRevalidateIntervalMillis())
+		{
+			hits.increment();
+			return cachedReport;
+		}
+
+		//
+		// Revalidate by timestamp
+		final long lastModified = getLastModified(url);
+		if (cachedReport != null && lastModified > 0 && lastModified == cachedReport.getLastModified())
+		{
+			revalidations.increment();
+			return putAndReturn(key, cachedReport.withCheckedMillis(now));
+		}
+
+		//
+		// Revalidate by checksum
+		final byte[] data = readBytesOrNull(resourceName, jasperLoader);
+		if (data == null)
+		{
+			reportsByUrl.remove(key);
+			return null;
+		}
+
+		final byte[] checksum = checksum(data);
+		if (cachedReport != null && Arrays.equals(checksum, cachedReport.getChecksum()))
+		{
+			revalidations.increment();
+			return putAndReturn(key, cachedReport.toBuilder()
+					.lastModified(lastModified)
+					.checkedMillis(now)
+					.build());
+		}
+
+		return putAndReturn(key, load(key, data, lastModified, afterLoad));
+	}
+
+	private CachedJasperReport putAndReturn(final String key, final CachedJasperReport cachedReport)
+	{
+		reportsByUrl.put(key, cachedReport);
+		return cachedReport;
+	}
+
+	private CachedJasperReport load(
+			@Nullable final String url,
+			@NonNull final byte[] data,
+			final long lastModified,
+			@NonNull final Consumer<JasperReport> afterLoad) throws JRException
+	{
+		loads.increment();
+		logger.debug("Loading jasper report from {}", url);
+
+		final JasperReport jasperReport = (JasperReport)JRLoader.loadObject(new ByteArrayInputStream(data));
+		afterLoad.accept(jasperReport);
+
+		return CachedJasperReport.builder()
+				.jasperReport(jasperReport)
+				.lastModified(lastModified)
+				.checksum(checksum(data))
+				.checkedMillis(System.currentTimeMillis())
+				.build();
+	}
+
+	private int getRevalidateIntervalMillis()
+	{
+		return revalidateIntervalMillisSupplier.getAsInt();
+	}
+
+	@Nullable
+	private static byte[] readBytesOrNull(final String resourceName, final ClassLoader jasperLoader)
+	{
+		try (final InputStream in = jasperLoader.getResourceAsStream(resourceName))
+		{
+			if (in == null)
+			{
+				return null;
+			}
+
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			FileUtil.copy(in, out);
+			return out.toByteArray();
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed reading jasper report " + resourceName, ex);
+		}
+	}
+
+	private static long getLastModified(@NonNull final URL url)
+	{
+		try
+		{
+			if ("file".equals(url.getProtocol()))
+			{
+				return new File(url.toURI()).lastModified();
+			}
+
+			final URLConnection connection = url.openConnection();
+			if (connection instanceof HttpURLConnection)
+			{
+				// we are only interested in the headers
+				final HttpURLConnection httpConnection = (HttpURLConnection)connection;
+				httpConnection.setRequestMethod("HEAD");
+				try
+				{
+					return httpConnection.getLastModified();
+				}
+				finally
+				{
+					httpConnection.disconnect();
+				}
+			}
+
+			return connection.getLastModified();
+		}
+		catch (final IOException | URISyntaxException | IllegalArgumentException ex)
+		{
+			logger.debug("Cannot get last modified timestamp of {}. Considering unknown.", url, ex);
+			return 0;
+		}
+	}
+
+	private static byte[] checksum(final byte[] data)
+	{
+		return Hashing.sha256().hashBytes(data).asBytes();
+	}
+
+	public void reset()
+	{
+		reportsByUrl.reset();
+	}
+
+	public Map<String, Object> getStats()
+	{
+		final long hitsCount = hits.sum() + revalidations.sum();
+		final long loadsCount = loads.sum();
+		final long requestsCount = hitsCount + loadsCount + notCacheable.sum();
+
+		return ImmutableMap.<String, Object> builder()
+				.put("size", reportsByUrl.size())
+				.put("requests", requestsCount)
+				.put("hits", hits.sum())
+				.put("hitsAfterRevalidation", revalidations.sum())
+				.put("loads", loadsCount)
+				.put("notCacheable", notCacheable.sum())
+				.put("hitRate", requestsCount > 0 ? (double)hitsCount / requestsCount : 0)
+				.build();
+	}
+
+	@Value
+	@Builder(toBuilder = true)
+	public static class CachedJasperReport
+	{
+		@NonNull
+		JasperReport jasperReport;
+
+		long lastModified;
+
+		@NonNull
+		byte[] checksum;
+
+		long checkedMillis;
+
+		private CachedJasperReport withCheckedMillis(final long checkedMillis)
+		{
+			return toBuilder().checkedMillis(checkedMillis).build();
+		}
+	}
+}
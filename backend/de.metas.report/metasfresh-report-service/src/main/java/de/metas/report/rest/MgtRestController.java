@@ -1,13 +1,20 @@
 package de.metas.report.rest;
 
+import java.util.Map;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.google.common.collect.ImmutableMap;
+
 import de.metas.Profiles;
 import de.metas.cache.CacheMgt;
+import de.metas.report.jasper.JasperEngine;
+import de.metas.report.jasper.JasperReportsCache;
+import de.metas.report.server.LocalReportServer;
 import de.metas.report.server.ReportConstants;
 
 /**
@@ -29,11 +36,26 @@ public class MgtRestController
 		if (ReportConstants.MGTSERVLET_ACTION_CacheReset.equalsIgnoreCase(action))
 		{
 			CacheMgt.get().reset();
+			JasperReportsCache.getInstance().reset();
 			return "OK";
 		}
+		else if (ReportConstants.MGTSERVLET_ACTION_CacheWarmUp.equalsIgnoreCase(action))
+		{
+			final int count = new JasperEngine().warmUpCache();
+			return "OK, " + count + " reports loaded";
+		}
 		else
 		{
 			throw new RuntimeException("Action not supported: " + action);
 		}
 	}
+
+	@GetMapping("/stats")
+	public Map<String, Object> getStats()
+	{
+		return ImmutableMap.<String, Object> builder()
+				.put("reports", LocalReportServer.getStats().toMap())
+				.put("jasperReportsCache", JasperReportsCache.getInstance().getStats())
+				.build();
+	}
 }
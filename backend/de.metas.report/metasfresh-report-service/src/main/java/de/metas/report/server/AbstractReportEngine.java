@@ -48,6 +48,11 @@ public abstract class AbstractReportEngine implements IReportEngine
 	private static final String SYSCONFIG_ReportsDirs = "reportsDirs";
 
 	protected ClassLoader createReportClassLoader(final ReportContext reportContext)
+	{
+		return createReportClassLoader(reportContext.getOrgId());
+	}
+
+	protected ClassLoader createReportClassLoader(final OrgId adOrgId)
 	{
 		final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 
@@ -66,7 +71,6 @@ public abstract class AbstractReportEngine implements IReportEngine
 			parentClassLoader = contextClassLoader;
 		}
 
-		final OrgId adOrgId = reportContext.getOrgId();
 		final JasperClassLoader jasperLoader = new JasperClassLoader(adOrgId, parentClassLoader);
 		logger.debug("Created jasper loader: {}", jasperLoader);
 		return jasperLoader;
@@ -1,13 +1,16 @@
 package de.metas.report.server;
 
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.io.Files;
 
 import de.metas.logging.LogManager;
@@ -23,8 +26,56 @@ public class LocalReportServer implements IReportServer
 {
 	private static final Logger logger = LogManager.getLogger(LocalReportServer.class);
 
+	private static final String SYSCONFIG_MaxParallelReports = "de.metas.report.server.LocalReportServer.maxParallelReports";
+	private static final String SYSCONFIG_MaxWaitMillis = "de.metas.report.server.LocalReportServer.maxWaitMillis";
+	private static final int DEFAULT_MaxWaitMillis = 5 * 60 * 1000;
+
+	private static final ReportPermits reportPermits = new ReportPermits(() -> Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxParallelReports, Runtime.getRuntime().availableProcessors()));
+
+	private static final ReportServerStats stats = new ReportServerStats();
+
+	public static ReportServerStats getStats()
+	{
+		return stats;
+	}
+
 	@Override
 	public ReportResult report(int processId, int pinstanceRepoId, final String adLanguage, final OutputType outputType)
+	{
+		acquireReportPermit();
+		try
+		{
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+			final ReportResult result = report0(processId, pinstanceRepoId, adLanguage, outputType);
+			stats.recordCompleted(stopwatch.stop().elapsed(TimeUnit.MILLISECONDS));
+			return result;
+		}
+		catch (final RuntimeException ex)
+		{
+			stats.recordFailed();
+			throw ex;
+		}
+		finally
+		{
+			reportPermits.release();
+		}
+	}
+
+	private static void acquireReportPermit()
+	{
+		final int maxWaitMillis = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxWaitMillis, DEFAULT_MaxWaitMillis);
+		try
+		{
+			reportPermits.acquire(maxWaitMillis);
+		}
+		catch (final RuntimeException ex)
+		{
+			stats.recordRejected();
+			throw ex;
+		}
+	}
+
+	private ReportResult report0(int processId, int pinstanceRepoId, final String adLanguage, final OutputType outputType)
 	{
 		//
 		// Load process info
@@ -0,0 +1,121 @@
+package de.metas.report.server;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.report.jasper.server.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Limits how many reports are filled at the same time. The report requests above that limit are waiting (i.e. back-pressure to the callers)
+ * instead of making all the fills slower by competing for CPU and database connections.
+ * <p>
+ * The limit is checked on each {@link #acquire(int)}, so a changed limit applies to the next reports, without restarting the server.
+ */
+final class ReportPermits
+{
+	private static final Logger logger = LogManager.getLogger(ReportPermits.class);
+
+	private final IntSupplier maxParallelReportsSupplier;
+	private final AdjustableSemaphore semaphore = new AdjustableSemaphore();
+	private int maxParallelReports = 0;
+
+	ReportPermits(@NonNull final IntSupplier maxParallelReportsSupplier)
+	{
+		this.maxParallelReportsSupplier = maxParallelReportsSupplier;
+	}
+
+	/**
+	 * @throws AdempiereException if no permit became available within given time
+	 */
+	public void acquire(final int maxWaitMillis)
+	{
+		updateMaxParallelReports();
+
+		try
+		{
+			if (!semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS))
+			{
+				throw new AdempiereException("Report server is busy. Please try again later.")
+						.setParameter("maxWaitMillis", maxWaitMillis)
+						.setParameter("maxParallelReports", maxParallelReports)
+						.setParameter("queueLength", semaphore.getQueueLength());
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
+	public void release()
+	{
+		semaphore.release();
+	}
+
+	private synchronized void updateMaxParallelReports()
+	{
+		final int maxParallelReportsNew = Math.max(maxParallelReportsSupplier.getAsInt(), 1);
+		final int delta = maxParallelReportsNew - maxParallelReports;
+		if (delta == 0)
+		{
+			return;
+		}
+
+		logger.info("Allowing {} reports to be filled in parallel (was {})", maxParallelReportsNew, maxParallelReports);
+		if (delta > 0)
+		{
+			semaphore.release(delta);
+		}
+		else
+		{
+			// NOTE: the reports which are currently filled are not affected; the available permits might get negative until they are released.
+			semaphore.reducePermits(-delta);
+		}
+		maxParallelReports = maxParallelReportsNew;
+	}
+
+	private static final class AdjustableSemaphore extends Semaphore
+	{
+		private static final long serialVersionUID = 1L;
+
+		private AdjustableSemaphore()
+		{
+			super(0, true);
+		}
+
+		@Override
+		protected void reducePermits(final int reduction)
+		{
+			super.reducePermits(reduction);
+		}
+	}
+}
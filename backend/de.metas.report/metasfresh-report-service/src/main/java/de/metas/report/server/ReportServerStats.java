@@ -0,0 +1,111 @@
+package de.metas.report.server;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableMap;
+
+/*
+ * #%L
+ * de.metas.report.jasper.server.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Counts the reports produced by {@link LocalReportServer}, including the reports/minute of the last minute.
+ */
+public final class ReportServerStats
+{
+	private static final int SECONDS_PER_MINUTE = 60;
+
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder totalDurationMillis = new LongAdder();
+
+	/** One slot per second of the last minute; {@link #secondOfSlots} tells us which second the counter in a slot belongs to */
+	private final AtomicLongArray countsPerSecond = new AtomicLongArray(SECONDS_PER_MINUTE);
+	private final AtomicLongArray secondOfSlots = new AtomicLongArray(SECONDS_PER_MINUTE);
+
+	public void recordCompleted(final long durationMillis)
+	{
+		completed.increment();
+		totalDurationMillis.add(durationMillis);
+		incrementCurrentSecond();
+	}
+
+	public void recordFailed()
+	{
+		failed.increment();
+	}
+
+	public void recordRejected()
+	{
+		rejected.increment();
+	}
+
+	private void incrementCurrentSecond()
+	{
+		final long second = currentSecond();
+		final int slot = (int)(second % SECONDS_PER_MINUTE);
+
+		final long slotSecond = secondOfSlots.get(slot);
+		if (slotSecond != second && secondOfSlots.compareAndSet(slot, slotSecond, second))
+		{
+			// first report in this second => forget what we counted one minute ago
+			countsPerSecond.set(slot, 0);
+		}
+		countsPerSecond.incrementAndGet(slot);
+	}
+
+	private long getReportsInLastMinute()
+	{
+		final long now = currentSecond();
+
+		long count = 0;
+		for (int slot = 0; slot < SECONDS_PER_MINUTE; slot++)
+		{
+			if (now - secondOfSlots.get(slot) < SECONDS_PER_MINUTE)
+			{
+				count += countsPerSecond.get(slot);
+			}
+		}
+		return count;
+	}
+
+	private static long currentSecond()
+	{
+		return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+	}
+
+	public Map<String, Object> toMap()
+	{
+		final long completedCount = completed.sum();
+
+		return ImmutableMap.<String, Object> builder()
+				.put("reportsPerMinute", getReportsInLastMinute())
+				.put("completed", completedCount)
+				.put("failed", failed.sum())
+				.put("rejected", rejected.sum())
+				.put("avgDurationMillis", completedCount > 0 ? totalDurationMillis.sum() / completedCount : 0)
+				.build();
+	}
+}
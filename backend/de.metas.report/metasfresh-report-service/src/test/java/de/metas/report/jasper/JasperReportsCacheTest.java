@@ -0,0 +1,185 @@
+package de.metas.report.jasper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.metas.report.jasper.JasperReportsCache.CachedJasperReport;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+/*
+ * #%L
+ * de.metas.report.jasper.server.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JasperReportsCacheTest
+{
+	@Rule
+	public final TemporaryFolder reportsFolder = new TemporaryFolder();
+
+	private URLClassLoader jasperLoader;
+	private int revalidateIntervalMillis = 60 * 1000;
+	private final List<JasperReport> loadedReports = new ArrayList<>();
+
+	@Before
+	public void init() throws Exception
+	{
+		jasperLoader = new URLClassLoader(new URL[] { reportsFolder.getRoot().toURI().toURL() }, null);
+	}
+
+	@After
+	public void close() throws Exception
+	{
+		jasperLoader.close();
+	}
+
+	private JasperReportsCache newCache(final int maxSize)
+	{
+		return new JasperReportsCache(maxSize, () -> revalidateIntervalMillis);
+	}
+
+	private JasperReport getOrLoad(final JasperReportsCache cache, final String resourceName) throws JRException
+	{
+		final CachedJasperReport cachedReport = cache.getOrLoad(resourceName, jasperLoader, loadedReports::add);
+		return cachedReport != null ? cachedReport.getJasperReport() : null;
+	}
+
+	/**
+	 * Writes the test report to given file. The given <code>version</code> is stored as report property, so different versions have different content.
+	 */
+	private File writeReport(final String fileName, final String version) throws Exception
+	{
+		final JasperReport report;
+		try (final InputStream in = getClass().getClassLoader().getResourceAsStream("paramsTestReport.jasper"))
+		{
+			report = (JasperReport)JRLoader.loadObject(in);
+		}
+		report.setProperty("version", version);
+
+		final File file = new File(reportsFolder.getRoot(), fileName);
+		JRSaver.saveObject(report, file);
+		return file;
+	}
+
+	@Test
+	public void cachedWithinRevalidateInterval() throws Exception
+	{
+		final JasperReportsCache cache = newCache(10);
+		writeReport("report.jasper", "1");
+
+		final JasperReport report = getOrLoad(cache, "report.jasper");
+		writeReport("report.jasper", "2"); // not checked within the revalidate interval
+
+		assertSame(report, getOrLoad(cache, "report.jasper"));
+		assertEquals(1, loadedReports.size());
+	}
+
+	@Test
+	public void revalidatedBySameTimestamp() throws Exception
+	{
+		revalidateIntervalMillis = 0;
+		final JasperReportsCache cache = newCache(10);
+		writeReport("report.jasper", "1");
+
+		final JasperReport report = getOrLoad(cache, "report.jasper");
+
+		assertSame(report, getOrLoad(cache, "report.jasper"));
+		assertEquals(1, loadedReports.size());
+	}
+
+	@Test
+	public void revalidatedBySameChecksum() throws Exception
+	{
+		revalidateIntervalMillis = 0;
+		final JasperReportsCache cache = newCache(10);
+		final File file = writeReport("report.jasper", "1");
+
+		final JasperReport report = getOrLoad(cache, "report.jasper");
+		file.setLastModified(file.lastModified() + 10000); // same content, but touched
+
+		assertSame(report, getOrLoad(cache, "report.jasper"));
+		assertEquals(1, loadedReports.size());
+	}
+
+	@Test
+	public void reloadedWhenContentChanged() throws Exception
+	{
+		revalidateIntervalMillis = 0;
+		final JasperReportsCache cache = newCache(10);
+		final File file = writeReport("report.jasper", "1");
+		final long lastModified = file.lastModified();
+
+		final JasperReport report = getOrLoad(cache, "report.jasper");
+		writeReport("report.jasper", "2");
+		file.setLastModified(lastModified + 10000);
+
+		final JasperReport reportReloaded = getOrLoad(cache, "report.jasper");
+		assertNotSame(report, reportReloaded);
+		assertEquals("2", reportReloaded.getProperty("version"));
+		assertEquals(2, loadedReports.size());
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() throws Exception
+	{
+		final JasperReportsCache cache = newCache(2);
+		writeReport("report1.jasper", "1");
+		writeReport("report2.jasper", "2");
+		writeReport("report3.jasper", "3");
+
+		getOrLoad(cache, "report1.jasper");
+		getOrLoad(cache, "report2.jasper");
+		getOrLoad(cache, "report1.jasper"); // report2 is now the least recently used
+		getOrLoad(cache, "report3.jasper");
+		assertEquals(3, loadedReports.size());
+
+		getOrLoad(cache, "report1.jasper");
+		assertEquals(3, loadedReports.size());
+
+		getOrLoad(cache, "report2.jasper");
+		assertEquals(4, loadedReports.size());
+	}
+
+	@Test
+	public void notFound() throws Exception
+	{
+		final JasperReportsCache cache = newCache(10);
+
+		assertNull(getOrLoad(cache, "missing.jasper"));
+		assertEquals(0, loadedReports.size());
+	}
+}
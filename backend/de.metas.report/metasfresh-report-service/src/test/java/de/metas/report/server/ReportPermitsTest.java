@@ -0,0 +1,94 @@
+package de.metas.report.server;
+
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.report.jasper.server.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ReportPermitsTest
+{
+	private final AtomicInteger maxParallelReports = new AtomicInteger(1);
+	private final ReportPermits reportPermits = new ReportPermits(maxParallelReports::get);
+
+	private void assertBusy()
+	{
+		try
+		{
+			reportPermits.acquire(10);
+			fail("Report server shall be busy");
+		}
+		catch (final AdempiereException expected)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void waitingCallerFailsAfterMaxWait()
+	{
+		reportPermits.acquire(10);
+		assertBusy();
+
+		reportPermits.release();
+		reportPermits.acquire(10);
+	}
+
+	@Test
+	public void increasedLimitAppliesToNextReport()
+	{
+		reportPermits.acquire(10);
+		assertBusy();
+
+		maxParallelReports.set(2);
+		reportPermits.acquire(10);
+		assertBusy();
+	}
+
+	@Test
+	public void decreasedLimitAppliesToNextReport()
+	{
+		maxParallelReports.set(2);
+		reportPermits.acquire(10);
+		reportPermits.acquire(10);
+
+		maxParallelReports.set(1);
+		reportPermits.release();
+		assertBusy(); // one report is still filled
+
+		reportPermits.release();
+		reportPermits.acquire(10);
+		assertBusy();
+	}
+
+	@Test
+	public void atLeastOneReport()
+	{
+		maxParallelReports.set(0);
+		reportPermits.acquire(10);
+		assertBusy();
+	}
+}
@@ -22,6 +22,8 @@ import org.compiere.model.I_C_InvoiceSchedule;
 import org.compiere.model.I_M_InOut;
 import org.compiere.model.I_M_InOutLine;
 
+import com.google.common.collect.ImmutableListMultimap;
+
 /*
  * #%L
  * de.metas.swat.base
@@ -76,6 +78,19 @@ public interface IInvoiceCandDAO extends ISingletonService
 	 */
 	Iterator<I_C_Invoice_Candidate> retrieveIcForSelection(Properties ctx, PInstanceId pinstanceId, String trxName);
 
+	/**
+	 * Retrieves just the IDs of the selected invoice candidates, without loading the candidates themselves.
+	 *
+	 * @return invoice candidate IDs, grouped by their current header aggregation key (empty string if not set).
+	 *         Keys and IDs are in the same order as {@link #retrieveIcForSelection(Properties, PInstanceId, String)} would return the candidates.
+	 */
+	ImmutableListMultimap<String, InvoiceCandidateId> retrieveIcIdsForSelectionByHeaderAggregationKey(Properties ctx, PInstanceId pinstanceId, String trxName);
+
+	/**
+	 * Removes the given invoice candidates from the given selection, using the thread inherited transaction.
+	 */
+	void removeIcsFromSelection(PInstanceId pinstanceId, Collection<InvoiceCandidateId> invoiceCandidateIds);
+
 	/**
 	 * @return invoice candidate iterator ordered by {@link I_C_Invoice_Candidate#COLUMNNAME_HeaderAggregationKey}
 	 */
@@ -25,6 +25,7 @@ package de.metas.invoicecandidate.api.impl;
 import java.util.Properties;
 
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.Md5QueryFilterModifier;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.Query;
 
@@ -113,6 +114,8 @@ public class AggregationDAO implements IAggregationDAO
 		// Find existing header aggregation key ID
 		final int headerAggregationKeyId = Services.get(IQueryBL.class)
 				.createQueryBuilder(I_C_Invoice_Candidate_HeaderAggregation.class, ic)
+				// the keys can be too long to be indexed as they are, so we also match their hash, which is indexed
+				.addEqualsFilter(I_C_Invoice_Candidate_HeaderAggregation.COLUMN_HeaderAggregationKey, headerAggregationKeyCalc, Md5QueryFilterModifier.instance)
 				.addEqualsFilter(I_C_Invoice_Candidate_HeaderAggregation.COLUMN_HeaderAggregationKey, headerAggregationKeyCalc)
 				.create()
 				.firstIdOnly();
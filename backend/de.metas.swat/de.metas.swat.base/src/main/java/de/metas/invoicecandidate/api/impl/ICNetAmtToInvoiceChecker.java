@@ -70,6 +70,15 @@ import lombok.ToString;
 		_countInvoiceCandidates++;
 	}
 
+	/**
+	 * Adds the net amount to invoice which was already summed up for the given number of invoice candidates, e.g. by the database.
+	 */
+	public void add(@NonNull final BigDecimal netAmtToInvoice, final int countInvoiceCandidates)
+	{
+		_netAmtToInvoice = _netAmtToInvoice.add(netAmtToInvoice);
+		_countInvoiceCandidates += countInvoiceCandidates;
+	}
+
 	@Override
 	public BigDecimal getValue()
 	{
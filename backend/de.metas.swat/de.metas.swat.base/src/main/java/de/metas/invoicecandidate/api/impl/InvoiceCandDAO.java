@@ -54,7 +54,9 @@ import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.slf4j.Logger;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 
 import ch.qos.logback.classic.Level;
@@ -102,6 +104,7 @@ import de.metas.util.Loggables;
 import de.metas.util.Services;
 import de.metas.util.lang.ExternalHeaderIdWithExternalLineIds;
 import de.metas.util.lang.ExternalId;
+import de.metas.util.lang.RepoIdAwares;
 import de.metas.util.time.SystemTime;
 import lombok.NonNull;
 
@@ -169,6 +172,48 @@ public class InvoiceCandDAO implements IInvoiceCandDAO
 		return retrieveInvoiceCandidates(queryBuilder);
 	}
 
+	@Override
+	public final ImmutableListMultimap<String, InvoiceCandidateId> retrieveIcIdsForSelectionByHeaderAggregationKey(
+			final Properties ctx,
+			@NonNull final PInstanceId pinstanceId,
+			final String trxName)
+	{
+		final IQueryBuilder<I_C_Invoice_Candidate> queryBuilder = queryBL
+				.createQueryBuilder(I_C_Invoice_Candidate.class, ctx, trxName)
+				.setOnlySelection(pinstanceId);
+		orderForProcessing(queryBuilder);
+
+		final List<Map<String, Object>> rows = queryBuilder
+				.create()
+				.listColumns(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID, I_C_Invoice_Candidate.COLUMNNAME_HeaderAggregationKey);
+
+		final ImmutableListMultimap.Builder<String, InvoiceCandidateId> result = ImmutableListMultimap.builder();
+		for (final Map<String, Object> row : rows)
+		{
+			final String headerAggregationKey = Strings.nullToEmpty((String)row.get(I_C_Invoice_Candidate.COLUMNNAME_HeaderAggregationKey));
+			final int invoiceCandidateRepoId = ((Number)row.get(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID)).intValue();
+			result.put(headerAggregationKey, InvoiceCandidateId.ofRepoId(invoiceCandidateRepoId));
+		}
+		return result.build();
+	}
+
+	@Override
+	public void removeIcsFromSelection(
+			@NonNull final PInstanceId pinstanceId,
+			@NonNull final Collection<InvoiceCandidateId> invoiceCandidateIds)
+	{
+		if (invoiceCandidateIds.isEmpty())
+		{
+			return;
+		}
+
+		final List<Object> sqlParams = new ArrayList<>();
+		sqlParams.add(pinstanceId);
+		final String sql = "DELETE FROM T_Selection WHERE AD_PInstance_ID=? AND T_Selection_ID IN " + DB.buildSqlList(RepoIdAwares.asRepoIds(invoiceCandidateIds), sqlParams);
+
+		DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_ThreadInherited);
+	}
+
 	@Override
 	public final Iterator<I_C_Invoice_Candidate> retrieveNonProcessed(final IContextAware contextAware)
 	{
@@ -192,6 +237,18 @@ public class InvoiceCandDAO implements IInvoiceCandDAO
 	{
 		//
 		// Make sure we are retrieving in a order which is friendly for processing
+		orderForProcessing(queryBuilder);
+
+		//
+		// Retrieve invoice candidates
+		return queryBuilder.create()
+				.setOption(IQuery.OPTION_GuaranteedIteratorRequired, false)
+				.setOption(IQuery.OPTION_IteratorBufferSize, 500)
+				.iterate(queryBuilder.getModelClass());
+	}
+
+	private static <T extends I_C_Invoice_Candidate> void orderForProcessing(@NonNull final IQueryBuilder<T> queryBuilder)
+	{
 		final IQueryOrderByBuilder<T> orderBy = queryBuilder.orderBy();
 		orderBy
 				.clear()
@@ -207,12 +264,6 @@ public class InvoiceCandDAO implements IInvoiceCandDAO
 				// set, and others with no Bill_User_ID, then we want the Bill_User_ID to end up in the C_Invoice (header) record.
 				.addColumn(I_C_Invoice_Candidate.COLUMNNAME_Bill_User_ID, Direction.Ascending, Nulls.Last)
 				.addColumn(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID);
-		//
-		// Retrieve invoice candidates
-		return queryBuilder.create()
-				.setOption(IQuery.OPTION_GuaranteedIteratorRequired, false)
-				.setOption(IQuery.OPTION_IteratorBufferSize, 500)
-				.iterate(queryBuilder.getModelClass());
 	}
 
 	@Override
@@ -26,18 +26,29 @@ import static de.metas.common.util.CoalesceUtil.coalesce;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.IQuery.Aggregate;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Lists;
 
 import de.metas.async.model.I_C_Async_Batch;
 import de.metas.async.spi.IWorkpackagePrioStrategy;
@@ -61,7 +72,10 @@ import de.metas.process.PInstanceId;
 import de.metas.util.Check;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
+import de.metas.util.lang.RepoIdAwares;
+import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /**
  *
@@ -77,7 +91,12 @@ import lombok.NonNull;
 	private static final AdMessageKey MSG_INVOICE_CAND_BL_INVOICING_SKIPPED_APPROVAL = AdMessageKey.of("InvoiceCandBL_Invoicing_Skipped_ApprovalForInvoicing");
 	private static final AdMessageKey MSG_IncompleteGroupsFound_1P = AdMessageKey.of("InvoiceCandEnqueuer_IncompleteGroupsFound");
 
+	@VisibleForTesting
+	static final String SYSCONFIG_ChunkSize = "de.metas.invoicecandidate.api.impl.InvoiceCandidateEnqueuer.ChunkSize";
+	private static final int DEFAULT_ChunkSize = 500;
+
 	// services
+	private final transient IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final transient IInvoiceCandDAO invoiceCandDAO = Services.get(IInvoiceCandDAO.class);
 	private final transient IInvoiceCandBL invoiceCandBL = Services.get(IInvoiceCandBL.class);
 	private final transient ITrxManager trxManager = Services.get(ITrxManager.class);
@@ -111,39 +130,143 @@ import lombok.NonNull;
 
 	@Override
 	public IInvoiceCandidateEnqueueResult enqueueSelection(@NonNull final PInstanceId pinstanceId)
-	{
-		return trxManager.callInThreadInheritedTrx(() -> lockAndEnqueueSelection(pinstanceId));
-	}
-
-	private final IInvoiceCandidateEnqueueResult lockAndEnqueueSelection(@NonNull final PInstanceId pinstanceId)
 	{
 		final ILock icLock = InvoiceCandidateLockingUtil.lockInvoiceCandidatesForSelection(pinstanceId);
-		try (final ILockAutoCloseable l = icLock.asAutocloseableOnTrxClose(ITrx.TRXNAME_ThreadInherited))
+
+		// NOTE: if we are running in a thread inherited transaction, the chunks are enqueued in that transaction too (and committed with it),
+		// so we shall not release the remaining locks before it's closed.
+		try (final ILockAutoCloseable l = trxManager.hasThreadInheritedTrx()
+				? icLock.asAutocloseableOnTrxClose(ITrx.TRXNAME_ThreadInherited)
+				: icLock.asAutoCloseable())
 		{
-			return enqueueSelectionInTrx(icLock, pinstanceId);
+			return enqueueSelectionInChunks(icLock, pinstanceId);
 		}
 	}
 
-	private final IInvoiceCandidateEnqueueResult enqueueSelectionInTrx(
+	/**
+	 * Enqueues the given selection chunk by chunk.
+	 * <p>
+	 * First, all candidates of the selection are updated and checked for changes, chunk by chunk.
+	 * Only then their (now up to date) header aggregation keys are loaded and the selection is split into chunks which never split a header aggregation key.
+	 * Each of those chunks is added to workpackages in a single transaction.
+	 * If there is no thread inherited transaction, each transaction is committed after its chunk and the enqueued chunk is removed from the selection.
+	 * So, if a chunk fails, the selection contains exactly the candidates which were not enqueued yet, and enqueueing the same selection again will resume from there.
+	 */
+	private IInvoiceCandidateEnqueueResult enqueueSelectionInChunks(
 			@NonNull final ILock icLock,
 			@NonNull final PInstanceId pinstanceId)
 	{
-		trxManager.assertThreadInheritedTrxExists();
-
-		final Iterable<I_C_Invoice_Candidate> invoiceCandidates = retrieveSelection(pinstanceId);
+		// NOTE: we load only the IDs here
+		final List<InvoiceCandidateId> icIdsBeforeUpdate = ImmutableList.copyOf(
+				invoiceCandDAO.retrieveIcIdsForSelectionByHeaderAggregationKey(getCtx(), pinstanceId, ITrx.TRXNAME_ThreadInherited).values());
 
 		//
-		// Create invoice candidates changes checker.
-		final IInvoiceCandidatesChangesChecker icChangesChecker = newInvoiceCandidatesChangesChecker();
-		icChangesChecker.setBeforeChanges(invoiceCandidates);
+		// Make sure we are about to enqueue exactly what the user has seen on screen (08610).
+		// NOTE: there is no need to check the total again after the update, because each candidate is checked for changes on candidate level
+		assertTotalNetAmtToInvoiceChecksum(pinstanceId, icIdsBeforeUpdate.size());
 
 		//
 		// Prepare
-		prepareSelectionForEnqueueing(pinstanceId);
+		trxManager.runInThreadInheritedTrx(() -> prepareSelectionForEnqueueing(pinstanceId));
 		// NOTE: after running that method we expect some invoice candidates to be invalidated, but that's not a problem because:
 		// * the ones which are in our selection, we will updated right now (see below)
 		// * the other ones will be updated later, asynchronously
 
+		//
+		// Update the whole selection *before* chunking it by header aggregation key, because the update might change those keys
+		updateInvalidInChunks(icLock, icIdsBeforeUpdate);
+		final ImmutableListMultimap<String, InvoiceCandidateId> icIdsByHeaderAggregationKey = invoiceCandDAO.retrieveIcIdsForSelectionByHeaderAggregationKey(getCtx(), pinstanceId, ITrx.TRXNAME_ThreadInherited);
+
+		final int workpackageQueueSizeBeforeEnqueueing = newWorkpackageAggregator(icLock, pinstanceId).getQueueSize();
+		int invoiceCandidateSelectionCount = 0; // how many eligible items were in given selection
+		int workpackagesCount = 0;
+		BigDecimal totalNetAmtToInvoiceChecksum = BigDecimal.ZERO;
+
+		final List<List<InvoiceCandidateId>> chunks = splitIntoChunks(icIdsByHeaderAggregationKey);
+		for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++)
+		{
+			final List<InvoiceCandidateId> chunk = chunks.get(chunkIndex);
+
+			final ChunkEnqueueResult chunkResult;
+			try
+			{
+				chunkResult = trxManager.callInThreadInheritedTrx(() -> enqueueChunkInTrx(icLock, pinstanceId, chunk));
+			}
+			catch (final RuntimeException ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex)
+						.setParameter("chunk", (chunkIndex + 1) + "/" + chunks.size())
+						.setParameter("enqueuedInvoiceCandidatesCount", invoiceCandidateSelectionCount)
+						.appendParametersToMessage();
+			}
+
+			invoiceCandidateSelectionCount += chunkResult.getInvoiceCandidateSelectionCount();
+			workpackagesCount += chunkResult.getWorkpackagesCount();
+			totalNetAmtToInvoiceChecksum = totalNetAmtToInvoiceChecksum.add(chunkResult.getNetAmtToInvoiceChecksum());
+		}
+
+		//
+		// If no workpackages were created, display error message that no selection was made (07666)
+		if (isFailIfNothingEnqueued() && invoiceCandidateSelectionCount <= 0)
+		{
+			throw new AdempiereException("@" + MSG_INVOICE_GENERATE_NO_CANDIDATES_SELECTED_0P + "@");
+		}
+
+		//
+		// Create an return the enqueuing result
+		final IInvoiceCandidateEnqueueResult result = new InvoiceCandidateEnqueueResult(
+				invoiceCandidateSelectionCount,
+				workpackagesCount,
+				workpackageQueueSizeBeforeEnqueueing,
+				totalNetAmtToInvoiceChecksum,
+				icLock);
+
+		return result;
+	}
+
+	private int getChunkSize()
+	{
+		return Math.max(sysConfigBL.getIntValue(SYSCONFIG_ChunkSize, DEFAULT_ChunkSize), 1);
+	}
+
+	/**
+	 * Updates the given candidates chunk by chunk, each chunk in its own transaction (if there is no thread inherited transaction),
+	 * and makes sure that no relevant fields were changed by the update (if that is required).
+	 */
+	private void updateInvalidInChunks(
+			@NonNull final ILock icLock,
+			@NonNull final List<InvoiceCandidateId> icIds)
+	{
+		final List<List<InvoiceCandidateId>> chunks = Lists.partition(icIds, getChunkSize());
+		for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++)
+		{
+			final List<InvoiceCandidateId> chunk = chunks.get(chunkIndex);
+			try
+			{
+				trxManager.runInThreadInheritedTrx(() -> updateInvalidChunkInTrx(icLock, chunk));
+			}
+			catch (final RuntimeException ex)
+			{
+				throw AdempiereException.wrapIfNeeded(ex)
+						.setParameter("updateChunk", (chunkIndex + 1) + "/" + chunks.size())
+						.appendParametersToMessage();
+			}
+		}
+	}
+
+	private void updateInvalidChunkInTrx(
+			@NonNull final ILock icLock,
+			@NonNull final List<InvoiceCandidateId> chunk)
+	{
+		trxManager.assertThreadInheritedTrxExists();
+
+		final List<I_C_Invoice_Candidate> invoiceCandidatesBeforeUpdate = retrieveInvoiceCandidates(chunk);
+
+		//
+		// Create invoice candidates changes checker.
+		final IInvoiceCandidatesChangesChecker icChangesChecker = newInvoiceCandidatesChangesChecker();
+		icChangesChecker.setBeforeChanges(invoiceCandidatesBeforeUpdate);
+
 		//
 		// Updating invalid candidates to make sure that they e.g. have the correct header aggregation key and thus the correct ordering
 		// also, we need to make sure that each ICs was updated at least once, so that it has a QtyToInvoice > 0 (task 08343)
@@ -151,29 +274,73 @@ import lombok.NonNull;
 				.setContext(getCtx(), ITrx.TRXNAME_ThreadInherited)
 				.setLockedBy(icLock)
 				.setTaggedWithAnyTag()
-				.setOnlyC_Invoice_Candidates(invoiceCandidates)
+				.setOnlyC_Invoice_Candidates(invoiceCandidatesBeforeUpdate)
 				.update();
 
 		//
 		// Make sure there are no changes in amounts or relevant fields (if that is required)
+		// NOTE: loading them again after we made sure that they are fairly up to date.
+		final List<I_C_Invoice_Candidate> invoiceCandidates = retrieveInvoiceCandidates(chunk);
 		icChangesChecker.assertNoChanges(invoiceCandidates);
+	}
 
-		//
-		// Create workpackages.
-		// NOTE: loading them again after we made sure that they are fairly up to date.
-		final InvoiceCandidate2WorkpackageAggregator workpackageAggregator = new InvoiceCandidate2WorkpackageAggregator(getCtx(), ITrx.TRXNAME_ThreadInherited)
-				.setInvoiceCandidatesLock(icLock)
-				.setInvoicingParams(getInvoicingParams())
-				.setC_Async_Batch(_asyncBatch);
+	/**
+	 * Splits the given candidate IDs into chunks of roughly {@link #SYSCONFIG_ChunkSize}; candidates with the same header aggregation key are never split over two chunks.
+	 * <p>
+	 * Candidates without header aggregation key don't belong together, so they are split up like any others.
+	 */
+	private List<List<InvoiceCandidateId>> splitIntoChunks(@NonNull final ImmutableListMultimap<String, InvoiceCandidateId> icIdsByHeaderAggregationKey)
+	{
+		final int chunkSize = getChunkSize();
 
-		if (setWorkpackageADPInstanceCreatorId)
+		final List<List<InvoiceCandidateId>> chunks = new ArrayList<>();
+		List<InvoiceCandidateId> currentChunk = new ArrayList<>();
+		for (final Map.Entry<String, Collection<InvoiceCandidateId>> entry : icIdsByHeaderAggregationKey.asMap().entrySet())
 		{
-			workpackageAggregator.setAD_PInstance_Creator_ID(pinstanceId);
+			final List<Collection<InvoiceCandidateId>> icIdGroups = new ArrayList<>();
+			if (entry.getKey().isEmpty())
+			{
+				entry.getValue().forEach(icId -> icIdGroups.add(ImmutableList.of(icId)));
+			}
+			else
+			{
+				icIdGroups.add(entry.getValue());
+			}
+
+			for (final Collection<InvoiceCandidateId> icIdsWithSameKey : icIdGroups)
+			{
+				if (!currentChunk.isEmpty() && currentChunk.size() + icIdsWithSameKey.size() > chunkSize)
+				{
+					chunks.add(currentChunk);
+					currentChunk = new ArrayList<>();
+				}
+				currentChunk.addAll(icIdsWithSameKey);
+			}
+		}
+		if (!currentChunk.isEmpty())
+		{
+			chunks.add(currentChunk);
 		}
 
-		final int workpackageQueueSizeBeforeEnqueueing = workpackageAggregator.getQueueSize();
-		int invoiceCandidateSelectionCount = 0; // how many eligible items were in given selection
-		final ICNetAmtToInvoiceChecker totalNetAmtToInvoiceChecksum = new ICNetAmtToInvoiceChecker();
+		return chunks;
+	}
+
+	private ChunkEnqueueResult enqueueChunkInTrx(
+			@NonNull final ILock icLock,
+			@NonNull final PInstanceId pinstanceId,
+			@NonNull final List<InvoiceCandidateId> chunk)
+	{
+		trxManager.assertThreadInheritedTrxExists();
+
+		// NOTE: the candidates were already updated and checked for changes, see updateInvalidInChunks
+		final List<I_C_Invoice_Candidate> invoiceCandidates = retrieveInvoiceCandidates(chunk);
+
+		//
+		// Create workpackages.
+		final InvoiceCandidate2WorkpackageAggregator workpackageAggregator = newWorkpackageAggregator(icLock, pinstanceId);
+
+		int invoiceCandidateSelectionCount = 0;
+		final ICNetAmtToInvoiceChecker netAmtToInvoiceChecksum = new ICNetAmtToInvoiceChecker();
 
 		for (final I_C_Invoice_Candidate icRecord : invoiceCandidates)
 		{
@@ -219,7 +386,7 @@ import lombok.NonNull;
 				workpackageAggregator.setPriority(priorityToUse);
 
 				invoiceCandidateSelectionCount++; // increment AFTER validating that it was approved for invoicing etc
-				totalNetAmtToInvoiceChecksum.add(icRecord);
+				netAmtToInvoiceChecksum.add(icRecord);
 			}
 		}
 
@@ -228,22 +395,71 @@ import lombok.NonNull;
 		workpackageAggregator.closeAllGroups();
 
 		//
-		// If no workpackages were created, display error message that no selection was made (07666)
-		if (isFailIfNothingEnqueued() && invoiceCandidateSelectionCount <= 0)
+		// Move our cursor, i.e. this chunk is done
+		invoiceCandDAO.removeIcsFromSelection(pinstanceId, chunk);
+
+		return ChunkEnqueueResult.builder()
+				.invoiceCandidateSelectionCount(invoiceCandidateSelectionCount)
+				.workpackagesCount(workpackageAggregator.getGroupsCount())
+				.netAmtToInvoiceChecksum(netAmtToInvoiceChecksum.getValue())
+				.build();
+	}
+
+	private InvoiceCandidate2WorkpackageAggregator newWorkpackageAggregator(
+			@NonNull final ILock icLock,
+			@NonNull final PInstanceId pinstanceId)
+	{
+		final InvoiceCandidate2WorkpackageAggregator workpackageAggregator = new InvoiceCandidate2WorkpackageAggregator(getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.setInvoiceCandidatesLock(icLock)
+				.setInvoicingParams(getInvoicingParams())
+				.setC_Async_Batch(_asyncBatch);
+
+		if (setWorkpackageADPInstanceCreatorId)
 		{
-			throw new AdempiereException("@" + MSG_INVOICE_GENERATE_NO_CANDIDATES_SELECTED_0P + "@");
+			workpackageAggregator.setAD_PInstance_Creator_ID(pinstanceId);
 		}
 
-		//
-		// Create an return the enqueuing result
-		final IInvoiceCandidateEnqueueResult result = new InvoiceCandidateEnqueueResult(
-				invoiceCandidateSelectionCount,
-				workpackageAggregator.getGroupsCount(),
-				workpackageQueueSizeBeforeEnqueueing,
-				totalNetAmtToInvoiceChecksum.getValue(),
-				icLock);
+		return workpackageAggregator;
+	}
 
-		return result;
+	private List<I_C_Invoice_Candidate> retrieveInvoiceCandidates(@NonNull final List<InvoiceCandidateId> icIds)
+	{
+		final IQueryBuilder<I_C_Invoice_Candidate> queryBuilder = queryBL
+				.createQueryBuilder(I_C_Invoice_Candidate.class, getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.addInArrayFilter(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID, RepoIdAwares.asRepoIds(icIds));
+
+		return ImmutableList.copyOf(invoiceCandDAO.retrieveInvoiceCandidates(queryBuilder));
+	}
+
+	private void assertTotalNetAmtToInvoiceChecksum(
+			@NonNull final PInstanceId pinstanceId,
+			final int countInvoiceCandidates)
+	{
+		if (_totalNetAmtToInvoiceChecksum == null || !isFailOnChanges())
+		{
+			return;
+		}
+
+		final BigDecimal netAmtToInvoice = queryBL
+				.createQueryBuilder(I_C_Invoice_Candidate.class, getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.setOnlySelection(pinstanceId)
+				.create()
+				.aggregate(I_C_Invoice_Candidate.COLUMNNAME_NetAmtToInvoice, Aggregate.SUM, BigDecimal.class);
+
+		final ICNetAmtToInvoiceChecker totalNetAmtToInvoiceChecker = new ICNetAmtToInvoiceChecker()
+				.setNetAmtToInvoiceExpected(_totalNetAmtToInvoiceChecksum);
+		totalNetAmtToInvoiceChecker.add(coalesce(netAmtToInvoice, BigDecimal.ZERO), countInvoiceCandidates);
+		totalNetAmtToInvoiceChecker.assertExpectedNetAmtToInvoiceIfSet();
+	}
+
+	@Value
+	@Builder
+	private static class ChunkEnqueueResult
+	{
+		int invoiceCandidateSelectionCount;
+		int workpackagesCount;
+		@NonNull
+		BigDecimal netAmtToInvoiceChecksum;
 	}
 
 	/**
@@ -339,16 +555,6 @@ import lombok.NonNull;
 		invoiceCandDAO.updateApprovalForInvoicingToTrue(selectionId);
 	}
 
-	/** NOTE: we designed this method for the case of enqueuing a big number of invoice candidates. */
-	private final Iterable<I_C_Invoice_Candidate> retrieveSelection(final PInstanceId pinstanceId)
-	{
-		return () -> {
-			final Properties ctx = getCtx();
-			trxManager.assertThreadInheritedTrxExists();
-			return invoiceCandDAO.retrieveIcForSelection(ctx, pinstanceId, ITrx.TRXNAME_ThreadInherited);
-		};
-	}
-
 	@Override
 	public IInvoiceCandidateEnqueuer setContext(@NonNull final Properties ctx)
 	{
@@ -417,8 +623,8 @@ import lombok.NonNull;
 	{
 		if (isFailOnChanges())
 		{
-			return new InvoiceCandidatesChangesChecker()
-					.setTotalNetAmtToInvoiceChecksum(_totalNetAmtToInvoiceChecksum);
+			// NOTE: the total checksum is asserted once for the whole selection (see assertTotalNetAmtToInvoiceChecksum), and not per chunk
+			return new InvoiceCandidatesChangesChecker();
 		}
 		else
 		{
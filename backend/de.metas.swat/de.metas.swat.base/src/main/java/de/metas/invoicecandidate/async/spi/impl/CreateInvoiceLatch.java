@@ -0,0 +1,136 @@
+package de.metas.invoicecandidate.async.spi.impl;
+
+import java.util.List;
+import java.util.Set;
+
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.async.api.IQueueDAO;
+import de.metas.async.exceptions.WorkpackageSkipRequestException;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.spi.ILatchStragegy;
+import de.metas.invoicecandidate.api.InvoiceCandidate_Constants;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Allows invoice generation workpackages to be processed in parallel, as long as they don't share a bill-partner.
+ * <p>
+ * The enqueuer already creates one workpackage per header aggregation key, so that one invoice never spans multiple workpackages.
+ * But different header aggregation keys can belong to the same bill-partner, and invoices of the same partner update the same records (e.g. the partner's stats),
+ * so we don't process such workpackages at the same time.
+ * <p>
+ * Modeled after the shipment schedules' <code>CreateShipmentLatch</code>.
+ */
+public final class CreateInvoiceLatch implements ILatchStragegy
+{
+	public static final CreateInvoiceLatch INSTANCE = new CreateInvoiceLatch();
+
+	private static final transient Logger logger = InvoiceCandidate_Constants.getLogger(CreateInvoiceLatch.class);
+
+	/**
+	 * The workpackage processors of the WPs this latch cares about
+	 */
+	private static final Set<String> CLASSNAMES = ImmutableSet.of(InvoiceCandWorkpackageProcessor.class.getName());
+
+	private CreateInvoiceLatch()
+	{
+	}
+
+	/**
+	 * Notes:
+	 * <ul>
+	 * <li>only validates work packages that shall be processed *before* <code>currentWorkPackage</code> (higher prio or same prio and lower/earlier ID). That way, if two WPs' latches are validated at
+	 * the same time, not both of them are postponed.
+	 * <li>If <code>currentWorkPackage</code> needs to be postponed, a {@link WorkpackageSkipRequestException} with a random timeout is thrown.
+	 * </ul>
+	 */
+	@Override
+	public void postponeIfNeeded(
+			final I_C_Queue_WorkPackage currentWorkPackage,
+			final IQueryBuilder<I_C_Queue_WorkPackage> currentlyLockedWorkpackagesQueryBuilder)
+	{
+		final IQueueDAO queueDAO = Services.get(IQueueDAO.class);
+		final String trxName = InterfaceWrapperHelper.getTrxName(currentWorkPackage);
+
+		final List<I_C_Queue_WorkPackage> lockedWPs = currentlyLockedWorkpackagesQueryBuilder
+				.create()
+				.setOrderBy(queueDAO.getQueueOrderBy())
+				.list(I_C_Queue_WorkPackage.class);
+		if (lockedWPs.isEmpty())
+		{
+			logger.debug("no locked C_Queue_WorkPackages; returning (currentWorkPackage={})", currentWorkPackage);
+			return; // nothing to do
+		}
+		if (lockedWPs.get(0).getC_Queue_WorkPackage_ID() == currentWorkPackage.getC_Queue_WorkPackage_ID())
+		{
+			logger.debug("none of the locked C_Queue_WorkPackages' prio is higher than that of the current WP; returning (currentWorkPackage={})", currentWorkPackage);
+			return; // nothing to do
+		}
+
+		final List<Integer> billBPartnerIds = queueDAO
+				.createElementsQueryBuilder(currentWorkPackage, I_C_Invoice_Candidate.class, trxName)
+				.create()
+				.listDistinct(I_C_Invoice_Candidate.COLUMNNAME_Bill_BPartner_ID, Integer.class);
+		if (billBPartnerIds.isEmpty())
+		{
+			return; // nothing to do
+		}
+
+		for (final I_C_Queue_WorkPackage lockedWP : lockedWPs)
+		{
+			if (lockedWP.getC_Queue_WorkPackage_ID() == currentWorkPackage.getC_Queue_WorkPackage_ID())
+			{
+				logger.debug("All WPs with a prio higher than currentWorkPackage={} were checked; returning", currentWorkPackage);
+				break;
+			}
+
+			final String lockedWpClassname = lockedWP.getC_Queue_Block().getC_Queue_PackageProcessor().getClassname();
+			if (!CLASSNAMES.contains(lockedWpClassname))
+			{
+				continue; // this latch only cares for packages that create invoices
+			}
+
+			final boolean lockedWpHasSameBillPartner = queueDAO
+					.createElementsQueryBuilder(lockedWP, I_C_Invoice_Candidate.class, trxName)
+					.addInArrayFilter(I_C_Invoice_Candidate.COLUMNNAME_Bill_BPartner_ID, billBPartnerIds)
+					.create()
+					.anyMatch();
+			if (lockedWpHasSameBillPartner)
+			{
+				final String message = "Skipping because the currently-locked WP " + lockedWP + " also references a " + I_C_Invoice_Candidate.Table_Name
+						+ " with one of the following " + I_C_Invoice_Candidate.COLUMNNAME_Bill_BPartner_ID + "s: " + billBPartnerIds;
+
+				final WorkpackageSkipRequestException skipRequestException = WorkpackageSkipRequestException.createWithRandomTimeout(message);
+				logger.debug(message + "; throwing {}", skipRequestException);
+				throw skipRequestException;
+			}
+		}
+	}
+}
@@ -39,6 +39,7 @@ import de.metas.async.api.IWorkPackageBL;
 import de.metas.async.api.IWorkpackageParamDAO;
 import de.metas.async.exceptions.WorkpackageSkipRequestException;
 import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.spi.ILatchStragegy;
 import de.metas.async.spi.WorkpackageProcessorAdapter;
 import de.metas.invoicecandidate.InvoiceCandidateLockingUtil;
 import de.metas.invoicecandidate.api.IInvoiceCandBL;
@@ -134,6 +135,15 @@ public class InvoiceCandWorkpackageProcessor extends WorkpackageProcessorAdapter
 		return Result.SUCCESS;
 	}
 
+	/**
+	 * Returns an instance of {@link CreateInvoiceLatch}.
+	 */
+	@Override
+	public ILatchStragegy getLatchStrategy()
+	{
+		return CreateInvoiceLatch.INSTANCE;
+	}
+
 	/**
 	 * @return invoice generate result/collector; never returns null
 	 */
@@ -150,6 +150,7 @@ public class C_Invoice_Candidate_EnqueueSelectionForInvoicing extends JavaProces
 	}
 
 	@Override
+	@RunOutOfTrx // the enqueuer commits after each chunk of invoice candidates
 	protected String doIt() throws Exception
 	{
 		final PInstanceId pinstanceId = getPinstanceId();
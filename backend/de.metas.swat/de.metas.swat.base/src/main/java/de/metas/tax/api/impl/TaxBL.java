@@ -29,20 +29,20 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Comparator;
 import java.util.Objects;
 import java.util.Properties;
 
+import javax.annotation.Nullable;
+
 import de.metas.logging.TableRecordMDC;
 import org.adempiere.ad.dao.IQueryBL;
-import org.adempiere.ad.dao.IQueryBuilder;
-import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.warehouse.WarehouseId;
 import org.adempiere.warehouse.api.IWarehouseBL;
-import org.compiere.model.IQuery;
 import org.compiere.model.I_C_BPartner;
 import org.compiere.model.I_C_BPartner_Location;
 import org.compiere.model.I_C_Country;
@@ -56,6 +56,9 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
 import de.metas.bpartner.BPartnerId;
 import de.metas.bpartner.service.IBPartnerDAO;
 import de.metas.bpartner.service.IBPartnerOrgBL;
@@ -80,6 +83,14 @@ public class TaxBL implements de.metas.tax.api.ITaxBL
 {
 	private static final transient Logger log = LogManager.getLogger(TaxBL.class);
 
+	/**
+	 * Preferred tax first: organization specific taxes first, then the ones with a <code>To_Country_ID</code>, then the most recent one
+	 */
+	private static final Comparator<I_C_Tax> TAX_PREFERENCE = Comparator.<I_C_Tax> comparingInt(I_C_Tax::getAD_Org_ID).reversed()
+			.thenComparing(tax -> tax.getTo_Country_ID() <= 0)
+			.thenComparingInt(I_C_Tax::getTo_Country_ID)
+			.thenComparing(Comparator.comparing(I_C_Tax::getValidFrom).reversed());
+
 	/**
 	 * Do not attempt to retrieve the C_Tax for an order (i.e invoicing is done at a different time - 1 year - from the order)<br>
 	 * Also note that packaging material receipts don't have an order line and if this one had, no IC would be created for it by this handler.<br>
@@ -188,69 +199,38 @@ public class TaxBL implements de.metas.tax.api.ITaxBL
 
 		final boolean toSameCountry = Objects.equals(countryToId, countryFromId);
 
-		final IQueryBuilder<I_C_Tax> queryBuilder = Services.get(IQueryBL.class)
-				.createQueryBuilder(I_C_Tax.class, ctx, ITrx.TRXNAME_None)
-				.addCompareFilter(I_C_Tax.COLUMNNAME_ValidFrom, Operator.LESS_OR_EQUAL, date)
-				.addOnlyActiveRecordsFilter();
-
-		if (countryFromId != null)
-		{
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_C_Country_ID, countryFromId);
-		}
-		else
-		{
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_C_Country_ID, null);
-		}
-
-		queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_C_TaxCategory_ID, taxCategoryId);
-
-		if (toSameCountry)
-		{
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_To_Country_ID, countryToId);
-		}
-		else if (toEULocation)
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_To_Country_ID, countryToId, null);
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_IsToEULocation, true);
-
-			if (hasTaxCertificate)
-			{
-				queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_RequiresTaxCertificate, true);
-			}
-			else
-			{
-				queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_RequiresTaxCertificate, false);
-			}
-		}
-		else
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_To_Country_ID, countryToId, null);
-			queryBuilder.addEqualsFilter(I_C_Tax.COLUMNNAME_IsToEULocation, false);
-		}
-
-		if (isSOTrx)
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_SOPOType, X_C_Tax.SOPOTYPE_Both, X_C_Tax.SOPOTYPE_SalesTax);
-		}
-		else
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_SOPOType, X_C_Tax.SOPOTYPE_Both, X_C_Tax.SOPOTYPE_PurchaseTax);
-		}
-
-		if (orgId != null)
-		{
-			queryBuilder.addInArrayFilter(I_C_Tax.COLUMNNAME_AD_Org_ID, orgId, OrgId.ANY);
-		}
-
-		final IQuery<I_C_Tax> query = queryBuilder
-				.orderBy()
-				.addColumnDescending(I_C_Tax.COLUMNNAME_AD_Org_ID)
-				.addColumn(I_C_Tax.COLUMNNAME_To_Country_ID)
-				.addColumnDescending(I_C_Tax.COLUMNNAME_ValidFrom)
-				.endOrderBy()
-				.create();
-		final int taxId = query.firstId();
-		if (taxId <= 0)
+		// NOTE: the taxes of the category are cached; just pick the matching ones, valid at the given date
+		final String orderType = isSOTrx ? X_C_Tax.SOPOTYPE_SalesTax : X_C_Tax.SOPOTYPE_PurchaseTax;
+		final int countryToRepoId = countryToId.getRepoId();
+
+		final ImmutableList<I_C_Tax> taxesValidAtDate = Services.get(ITaxDAO.class)
+				.getTaxesByCategoryId(taxCategoryId)
+				.getTaxesValidAt(date);
+
+		final I_C_Tax tax = taxesValidAtDate.stream()
+				.filter(candidate -> isMatchingCountryFrom(candidate, countryFromId))
+				.filter(candidate -> {
+					if (toSameCountry)
+					{
+						return candidate.getTo_Country_ID() == countryToRepoId;
+					}
+					else if (toEULocation)
+					{
+						return (candidate.getTo_Country_ID() == countryToRepoId || candidate.getTo_Country_ID() <= 0)
+								&& candidate.isToEULocation()
+								&& candidate.isRequiresTaxCertificate() == hasTaxCertificate;
+					}
+					else
+					{
+						return (candidate.getTo_Country_ID() == countryToRepoId || candidate.getTo_Country_ID() <= 0)
+								&& !candidate.isToEULocation();
+					}
+				})
+				.filter(candidate -> X_C_Tax.SOPOTYPE_Both.equals(candidate.getSOPOType()) || orderType.equals(candidate.getSOPOType()))
+				.filter(candidate -> orgId == null || candidate.getAD_Org_ID() == orgId.getRepoId() || candidate.getAD_Org_ID() == OrgId.ANY.getRepoId())
+				.min(TAX_PREFERENCE)
+				.orElse(null);
+		if (tax == null)
 		{
 			TaxNotFoundException.builder()
 					.orgId(orgId)
@@ -260,12 +240,23 @@ public class TaxBL implements de.metas.tax.api.ITaxBL
 					.shipFromCountryId(countryFromId)
 					.billToC_Location_ID(locationTo.getC_Location_ID())
 					.build()
-					.setParameter("query", query.toString())
+					.setParameter("taxesValidAtDate", taxesValidAtDate.size())
 					.throwOrLogWarning(throwEx, log);
 			return -1;
 		}
 
-		return taxId;
+		return tax.getC_Tax_ID();
+	}
+
+	/**
+	 * @param countryFromId if <code>null</code>, then only taxes without <code>C_Country_ID</code> are matching
+	 */
+	@VisibleForTesting
+	static boolean isMatchingCountryFrom(@NonNull final I_C_Tax tax, @Nullable final CountryId countryFromId)
+	{
+		return countryFromId == null
+				? tax.getC_Country_ID() <= 0
+				: tax.getC_Country_ID() == countryFromId.getRepoId();
 	}
 
 	private int getGermanTax(final Properties ctx,
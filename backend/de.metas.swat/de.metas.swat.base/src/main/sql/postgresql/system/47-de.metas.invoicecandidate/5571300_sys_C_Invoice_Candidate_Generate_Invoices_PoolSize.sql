@@ -0,0 +1,6 @@
+-- allow invoice generation workpackages to be processed in parallel;
+-- workpackages that share a bill-partner are still serialized by de.metas.invoicecandidate.async.spi.impl.CreateInvoiceLatch.
+-- note: within one workpackage the invoices are still numbered in queue element order;
+-- across workpackages that run at the same time, document numbers stay unique but follow completion order, not enqueue order
+UPDATE C_Queue_Processor SET PoolSize=4,Updated=TO_TIMESTAMP('2020-10-19 10:00:00','YYYY-MM-DD HH24:MI:SS'),UpdatedBy=100 WHERE C_Queue_Processor_ID=540011 AND PoolSize<4
+;
@@ -0,0 +1,6 @@
+-- header aggregation keys can be too long for a plain btree index;
+-- index their hashes instead, see org.adempiere.ad.dao.impl.Md5QueryFilterModifier
+-- building the index computes the hashes of all existing keys in one go
+CREATE INDEX IF NOT EXISTS c_invoice_candidate_headeraggregation_headeraggregationkey_md5
+  ON public.c_invoice_candidate_headeraggregation
+  (md5(HeaderAggregationKey));
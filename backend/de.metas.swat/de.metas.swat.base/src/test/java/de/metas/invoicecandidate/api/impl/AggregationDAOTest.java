@@ -0,0 +1,84 @@
+package de.metas.invoicecandidate.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate_HeaderAggregation;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AggregationDAOTest
+{
+	private static final int BPARTNER_ID = 10;
+
+	private AggregationDAO aggregationDAO;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		aggregationDAO = new AggregationDAO();
+	}
+
+	@Test
+	public void findC_Invoice_Candidate_HeaderAggregationKey_ID_findsExistingRecord()
+	{
+		final I_C_Invoice_Candidate_HeaderAggregation existingRecord = newInstance(I_C_Invoice_Candidate_HeaderAggregation.class);
+		existingRecord.setHeaderAggregationKey("1000000_1000001_\u00e4\u00f6\u00fc");
+		existingRecord.setC_BPartner_ID(BPARTNER_ID);
+		existingRecord.setIsActive(true);
+		saveRecord(existingRecord);
+
+		final I_C_Invoice_Candidate ic = createIC("1000000_1000001_\u00e4\u00f6\u00fc");
+
+		assertThat(aggregationDAO.findC_Invoice_Candidate_HeaderAggregationKey_ID(ic))
+				.isEqualTo(existingRecord.getC_Invoice_Candidate_HeaderAggregation_ID());
+	}
+
+	@Test
+	public void findC_Invoice_Candidate_HeaderAggregationKey_ID_createsNewRecordForNewKey()
+	{
+		final int firstId = aggregationDAO.findC_Invoice_Candidate_HeaderAggregationKey_ID(createIC("1000000_1000001"));
+		final int secondId = aggregationDAO.findC_Invoice_Candidate_HeaderAggregationKey_ID(createIC("1000000_1000002"));
+		final int firstIdAgain = aggregationDAO.findC_Invoice_Candidate_HeaderAggregationKey_ID(createIC("1000000_1000001"));
+
+		assertThat(firstId).isGreaterThan(0);
+		assertThat(secondId).isGreaterThan(0).isNotEqualTo(firstId);
+		assertThat(firstIdAgain).isEqualTo(firstId);
+	}
+
+	private I_C_Invoice_Candidate createIC(final String headerAggregationKey)
+	{
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setHeaderAggregationKey_Calc(headerAggregationKey);
+		ic.setBill_BPartner_ID(BPARTNER_ID);
+		saveRecord(ic);
+		return ic;
+	}
+}
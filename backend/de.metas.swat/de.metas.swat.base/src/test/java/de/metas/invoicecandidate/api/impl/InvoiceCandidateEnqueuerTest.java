@@ -1,6 +1,7 @@
 package de.metas.invoicecandidate.api.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /*
  * #%L
@@ -26,10 +27,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.wrapper.POJOLookupMap;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.compiere.SpringContextHolder;
@@ -39,15 +47,22 @@ import org.compiere.util.TrxRunnable;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.bpartner.BPartnerLocationId;
 import de.metas.currency.CurrencyRepository;
 import de.metas.invoicecandidate.AbstractICTestSupport;
+import de.metas.invoicecandidate.InvoiceCandidateId;
+import de.metas.invoicecandidate.api.IInvoiceCandBL;
 import de.metas.invoicecandidate.api.IInvoiceCandDAO;
 import de.metas.invoicecandidate.api.IInvoiceCandidateEnqueueResult;
 import de.metas.invoicecandidate.internalbusinesslogic.InvoiceCandidateRecordService;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
 import de.metas.money.MoneyService;
+import de.metas.organization.OrgId;
 import de.metas.process.PInstanceId;
+import de.metas.util.GuavaCollectors;
 import de.metas.util.Services;
 import de.metas.util.time.FixedTimeSource;
 import de.metas.util.time.SystemTime;
@@ -169,4 +184,182 @@ public class InvoiceCandidateEnqueuerTest extends AbstractICTestSupport
 		InterfaceWrapperHelper.refresh(ic1);
 		assertThat(ic1.isApprovalForInvoicing()).isTrue();
 	}
+
+	/**
+	 * Test case:
+	 * <ul>
+	 * <li>2 invoice candidates which belong to the same invoice, but have different (outdated) header aggregation keys
+	 * <li>the chunk size is 1, i.e. by their outdated keys, they would end up in different chunks
+	 * <li>when enqueuing for invoicing, both keys are updated before chunking, so both candidates shall end in the same workpackage
+	 * </ul>
+	 */
+	@Test
+	public void headerAggregationKeyChangedOnUpdate_chunkSize1()
+	{
+		Services.get(ISysConfigBL.class).setValue(InvoiceCandidateEnqueuer.SYSCONFIG_ChunkSize, 1, ClientId.SYSTEM, OrgId.ANY);
+
+		final IInvoiceCandDAO invoiceCandDAO = Services.get(IInvoiceCandDAO.class);
+		final I_C_Invoice_Candidate ic1 = createInvoiceCandidateWithOutdatedHeaderAggregationKey("outdatedKey1");
+		invoiceCandDAO.invalidateCand(ic1);
+		final I_C_Invoice_Candidate ic2 = createInvoiceCandidateWithOutdatedHeaderAggregationKey("outdatedKey2");
+		invoiceCandDAO.invalidateCand(ic2);
+
+		final PInstanceId selectionId = POJOLookupMap.get().createSelectionFromModels(ic1, ic2);
+		final IInvoiceCandidateEnqueueResult enqueueResult = Services.get(ITrxManager.class).callInNewTrx(() -> new InvoiceCandidateEnqueuer()
+				.setContext(Env.getCtx())
+				.setInvoicingParams(createDefaultInvoicingParams())
+				.setFailOnChanges(false) // ... because we have some invalid candidates which we know that it will be updated here
+				.enqueueSelection(selectionId));
+
+		InterfaceWrapperHelper.refresh(ic1);
+		InterfaceWrapperHelper.refresh(ic2);
+		assertThat(ic1.getHeaderAggregationKey()).isEqualTo(ic2.getHeaderAggregationKey());
+
+		assertThat(enqueueResult.getWorkpackageEnqueuedCount()).as("EnqueuedWorkpackageCount").isEqualTo(1);
+		assertThat(enqueueResult.getInvoiceCandidateEnqueuedCount()).as("InvoiceCandidateSelectionCount").isEqualTo(2);
+	}
+
+	/**
+	 * Test case:
+	 * <ul>
+	 * <li>3 invoice candidates of different bill partners, i.e. each one in its own chunk (chunk size 1)
+	 * <li>there is no thread inherited transaction, so each chunk is committed on its own
+	 * <li>enqueueing the second chunk fails
+	 * <li>=> the first chunk stays enqueued and the selection contains only the other two candidates; enqueueing the selection again enqueues those
+	 * </ul>
+	 */
+	@Test
+	public void laterChunkFails_noThreadInheritedTrx_enqueueAgainResumes()
+	{
+		Services.get(ISysConfigBL.class).setValue(InvoiceCandidateEnqueuer.SYSCONFIG_ChunkSize, 1, ClientId.SYSTEM, OrgId.ANY);
+
+		final FailingInvoiceCandBL failingInvoiceCandBL = new FailingInvoiceCandBL();
+		Services.registerService(IInvoiceCandBL.class, failingInvoiceCandBL);
+
+		final IInvoiceCandDAO invoiceCandDAO = Services.get(IInvoiceCandDAO.class);
+		final I_C_Invoice_Candidate ic1 = createInvoiceCandidateToInvoice(BPartnerLocationId.ofRepoId(1, 2));
+		invoiceCandDAO.invalidateCand(ic1);
+		final I_C_Invoice_Candidate ic2 = createInvoiceCandidateToInvoice(BPartnerLocationId.ofRepoId(3, 4));
+		invoiceCandDAO.invalidateCand(ic2);
+		final I_C_Invoice_Candidate ic3 = createInvoiceCandidateToInvoice(BPartnerLocationId.ofRepoId(5, 6));
+		invoiceCandDAO.invalidateCand(ic3);
+
+		final PInstanceId selectionId = POJOLookupMap.get().createSelectionFromModels(ic1, ic2, ic3);
+		assertThat(Services.get(ITrxManager.class).hasThreadInheritedTrx()).isFalse();
+
+		//
+		// 1st run: the 2nd chunk fails
+		failingInvoiceCandBL.failOnEnqueueingCall = 2;
+		assertThatThrownBy(() -> newEnqueuer().enqueueSelection(selectionId))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining(FailingInvoiceCandBL.ERROR_MESSAGE);
+
+		assertThat(POJOLookupMap.get().getRecords(I_C_Queue_WorkPackage.class)).hasSize(1);
+		final List<InvoiceCandidateId> icIdsLeftInSelection = retrieveIcIdsInSelection(selectionId);
+		assertThat(icIdsLeftInSelection).hasSize(2);
+		final InvoiceCandidateId enqueuedICId = icIdsOf(ic1, ic2, ic3)
+				.stream()
+				.filter(icId -> !icIdsLeftInSelection.contains(icId))
+				.collect(GuavaCollectors.singleElementOrThrow(() -> new AdempiereException("exactly one candidate shall have been enqueued")));
+		assertThat(failingInvoiceCandBL.enqueuedICIds).containsExactly(enqueuedICId);
+
+		//
+		// 2nd run: enqueues the rest
+		failingInvoiceCandBL.failOnEnqueueingCall = -1;
+		final IInvoiceCandidateEnqueueResult enqueueResult = newEnqueuer().enqueueSelection(selectionId);
+
+		assertThat(enqueueResult.getInvoiceCandidateEnqueuedCount()).as("InvoiceCandidateSelectionCount").isEqualTo(2);
+		assertThat(enqueueResult.getWorkpackageEnqueuedCount()).as("EnqueuedWorkpackageCount").isEqualTo(2);
+		assertThat(POJOLookupMap.get().getRecords(I_C_Queue_WorkPackage.class)).hasSize(3);
+		assertThat(retrieveIcIdsInSelection(selectionId)).isEmpty();
+		assertThat(failingInvoiceCandBL.enqueuedICIds).containsOnlyElementsOf(icIdsOf(ic1, ic2, ic3)).hasSize(3);
+	}
+
+	private InvoiceCandidateEnqueuer newEnqueuer()
+	{
+		return new InvoiceCandidateEnqueuer()
+				.setContext(Env.getCtx())
+				.setInvoicingParams(createDefaultInvoicingParams())
+				.setFailOnChanges(false); // ... because we have some invalid candidates which we know that it will be updated here
+	}
+
+	private static List<InvoiceCandidateId> retrieveIcIdsInSelection(final PInstanceId selectionId)
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_Invoice_Candidate.class)
+				.setOnlySelection(selectionId)
+				.create()
+				.listIds(InvoiceCandidateId::ofRepoId)
+				.asList();
+	}
+
+	private static List<InvoiceCandidateId> icIdsOf(final I_C_Invoice_Candidate... ics)
+	{
+		return Stream.of(ics)
+				.map(ic -> InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Fails the n-th eligibility check done by the enqueuer (i.e. with ignoreInvoiceSchedule=false) and records the candidates which passed it.
+	 */
+	private static class FailingInvoiceCandBL extends InvoiceCandBL
+	{
+		private static final String ERROR_MESSAGE = "enqueueing failed for test";
+
+		private int failOnEnqueueingCall = -1;
+		private int enqueueingCalls = 0;
+		private final List<InvoiceCandidateId> enqueuedICIds = new ArrayList<>();
+
+		@Override
+		public boolean isSkipCandidateFromInvoicing(final I_C_Invoice_Candidate ic, final boolean ignoreInvoiceSchedule)
+		{
+			if (!ignoreInvoiceSchedule)
+			{
+				enqueueingCalls++;
+				if (enqueueingCalls == failOnEnqueueingCall)
+				{
+					throw new AdempiereException(ERROR_MESSAGE);
+				}
+			}
+
+			final boolean skip = super.isSkipCandidateFromInvoicing(ic, ignoreInvoiceSchedule);
+			if (!ignoreInvoiceSchedule && !skip)
+			{
+				enqueuedICIds.add(InvoiceCandidateId.ofRepoId(ic.getC_Invoice_Candidate_ID()));
+			}
+			return skip;
+		}
+	}
+
+	private I_C_Invoice_Candidate createInvoiceCandidateToInvoice(final BPartnerLocationId billBPartnerAndLocationId)
+	{
+		final I_C_Invoice_Candidate ic = createInvoiceCandidate()
+				.setBillBPartnerAndLocationId(billBPartnerAndLocationId)
+				.setPriceEntered(1)
+				.setQtyOrdered(1)
+				.setSOTrx(true)
+				.setManual(false)
+				.setDateInvoiced(LocalDate.parse("2020-06-01"))
+				.build();
+		ic.setQtyToInvoice_Override(BigDecimal.ONE); // to make sure it's invoiced
+		InterfaceWrapperHelper.save(ic);
+		return ic;
+	}
+
+	private I_C_Invoice_Candidate createInvoiceCandidateWithOutdatedHeaderAggregationKey(final String outdatedHeaderAggregationKey)
+	{
+		final I_C_Invoice_Candidate ic = createInvoiceCandidate()
+				.setBillBPartnerAndLocationId(BPartnerLocationId.ofRepoId(1, 2))
+				.setPriceEntered(1)
+				.setQtyOrdered(1)
+				.setSOTrx(true)
+				.setManual(false)
+				.setDateInvoiced(LocalDate.parse("2020-06-01"))
+				.build();
+		ic.setQtyToInvoice_Override(BigDecimal.ONE); // to make sure it's invoiced
+		ic.setHeaderAggregationKey(outdatedHeaderAggregationKey);
+		InterfaceWrapperHelper.save(ic);
+		return ic;
+	}
 }
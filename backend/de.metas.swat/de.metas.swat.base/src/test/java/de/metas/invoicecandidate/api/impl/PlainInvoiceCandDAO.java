@@ -24,6 +24,7 @@ package de.metas.invoicecandidate.api.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Properties;
@@ -38,6 +39,7 @@ import org.slf4j.Logger;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.currency.ICurrencyBL;
+import de.metas.invoicecandidate.InvoiceCandidateId;
 import de.metas.invoicecandidate.api.InvoiceCandidateMultiQuery;
 import de.metas.invoicecandidate.api.InvoiceCandidateQuery;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
@@ -46,6 +48,7 @@ import de.metas.money.CurrencyConversionTypeId;
 import de.metas.money.CurrencyId;
 import de.metas.process.PInstanceId;
 import de.metas.util.Services;
+import de.metas.util.lang.RepoIdAwares;
 import de.metas.util.time.SystemTime;
 
 public class PlainInvoiceCandDAO extends InvoiceCandDAO
@@ -114,4 +117,10 @@ public class PlainInvoiceCandDAO extends InvoiceCandDAO
 		return ImmutableSet.of();
 	}
 
+	@Override
+	public void removeIcsFromSelection(final PInstanceId pinstanceId, final Collection<InvoiceCandidateId> invoiceCandidateIds)
+	{
+		POJOLookupMap.get().removeFromSelection(pinstanceId, RepoIdAwares.asRepoIds(invoiceCandidateIds));
+	}
+
 }
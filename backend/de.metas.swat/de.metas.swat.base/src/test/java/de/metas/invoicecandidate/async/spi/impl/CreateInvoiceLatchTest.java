@@ -0,0 +1,151 @@
+package de.metas.invoicecandidate.async.spi.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.async.exceptions.WorkpackageSkipRequestException;
+import de.metas.async.model.I_C_Queue_Block;
+import de.metas.async.model.I_C_Queue_Element;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.model.X_C_Queue_WorkPackage;
+import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CreateInvoiceLatchTest
+{
+	private static final int BPARTNER_ID_1 = 10;
+	private static final int BPARTNER_ID_2 = 20;
+
+	private I_C_Queue_Block invoiceBlock;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		final I_C_Queue_PackageProcessor packageProcessor = newInstance(I_C_Queue_PackageProcessor.class);
+		packageProcessor.setClassname(InvoiceCandWorkpackageProcessor.class.getName());
+		saveRecord(packageProcessor);
+
+		invoiceBlock = newInstance(I_C_Queue_Block.class);
+		invoiceBlock.setC_Queue_PackageProcessor_ID(packageProcessor.getC_Queue_PackageProcessor_ID());
+		saveRecord(invoiceBlock);
+	}
+
+	@Test
+	public void sameBillPartner_postponed()
+	{
+		final I_C_Queue_WorkPackage earlierWP = createInvoiceWorkpackage(BPARTNER_ID_1);
+		final I_C_Queue_WorkPackage currentWP = createInvoiceWorkpackage(BPARTNER_ID_1);
+
+		assertThatThrownBy(() -> CreateInvoiceLatch.INSTANCE.postponeIfNeeded(currentWP, lockedWorkpackages(earlierWP, currentWP)))
+				.isInstanceOf(WorkpackageSkipRequestException.class);
+	}
+
+	@Test
+	public void sameBillPartner_earlierWorkpackageIsNotPostponed()
+	{
+		final I_C_Queue_WorkPackage earlierWP = createInvoiceWorkpackage(BPARTNER_ID_1);
+		final I_C_Queue_WorkPackage laterWP = createInvoiceWorkpackage(BPARTNER_ID_1);
+
+		// only the later one shall wait; otherwise both could postpone each other
+		assertThatCode(() -> CreateInvoiceLatch.INSTANCE.postponeIfNeeded(earlierWP, lockedWorkpackages(earlierWP, laterWP)))
+				.doesNotThrowAnyException();
+	}
+
+	@Test
+	public void differentBillPartners_notPostponed()
+	{
+		final I_C_Queue_WorkPackage earlierWP = createInvoiceWorkpackage(BPARTNER_ID_1);
+		final I_C_Queue_WorkPackage currentWP = createInvoiceWorkpackage(BPARTNER_ID_2);
+
+		assertThatCode(() -> CreateInvoiceLatch.INSTANCE.postponeIfNeeded(currentWP, lockedWorkpackages(earlierWP, currentWP)))
+				.doesNotThrowAnyException();
+	}
+
+	@Test
+	public void sameBillPartner_otherWorkpackageProcessor_notPostponed()
+	{
+		final I_C_Queue_PackageProcessor otherPackageProcessor = newInstance(I_C_Queue_PackageProcessor.class);
+		otherPackageProcessor.setClassname("some.other.WorkpackageProcessor");
+		saveRecord(otherPackageProcessor);
+		final I_C_Queue_Block otherBlock = newInstance(I_C_Queue_Block.class);
+		otherBlock.setC_Queue_PackageProcessor_ID(otherPackageProcessor.getC_Queue_PackageProcessor_ID());
+		saveRecord(otherBlock);
+
+		final I_C_Queue_WorkPackage earlierWP = createWorkpackage(otherBlock, BPARTNER_ID_1);
+		final I_C_Queue_WorkPackage currentWP = createInvoiceWorkpackage(BPARTNER_ID_1);
+
+		assertThatCode(() -> CreateInvoiceLatch.INSTANCE.postponeIfNeeded(currentWP, lockedWorkpackages(earlierWP, currentWP)))
+				.doesNotThrowAnyException();
+	}
+
+	private I_C_Queue_WorkPackage createInvoiceWorkpackage(final int billBPartnerId)
+	{
+		return createWorkpackage(invoiceBlock, billBPartnerId);
+	}
+
+	private I_C_Queue_WorkPackage createWorkpackage(final I_C_Queue_Block block, final int billBPartnerId)
+	{
+		final I_C_Queue_WorkPackage workpackage = newInstance(I_C_Queue_WorkPackage.class);
+		workpackage.setC_Queue_Block(block);
+		workpackage.setPriority(X_C_Queue_WorkPackage.PRIORITY_Medium);
+		workpackage.setIsReadyForProcessing(true);
+		saveRecord(workpackage);
+
+		final I_C_Invoice_Candidate ic = newInstance(I_C_Invoice_Candidate.class);
+		ic.setBill_BPartner_ID(billBPartnerId);
+		saveRecord(ic);
+
+		final I_C_Queue_Element element = newInstance(I_C_Queue_Element.class);
+		element.setC_Queue_WorkPackage_ID(workpackage.getC_Queue_WorkPackage_ID());
+		element.setAD_Table_ID(InterfaceWrapperHelper.getTableId(I_C_Invoice_Candidate.class));
+		element.setRecord_ID(ic.getC_Invoice_Candidate_ID());
+		saveRecord(element);
+
+		return workpackage;
+	}
+
+	private static IQueryBuilder<I_C_Queue_WorkPackage> lockedWorkpackages(final I_C_Queue_WorkPackage... workpackages)
+	{
+		final IQueryBuilder<I_C_Queue_WorkPackage> queryBuilder = Services.get(IQueryBL.class).createQueryBuilder(I_C_Queue_WorkPackage.class);
+		final Object[] ids = new Object[workpackages.length];
+		for (int i = 0; i < workpackages.length; i++)
+		{
+			ids[i] = workpackages[i].getC_Queue_WorkPackage_ID();
+		}
+		return queryBuilder.addInArrayFilter(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID, ids);
+	}
+}
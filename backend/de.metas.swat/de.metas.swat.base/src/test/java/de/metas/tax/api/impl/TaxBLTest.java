@@ -0,0 +1,67 @@
+package de.metas.tax.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Tax;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.location.CountryId;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TaxBLTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void isMatchingCountryFrom_noCountryFrom()
+	{
+		assertThat(TaxBL.isMatchingCountryFrom(createTax(-1), null)).isTrue();
+		assertThat(TaxBL.isMatchingCountryFrom(createTax(0), null)).isTrue();
+		assertThat(TaxBL.isMatchingCountryFrom(createTax(101), null)).isFalse();
+	}
+
+	@Test
+	public void isMatchingCountryFrom_withCountryFrom()
+	{
+		final CountryId countryFromId = CountryId.ofRepoId(101);
+
+		assertThat(TaxBL.isMatchingCountryFrom(createTax(101), countryFromId)).isTrue();
+		assertThat(TaxBL.isMatchingCountryFrom(createTax(102), countryFromId)).isFalse();
+		assertThat(TaxBL.isMatchingCountryFrom(createTax(0), countryFromId)).isFalse();
+	}
+
+	private static I_C_Tax createTax(final int countryRepoId)
+	{
+		final I_C_Tax tax = newInstance(I_C_Tax.class);
+		tax.setC_Country_ID(countryRepoId);
+		return tax;
+	}
+}
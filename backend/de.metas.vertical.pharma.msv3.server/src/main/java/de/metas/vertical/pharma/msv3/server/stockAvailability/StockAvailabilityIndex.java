@@ -0,0 +1,357 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.vertical.pharma.msv3.protocol.types.BPartnerId;
+import de.metas.vertical.pharma.msv3.protocol.types.PZN;
+import de.metas.vertical.pharma.msv3.protocol.types.Quantity;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExclude;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExcludesUpdateEvent;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailability;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailabilityUpdatedEvent;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory index of the stock availabilities (PZN to qty) and the per-bpartner product excludes.
+ * <p>
+ * Events are applied under a write lock, so a query never sees a half applied event. The event-version and sync-token semantics are the same as the ones of the <code>msv3_stock_availability</code> and <code>msv3_product_exclude</code> tables.
+ * <p>
+ * The index remembers which entries were changed since they were last persisted; see {@link #drainStockChanges()} and {@link #drainProductExcludeChanges()}.
+ */
+@Component
+public final class StockAvailabilityIndex
+{
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<Long, StockEntry> pzn2stock = new HashMap<>();
+	private final Map<Integer, Map<Long, String>> bpartnerId2excludedPzn2syncToken = new HashMap<>();
+
+	private final Set<Long> stockPznsChanged = new HashSet<>();
+	private final Set<ProductExcludeKey> productExcludesChanged = new HashSet<>();
+
+	@Value
+	public static class StockEntry
+	{
+		int qty;
+		int eventVersion;
+		String syncToken;
+	}
+
+	@Value
+	public static class ProductExcludeKey
+	{
+		long pzn;
+		int bpartnerId;
+	}
+
+	/** The entries to insert or update and the keys to delete since the last invocation of {@link StockAvailabilityIndex#drainStockChanges()} resp. {@link StockAvailabilityIndex#drainProductExcludeChanges()}. */
+	@Value
+	public static class Changes<K, V>
+	{
+		ImmutableMap<K, V> upserts;
+		ImmutableSet<K> deletes;
+
+		public boolean isEmpty()
+		{
+			return upserts.isEmpty() && deletes.isEmpty();
+		}
+	}
+
+	public Optional<Quantity> getQtyAvailable(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
+	{
+		return readLocked(() -> getQtyAvailable0(pzn.getValueAsLong(), bpartner.getBpartnerId()));
+	}
+
+	/**
+	 * @return the available quantities of the given PZNs, as seen at one point in time. PZNs which are not available are not contained.
+	 */
+	public ImmutableMap<PZN, Quantity> getQtysAvailable(@NonNull final Collection<PZN> pzns, @NonNull final BPartnerId bpartner)
+	{
+		return readLocked(() -> {
+			final ImmutableMap.Builder<PZN, Quantity> result = ImmutableMap.builder();
+			for (final PZN pzn : ImmutableSet.copyOf(pzns))
+			{
+				getQtyAvailable0(pzn.getValueAsLong(), bpartner.getBpartnerId())
+						.ifPresent(qty -> result.put(pzn, qty));
+			}
+			return result.build();
+		});
+	}
+
+	private Optional<Quantity> getQtyAvailable0(final long pzn, final int bpartnerId)
+	{
+		final Map<Long, String> excludedPzns = bpartnerId2excludedPzn2syncToken.get(bpartnerId);
+		if (excludedPzns != null && excludedPzns.containsKey(pzn))
+		{
+			return Optional.empty();
+		}
+
+		final StockEntry stock = pzn2stock.get(pzn);
+		if (stock == null)
+		{
+			return Optional.empty();
+		}
+		return Optional.of(Quantity.of(stock.getQty()));
+	}
+
+	public int getStockCount()
+	{
+		return readLocked(pzn2stock::size);
+	}
+
+	/**
+	 * @return the number of changed entries
+	 */
+	public int apply(@NonNull final MSV3StockAvailabilityUpdatedEvent event)
+	{
+		final String syncToken = event.getId();
+		final int eventVersion = event.getEventVersion().getAsInt();
+
+		return writeLocked(() -> {
+			int countChanged = 0;
+
+			//
+			// Update
+			for (final MSV3StockAvailability item : event.getItems())
+			{
+				final long pzn = item.getPzn();
+				final StockEntry existing = pzn2stock.get(pzn);
+				if (item.isDelete())
+				{
+					if (existing != null && existing.getEventVersion() < eventVersion)
+					{
+						pzn2stock.remove(pzn);
+						stockPznsChanged.add(pzn);
+						countChanged++;
+					}
+				}
+				else if (existing == null || existing.getEventVersion() <= eventVersion)
+				{
+					pzn2stock.put(pzn, new StockEntry(item.getQty(), eventVersion, syncToken));
+					stockPznsChanged.add(pzn);
+					countChanged++;
+				}
+			}
+
+			//
+			// Delete
+			if (event.isDeleteAllOtherItems())
+			{
+				for (final Iterator<Map.Entry<Long, StockEntry>> it = pzn2stock.entrySet().iterator(); it.hasNext();)
+				{
+					final Map.Entry<Long, StockEntry> entry = it.next();
+					if (!Objects.equals(entry.getValue().getSyncToken(), syncToken) && entry.getValue().getEventVersion() < eventVersion)
+					{
+						it.remove();
+						stockPznsChanged.add(entry.getKey());
+						countChanged++;
+					}
+				}
+			}
+
+			return countChanged;
+		});
+	}
+
+	/**
+	 * @return the number of changed entries
+	 */
+	public int apply(@NonNull final MSV3ProductExcludesUpdateEvent event)
+	{
+		final String syncToken = event.getId();
+
+		return writeLocked(() -> {
+			int countChanged = 0;
+
+			//
+			// Update
+			for (final MSV3ProductExclude item : event.getItems())
+			{
+				final long pzn = item.getPzn().getValueAsLong();
+				final int bpartnerId = item.getBpartnerId();
+				if (item.isDelete())
+				{
+					final Map<Long, String> excludedPzns = bpartnerId2excludedPzn2syncToken.get(bpartnerId);
+					if (excludedPzns == null || excludedPzns.remove(pzn) == null)
+					{
+						continue;
+					}
+				}
+				else
+				{
+					bpartnerId2excludedPzn2syncToken
+							.computeIfAbsent(bpartnerId, k -> new HashMap<>())
+							.put(pzn, syncToken);
+				}
+				productExcludesChanged.add(new ProductExcludeKey(pzn, bpartnerId));
+				countChanged++;
+			}
+
+			//
+			// Delete
+			if (event.isDeleteAllOtherItems())
+			{
+				for (final Map.Entry<Integer, Map<Long, String>> bpartnerEntry : bpartnerId2excludedPzn2syncToken.entrySet())
+				{
+					for (final Iterator<Map.Entry<Long, String>> it = bpartnerEntry.getValue().entrySet().iterator(); it.hasNext();)
+					{
+						final Map.Entry<Long, String> entry = it.next();
+						if (!Objects.equals(entry.getValue(), syncToken))
+						{
+							it.remove();
+							productExcludesChanged.add(new ProductExcludeKey(entry.getKey(), bpartnerEntry.getKey()));
+							countChanged++;
+						}
+					}
+				}
+			}
+
+			return countChanged;
+		});
+	}
+
+	/** Used when loading the index from database; does not mark the entry as changed. */
+	void loadStock(final long pzn, @NonNull final StockEntry stock)
+	{
+		writeLocked(() -> pzn2stock.put(pzn, stock));
+	}
+
+	/** Used when loading the index from database; does not mark the entry as changed. */
+	void loadProductExclude(@NonNull final ProductExcludeKey key, @NonNull final String syncToken)
+	{
+		writeLocked(() -> bpartnerId2excludedPzn2syncToken
+				.computeIfAbsent(key.getBpartnerId(), k -> new HashMap<>())
+				.put(key.getPzn(), syncToken));
+	}
+
+	/**
+	 * @return the current state of all stock entries that were changed since the last invocation; also resets the changes.
+	 */
+	public Changes<Long, StockEntry> drainStockChanges()
+	{
+		return writeLocked(() -> {
+			final ImmutableMap.Builder<Long, StockEntry> upserts = ImmutableMap.builder();
+			final ImmutableSet.Builder<Long> deletes = ImmutableSet.builder();
+			for (final Long pzn : stockPznsChanged)
+			{
+				final StockEntry stock = pzn2stock.get(pzn);
+				if (stock != null)
+				{
+					upserts.put(pzn, stock);
+				}
+				else
+				{
+					deletes.add(pzn);
+				}
+			}
+			stockPznsChanged.clear();
+			return new Changes<>(upserts.build(), deletes.build());
+		});
+	}
+
+	/**
+	 * @return the current state of all product excludes that were changed since the last invocation; also resets the changes.
+	 */
+	public Changes<ProductExcludeKey, String> drainProductExcludeChanges()
+	{
+		return writeLocked(() -> {
+			final ImmutableMap.Builder<ProductExcludeKey, String> upserts = ImmutableMap.builder();
+			final ImmutableSet.Builder<ProductExcludeKey> deletes = ImmutableSet.builder();
+			for (final ProductExcludeKey key : productExcludesChanged)
+			{
+				final Map<Long, String> excludedPzns = bpartnerId2excludedPzn2syncToken.get(key.getBpartnerId());
+				final String syncToken = excludedPzns != null ? excludedPzns.get(key.getPzn()) : null;
+				if (syncToken != null)
+				{
+					upserts.put(key, syncToken);
+				}
+				else
+				{
+					deletes.add(key);
+				}
+			}
+			productExcludesChanged.clear();
+			return new Changes<>(upserts.build(), deletes.build());
+		});
+	}
+
+	/**
+	 * Marks the given stock entries as changed again, e.g. because persisting them failed.
+	 */
+	public void markStockChanged(@NonNull final Collection<Long> pzns)
+	{
+		writeLocked(() -> stockPznsChanged.addAll(pzns));
+	}
+
+	/**
+	 * Marks the given product excludes as changed again, e.g. because persisting them failed.
+	 */
+	public void markProductExcludesChanged(@NonNull final Collection<ProductExcludeKey> keys)
+	{
+		writeLocked(() -> productExcludesChanged.addAll(keys));
+	}
+
+	private <T> T readLocked(final Supplier<T> supplier)
+	{
+		lock.readLock().lock();
+		try
+		{
+			return supplier.get();
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	private <T> T writeLocked(final Supplier<T> supplier)
+	{
+		lock.writeLock().lock();
+		try
+		{
+			return supplier.get();
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+}
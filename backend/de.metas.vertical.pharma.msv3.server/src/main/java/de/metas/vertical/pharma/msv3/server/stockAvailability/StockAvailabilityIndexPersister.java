@@ -0,0 +1,324 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.metas.vertical.pharma.msv3.server.stockAvailability.StockAvailabilityIndex.Changes;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.StockAvailabilityIndex.ProductExcludeKey;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.StockAvailabilityIndex.StockEntry;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExcludeRepository;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailabilityRepository;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Loads the {@link StockAvailabilityIndex} from database on startup and writes its changes back to database in the background, in batches.
+ * <p>
+ * Note that if the server stops before the changes are written, they are lost; the metasfresh peer is expected to resend all data on startup (see <code>msv3server.startup.requestAllData</code>).
+ */
+@Component
+public class StockAvailabilityIndexPersister
+{
+	private static final Logger logger = LoggerFactory.getLogger(StockAvailabilityIndexPersister.class);
+
+	private final StockAvailabilityIndex index;
+	private final JpaStockAvailabilityRepository stockAvailabilityRepo;
+	private final JpaProductExcludeRepository productExcludeRepo;
+	private final TransactionTemplate transactionTemplate;
+
+	private final int batchSize;
+	private final long delayMillis;
+
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+			.setNameFormat("msv3-stock-availability-persister-%d")
+			.setDaemon(true)
+			.build());
+	private final AtomicBoolean persistScheduled = new AtomicBoolean(false);
+
+	public StockAvailabilityIndexPersister(
+			@NonNull final StockAvailabilityIndex index,
+			@NonNull final JpaStockAvailabilityRepository stockAvailabilityRepo,
+			@NonNull final JpaProductExcludeRepository productExcludeRepo,
+			@NonNull final PlatformTransactionManager transactionManager,
+			@Value("${msv3server.stockAvailability.persist.batchSize:1000}") final int batchSize,
+			@Value("${msv3server.stockAvailability.persist.delayMillis:500}") final long delayMillis)
+	{
+		this.index = index;
+		this.stockAvailabilityRepo = stockAvailabilityRepo;
+		this.productExcludeRepo = productExcludeRepo;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize > 0 ? batchSize : 1000;
+		this.delayMillis = delayMillis >= 0 ? delayMillis : 0;
+	}
+
+	@PostConstruct
+	public void loadIndex()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		for (final JpaStockAvailability jpaStockAvailability : stockAvailabilityRepo.findAll())
+		{
+			index.loadStock(
+					jpaStockAvailability.getMfPzn(),
+					new StockEntry(jpaStockAvailability.getMfQty(), jpaStockAvailability.getMfEventVersion(), jpaStockAvailability.getMfSyncToken()));
+		}
+
+		for (final JpaProductExclude jpaProductExclude : productExcludeRepo.findAll())
+		{
+			index.loadProductExclude(
+					new ProductExcludeKey(jpaProductExclude.getPzn(), jpaProductExclude.getMfBpartnerId()),
+					jpaProductExclude.getSyncToken());
+		}
+
+		logger.info("Loaded {} stock availability records into the index in {}", index.getStockCount(), stopwatch);
+	}
+
+	/**
+	 * Writes the index changes in the background. Changes that come in until the background writer starts are written together.
+	 */
+	public void persistAsync()
+	{
+		if (persistScheduled.compareAndSet(false, true))
+		{
+			try
+			{
+				executor.schedule(this::persistScheduled, delayMillis, TimeUnit.MILLISECONDS);
+			}
+			catch (final RejectedExecutionException ex)
+			{
+				// we are shutting down; shutdown() will persist the changes
+				persistScheduled.set(false);
+			}
+		}
+	}
+
+	private void persistScheduled()
+	{
+		persistScheduled.set(false);
+		try
+		{
+			persistNow();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed persisting the stock availability index. Will retry with the next change.", ex);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		// let a scheduled persist run, then write what's still left
+		executor.shutdown();
+		try
+		{
+			executor.awaitTermination(30, TimeUnit.SECONDS);
+			persistNow();
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed persisting the stock availability index on shutdown", ex);
+		}
+	}
+
+	/**
+	 * Writes the index changes to database. In case of failure, the changes that were not written are marked as changed again.
+	 *
+	 * @return the sizes of the batches which were written, one database transaction each
+	 */
+	public synchronized PersistResult persistNow()
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final Changes<Long, StockEntry> stockChanges = index.drainStockChanges();
+		final ImmutableList<Integer> stockBatchSizes;
+		try
+		{
+			stockBatchSizes = persistStockChanges(stockChanges);
+		}
+		catch (final RuntimeException ex)
+		{
+			index.markStockChanged(stockChanges.getUpserts().keySet());
+			index.markStockChanged(stockChanges.getDeletes());
+			throw ex;
+		}
+
+		final Changes<ProductExcludeKey, String> productExcludeChanges = index.drainProductExcludeChanges();
+		final ImmutableList<Integer> productExcludeBatchSizes;
+		try
+		{
+			productExcludeBatchSizes = persistProductExcludeChanges(productExcludeChanges);
+		}
+		catch (final RuntimeException ex)
+		{
+			index.markProductExcludesChanged(productExcludeChanges.getUpserts().keySet());
+			index.markProductExcludesChanged(productExcludeChanges.getDeletes());
+			throw ex;
+		}
+
+		if (!stockChanges.isEmpty() || !productExcludeChanges.isEmpty())
+		{
+			logger.debug("Persisted {} stock availability and {} product exclude changes in {}",
+					stockChanges.getUpserts().size() + stockChanges.getDeletes().size(),
+					productExcludeChanges.getUpserts().size() + productExcludeChanges.getDeletes().size(),
+					stopwatch);
+		}
+
+		return PersistResult.of(stockBatchSizes, productExcludeBatchSizes);
+	}
+
+	@lombok.Value(staticConstructor = "of")
+	public static class PersistResult
+	{
+		/** upserts first, then deletes */
+		ImmutableList<Integer> stockBatchSizes;
+
+		/** upserts first, then deletes */
+		ImmutableList<Integer> productExcludeBatchSizes;
+	}
+
+	private ImmutableList<Integer> persistStockChanges(final Changes<Long, StockEntry> changes)
+	{
+		final ImmutableList.Builder<Integer> batchSizes = ImmutableList.builder();
+
+		for (final List<Long> pzns : Iterables.partition(changes.getUpserts().keySet(), batchSize))
+		{
+			batchSizes.add(pzns.size());
+			transactionTemplate.execute(status -> {
+				final Map<Long, JpaStockAvailability> existingRecords = Maps.uniqueIndex(
+						stockAvailabilityRepo.findByMfPznIn(pzns),
+						JpaStockAvailability::getMfPzn);
+
+				final List<JpaStockAvailability> recordsToSave = new ArrayList<>(pzns.size());
+				for (final Long pzn : pzns)
+				{
+					JpaStockAvailability jpaStockAvailability = existingRecords.get(pzn);
+					if (jpaStockAvailability == null)
+					{
+						jpaStockAvailability = new JpaStockAvailability();
+						jpaStockAvailability.setMfPzn(pzn);
+					}
+
+					final StockEntry stock = changes.getUpserts().get(pzn);
+					jpaStockAvailability.setMfQty(stock.getQty());
+					jpaStockAvailability.setMfEventVersion(stock.getEventVersion());
+					jpaStockAvailability.setMfSyncToken(stock.getSyncToken());
+					recordsToSave.add(jpaStockAvailability);
+				}
+				stockAvailabilityRepo.save(recordsToSave);
+				return null;
+			});
+		}
+
+		for (final List<Long> pzns : Iterables.partition(changes.getDeletes(), batchSize))
+		{
+			batchSizes.add(pzns.size());
+			transactionTemplate.execute(status -> stockAvailabilityRepo.deleteByMfPznIn(pzns));
+		}
+
+		return batchSizes.build();
+	}
+
+	private ImmutableList<Integer> persistProductExcludeChanges(final Changes<ProductExcludeKey, String> changes)
+	{
+		final Function<JpaProductExclude, ProductExcludeKey> toKey = jpaProductExclude -> new ProductExcludeKey(jpaProductExclude.getPzn(), jpaProductExclude.getMfBpartnerId());
+		final ImmutableList.Builder<Integer> batchSizes = ImmutableList.builder();
+
+		for (final List<ProductExcludeKey> keys : Iterables.partition(changes.getUpserts().keySet(), batchSize))
+		{
+			batchSizes.add(keys.size());
+			transactionTemplate.execute(status -> {
+				final List<Long> pzns = new ArrayList<>(keys.size());
+				keys.forEach(key -> pzns.add(key.getPzn()));
+
+				final Map<ProductExcludeKey, JpaProductExclude> existingRecords = new HashMap<>();
+				productExcludeRepo.findByPznIn(pzns).forEach(jpaProductExclude -> existingRecords.put(toKey.apply(jpaProductExclude), jpaProductExclude));
+
+				final List<JpaProductExclude> recordsToSave = new ArrayList<>(keys.size());
+				for (final ProductExcludeKey key : keys)
+				{
+					JpaProductExclude jpaProductExclude = existingRecords.get(key);
+					if (jpaProductExclude == null)
+					{
+						jpaProductExclude = new JpaProductExclude();
+						jpaProductExclude.setPzn(key.getPzn());
+						jpaProductExclude.setMfBpartnerId(key.getBpartnerId());
+					}
+
+					jpaProductExclude.setSyncToken(changes.getUpserts().get(key));
+					recordsToSave.add(jpaProductExclude);
+				}
+				productExcludeRepo.save(recordsToSave);
+				return null;
+			});
+		}
+
+		for (final List<ProductExcludeKey> keys : Iterables.partition(changes.getDeletes(), batchSize))
+		{
+			batchSizes.add(keys.size());
+			transactionTemplate.execute(status -> {
+				// one DELETE per bpartner, because JPQL has no (pzn, mfBpartnerId) IN (...)
+				final ListMultimap<Integer, Long> pznsByBpartnerId = ArrayListMultimap.create();
+				keys.forEach(key -> pznsByBpartnerId.put(key.getBpartnerId(), key.getPzn()));
+				Multimaps.asMap(pznsByBpartnerId).forEach(productExcludeRepo::deleteByMfBpartnerIdAndPznIn);
+				return null;
+			});
+		}
+
+		return batchSizes.build();
+	}
+}
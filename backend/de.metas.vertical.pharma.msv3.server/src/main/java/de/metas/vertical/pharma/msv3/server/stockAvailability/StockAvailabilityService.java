@@ -1,15 +1,16 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
-
-import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.AvailabilityType;
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
 import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQueryItem;
@@ -22,15 +23,8 @@ import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilit
 import de.metas.vertical.pharma.msv3.protocol.types.BPartnerId;
 import de.metas.vertical.pharma.msv3.protocol.types.PZN;
 import de.metas.vertical.pharma.msv3.protocol.types.Quantity;
-import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3EventVersion;
-import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExclude;
 import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExcludesUpdateEvent;
-import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailability;
 import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailabilityUpdatedEvent;
-import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
-import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExcludeRepository;
-import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailability;
-import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailabilityRepository;
 import lombok.NonNull;
 
 /*
@@ -61,9 +55,9 @@ public class StockAvailabilityService
 	private static final Logger logger = LoggerFactory.getLogger(StockAvailabilityService.class);
 
 	@Autowired
-	private JpaStockAvailabilityRepository stockAvailabilityRepo;
+	private StockAvailabilityIndex index;
 	@Autowired
-	private JpaProductExcludeRepository productExcludeRepo;
+	private StockAvailabilityIndexPersister indexPersister;
 
 	public StockAvailabilityResponse checkAvailability(final StockAvailabilityQuery query)
 	{
@@ -73,11 +67,17 @@ public class StockAvailabilityService
 				.id(query.getId())
 				.availabilityType(AvailabilityType.SPECIFIC);
 
+		final List<PZN> pzns = query.getItems()
+				.stream()
+				.map(StockAvailabilityQueryItem::getPzn)
+				.collect(ImmutableList.toImmutableList());
+		final Map<PZN, Quantity> qtysOnHand = index.getQtysAvailable(pzns, bpartner);
+
 		for (final StockAvailabilityQueryItem queryItem : query.getItems())
 		{
 			final PZN pzn = queryItem.getPzn();
 			final Quantity qtyRequired = queryItem.getQtyRequired();
-			final Quantity qtyOnHand = getQtyAvailable(pzn, bpartner).orElse(Quantity.ZERO);
+			final Quantity qtyOnHand = qtysOnHand.getOrDefault(pzn, Quantity.ZERO);
 
 			final StockAvailabilityResponseItem item;
 			if (qtyRequired.compareTo(qtyOnHand) <= 0)
@@ -123,130 +123,22 @@ public class StockAvailabilityService
 
 	public Optional<Quantity> getQtyAvailable(@NonNull final PZN pzn, @NonNull final BPartnerId bpartner)
 	{
-		if (productExcludeRepo.existsByPznAndMfBpartnerId(pzn.getValueAsLong(), bpartner.getBpartnerId()))
-		{
-			return Optional.empty();
-		}
-
-		final JpaStockAvailability jpaStockAvailability = stockAvailabilityRepo.findByMfPzn(pzn.getValueAsLong());
-		if (jpaStockAvailability == null)
-		{
-			return Optional.empty();
-		}
-
-		final Quantity qty = Quantity.of(jpaStockAvailability.getMfQty());
-		return Optional.of(qty);
+		return index.getQtyAvailable(pzn, bpartner);
 	}
 
-	@Transactional
 	public void handleEvent(@NonNull final MSV3StockAvailabilityUpdatedEvent event)
 	{
-		final String mfSyncToken = event.getId();
-		final MSV3EventVersion mfEventVersion = event.getEventVersion();
-
-		//
-		// Update
-		{
-			final AtomicInteger countUpdated = new AtomicInteger();
-
-			for (final MSV3StockAvailability eventItem : event.getItems())
-			{
-				updateStockAvailability(eventItem, mfSyncToken, mfEventVersion);
-				countUpdated.incrementAndGet();
-			}
-			logger.debug("Updated {} stock availability records", countUpdated);
-		}
-
-		//
-		// Delete
-		if (event.isDeleteAllOtherItems())
-		{
-			final long countDeleted = stockAvailabilityRepo
-					.deleteInBatchByMfSyncTokenNotAndMfEventVersionLessThan(
-							mfSyncToken,
-							mfEventVersion.getAsInt());
-			logger.debug("Deleted {} stock availability records", countDeleted);
-		}
+		final int countChanged = index.apply(event);
+		logger.debug("Updated/Deleted {} stock availability records", countChanged);
 
+		indexPersister.persistAsync();
 	}
 
-	private void updateStockAvailability(
-			@NonNull final MSV3StockAvailability request,
-			final String mfSyncToken,
-			@NonNull final MSV3EventVersion mfEventVersion)
-	{
-		if (request.isDelete())
-		{
-			stockAvailabilityRepo
-					.deleteInBatchByMfPznAndMfEventVersionLessThan(
-							request.getPzn(),
-							mfEventVersion.getAsInt());
-		}
-		else
-		{
-			JpaStockAvailability jpaStockAvailability = stockAvailabilityRepo.findByMfPzn(request.getPzn());
-			if (jpaStockAvailability == null)
-			{
-				jpaStockAvailability = new JpaStockAvailability();
-				jpaStockAvailability.setMfPzn(request.getPzn());
-			}
-			else if (jpaStockAvailability.getMfEventVersion() > mfEventVersion.getAsInt())
-			{
-				logger.debug("Discard request with mfEventVersion={} because our local record has mfEventVersion={}; request={}",
-						mfEventVersion, jpaStockAvailability.getMfEventVersion(), request);
-				return;
-			}
-
-			jpaStockAvailability.setMfEventVersion(mfEventVersion.getAsInt());
-			jpaStockAvailability.setMfQty(request.getQty());
-			jpaStockAvailability.setMfSyncToken(mfSyncToken);
-			stockAvailabilityRepo.save(jpaStockAvailability);
-		}
-	}
-
-	@Transactional
 	public void handleEvent(@NonNull final MSV3ProductExcludesUpdateEvent event)
 	{
-		final String syncToken = event.getId();
-
-		//
-		// Update
-		{
-			final AtomicInteger countUpdated = new AtomicInteger();
-			event.getItems().forEach(eventItem -> {
-				updateProductExclude(eventItem, syncToken);
-				countUpdated.incrementAndGet();
-			});
-			logger.debug("Updated {} product exclude records", countUpdated);
-		}
-
-		//
-		// Delete
-		if (event.isDeleteAllOtherItems())
-		{
-			final long countDeleted = productExcludeRepo.deleteInBatchBySyncTokenNot(syncToken);
-			logger.debug("Deleted {} product exclude records", countDeleted);
-		}
-	}
-
-	private void updateProductExclude(@NonNull final MSV3ProductExclude request, final String syncToken)
-	{
-		if (request.isDelete())
-		{
-			productExcludeRepo.deleteInBatchByPznAndMfBpartnerId(request.getPzn().getValueAsLong(), request.getBpartnerId());
-		}
-		else
-		{
-			JpaProductExclude jpaProductExclude = productExcludeRepo.findByPznAndMfBpartnerId(request.getPzn().getValueAsLong(), request.getBpartnerId());
-			if (jpaProductExclude == null)
-			{
-				jpaProductExclude = new JpaProductExclude();
-				jpaProductExclude.setPzn(request.getPzn().getValueAsLong());
-				jpaProductExclude.setMfBpartnerId(request.getBpartnerId());
-			}
+		final int countChanged = index.apply(event);
+		logger.debug("Updated/Deleted {} product exclude records", countChanged);
 
-			jpaProductExclude.setSyncToken(syncToken);
-			productExcludeRepo.save(jpaProductExclude);
-		}
+		indexPersister.persistAsync();
 	}
 }
@@ -1,6 +1,12 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability.jpa;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /*
@@ -28,11 +34,9 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface JpaProductExcludeRepository extends JpaRepository<JpaProductExclude, Long>
 {
-	boolean existsByPznAndMfBpartnerId(long pzn, int mfBpartnerId);
-
-	JpaProductExclude findByPznAndMfBpartnerId(long pzn, int mfBpartnerId);
-
-	long deleteInBatchByPznAndMfBpartnerId(long pzn, int mfBpartnerId);
+	List<JpaProductExclude> findByPznIn(Collection<Long> pzns);
 
-	long deleteInBatchBySyncTokenNot(String syncToken);
+	@Modifying
+	@Query("DELETE FROM JpaProductExclude WHERE mfBpartnerId = :mfBpartnerId AND pzn IN :pzns")
+	int deleteByMfBpartnerIdAndPznIn(@Param("mfBpartnerId") int mfBpartnerId, @Param("pzns") Collection<Long> pzns);
 }
@@ -1,6 +1,12 @@
 package de.metas.vertical.pharma.msv3.server.stockAvailability.jpa;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /*
@@ -28,9 +34,9 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface JpaStockAvailabilityRepository extends JpaRepository<JpaStockAvailability, Long>
 {
-	JpaStockAvailability findByMfPzn(long pzn);
-
-	long deleteInBatchByMfSyncTokenNotAndMfEventVersionLessThan(String mfSyncToken, int mfEventVersion);
+	List<JpaStockAvailability> findByMfPznIn(Collection<Long> mfPzns);
 
-	long deleteInBatchByMfPznAndMfEventVersionLessThan(long mfPzn, int mfEventVersion);
+	@Modifying
+	@Query("DELETE FROM JpaStockAvailability WHERE mfPzn IN :mfPzns")
+	int deleteByMfPznIn(@Param("mfPzns") Collection<Long> mfPzns);
 }
@@ -0,0 +1,251 @@
+package de.metas.vertical.pharma.msv3.server.stockAvailability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.RequirementType;
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery;
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQuery.StockAvailabilityQueryBuilder;
+import de.metas.vertical.pharma.msv3.protocol.stockAvailability.StockAvailabilityQueryItem;
+import de.metas.vertical.pharma.msv3.protocol.types.BPartnerId;
+import de.metas.vertical.pharma.msv3.protocol.types.PZN;
+import de.metas.vertical.pharma.msv3.protocol.types.Quantity;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3EventVersion;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExclude;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3ProductExcludesUpdateEvent;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailability;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailabilityUpdatedEvent;
+import de.metas.vertical.pharma.msv3.server.peer.protocol.MSV3StockAvailabilityUpdatedEvent.MSV3StockAvailabilityUpdatedEventBuilder;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.StockAvailabilityIndexPersister.PersistResult;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExclude;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaProductExcludeRepository;
+import de.metas.vertical.pharma.msv3.server.stockAvailability.jpa.JpaStockAvailabilityRepository;
+import de.metas.vertical.pharma.msv3.server.v2.IntegrationTest.IntegrationTestConfiguration;
+
+/*
+ * #%L
+ * metasfresh-pharma.msv3.server
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ActiveProfiles("test")
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = IntegrationTestConfiguration.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@TestPropertySource(
+		locations = "classpath:application-integrationtest.properties", // shall reset the DB
+		properties = {
+				"msv3server.stockAvailability.persist.batchSize=" + StockAvailabilityLoadTest.BATCH_SIZE,
+				"msv3server.stockAvailability.persist.delayMillis=600000" // the tests persist explicitly; keep the background persister out of the way
+		})
+public class StockAvailabilityLoadTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(StockAvailabilityLoadTest.class);
+
+	static final int BATCH_SIZE = 1000;
+	private static final BPartnerId BPARTNER = BPartnerId.of(1234, 5678);
+
+	@Autowired
+	private StockAvailabilityService stockAvailabilityService;
+	@Autowired
+	private StockAvailabilityIndexPersister indexPersister;
+	@Autowired
+	private JpaStockAvailabilityRepository stockAvailabilityRepo;
+	@Autowired
+	private JpaProductExcludeRepository productExcludeRepo;
+
+	@Test
+	public void fullSync_isPersistedInBatches()
+	{
+		stockAvailabilityService.handleEvent(createFullSyncEvent(1, 5000));
+		final PersistResult result1 = indexPersister.persistNow();
+		assertThat(result1.getStockBatchSizes()).containsExactly(BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE);
+		assertThat(result1.getProductExcludeBatchSizes()).isEmpty();
+		assertThat(stockAvailabilityRepo.count()).isEqualTo(5000);
+
+		// the second full sync drops the PZNs it doesn't contain
+		stockAvailabilityService.handleEvent(createFullSyncEvent(2, 3000));
+		final PersistResult result2 = indexPersister.persistNow();
+		assertThat(result2.getStockBatchSizes())
+				.as("3000 upserts, then 2000 deletes")
+				.containsExactly(BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE);
+		assertThat(stockAvailabilityRepo.count()).isEqualTo(3000);
+		assertThat(stockAvailabilityRepo.findByMfPznIn(Collections.singletonList(1000L)).get(0).getMfEventVersion()).isEqualTo(2);
+	}
+
+	@Test
+	public void productExcludes_fullSync_deletesByPznAndBpartner()
+	{
+		final int bpartnerId1 = 1;
+		final int bpartnerId2 = 2;
+
+		stockAvailabilityService.handleEvent(MSV3ProductExcludesUpdateEvent.builder()
+				.items(createProductExcludes(bpartnerId1, 1500))
+				.items(createProductExcludes(bpartnerId2, 500))
+				.deleteAllOtherItems(true)
+				.build());
+		final PersistResult result1 = indexPersister.persistNow();
+		assertThat(result1.getProductExcludeBatchSizes()).containsExactly(BATCH_SIZE, BATCH_SIZE);
+		assertThat(productExcludeRepo.count()).isEqualTo(2000);
+
+		// the second full sync drops bpartner 1's PZNs above 1000 and all of bpartner 2's PZNs, which bpartner 1 still excludes too
+		stockAvailabilityService.handleEvent(MSV3ProductExcludesUpdateEvent.builder()
+				.items(createProductExcludes(bpartnerId1, 1000))
+				.deleteAllOtherItems(true)
+				.build());
+		final PersistResult result2 = indexPersister.persistNow();
+		assertThat(result2.getProductExcludeBatchSizes())
+				.as("1000 upserts, then 500 + 500 deletes of two bpartners")
+				.containsExactly(BATCH_SIZE, BATCH_SIZE);
+
+		final List<JpaProductExclude> productExcludes = productExcludeRepo.findAll();
+		assertThat(productExcludes).hasSize(1000);
+		assertThat(productExcludes).extracting(JpaProductExclude::getMfBpartnerId).containsOnly(bpartnerId1);
+		assertThat(productExcludes.stream().mapToLong(JpaProductExclude::getPzn).max().getAsLong()).isEqualTo(1000);
+	}
+
+	private static List<MSV3ProductExclude> createProductExcludes(final int bpartnerId, final int pznsCount)
+	{
+		final List<MSV3ProductExclude> productExcludes = new ArrayList<>(pznsCount);
+		for (int pzn = 1; pzn <= pznsCount; pzn++)
+		{
+			productExcludes.add(MSV3ProductExclude.builder()
+					.pzn(PZN.of(pzn))
+					.bpartnerId(bpartnerId)
+					.build());
+		}
+		return productExcludes;
+	}
+
+	/**
+	 * Runs a full sync with 100k PZNs and then 8 threads which check the availability of orders with 300 PZNs each. Logs the latency percentiles.
+	 */
+	@Test
+	@Ignore // load test; run it manually
+	public void checkAvailability_latency() throws Exception
+	{
+		final int pznsCount = 100_000;
+		final int itemsPerQuery = 300;
+		final int threads = 8;
+		final int queriesPerThread = 2_000;
+
+		final long syncStart = System.nanoTime();
+		stockAvailabilityService.handleEvent(createFullSyncEvent(1, pznsCount));
+		logger.info("Full sync of {} PZNs applied in {}ms", pznsCount, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - syncStart));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final List<Future<long[]>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++)
+		{
+			final Random random = new Random(t);
+			futures.add(executor.submit(() -> {
+				final long[] durations = new long[queriesPerThread];
+				for (int i = 0; i < queriesPerThread; i++)
+				{
+					final StockAvailabilityQuery query = createQuery(random, pznsCount, itemsPerQuery);
+					final long start = System.nanoTime();
+					stockAvailabilityService.checkAvailability(query);
+					durations[i] = System.nanoTime() - start;
+				}
+				return durations;
+			}));
+		}
+
+		final List<Long> durations = new ArrayList<>();
+		for (final Future<long[]> future : futures)
+		{
+			for (final long duration : future.get())
+			{
+				durations.add(duration);
+			}
+		}
+		executor.shutdown();
+
+		Collections.sort(durations);
+		logger.info("checkAvailability with {} items: p50={}ms, p99={}ms, max={}ms",
+				itemsPerQuery,
+				toMillis(percentile(durations, 50)),
+				toMillis(percentile(durations, 99)),
+				toMillis(durations.get(durations.size() - 1)));
+
+		assertThat(toMillis(percentile(durations, 99))).isLessThan(100);
+	}
+
+	private static MSV3StockAvailabilityUpdatedEvent createFullSyncEvent(final int eventVersion, final int pznsCount)
+	{
+		final MSV3StockAvailabilityUpdatedEventBuilder event = MSV3StockAvailabilityUpdatedEvent.builder()
+				.eventVersion(MSV3EventVersion.of(eventVersion))
+				.deleteAllOtherItems(true);
+		for (int pzn = 1; pzn <= pznsCount; pzn++)
+		{
+			event.item(MSV3StockAvailability.builder()
+					.pzn(pzn)
+					.qty(pzn % 100)
+					.build());
+		}
+		return event.build();
+	}
+
+	private static StockAvailabilityQuery createQuery(final Random random, final int pznsCount, final int itemsCount)
+	{
+		final StockAvailabilityQueryBuilder query = StockAvailabilityQuery.builder()
+				.id("query")
+				.bpartner(BPARTNER);
+		for (int i = 0; i < itemsCount; i++)
+		{
+			query.item(StockAvailabilityQueryItem.builder()
+					.pzn(PZN.of(1 + random.nextInt(pznsCount)))
+					.qtyRequired(Quantity.of(1 + random.nextInt(50)))
+					.requirementType(RequirementType.DIRECT)
+					.build());
+		}
+		return query.build();
+	}
+
+	private static long percentile(final List<Long> sortedDurations, final int percentile)
+	{
+		final int index = (int)Math.ceil(percentile / 100.0 * sortedDurations.size()) - 1;
+		return sortedDurations.get(Math.max(index, 0));
+	}
+
+	private static double toMillis(final long nanos)
+	{
+		return nanos / 1_000_000.0;
+	}
+}
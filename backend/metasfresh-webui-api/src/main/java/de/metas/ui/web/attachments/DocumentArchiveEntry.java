@@ -1,5 +1,6 @@
 package de.metas.ui.web.attachments;
 
+import java.io.OutputStream;
 import java.net.URI;
 
 import org.adempiere.archive.api.IArchiveBL;
@@ -77,6 +78,26 @@ class DocumentArchiveEntry implements IDocumentAttachmentEntry
 		return archiveBL.getBinaryData(archive);
 	}
 
+	@Override
+	public boolean isStreamingSupported()
+	{
+		return true;
+	}
+
+	@Override
+	public void writeDataTo(final OutputStream out)
+	{
+		final IArchiveBL archiveBL = Services.get(IArchiveBL.class);
+		archiveBL.writeBinaryDataTo(archive, out);
+	}
+
+	@Override
+	public long getDataSize()
+	{
+		final IArchiveBL archiveBL = Services.get(IArchiveBL.class);
+		return archiveBL.getBinaryDataSize(archive);
+	}
+
 	@Override
 	public String getContentType()
 	{
@@ -1,5 +1,6 @@
 package de.metas.ui.web.attachments;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import de.metas.attachments.AttachmentEntry;
 import de.metas.attachments.AttachmentEntryService;
@@ -31,6 +32,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -172,7 +174,7 @@ public class DocumentAttachmentsRestController
 	}
 
 	@GetMapping("/{id}")
-	public ResponseEntity<byte[]> getAttachmentById(
+	public ResponseEntity<?> getAttachmentById(
 			@PathVariable("windowId") final String windowIdStr //
 			, @PathVariable("documentId") final String documentId //
 			, @PathVariable("id") final String entryIdStr)
@@ -183,8 +185,18 @@ public class DocumentAttachmentsRestController
 		final IDocumentAttachmentEntry entry = getDocumentAttachments(windowIdStr, documentId)
 				.getEntry(entryId);
 
+		return toResponseEntity(entry);
+	}
+
+	@VisibleForTesting
+	static ResponseEntity<?> toResponseEntity(@NonNull final IDocumentAttachmentEntry entry)
+	{
 		final AttachmentEntry.Type type = entry.getType();
-		if (type == AttachmentEntry.Type.Data)
+		if (type == AttachmentEntry.Type.Data && entry.isStreamingSupported())
+		{
+			return extractStreamingResponseEntryFromData(entry);
+		}
+		else if (type == AttachmentEntry.Type.Data)
 		{
 			return extractResponseEntryFromData(entry);
 		}
@@ -212,14 +224,38 @@ public class DocumentAttachmentsRestController
 					.setParameter("reason", "data is null or empty");
 		}
 
-		final String entryContentType = entry.getContentType();
+		final HttpHeaders headers = createDataResponseHeaders(entry.getContentType(), entryFilename);
+		final ResponseEntity<byte[]> response = new ResponseEntity<>(entryData, headers, HttpStatus.OK);
+		return response;
+	}
+
+	/**
+	 * Streams the entry's data straight to the servlet response, so big archives are not loaded into memory.
+	 */
+	private static ResponseEntity<StreamingResponseBody> extractStreamingResponseEntryFromData(@NonNull final IDocumentAttachmentEntry entry)
+	{
+		// check before the response is committed, else the client would get an empty 200 response
+		final long dataSize = entry.getDataSize();
+		if (dataSize <= 0)
+		{
+			throw new EntityNotFoundException("No attachment found")
+					.setParameter("entry", entry)
+					.setParameter("reason", "data is null or empty");
+		}
+
+		final HttpHeaders headers = createDataResponseHeaders(entry.getContentType(), entry.getFilename());
+		headers.setContentLength(dataSize);
+		final StreamingResponseBody body = entry::writeDataTo;
+		return new ResponseEntity<>(body, headers, HttpStatus.OK);
+	}
 
+	private static HttpHeaders createDataResponseHeaders(final String contentType, final String filename)
+	{
 		final HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.parseMediaType(entryContentType));
-		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + entryFilename + "\"");
+		headers.setContentType(MediaType.parseMediaType(contentType));
+		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
 		headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-		final ResponseEntity<byte[]> response = new ResponseEntity<>(entryData, headers, HttpStatus.OK);
-		return response;
+		return headers;
 	}
 
 	private static ResponseEntity<byte[]> extractResponseEntryFromURL(@NonNull final IDocumentAttachmentEntry entry)
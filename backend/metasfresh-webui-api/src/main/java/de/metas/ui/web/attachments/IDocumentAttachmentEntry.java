@@ -1,5 +1,7 @@
 package de.metas.ui.web.attachments;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 
 import de.metas.attachments.AttachmentEntry;
@@ -37,6 +39,35 @@ public interface IDocumentAttachmentEntry
 
 	byte[] getData();
 
+	/**
+	 * @return true if {@link #writeDataTo(OutputStream)} can deliver the data without loading it into memory first
+	 */
+	default boolean isStreamingSupported()
+	{
+		return false;
+	}
+
+	/**
+	 * Writes the data to given output stream, without closing it.
+	 */
+	default void writeDataTo(final OutputStream out) throws IOException
+	{
+		final byte[] data = getData();
+		if (data != null)
+		{
+			out.write(data);
+		}
+	}
+
+	/**
+	 * @return the data size in bytes; zero if there is no data
+	 */
+	default long getDataSize()
+	{
+		final byte[] data = getData();
+		return data != null ? data.length : 0;
+	}
+
 	String getContentType();
 
 	URI getUrl();
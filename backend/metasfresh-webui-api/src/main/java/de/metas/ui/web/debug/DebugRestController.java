@@ -43,6 +43,7 @@ import de.metas.ui.web.comments.ViewRowCommentsSummary;
 import de.metas.ui.web.config.WebConfig;
 import de.metas.ui.web.debug.JSONCacheResetResult.JSONCacheResetResultBuilder;
 import de.metas.ui.web.exceptions.EntityNotFoundException;
+import de.metas.ui.web.material.adapter.AvailableToPromiseAdapter;
 import de.metas.ui.web.menu.MenuTreeRepository;
 import de.metas.ui.web.process.ProcessRestController;
 import de.metas.ui.web.session.UserSession;
@@ -62,6 +63,7 @@ import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.ui.web.window.model.DocumentCollection;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceFactory;
+import de.metas.ui.web.window.model.lookup.fulltext.LookupFullTextIndexService;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.GuavaCollectors;
@@ -134,6 +136,14 @@ public class DebugRestController
 	@Lazy
 	private ObjectMapper sharedJsonObjectMapper;
 
+	@Autowired
+	@Lazy
+	private LookupFullTextIndexService lookupFullTextIndexService;
+
+	@Autowired
+	@Lazy
+	private AvailableToPromiseAdapter availableToPromiseAdapter;
+
 	private JSONOptions newJSONOptions()
 	{
 		return JSONOptions.of(userSession);
@@ -287,6 +297,22 @@ public class DebugRestController
 				.collect(GuavaCollectors.toImmutableList());
 	}
 
+	@GetMapping("/lookups/fullTextIndexStats")
+	public Map<String, Object> getLookupFullTextIndexStats()
+	{
+		userSession.assertLoggedIn();
+
+		return lookupFullTextIndexService.getStats();
+	}
+
+	@GetMapping("/material/atpStats")
+	public Map<String, Object> getAvailableToPromiseStats()
+	{
+		userSession.assertLoggedIn();
+
+		return availableToPromiseAdapter.getStats();
+	}
+
 	@RequestMapping(value = "/eventBus/postEvent", method = RequestMethod.GET)
 	public void postEvent(
 			@RequestParam(name = "topicName", defaultValue = "de.metas.event.GeneralNotifications") final String topicName //
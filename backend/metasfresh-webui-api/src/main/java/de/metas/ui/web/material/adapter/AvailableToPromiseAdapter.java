@@ -1,29 +1,54 @@
 package de.metas.ui.web.material.adapter;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.mm.attributes.api.AttributesKeys;
 import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.warehouse.WarehouseId;
 import org.compiere.model.I_C_UOM;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
 
+import de.metas.logging.LogManager;
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseQuery;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseResult;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseResultGroup;
+import de.metas.material.dispo.commons.repository.atp.BPartnerClassifier;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.product.IProductBL;
 import de.metas.product.ProductId;
 import de.metas.quantity.Quantity;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.AvailableToPromiseResultForWebuiBuilder;
+import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group;
+import de.metas.ui.web.util.LatencyStats;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -47,33 +72,272 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Retrieves the available-to-promise quantities for the webui (e.g. product lookups).
+ * <p>
+ * Because the same ATP queries are fired over and over again while the user is typing or entering order lines, this adapter:
+ * <ul>
+ * <li>caches the result per product for a few seconds (see {@value #SYSCONFIG_CacheTTLSeconds}); cached results are discarded when a material event changes the product's stock (see {@link #invalidateByProductId(int)})
+ * <li>when a product is already being loaded by another thread for the same query, it waits for that result instead of querying again
+ * <li>loads all products which are not cached in one database query
+ * </ul>
+ */
 @Service
 public class AvailableToPromiseAdapter
 {
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseAdapter.class);
+
+	private static final String SYSCONFIG_CacheTTLSeconds = "de.metas.ui.web.material.adapter.AvailableToPromiseAdapter.CacheTTLSeconds";
+	private static final int DEFAULT_CacheTTLSeconds = 10;
+
+	/** Upper bound for {@value #SYSCONFIG_CacheTTLSeconds}, because that's a short term cache */
+	private static final int MAX_CacheTTLSeconds = 300;
+	private static final int CACHE_MAX_SIZE = 10000;
+	private static final int LATENCY_SAMPLES = 1000;
+
 	private final IProductBL productsService = Services.get(IProductBL.class);
 	private final AvailableToPromiseRepository availableToPromiseRepository;
 
+	private final Ticker ticker;
+	private final Cache<ProductQueryKey, CachedGroups> cache;
+	private final ConcurrentHashMap<ProductQueryKey, CompletableFuture<ImmutableList<Group>>> inFlightLoads = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Integer, Long> lastInvalidationNanosByProductId = new ConcurrentHashMap<>();
+
+	// statistics
+	private final LongAdder statsRequests = new LongAdder();
+	private final LongAdder statsCacheHits = new LongAdder();
+	private final LongAdder statsCoalesced = new LongAdder();
+	private final LongAdder statsLoaded = new LongAdder();
+	private final LongAdder statsDatabaseQueries = new LongAdder();
+	private final LatencyStats statsLatency = new LatencyStats("retrieveAvailableStock", LATENCY_SAMPLES);
+
+	@Autowired
 	public AvailableToPromiseAdapter(@NonNull final AvailableToPromiseRepository stockRepository)
+	{
+		this(stockRepository, Ticker.systemTicker());
+	}
+
+	@VisibleForTesting
+	AvailableToPromiseAdapter(
+			@NonNull final AvailableToPromiseRepository stockRepository,
+			@NonNull final Ticker ticker)
 	{
 		this.availableToPromiseRepository = stockRepository;
+		this.ticker = ticker;
+		this.cache = CacheBuilder.newBuilder()
+				.ticker(ticker)
+				.maximumSize(CACHE_MAX_SIZE)
+				.expireAfterWrite(MAX_CacheTTLSeconds, TimeUnit.SECONDS)
+				.build();
 	}
 
 	@NonNull
 	public AvailableToPromiseResultForWebui retrieveAvailableStock(@NonNull final AvailableToPromiseQuery query)
 	{
-		final AvailableToPromiseResult commonsAvailableStock = availableToPromiseRepository.retrieveAvailableStock(query);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		statsRequests.increment();
 
-		final AvailableToPromiseResultForWebuiBuilder clientResultBuilder = AvailableToPromiseResultForWebui.builder();
+		final long ttlNanos = getCacheTTLNanos();
+
+		//
+		// Collect the results per product: either from cache, or from a concurrent load of the same product, or load them ourselves.
+		final Map<ProductQueryKey, CompletableFuture<ImmutableList<Group>>> resultsByKey = new LinkedHashMap<>();
+		final Map<ProductQueryKey, CompletableFuture<ImmutableList<Group>>> resultsToLoad = new LinkedHashMap<>();
+		for (final int productId : ImmutableSet.copyOf(query.getProductIds()))
+		{
+			final ProductQueryKey key = ProductQueryKey.of(productId, query);
+
+			final ImmutableList<Group> cachedGroups = getCachedGroupsOrNull(key, ttlNanos);
+			if (cachedGroups != null)
+			{
+				statsCacheHits.increment();
+				resultsByKey.put(key, CompletableFuture.completedFuture(cachedGroups));
+				continue;
+			}
 
-		final List<AvailableToPromiseResultGroup> commonsResultGroups = commonsAvailableStock.getResultGroups();
-		for (final AvailableToPromiseResultGroup commonsResultGroup : commonsResultGroups)
+			final CompletableFuture<ImmutableList<Group>> newLoad = new CompletableFuture<>();
+			final CompletableFuture<ImmutableList<Group>> existingLoad = inFlightLoads.putIfAbsent(key, newLoad);
+			if (existingLoad != null)
+			{
+				statsCoalesced.increment();
+				resultsByKey.put(key, existingLoad);
+			}
+			else
+			{
+				resultsByKey.put(key, newLoad);
+				resultsToLoad.put(key, newLoad);
+			}
+		}
+
+		if (!resultsToLoad.isEmpty())
 		{
-			final AvailableToPromiseResultForWebui.Group clientResultGroup = createClientResultGroup(commonsResultGroup);
-			clientResultBuilder.group(clientResultGroup);
+			loadAndComplete(query, resultsToLoad, ttlNanos > 0);
 		}
+
+		final AvailableToPromiseResultForWebuiBuilder clientResultBuilder = AvailableToPromiseResultForWebui.builder();
+		for (final CompletableFuture<ImmutableList<Group>> result : resultsByKey.values())
+		{
+			clientResultBuilder.groups(getResult(result));
+		}
+
+		statsLatency.record(stopwatch.elapsed(TimeUnit.NANOSECONDS));
 		return clientResultBuilder.build();
 	}
 
+	/**
+	 * Loads the given products using one database query and completes their futures.
+	 */
+	private void loadAndComplete(
+			@NonNull final AvailableToPromiseQuery query,
+			@NonNull final Map<ProductQueryKey, CompletableFuture<ImmutableList<Group>>> resultsToLoad,
+			final boolean addToCache)
+	{
+		final long loadStartNanos = ticker.read();
+		try
+		{
+			final AvailableToPromiseQuery queryEffective = query.toBuilder()
+					.clearProductIds()
+					.productIds(resultsToLoad.keySet().stream().map(ProductQueryKey::getProductId).collect(ImmutableList.toImmutableList()))
+					.build();
+
+			statsDatabaseQueries.increment();
+			final AvailableToPromiseResult commonsAvailableStock = availableToPromiseRepository.retrieveAvailableStock(queryEffective);
+
+			final ImmutableListMultimap<Integer, Group> clientGroupsByProductId = commonsAvailableStock.getResultGroups()
+					.stream()
+					.map(this::createClientResultGroup)
+					.collect(ImmutableListMultimap.toImmutableListMultimap(group -> group.getProductId().getRepoId(), group -> group));
+
+			for (final Map.Entry<ProductQueryKey, CompletableFuture<ImmutableList<Group>>> entry : resultsToLoad.entrySet())
+			{
+				final ProductQueryKey key = entry.getKey();
+				final ImmutableList<Group> groups = clientGroupsByProductId.get(key.getProductId());
+				if (addToCache)
+				{
+					cache.put(key, CachedGroups.of(groups, loadStartNanos));
+				}
+				statsLoaded.increment();
+
+				entry.getValue().complete(groups);
+			}
+		}
+		catch (final RuntimeException ex)
+		{
+			resultsToLoad.values().forEach(result -> result.completeExceptionally(ex));
+		}
+		finally
+		{
+			resultsToLoad.forEach(inFlightLoads::remove);
+		}
+	}
+
+	private static ImmutableList<Group> getResult(final CompletableFuture<ImmutableList<Group>> result)
+	{
+		try
+		{
+			return result.join();
+		}
+		catch (final CompletionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause() != null ? ex.getCause() : ex);
+		}
+	}
+
+	@Nullable
+	private ImmutableList<Group> getCachedGroupsOrNull(@NonNull final ProductQueryKey key, final long ttlNanos)
+	{
+		if (ttlNanos <= 0)
+		{
+			return null;
+		}
+
+		final CachedGroups cachedGroups = cache.getIfPresent(key);
+		if (cachedGroups == null)
+		{
+			return null;
+		}
+
+		final long loadStartNanos = cachedGroups.getLoadStartNanos();
+		if (ticker.read() - loadStartNanos > ttlNanos)
+		{
+			return null;
+		}
+
+		// NOTE: also covers the case when the stock changed while we were loading
+		final Long lastInvalidationNanos = lastInvalidationNanosByProductId.get(key.getProductId());
+		if (lastInvalidationNanos != null && lastInvalidationNanos - loadStartNanos >= 0)
+		{
+			return null;
+		}
+
+		return cachedGroups.getGroups();
+	}
+
+	private static long getCacheTTLNanos()
+	{
+		final int ttlSeconds = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_CacheTTLSeconds, DEFAULT_CacheTTLSeconds);
+		return TimeUnit.SECONDS.toNanos(Math.min(ttlSeconds, MAX_CacheTTLSeconds));
+	}
+
+	/**
+	 * Discards the cached results of the given product.
+	 */
+	public void invalidateByProductId(final int productId)
+	{
+		if (productId <= 0)
+		{
+			return;
+		}
+
+		lastInvalidationNanosByProductId.put(productId, ticker.read());
+		logger.trace("Invalidated cached ATP results for M_Product_ID={}", productId);
+	}
+
+	public Map<String, Object> getStats()
+	{
+		final Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("requests", statsRequests.sum());
+		stats.put("cacheHits", statsCacheHits.sum());
+		stats.put("coalesced", statsCoalesced.sum());
+		stats.put("loaded", statsLoaded.sum());
+		stats.put("databaseQueries", statsDatabaseQueries.sum());
+		stats.put("cacheSize", cache.size());
+		stats.put("inFlightLoads", inFlightLoads.size());
+		stats.put("latency", statsLatency.toMap());
+		return stats;
+	}
+
+	/**
+	 * The result of one product within an {@link AvailableToPromiseQuery}.
+	 * Note that the result of a product does not depend on the other products of the query.
+	 */
+	@Value
+	private static class ProductQueryKey
+	{
+		public static ProductQueryKey of(final int productId, @NonNull final AvailableToPromiseQuery query)
+		{
+			return new ProductQueryKey(
+					productId,
+					query.getDate(),
+					query.getBpartner(),
+					query.getWarehouseIds(),
+					query.getStorageAttributesKeyPatterns());
+		}
+
+		int productId;
+		ZonedDateTime date;
+		BPartnerClassifier bpartner;
+		ImmutableSet<WarehouseId> warehouseIds;
+		ImmutableList<AttributesKeyPattern> storageAttributesKeyPatterns;
+	}
+
+	@Value(staticConstructor = "of")
+	private static class CachedGroups
+	{
+		ImmutableList<Group> groups;
+		long loadStartNanos;
+	}
+
 	private AvailableToPromiseResultForWebui.Group createClientResultGroup(@NonNull final AvailableToPromiseResultGroup commonsResultGroup)
 	{
 		try
@@ -0,0 +1,106 @@
+package de.metas.ui.web.material.adapter;
+
+import java.util.Collection;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.Profiles;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.MaterialEventHandler;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.material.event.shipmentschedule.AbstractShipmentScheduleEvent;
+import de.metas.material.event.shipmentschedule.ShipmentScheduleCreatedEvent;
+import de.metas.material.event.shipmentschedule.ShipmentScheduleDeletedEvent;
+import de.metas.material.event.shipmentschedule.ShipmentScheduleUpdatedEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+import de.metas.material.event.transactions.AbstractTransactionEvent;
+import de.metas.material.event.transactions.TransactionCreatedEvent;
+import de.metas.material.event.transactions.TransactionDeletedEvent;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Discards the {@link AvailableToPromiseAdapter}'s cached results of those products whose stock or shipment schedules were changed.
+ * <p>
+ * Note: the event might arrive before the material dispo updated its candidates, so a result which is loaded right after the invalidation might still be stale.
+ * That's acceptable because cached results expire after a few seconds anyways.
+ */
+@Profile(Profiles.PROFILE_Webui)
+@Component
+public class AvailableToPromiseCacheInvalidationHandler implements MaterialEventHandler<MaterialEvent>
+{
+	private final AvailableToPromiseAdapter availableToPromiseAdapter;
+
+	public AvailableToPromiseCacheInvalidationHandler(@NonNull final AvailableToPromiseAdapter availableToPromiseAdapter)
+	{
+		this.availableToPromiseAdapter = availableToPromiseAdapter;
+	}
+
+	@Override
+	public Collection<Class<? extends MaterialEvent>> getHandeledEventType()
+	{
+		return ImmutableList.of(
+				TransactionCreatedEvent.class,
+				TransactionDeletedEvent.class,
+				StockChangedEvent.class,
+				ShipmentScheduleCreatedEvent.class,
+				ShipmentScheduleUpdatedEvent.class,
+				ShipmentScheduleDeletedEvent.class);
+	}
+
+	@Override
+	public void handleEvent(@NonNull final MaterialEvent event)
+	{
+		final ProductDescriptor productDescriptor = extractProductDescriptorOrNull(event);
+		if (productDescriptor == null)
+		{
+			return;
+		}
+
+		availableToPromiseAdapter.invalidateByProductId(productDescriptor.getProductId());
+	}
+
+	private static ProductDescriptor extractProductDescriptorOrNull(final MaterialEvent event)
+	{
+		if (event instanceof AbstractTransactionEvent)
+		{
+			return ((AbstractTransactionEvent)event).getMaterialDescriptor();
+		}
+		else if (event instanceof StockChangedEvent)
+		{
+			return ((StockChangedEvent)event).getProductDescriptor();
+		}
+		else if (event instanceof AbstractShipmentScheduleEvent)
+		{
+			return ((AbstractShipmentScheduleEvent)event).getMaterialDescriptor();
+		}
+		else
+		{
+			return null;
+		}
+	}
+}
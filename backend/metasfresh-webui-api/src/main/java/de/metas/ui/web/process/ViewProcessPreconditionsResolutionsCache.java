@@ -0,0 +1,156 @@
+package de.metas.ui.web.process;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.metas.cache.CCache;
+import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.process.descriptor.ProcessPreconditionsResolutionAndDuration;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.ViewProfileId;
+import de.metas.ui.web.view.ViewRowIdsSelection;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Memorizes the preconditions resolutions of view related processes, per process, view and rows selection.
+ * <p>
+ * The entries of a view are dropped when the view, its parent/child view or any of their rows are reported as changed (see {@link #invalidateView(ViewId)}).
+ */
+public final class ViewProcessPreconditionsResolutionsCache
+{
+	private static final int MAX_VIEWS = 500;
+	private static final int MAX_ENTRIES_PER_VIEW = 500;
+	private static final int EXPIRE_AFTER_MINUTES = 10;
+
+	private static final CCache<ViewId, Cache<Key, ProcessPreconditionsResolutionAndDuration>> resolutionsByViewId = CCache.newLRUCache(
+			ViewProcessPreconditionsResolutionsCache.class.getSimpleName() + "#by#ViewId",
+			MAX_VIEWS,
+			EXPIRE_AFTER_MINUTES);
+
+	/** parent/child view ID to the IDs of the views whose resolutions depend on it */
+	private static final CCache<ViewId, Set<ViewId>> dependentViewIdsByViewId = CCache.newLRUCache(
+			ViewProcessPreconditionsResolutionsCache.class.getSimpleName() + "#dependentViewIds#by#ViewId",
+			MAX_VIEWS,
+			EXPIRE_AFTER_MINUTES);
+
+	private ViewProcessPreconditionsResolutionsCache()
+	{
+	}
+
+	@Nullable
+	public static ProcessPreconditionsResolutionAndDuration getOrNull(@NonNull final Key key)
+	{
+		final Cache<Key, ProcessPreconditionsResolutionAndDuration> viewResolutions = resolutionsByViewId.get(key.getViewId());
+		return viewResolutions != null ? viewResolutions.getIfPresent(key) : null;
+	}
+
+	public static void put(@NonNull final Key key, @NonNull final ProcessPreconditionsResolutionAndDuration resolution)
+	{
+		resolutionsByViewId
+				.getOrLoad(key.getViewId(), ViewProcessPreconditionsResolutionsCache::newViewResolutionsCache)
+				.put(key, resolution);
+
+		final ViewId viewId = key.getViewId();
+		if (key.getParentViewRowIdsSelection() != null)
+		{
+			addDependentViewId(key.getParentViewRowIdsSelection().getViewId(), viewId);
+		}
+		if (key.getChildViewRowIdsSelection() != null)
+		{
+			addDependentViewId(key.getChildViewRowIdsSelection().getViewId(), viewId);
+		}
+	}
+
+	private static void addDependentViewId(@NonNull final ViewId viewId, @NonNull final ViewId dependentViewId)
+	{
+		if (viewId.equals(dependentViewId))
+		{
+			return;
+		}
+
+		dependentViewIdsByViewId
+				.getOrLoad(viewId, k -> ConcurrentHashMap.<ViewId> newKeySet())
+				.add(dependentViewId);
+	}
+
+	private static Cache<Key, ProcessPreconditionsResolutionAndDuration> newViewResolutionsCache(final ViewId viewId)
+	{
+		return CacheBuilder.newBuilder()
+				.maximumSize(MAX_ENTRIES_PER_VIEW)
+				.expireAfterWrite(EXPIRE_AFTER_MINUTES, TimeUnit.MINUTES)
+				.build();
+	}
+
+	/**
+	 * Drops the resolutions of the given view and of all the views which used it as parent or child view.
+	 */
+	public static void invalidateView(@NonNull final ViewId viewId)
+	{
+		resolutionsByViewId.remove(viewId);
+
+		final Set<ViewId> dependentViewIds = dependentViewIdsByViewId.remove(viewId);
+		if (dependentViewIds != null)
+		{
+			dependentViewIds.forEach(resolutionsByViewId::remove);
+		}
+	}
+
+	@Value
+	@Builder
+	public static class Key
+	{
+		@NonNull
+		ProcessId processId;
+
+		@NonNull
+		UserRolePermissionsKey permissionsKey;
+
+		@NonNull
+		ViewRowIdsSelection viewRowIdsSelection;
+		@Nullable
+		ViewRowIdsSelection parentViewRowIdsSelection;
+		@Nullable
+		ViewRowIdsSelection childViewRowIdsSelection;
+
+		@Nullable
+		ViewProfileId viewProfileId;
+		@Nullable
+		DisplayPlace displayPlace;
+
+		public ViewId getViewId()
+		{
+			return viewRowIdsSelection.getViewId();
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package de.metas.ui.web.process.adprocess;
 
+import com.google.common.collect.ImmutableList;
 import de.metas.cache.CCache;
 import de.metas.i18n.IModelTranslationMap;
 import de.metas.logging.LogManager;
@@ -8,7 +9,6 @@ import de.metas.process.IADProcessDAO;
 import de.metas.process.IProcessPreconditionsContext;
 import de.metas.process.JavaProcess;
 import de.metas.process.ProcessParams;
-import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.process.RelatedProcessDescriptor;
 import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
 import de.metas.security.IUserRolePermissions;
@@ -19,6 +19,7 @@ import de.metas.ui.web.process.descriptor.InternalName;
 import de.metas.ui.web.process.descriptor.ProcessDescriptor;
 import de.metas.ui.web.process.descriptor.ProcessDescriptor.ProcessDescriptorType;
 import de.metas.ui.web.process.descriptor.ProcessLayout;
+import de.metas.ui.web.process.descriptor.ProcessPreconditionsResolutionAndDuration;
 import de.metas.ui.web.process.descriptor.WebuiRelatedProcessDescriptor;
 import de.metas.ui.web.window.datatypes.DateRangeValue;
 import de.metas.ui.web.window.datatypes.DocumentType;
@@ -38,7 +39,6 @@ import de.metas.util.Check;
 import de.metas.util.GuavaCollectors;
 import de.metas.util.Services;
 import de.metas.common.util.CoalesceUtil;
-import lombok.Builder;
 import lombok.NonNull;
 import org.adempiere.ad.callout.api.ICalloutField;
 import org.adempiere.ad.element.api.AdTabId;
@@ -101,6 +101,7 @@ import java.util.stream.Stream;
 	private final transient IADProcessDAO adProcessDAO = Services.get(IADProcessDAO.class);
 
 	private final CCache<ProcessId, ProcessDescriptor> processDescriptorsByProcessId = CCache.newLRUCache(I_AD_Process.Table_Name + "#Descriptors#by#AD_Process_ID", 200, 0);
+	private final ProcessPreconditionsEvaluator preconditionsEvaluator = new ProcessPreconditionsEvaluator();
 
 	public Stream<WebuiRelatedProcessDescriptor> streamDocumentRelatedProcesses(
 			@NonNull final WebuiPreconditionsContext preconditionsContext,
@@ -123,9 +124,13 @@ import java.util.stream.Stream;
 					.collect(GuavaCollectors.distinctBy(RelatedProcessDescriptor::getProcessId));
 		}
 
+		// NOTE: we collect the descriptors eagerly because each of them starts checking its preconditions in background right away,
+		// so all preconditions are checked in parallel while the caller is consuming the result.
 		return relatedProcessDescriptors
 				.filter(relatedProcess -> isEligible(relatedProcess, preconditionsContext, userRolePermissions))
-				.map(relatedProcess -> toWebuiRelatedProcessDescriptor(relatedProcess, preconditionsContext));
+				.map(relatedProcess -> toWebuiRelatedProcessDescriptor(relatedProcess, preconditionsContext))
+				.collect(ImmutableList.toImmutableList())
+				.stream();
 	}
 
 	private boolean isEligible(
@@ -155,10 +160,7 @@ import java.util.stream.Stream;
 	{
 		final ProcessId processId = ProcessId.ofAD_Process_ID(relatedProcessDescriptor.getProcessId());
 		final ProcessDescriptor processDescriptor = getProcessDescriptor(processId);
-		final ProcessPreconditionsResolutionSupplier preconditionsResolutionSupplier = ProcessPreconditionsResolutionSupplier.builder()
-				.preconditionsContext(preconditionsContext)
-				.processDescriptor(processDescriptor)
-				.build();
+		final Supplier<ProcessPreconditionsResolutionAndDuration> preconditionsResolutionSupplier = preconditionsEvaluator.evaluateAsync(processDescriptor, preconditionsContext);
 
 		return WebuiRelatedProcessDescriptor.builder()
 				.processId(processDescriptor.getProcessId())
@@ -172,7 +174,7 @@ import java.util.stream.Stream;
 				//
 				.shortcut(relatedProcessDescriptor.getWebuiShortcut())
 				//
-				.preconditionsResolutionSupplier(preconditionsResolutionSupplier)
+				.timedPreconditionsResolutionSupplier(preconditionsResolutionSupplier)
 				//
 				.sortNo(relatedProcessDescriptor.getSortNo())
 				//
@@ -429,27 +431,6 @@ import java.util.stream.Stream;
 		return null;
 	}
 
-	private static final class ProcessPreconditionsResolutionSupplier implements Supplier<ProcessPreconditionsResolution>
-	{
-		private final IProcessPreconditionsContext preconditionsContext;
-		private final ProcessDescriptor processDescriptor;
-
-		@Builder
-		private ProcessPreconditionsResolutionSupplier(
-				@NonNull final IProcessPreconditionsContext preconditionsContext,
-				@NonNull final ProcessDescriptor processDescriptor)
-		{
-			this.preconditionsContext = preconditionsContext;
-			this.processDescriptor = processDescriptor;
-		}
-
-		@Override
-		public ProcessPreconditionsResolution get()
-		{
-			return processDescriptor.checkPreconditionsApplicable(preconditionsContext);
-		}
-	}
-
 	private static final class ProcessParametersCallout
 	{
 		private static void forwardValueToCurrentProcessInstance(final ICalloutField calloutField)
@@ -0,0 +1,249 @@
+package de.metas.ui.web.process.adprocess;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import de.metas.logging.LogManager;
+import de.metas.process.IProcessPreconditionsContext;
+import de.metas.process.ProcessPreconditionsResolution;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.process.ViewAsPreconditionsContext;
+import de.metas.ui.web.process.ViewProcessPreconditionsResolutionsCache;
+import de.metas.ui.web.process.descriptor.ProcessDescriptor;
+import de.metas.ui.web.process.descriptor.ProcessPreconditionsResolutionAndDuration;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Evaluates the preconditions of view related processes asynchronously, on a bounded thread pool, so that the preconditions of all the processes of a view are checked in parallel.
+ * Preconditions of other contexts (e.g. documents) are evaluated on the calling thread.
+ * <p>
+ * The resolutions of view related processes are memorized in {@link ViewProcessPreconditionsResolutionsCache}.
+ */
+/* package */ final class ProcessPreconditionsEvaluator
+{
+	private static final Logger logger = LogManager.getLogger(ProcessPreconditionsEvaluator.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private static final String SYSCONFIG_EXECUTOR_MAX_POOL_SIZE = "webui.processPreconditions.executor.maxPoolSize";
+	private static final String SYSCONFIG_TIMEOUT_MILLIS = "webui.processPreconditions.timeoutMillis";
+	private static final String SYSCONFIG_LOG_SLOW_THRESHOLD_MILLIS = "webui.processPreconditions.logSlowThresholdMillis";
+	private static final String SYSCONFIG_VIEW_CACHE_ENABLED = "webui.processPreconditions.viewCache.enabled";
+
+	private final ThreadPoolExecutor executor;
+
+	ProcessPreconditionsEvaluator()
+	{
+		this.executor = createExecutor();
+		logger.info("Created {}", executor);
+	}
+
+	private static ThreadPoolExecutor createExecutor()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int maxPoolSize = Math.max(sysConfigBL.getIntValue(SYSCONFIG_EXECUTOR_MAX_POOL_SIZE, 10), 1);
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setDaemon(true)
+				.setThreadNamePrefix(ProcessPreconditionsEvaluator.class.getSimpleName() + "-")
+				.build();
+
+		// NOTE: because the work queue is unbounded, the pool never grows beyond its core size,
+		// so we use maxPoolSize as core size and let idle core threads time out.
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+				maxPoolSize, // corePoolSize
+				maxPoolSize,
+				60L, // keepAliveTime
+				TimeUnit.SECONDS, // keepAliveTime unit
+				new LinkedBlockingQueue<Runnable>(), // workQueue
+				threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Starts evaluating the preconditions of a view context in background and returns right away; any other context is evaluated right away.
+	 *
+	 * @return supplier which waits (at most the configured timeout) for the resolution
+	 */
+	public Supplier<ProcessPreconditionsResolutionAndDuration> evaluateAsync(
+			@NonNull final ProcessDescriptor processDescriptor,
+			@NonNull final IProcessPreconditionsContext preconditionsContext)
+	{
+		final ViewProcessPreconditionsResolutionsCache.Key cacheKey = createCacheKeyOrNull(processDescriptor, preconditionsContext);
+		if (cacheKey != null)
+		{
+			final ProcessPreconditionsResolutionAndDuration cachedResolution = ViewProcessPreconditionsResolutionsCache.getOrNull(cacheKey);
+			if (cachedResolution != null)
+			{
+				logger.trace("Using cached preconditions resolution for {}: {}", cacheKey, cachedResolution);
+				return () -> cachedResolution;
+			}
+		}
+
+		// NOTE: only view contexts are evaluated in background;
+		// other contexts (e.g. a document's) are not thread safe and might be locked by the caller, so we evaluate them right here
+		if (ViewAsPreconditionsContext.castOrNull(preconditionsContext) == null)
+		{
+			final ProcessPreconditionsResolutionAndDuration resolution = evaluateNow(processDescriptor, preconditionsContext);
+			return () -> resolution;
+		}
+
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		final Future<ProcessPreconditionsResolutionAndDuration> future = executor.submit(() -> {
+			RequestContextHolder.setRequestAttributes(requestAttributes);
+			try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+			{
+				return evaluateNow(processDescriptor, preconditionsContext);
+			}
+			finally
+			{
+				RequestContextHolder.resetRequestAttributes();
+			}
+		});
+
+		return () -> waitForResolution(future, processDescriptor, cacheKey);
+	}
+
+	private ProcessPreconditionsResolutionAndDuration evaluateNow(
+			@NonNull final ProcessDescriptor processDescriptor,
+			@NonNull final IProcessPreconditionsContext preconditionsContext)
+	{
+		final ProcessPreconditionsResolutionAndDuration result = ProcessPreconditionsResolutionAndDuration.fromSupplier(() -> processDescriptor.checkPreconditionsApplicable(preconditionsContext));
+
+		final Duration duration = result.getDuration();
+		final int logSlowThresholdMillis = sysConfigBL.getIntValue(SYSCONFIG_LOG_SLOW_THRESHOLD_MILLIS, 200);
+		if (logSlowThresholdMillis >= 0 && duration.toMillis() >= logSlowThresholdMillis)
+		{
+			logger.info("Slow preconditions check for {} ({}) took {}: {}",
+					processDescriptor.getProcessId(), processDescriptor.getProcessClassname(), TimeUtil.formatElapsed(duration), result.getResolution());
+		}
+		else
+		{
+			logger.debug("Preconditions check for {} ({}) took {}: {}",
+					processDescriptor.getProcessId(), processDescriptor.getProcessClassname(), TimeUtil.formatElapsed(duration), result.getResolution());
+		}
+
+		return result;
+	}
+
+	private ProcessPreconditionsResolutionAndDuration waitForResolution(
+			@NonNull final Future<ProcessPreconditionsResolutionAndDuration> future,
+			@NonNull final ProcessDescriptor processDescriptor,
+			@Nullable final ViewProcessPreconditionsResolutionsCache.Key cacheKey)
+	{
+		final int timeoutMillis = sysConfigBL.getIntValue(SYSCONFIG_TIMEOUT_MILLIS, 5000);
+		try
+		{
+			final ProcessPreconditionsResolutionAndDuration result = timeoutMillis > 0
+					? future.get(timeoutMillis, TimeUnit.MILLISECONDS)
+					: future.get();
+
+			if (cacheKey != null)
+			{
+				ViewProcessPreconditionsResolutionsCache.put(cacheKey, result);
+			}
+
+			return result;
+		}
+		catch (final TimeoutException ex)
+		{
+			future.cancel(true);
+			logger.warn("Preconditions check for {} ({}) timed out after {}ms",
+					processDescriptor.getProcessId(), processDescriptor.getProcessClassname(), timeoutMillis);
+			return rejected("Preconditions check timed out after " + timeoutMillis + "ms", Duration.ofMillis(timeoutMillis));
+		}
+		catch (final InterruptedException ex)
+		{
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			return rejected("Preconditions check was interrupted", Duration.ZERO);
+		}
+		catch (final ExecutionException | CancellationException ex)
+		{
+			logger.warn("Preconditions check for {} ({}) failed", processDescriptor.getProcessId(), processDescriptor.getProcessClassname(), ex);
+			final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+			return rejected(cause.getLocalizedMessage(), Duration.ZERO);
+		}
+	}
+
+	private static ProcessPreconditionsResolutionAndDuration rejected(final String internalReason, final Duration duration)
+	{
+		return ProcessPreconditionsResolutionAndDuration.of(ProcessPreconditionsResolution.rejectWithInternalReason(internalReason), duration);
+	}
+
+	@Nullable
+	private ViewProcessPreconditionsResolutionsCache.Key createCacheKeyOrNull(
+			@NonNull final ProcessDescriptor processDescriptor,
+			@NonNull final IProcessPreconditionsContext preconditionsContext)
+	{
+		final ViewAsPreconditionsContext viewContext = ViewAsPreconditionsContext.castOrNull(preconditionsContext);
+		if (viewContext == null)
+		{
+			return null;
+		}
+
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_VIEW_CACHE_ENABLED, true))
+		{
+			return null;
+		}
+
+		final UserRolePermissionsKey permissionsKey = UserRolePermissionsKey.fromContextOrNull(Env.getCtx());
+		if (permissionsKey == null)
+		{
+			return null;
+		}
+
+		return ViewProcessPreconditionsResolutionsCache.Key.builder()
+				.processId(processDescriptor.getProcessId())
+				.permissionsKey(permissionsKey)
+				.viewRowIdsSelection(viewContext.getViewRowIdsSelection())
+				.parentViewRowIdsSelection(viewContext.getParentViewRowIdsSelection())
+				.childViewRowIdsSelection(viewContext.getChildViewRowIdsSelection())
+				.viewProfileId(viewContext.getViewProfileId())
+				.displayPlace(viewContext.getDisplayPlace())
+				.build();
+	}
+}
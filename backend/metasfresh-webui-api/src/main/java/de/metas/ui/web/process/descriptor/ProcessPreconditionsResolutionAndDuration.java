@@ -0,0 +1,63 @@
+package de.metas.ui.web.process.descriptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.process.ProcessPreconditionsResolution;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A {@link ProcessPreconditionsResolution} together with the time it took to compute it.
+ */
+@Value
+public class ProcessPreconditionsResolutionAndDuration
+{
+	public static ProcessPreconditionsResolutionAndDuration of(@NonNull final ProcessPreconditionsResolution resolution, @NonNull final Duration duration)
+	{
+		return new ProcessPreconditionsResolutionAndDuration(resolution, duration);
+	}
+
+	public static ProcessPreconditionsResolutionAndDuration fromSupplier(@NonNull final Supplier<ProcessPreconditionsResolution> supplier)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final ProcessPreconditionsResolution resolution = supplier.get();
+		return new ProcessPreconditionsResolutionAndDuration(resolution, Duration.ofNanos(stopwatch.stop().elapsed(TimeUnit.NANOSECONDS)));
+	}
+
+	ProcessPreconditionsResolution resolution;
+	Duration duration;
+
+	private ProcessPreconditionsResolutionAndDuration(
+			@NonNull final ProcessPreconditionsResolution resolution,
+			@NonNull final Duration duration)
+	{
+		this.resolution = resolution;
+		this.duration = duration;
+	}
+}
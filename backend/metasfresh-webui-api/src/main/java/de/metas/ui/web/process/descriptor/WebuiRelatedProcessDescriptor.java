@@ -2,14 +2,14 @@ package de.metas.ui.web.process.descriptor;
 
 import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.util.lang.ExtendedMemorizingSupplier;
 import org.compiere.model.I_AD_Process;
 import org.slf4j.MDC.MDCCloseable;
 
-import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
@@ -18,11 +18,11 @@ import de.metas.logging.TableRecordMDC;
 import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
 import de.metas.ui.web.process.ProcessId;
+import de.metas.util.Check;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Singular;
 import lombok.ToString;
-import lombok.Value;
 
 /*
  * #%L
@@ -76,7 +76,7 @@ public final class WebuiRelatedProcessDescriptor
 	private final String shortcut;
 
 	@NonNull
-	private final Supplier<ValueAndDuration<ProcessPreconditionsResolution>> preconditionsResolutionSupplier;
+	private final Supplier<ProcessPreconditionsResolutionAndDuration> preconditionsResolutionSupplier;
 
 	private final String debugProcessClassname;
 
@@ -92,7 +92,8 @@ public final class WebuiRelatedProcessDescriptor
 			@NonNull @Singular final ImmutableSet<DisplayPlace> displayPlaces,
 			final boolean defaultQuickAction,
 			final String shortcut,
-			@NonNull final Supplier<ProcessPreconditionsResolution> preconditionsResolutionSupplier,
+			@Nullable final Supplier<ProcessPreconditionsResolution> preconditionsResolutionSupplier,
+			@Nullable final Supplier<ProcessPreconditionsResolutionAndDuration> timedPreconditionsResolutionSupplier,
 			final int sortNo,
 			final String debugProcessClassname)
 	{
@@ -107,7 +108,16 @@ public final class WebuiRelatedProcessDescriptor
 
 		// Memorize the resolution supplier to make sure it's not invoked more than once because it might be an expensive operation.
 		// Also we assume this is a short living instance which was created right before checking
-		this.preconditionsResolutionSupplier = ExtendedMemorizingSupplier.of(() -> ValueAndDuration.fromSupplier(preconditionsResolutionSupplier));
+		if (timedPreconditionsResolutionSupplier != null)
+		{
+			Check.assumeNull(preconditionsResolutionSupplier, "Only one of preconditionsResolutionSupplier and timedPreconditionsResolutionSupplier shall be set");
+			this.preconditionsResolutionSupplier = ExtendedMemorizingSupplier.of(timedPreconditionsResolutionSupplier);
+		}
+		else
+		{
+			Check.assumeNotNull(preconditionsResolutionSupplier, "preconditionsResolutionSupplier or timedPreconditionsResolutionSupplier shall be set");
+			this.preconditionsResolutionSupplier = ExtendedMemorizingSupplier.of(() -> ProcessPreconditionsResolutionAndDuration.fromSupplier(preconditionsResolutionSupplier));
+		}
 
 		this.sortNo = sortNo > 0 ? sortNo : 0;
 
@@ -127,7 +137,7 @@ public final class WebuiRelatedProcessDescriptor
 
 	private ProcessPreconditionsResolution getPreconditionsResolution()
 	{
-		return preconditionsResolutionSupplier.get().getValue();
+		return preconditionsResolutionSupplier.get().getResolution();
 	}
 
 	public Duration getPreconditionsResolutionCalcDuration()
@@ -182,25 +192,4 @@ public final class WebuiRelatedProcessDescriptor
 	{
 		return getDisplayPlaces().contains(displayPlace);
 	}
-
-	@Value
-	private static final class ValueAndDuration<T>
-	{
-		public static <T> ValueAndDuration<T> fromSupplier(final Supplier<T> supplier)
-		{
-			final Stopwatch stopwatch = Stopwatch.createStarted();
-			final T value = supplier.get();
-			final Duration duration = Duration.ofNanos(stopwatch.stop().elapsed(TimeUnit.NANOSECONDS));
-			return new ValueAndDuration<>(value, duration);
-		}
-
-		private final T value;
-		private final Duration duration;
-
-		private ValueAndDuration(final T value, final Duration duration)
-		{
-			this.value = value;
-			this.duration = duration;
-		}
-	}
 }
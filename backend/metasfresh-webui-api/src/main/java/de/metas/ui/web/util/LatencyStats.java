@@ -0,0 +1,88 @@
+package de.metas.ui.web.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Keeps the latencies of the last N calls (e.g. lookups), in order to report percentiles.
+ */
+public final class LatencyStats
+{
+	private final String name;
+	private final long[] samplesNanos;
+	private int nextSampleIndex = 0;
+	private long count = 0;
+
+	public LatencyStats(@NonNull final String name, final int maxSamples)
+	{
+		this.name = name;
+		samplesNanos = new long[maxSamples];
+	}
+
+	public synchronized void record(final long durationNanos)
+	{
+		samplesNanos[nextSampleIndex] = durationNanos;
+		nextSampleIndex = (nextSampleIndex + 1) % samplesNanos.length;
+		count++;
+	}
+
+	public synchronized Map<String, Object> toMap()
+	{
+		final int samplesCount = (int)Math.min(count, samplesNanos.length);
+		final long[] samples = Arrays.copyOf(samplesNanos, samplesCount);
+		Arrays.sort(samples);
+
+		final Map<String, Object> map = new LinkedHashMap<>();
+		map.put("name", name);
+		map.put("count", count);
+		map.put("samples", samplesCount);
+		map.put("p50Millis", percentileMillis(samples, 50));
+		map.put("p95Millis", percentileMillis(samples, 95));
+		map.put("p99Millis", percentileMillis(samples, 99));
+		map.put("maxMillis", samplesCount > 0 ? toMillis(samples[samplesCount - 1]) : null);
+		return map;
+	}
+
+	/** @return the given percentile (nearest rank) or null if there are no samples */
+	private static Double percentileMillis(final long[] sortedSamples, final int percentile)
+	{
+		if (sortedSamples.length == 0)
+		{
+			return null;
+		}
+
+		final int rank = (int)Math.ceil(percentile / 100.0 * sortedSamples.length);
+		return toMillis(sortedSamples[Math.max(rank, 1) - 1]);
+	}
+
+	private static double toMillis(final long nanos)
+	{
+		return nanos / (double)TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
@@ -75,7 +75,7 @@ import lombok.NonNull;
 			@NonNull final Language language,
 			@NonNull final ZoneId zoneId)
 	{
-		super(excelFormat, constants);
+		super(excelFormat, withStreamingWorkbook(constants));
 		this.layout = layout;
 		setLanguage(language);
 		jsonOpts = JSONOptions.builder()
@@ -102,6 +102,17 @@ import lombok.NonNull;
 		setFreezePane(0, 1);
 	}
 
+	/**
+	 * Views can have a lot of rows, so we always use the streaming workbook implementation, which keeps only a fixed window of rows in memory.
+	 */
+	private static ExcelExportConstants withStreamingWorkbook(@Nullable final ExcelExportConstants constants)
+	{
+		return ExcelExportConstants.givenOrDefault(constants)
+				.toBuilder()
+				.useStreamingWorkbookImplementation(true)
+				.build();
+	}
+
 	private IViewRow getRow(final int rowIndex)
 	{
 		return rows.getRow(rowIndex);
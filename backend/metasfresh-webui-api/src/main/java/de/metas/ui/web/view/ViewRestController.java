@@ -61,11 +61,7 @@ import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Evaluatee;
 import org.compiere.util.Evaluatees;
 import org.compiere.util.MimeType;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -77,9 +73,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -507,10 +502,11 @@ public class ViewRestController
 	}
 
 	@GetMapping("/{viewId}/export/excel")
-	public ResponseEntity<Resource> exportToExcel(
+	public void exportToExcel(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable(PARAM_ViewId) final String viewIdStr,
-			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr)
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr,
+			final HttpServletResponse response)
 			throws Exception
 	{
 		userSession.assertLoggedIn();
@@ -518,29 +514,22 @@ public class ViewRestController
 		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
 
 		final ExcelFormat excelFormat = ExcelFormats.getDefaultFormat();
-		final File tmpFile = File.createTempFile("exportToExcel", "." + excelFormat.getFileExtension());
-
-		try (final FileOutputStream out = new FileOutputStream(tmpFile))
-		{
-			ViewExcelExporter.builder()
-					.excelFormat(excelFormat)
-					.view(viewsRepo.getView(viewId))
-					.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
-					.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
-					.language(userSession.getLanguage())
-					.zoneId(userSession.getTimeZone())
-					.build()
-					.export(out);
-		}
+		final ViewExcelExporter exporter = ViewExcelExporter.builder()
+				.excelFormat(excelFormat)
+				.view(viewsRepo.getView(viewId))
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
+				.language(userSession.getLanguage())
+				.zoneId(userSession.getTimeZone())
+				.build();
 
 		final String filename = "report." + excelFormat.getFileExtension(); // TODO: use a better name
 		final String contentType = MimeType.getMimeType(filename);
-		final HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.parseMediaType(contentType));
-		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
-		headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+		response.setContentType(contentType);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
 
-		final ResponseEntity<Resource> response = new ResponseEntity<>(new InputStreamResource(new FileInputStream(tmpFile)), headers, HttpStatus.OK);
-		return response;
+		// NOTE: write the workbook directly to the response, without buffering the whole file
+		exporter.export(response.getOutputStream());
 	}
 }
@@ -2,6 +2,7 @@ package de.metas.ui.web.view.event;
 
 import com.google.common.collect.ImmutableList;
 import de.metas.logging.LogManager;
+import de.metas.ui.web.process.ViewProcessPreconditionsResolutionsCache;
 import de.metas.ui.web.view.IView;
 import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.websocket.WebsocketSender;
@@ -279,7 +280,6 @@ public class ViewChangesCollector implements IAutoCloseable
 			logger.trace("Flushing {} to websocket", this);
 			changesList.stream()
 					.filter(ViewChanges::hasChanges)
-					.map(JSONViewChanges::of)
 					.forEach(this::sendToWebsocket);
 		}
 	}
@@ -306,6 +306,14 @@ public class ViewChangesCollector implements IAutoCloseable
 		return changesList;
 	}
 
+	private void sendToWebsocket(final ViewChanges changes)
+	{
+		// the rows might have changed, so the memorized process preconditions of this view are no longer valid
+		ViewProcessPreconditionsResolutionsCache.invalidateView(changes.getViewId());
+
+		sendToWebsocket(JSONViewChanges.of(changes));
+	}
+
 	private void sendToWebsocket(final JSONViewChanges jsonChangeEvent)
 	{
 		final WebsocketTopicName endpoint = WebsocketTopicNames.buildViewNotificationsTopicName(jsonChangeEvent.getViewId());
@@ -0,0 +1,219 @@
+package de.metas.ui.web.window.descriptor;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor.LookupSource;
+import de.metas.ui.web.window.descriptor.sql.ISqlLookupDescriptor;
+import de.metas.ui.web.window.descriptor.sql.SqlForFetchingLookupById;
+import de.metas.ui.web.window.model.lookup.LookupDataSource;
+import de.metas.ui.web.window.model.lookup.LookupDataSourceContext;
+import de.metas.ui.web.window.model.lookup.LookupDataSourceFetcher;
+import de.metas.ui.web.window.model.lookup.fulltext.LookupFullTextIndex.SearchResult;
+import de.metas.ui.web.window.model.lookup.fulltext.LookupFullTextIndexService;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Same as {@link FullTextSearchLookupDescriptor} but it's using the embedded full text index (see {@link LookupFullTextIndexService}) instead of elasticsearch.
+ * <p>
+ * When the index is not available or it does not find anything, the database lookup is used.
+ */
+@Value
+public class LocalFullTextSearchLookupDescriptor implements ISqlLookupDescriptor, LookupDataSourceFetcher
+{
+	private static final Logger logger = LogManager.getLogger(LocalFullTextSearchLookupDescriptor.class);
+	private LookupFullTextIndexService fullTextIndexService;
+
+	private final String modelTableName;
+
+	private final ISqlLookupDescriptor sqlLookupDescriptor;
+	private final LookupDataSource databaseLookup;
+
+	@Builder
+	private LocalFullTextSearchLookupDescriptor(
+			@NonNull final LookupFullTextIndexService fullTextIndexService,
+			@NonNull final String modelTableName,
+			@Nullable final ISqlLookupDescriptor sqlLookupDescriptor,
+			@NonNull final LookupDataSource databaseLookup)
+	{
+		this.fullTextIndexService = fullTextIndexService;
+		this.modelTableName = modelTableName;
+		this.sqlLookupDescriptor = sqlLookupDescriptor;
+		this.databaseLookup = databaseLookup;
+	}
+
+	@Override
+	public Optional<String> getTableName()
+	{
+		return Optional.of(modelTableName);
+	}
+
+	@Override
+	public LookupDataSourceContext.Builder newContextForFetchingById(final Object id)
+	{
+		return LookupDataSourceContext.builder(modelTableName).putFilterById(id);
+	}
+
+	@Override
+	public LookupValue retrieveLookupValueById(final LookupDataSourceContext evalCtx)
+	{
+		return databaseLookup.findById(evalCtx.getIdToFilter());
+	}
+
+	@Override
+	public LookupDataSourceContext.Builder newContextForFetchingList()
+	{
+		return LookupDataSourceContext.builder(modelTableName);
+	}
+
+	@Override
+	public LookupValuesList retrieveEntities(final LookupDataSourceContext evalCtx)
+	{
+		logger.trace("Retrieving entries for: {}", evalCtx);
+
+		if (evalCtx.isAnyFilter())
+		{
+			// usually that's the case of dropdowns. In that case we don't want to use the full text index.
+			logger.trace("Fallback to database lookup because ANY filter was used");
+			return databaseLookup.findEntities(evalCtx);
+		}
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		LookupValuesList lookupValues = evalCtx.getOffset(0) <= 0
+				? retrieveEntitiesFromIndex(evalCtx)
+				: null; // paging is not supported by the index
+
+		final boolean servedByIndex = lookupValues != null && !lookupValues.isEmpty();
+		if (!servedByIndex)
+		{
+			logger.trace("Fallback to database lookup because the full text index is not available or it found nothing");
+			lookupValues = databaseLookup.findEntities(evalCtx, evalCtx.getFilter(), evalCtx.getOffset(0), evalCtx.getLimit(100));
+		}
+
+		fullTextIndexService.recordLookupLatency(modelTableName, servedByIndex, stopwatch.elapsed(TimeUnit.NANOSECONDS));
+		logger.trace("Lookup values: {}", lookupValues);
+
+		return lookupValues;
+	}
+
+	@Nullable
+	private LookupValuesList retrieveEntitiesFromIndex(final LookupDataSourceContext evalCtx)
+	{
+		final int maxSize = Math.min(evalCtx.getLimit(100), 100);
+		final SearchResult result = fullTextIndexService.searchBPartnerIds(evalCtx.getFilter(), maxSize).orElse(null);
+		if (result == null)
+		{
+			return null;
+		}
+		logger.trace("Record IDs: {}", result.getRecordIds());
+
+		return databaseLookup.findByIdsOrdered(result.getRecordIds());
+	}
+
+	@Override
+	public boolean isCached()
+	{
+		return true;
+	}
+
+	@Override
+	public String getCachePrefix()
+	{
+		return null;
+	}
+
+	@Override
+	public Optional<String> getLookupTableName()
+	{
+		return Optional.of(modelTableName);
+	}
+
+	@Override
+	public void cacheInvalidate()
+	{
+		// nothing
+	}
+
+	@Override
+	public LookupDataSourceFetcher getLookupDataSourceFetcher()
+	{
+		return this;
+	}
+
+	@Override
+	public boolean isHighVolume()
+	{
+		return true;
+	}
+
+	@Override
+	public LookupSource getLookupSourceType()
+	{
+		return LookupSource.lookup;
+	}
+
+	@Override
+	public boolean hasParameters()
+	{
+		return true;
+	}
+
+	@Override
+	public boolean isNumericKey()
+	{
+		return true;
+	}
+
+	@Override
+	public Set<String> getDependsOnFieldNames()
+	{
+		return null;
+	}
+
+	@Override
+	public Optional<WindowId> getZoomIntoWindowId()
+	{
+		return sqlLookupDescriptor != null ? sqlLookupDescriptor.getZoomIntoWindowId() : Optional.empty();
+	}
+
+	@Override
+	public SqlForFetchingLookupById getSqlForFetchingLookupByIdExpression()
+	{
+		return sqlLookupDescriptor != null ? sqlLookupDescriptor.getSqlForFetchingLookupByIdExpression() : null;
+	}
+}
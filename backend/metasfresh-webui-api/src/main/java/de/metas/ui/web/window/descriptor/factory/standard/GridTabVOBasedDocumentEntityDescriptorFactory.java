@@ -17,6 +17,7 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IPair;
 import org.adempiere.util.lang.ImmutablePair;
 import org.compiere.Adempiere;
+import org.compiere.SpringContextHolder;
 import org.compiere.model.GridFieldDefaultFilterDescriptor;
 import org.compiere.model.GridFieldVO;
 import org.compiere.model.GridTabVO;
@@ -25,6 +26,7 @@ import org.compiere.model.I_AD_Field;
 import org.compiere.model.I_AD_Tab;
 import org.compiere.model.I_AD_UI_Element;
 import org.compiere.model.I_AD_UI_ElementField;
+import org.compiere.model.I_C_BPartner;
 import org.compiere.model.X_AD_UI_ElementField;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Evaluatees;
@@ -50,6 +52,7 @@ import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor.Builder;
 import de.metas.ui.web.window.descriptor.DocumentFieldDescriptor.Characteristic;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.ui.web.window.descriptor.FullTextSearchLookupDescriptorProvider;
+import de.metas.ui.web.window.descriptor.LocalFullTextSearchLookupDescriptorProvider;
 import de.metas.ui.web.window.descriptor.LookupDescriptor;
 import de.metas.ui.web.window.descriptor.LookupDescriptorProvider;
 import de.metas.ui.web.window.descriptor.LookupDescriptorProviders;
@@ -62,6 +65,7 @@ import de.metas.ui.web.window.model.lookup.LabelsLookup;
 import de.metas.ui.web.window.model.lookup.LookupDataSource;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceFactory;
 import de.metas.ui.web.window.model.lookup.TimeZoneLookupDescriptor;
+import de.metas.ui.web.window.model.lookup.fulltext.LookupFullTextIndexService;
 import de.metas.ui.web.window.model.sql.SqlDocumentsRepository;
 import de.metas.util.Check;
 import de.metas.util.Services;
@@ -354,6 +358,7 @@ import lombok.NonNull;
 				widgetType = DescriptorsFactoryHelper.extractWidgetType(sqlColumnName, displayType);
 				final String ctxTableName = Services.get(IADTableDAO.class).retrieveTableName(gridFieldVO.getAD_Table_ID());
 				lookupDescriptorProvider = wrapFullTextSeachFilterDescriptorProvider(
+						gridFieldVO,
 						SqlLookupDescriptor.builder()
 								.setCtxTableName(ctxTableName)
 								.setCtxColumnName(sqlColumnName)
@@ -501,7 +506,9 @@ import lombok.NonNull;
 		return Objects.equals(gridFieldVO.getColumnName(), parentLinkColumnName);
 	}
 
-	private LookupDescriptorProvider wrapFullTextSeachFilterDescriptorProvider(@NonNull final LookupDescriptorProvider databaseLookupDescriptorProvider)
+	private LookupDescriptorProvider wrapFullTextSeachFilterDescriptorProvider(
+			@NonNull final GridFieldVO gridFieldVO,
+			@NonNull final LookupDescriptorProvider databaseLookupDescriptorProvider)
 	{
 		final String modelTableName = databaseLookupDescriptorProvider.getTableName().orElse(null);
 		if (modelTableName == null)
@@ -514,7 +521,7 @@ import lombok.NonNull;
 				.orElse(null);
 		if (modelIndexer == null)
 		{
-			return databaseLookupDescriptorProvider;
+			return wrapLocalFullTextSearchDescriptorProvider(gridFieldVO, modelTableName, databaseLookupDescriptorProvider);
 		}
 
 		final Client elasticsearchClient = Adempiere.getBean(org.elasticsearch.client.Client.class);
@@ -528,6 +535,37 @@ import lombok.NonNull;
 				.build();
 	}
 
+	/**
+	 * Use the embedded full text index for plain bpartner search fields.
+	 * <p>
+	 * NOTE: lookups with validation rules or reference specific where clauses are not supported, because the index candidates are fetched by ID, without applying those filters.
+	 */
+	private static LookupDescriptorProvider wrapLocalFullTextSearchDescriptorProvider(
+			@NonNull final GridFieldVO gridFieldVO,
+			@NonNull final String modelTableName,
+			@NonNull final LookupDescriptorProvider databaseLookupDescriptorProvider)
+	{
+		if (!I_C_BPartner.Table_Name.equals(modelTableName)
+				|| gridFieldVO.getDisplayType() != DisplayType.Search
+				|| gridFieldVO.getAD_Val_Rule_ID() > 0
+				|| gridFieldVO.getAD_Reference_Value_ID() > 0)
+		{
+			return databaseLookupDescriptorProvider;
+		}
+
+		final LookupFullTextIndexService fullTextIndexService = SpringContextHolder.instance.getBeanOr(LookupFullTextIndexService.class, null);
+		if (fullTextIndexService == null)
+		{
+			return databaseLookupDescriptorProvider;
+		}
+
+		return LocalFullTextSearchLookupDescriptorProvider.builder()
+				.fullTextIndexService(fullTextIndexService)
+				.modelTableName(modelTableName)
+				.databaseLookupDescriptorProvider(databaseLookupDescriptorProvider)
+				.build();
+	}
+
 	private static ILogicExpression extractReadOnlyLogic(final GridFieldVO gridFieldVO, final boolean keyColumn, final boolean isParentLinkColumn)
 	{
 		if (keyColumn)
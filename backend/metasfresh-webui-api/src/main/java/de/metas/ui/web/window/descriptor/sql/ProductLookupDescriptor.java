@@ -2,6 +2,7 @@ package de.metas.ui.web.window.descriptor.sql;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
@@ -11,6 +12,7 @@ import de.metas.bpartner.BPartnerId;
 import de.metas.common.util.CoalesceUtil;
 import de.metas.i18n.IMsgBL;
 import de.metas.i18n.ITranslatableString;
+import de.metas.i18n.Language;
 import de.metas.i18n.TranslatableStringBuilder;
 import de.metas.i18n.TranslatableStrings;
 import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseQuery;
@@ -35,6 +37,8 @@ import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor.Lo
 import de.metas.ui.web.window.descriptor.LookupDescriptor;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceFetcher;
+import de.metas.ui.web.window.model.lookup.fulltext.LookupFullTextIndex.SearchResult;
+import de.metas.ui.web.window.model.lookup.fulltext.LookupFullTextIndexService;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.StringUtils;
@@ -52,6 +56,7 @@ import org.adempiere.mm.attributes.api.ImmutableAttributeSet;
 import org.adempiere.mm.attributes.api.impl.AttributeSetDescriptionBuilderCommand;
 import org.adempiere.model.I_M_FreightCost;
 import org.adempiere.service.ISysConfigBL;
+import org.compiere.SpringContextHolder;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_ProductPrice;
 import org.compiere.model.MLookupFactory;
@@ -75,6 +80,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.adempiere.model.InterfaceWrapperHelper.getModelTranslationMap;
 
@@ -124,6 +130,8 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 
 	private static final String COLUMNNAME_ProductDisplayName = "ProductDisplayName";
 
+	private static final int FULL_TEXT_INDEX_MAX_CANDIDATES = 1000;
+
 	private final CtxName param_C_BPartner_ID;
 	private final CtxName param_PricingDate;
 	private final CtxName param_AvailableStockDate;
@@ -226,8 +234,108 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 			return LookupValuesList.EMPTY;
 		}
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final LookupFullTextIndexService fullTextIndexService = getFullTextIndexServiceOrNull();
+
+		//
+		// Try finding the candidates in the full text index first.
+		// The database is still queried to fetch the display names and to apply the other filters, but we can skip the ILIKE scan.
+		LookupValuesList unexplodedLookupValues = null;
+		final List<Integer> productIdsFromIndex = searchProductIdsInFullTextIndex(fullTextIndexService, evalCtx);
+		if (productIdsFromIndex != null)
+		{
+			unexplodedLookupValues = retrieveLookupValues(evalCtx, productIdsFromIndex);
+		}
+
+		// Fallback to plain SQL search
+		final boolean servedByIndex = unexplodedLookupValues != null && !unexplodedLookupValues.isEmpty();
+		if (!servedByIndex)
+		{
+			unexplodedLookupValues = retrieveLookupValues(evalCtx, null);
+		}
+
+		if (fullTextIndexService != null)
+		{
+			fullTextIndexService.recordLookupLatency(CONTEXT_LookupTableName, servedByIndex, stopwatch.elapsed(TimeUnit.NANOSECONDS));
+		}
+
+		final ZonedDateTime stockdateOrNull = getEffectiveStockDateOrNull(evalCtx);
+		if (stockdateOrNull == null || availableToPromiseAdapter == null)
+		{
+			return unexplodedLookupValues;
+		}
+
+		final BPartnerId bpartnerId = BPartnerId.ofRepoIdOrNull(param_C_BPartner_ID.getValueAsInteger(evalCtx));
+
+		final String adLanguage = evalCtx.getAD_Language();
+
+		return explodeRecordsWithStockQuantities(
+				unexplodedLookupValues,
+				bpartnerId,
+				stockdateOrNull,
+				adLanguage);
+	}
+
+	@Nullable
+	private static LookupFullTextIndexService getFullTextIndexServiceOrNull()
+	{
+		return SpringContextHolder.instance.getBeanOr(LookupFullTextIndexService.class, null);
+	}
+
+	/**
+	 * @return product IDs matching the filter or <code>null</code> if the full text index shall not be used
+	 */
+	@Nullable
+	private List<Integer> searchProductIdsInFullTextIndex(
+			@Nullable final LookupFullTextIndexService fullTextIndexService,
+			@NonNull final LookupDataSourceContext evalCtx)
+	{
+		if (fullTextIndexService == null || !isFullTextSearchEnabled())
+		{
+			return null;
+		}
+
+		final String filter = evalCtx.getFilter();
+		if (!isFullTextIndexApplicable(filter, evalCtx.getAD_Language()))
+		{
+			return null;
+		}
+
+		final BPartnerId bpartnerId = BPartnerId.ofRepoIdOrNull(param_C_BPartner_ID.getValueAsInteger(evalCtx));
+		final SearchResult result = fullTextIndexService.searchProductIds(filter, bpartnerId, FULL_TEXT_INDEX_MAX_CANDIDATES).orElse(null);
+
+		// NOTE: if the filter is not selective enough, we cannot guarantee that the candidates are the ones which the SQL would return first
+		if (result == null || !result.isComplete() || result.getRecordIds().isEmpty())
+		{
+			return null;
+		}
+
+		return result.getRecordIds();
+	}
+
+	/**
+	 * @return false if the SQL could find products which are not in the full text index
+	 */
+	@VisibleForTesting
+	static boolean isFullTextIndexApplicable(@Nullable final String filter, @Nullable final String adLanguage)
+	{
+		if (filter == LookupDataSourceContext.FILTER_Any
+				|| Check.isEmpty(filter, true)
+				|| filter.contains("%")) // the user provided an explicit SQL pattern
+		{
+			return false;
+		}
+
+		// the index only has the base language texts, but the SQL matches the translated product names
+		return Language.isBaseLanguage(adLanguage);
+	}
+
+	private LookupValuesList retrieveLookupValues(
+			@NonNull final LookupDataSourceContext evalCtx,
+			@Nullable final List<Integer> productIdsFromIndex)
+	{
 		final SqlParamsCollector sqlParams = SqlParamsCollector.newInstance();
-		final String sql = buildSql(sqlParams, evalCtx);
+		final String sql = buildSql(sqlParams, evalCtx, productIdsFromIndex);
 
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -244,23 +352,7 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 				valuesById.putIfAbsent(value.getIdAsInt(), value);
 			}
 
-			final LookupValuesList unexplodedLookupValues = LookupValuesList.fromCollection(valuesById.values());
-
-			final ZonedDateTime stockdateOrNull = getEffectiveStockDateOrNull(evalCtx);
-			if (stockdateOrNull == null || availableToPromiseAdapter == null)
-			{
-				return unexplodedLookupValues;
-			}
-
-			final BPartnerId bpartnerId = BPartnerId.ofRepoIdOrNull(param_C_BPartner_ID.getValueAsInteger(evalCtx));
-
-			final String adLanguage = evalCtx.getAD_Language();
-
-			return explodeRecordsWithStockQuantities(
-					unexplodedLookupValues,
-					bpartnerId,
-					stockdateOrNull,
-					adLanguage);
+			return LookupValuesList.fromCollection(valuesById.values());
 		}
 		catch (final SQLException ex)
 		{
@@ -302,7 +394,8 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 
 	private String buildSql(
 			@NonNull final SqlParamsCollector sqlParams,
-			@NonNull final LookupDataSourceContext evalCtx)
+			@NonNull final LookupDataSourceContext evalCtx,
+			@Nullable final List<Integer> productIdsFromIndex)
 	{
 		//
 		// Build the SQL filter
@@ -313,6 +406,12 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		{
 			appendFilterByDiscontinued(sqlWhereClause, sqlWhereClauseParams);
 		}
+		if (productIdsFromIndex != null)
+		{
+			appendFilterByProductIds(sqlWhereClause, sqlWhereClauseParams, productIdsFromIndex);
+		}
+		// NOTE: also when we have the candidates from the full text index, because it might find more than the ILIKE (e.g. search terms in any order);
+		// that way we get the same products like before, but we scan only the candidates
 		appendFilterBySearchString(sqlWhereClause, sqlWhereClauseParams, evalCtx.getFilter(), isFullTextSearchEnabled());
 		appendFilterById(sqlWhereClause, sqlWhereClauseParams, evalCtx);
 		appendFilterByBPartner(sqlWhereClause, sqlWhereClauseParams, evalCtx);
@@ -410,6 +509,15 @@ public class ProductLookupDescriptor implements LookupDescriptor, LookupDataSour
 		}
 	}
 
+	private static void appendFilterByProductIds(
+			final StringBuilder sqlWhereClause,
+			final SqlParamsCollector sqlWhereClauseParams,
+			final List<Integer> productIds)
+	{
+		sqlWhereClause.append("\n AND p.").append(I_M_Product_Lookup_V.COLUMNNAME_M_Product_ID)
+				.append(" IN ").append(DB.buildSqlList(productIds, sqlWhereClauseParams::collectAll));
+	}
+
 	private static void appendFilterById(final StringBuilder sqlWhereClause, final SqlParamsCollector sqlWhereClauseParams, final LookupDataSourceContext evalCtx)
 	{
 		final Integer idToFilter = evalCtx.getIdToFilterAsInt(-1);
@@ -0,0 +1,383 @@
+package de.metas.ui.web.window.model.lookup.fulltext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.IOUtils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Embedded (in-process) lucene index which provides candidate record IDs for typeahead lookups.
+ * <p>
+ * The texts are indexed twice: as plain lower case tokens, and as n-grams of those tokens, which are used for substring matching.
+ * All tokens of the search text have to be contained in one of the record's tokens. Like the SQL <code>ILIKE</code> which it replaces, the matching is case insensitive,
+ * but neither fuzzy nor accent insensitive. Note that the tokens may match in any order, so callers which need the SQL's exact semantics shall re-check the records.
+ * <p>
+ * The index is recreated each time it's opened. It's meant to be fed by the caller, which is also responsible for not returning stale results, i.e. the record IDs shall be verified against the database.
+ */
+public final class LookupFullTextIndex implements AutoCloseable
+{
+	private static final String FIELD_RecordId = "recordId";
+	private static final String FIELD_Text = "text";
+	private static final String FIELD_TextNGram = "textNGram";
+	private static final String FIELD_KeywordPrefix = "kw_";
+
+	private static final int NGRAM_MIN_LENGTH = 1;
+	private static final int NGRAM_MAX_LENGTH = 20;
+
+	private final String name;
+	private final FSDirectory directory;
+	private final Analyzer textAnalyzer;
+	private final IndexWriter indexWriter;
+	private final SearcherManager searcherManager;
+
+	private volatile boolean ready = false;
+
+	public LookupFullTextIndex(@NonNull final String name, @NonNull final Path directoryPath)
+	{
+		this.name = name;
+
+		textAnalyzer = createTextAnalyzer();
+
+		FSDirectory directory = null;
+		IndexWriter indexWriter = null;
+		try
+		{
+			Files.createDirectories(directoryPath);
+			directory = FSDirectory.open(directoryPath);
+
+			final Analyzer indexAnalyzer = new PerFieldAnalyzerWrapper(
+					textAnalyzer,
+					ImmutableMap.of(FIELD_TextNGram, createTextNGramAnalyzer()));
+			final IndexWriterConfig config = new IndexWriterConfig(indexAnalyzer)
+					.setOpenMode(OpenMode.CREATE);
+			indexWriter = new IndexWriter(directory, config);
+
+			searcherManager = new SearcherManager(indexWriter, true, null);
+		}
+		catch (final IOException ex)
+		{
+			IOUtils.closeWhileHandlingException(indexWriter, directory);
+			throw new AdempiereException("Failed opening full text index " + name + " in " + directoryPath, ex);
+		}
+
+		this.directory = directory;
+		this.indexWriter = indexWriter;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[" + name + "]";
+	}
+
+	private static Analyzer createTextAnalyzer()
+	{
+		return new Analyzer()
+		{
+			@Override
+			protected TokenStreamComponents createComponents(final String fieldName)
+			{
+				final Tokenizer source = new StandardTokenizer();
+				final TokenStream result = new LowerCaseFilter(source);
+				return new TokenStreamComponents(source, result);
+			}
+		};
+	}
+
+	/**
+	 * Indexes all the substrings (up to {@link #NGRAM_MAX_LENGTH}) of each token, so that we also find records by a part in the middle of a word,
+	 * like the SQL <code>ILIKE '%text%'</code> does (e.g. "milch" shall find "Vollmilch").
+	 */
+	private static Analyzer createTextNGramAnalyzer()
+	{
+		return new Analyzer()
+		{
+			@Override
+			protected TokenStreamComponents createComponents(final String fieldName)
+			{
+				final Tokenizer source = new StandardTokenizer();
+				TokenStream result = new LowerCaseFilter(source);
+				result = new NGramTokenFilter(result, NGRAM_MIN_LENGTH, NGRAM_MAX_LENGTH);
+				return new TokenStreamComponents(source, result);
+			}
+		};
+	}
+
+	@Override
+	public void close()
+	{
+		ready = false;
+		IOUtils.closeWhileHandlingException(searcherManager, indexWriter, directory, textAnalyzer);
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/** @return true if the index was completely loaded and it can be used for searching */
+	public boolean isReady()
+	{
+		return ready;
+	}
+
+	public void markReady()
+	{
+		ready = true;
+	}
+
+	public int getDocumentsCount()
+	{
+		return indexWriter.numDocs();
+	}
+
+	/**
+	 * Replaces all documents of given records.
+	 *
+	 * @param recordIds records to be replaced; records which have no documents in <code>documents</code> will be just removed from index
+	 */
+	public void replaceRecords(@NonNull final Collection<Integer> recordIds, @NonNull final Collection<LookupFullTextIndexDocument> documents)
+	{
+		try
+		{
+			if (!recordIds.isEmpty())
+			{
+				final Term[] recordIdTerms = recordIds.stream()
+						.map(recordId -> new Term(FIELD_RecordId, String.valueOf(recordId)))
+						.toArray(Term[]::new);
+				indexWriter.deleteDocuments(recordIdTerms);
+			}
+
+			for (final LookupFullTextIndexDocument document : documents)
+			{
+				indexWriter.addDocument(toLuceneDocument(document));
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed updating " + this, ex);
+		}
+	}
+
+	/**
+	 * Adds the given documents, without removing existing ones. To be used when the index is initially loaded.
+	 */
+	public void addDocuments(@NonNull final Collection<LookupFullTextIndexDocument> documents)
+	{
+		replaceRecords(ImmutableSet.of(), documents);
+	}
+
+	/**
+	 * Makes the changes visible to searchers and persists them.
+	 */
+	public void commit()
+	{
+		try
+		{
+			indexWriter.commit();
+			searcherManager.maybeRefresh();
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed committing " + this, ex);
+		}
+	}
+
+	private static Document toLuceneDocument(final LookupFullTextIndexDocument document)
+	{
+		final Document luceneDoc = new Document();
+		luceneDoc.add(new StringField(FIELD_RecordId, String.valueOf(document.getRecordId()), Field.Store.YES));
+
+		for (final Map.Entry<String, String> keyword : document.getKeywords().entrySet())
+		{
+			luceneDoc.add(new StringField(FIELD_KeywordPrefix + keyword.getKey(), keyword.getValue(), Field.Store.NO));
+		}
+
+		for (final String text : document.getTexts())
+		{
+			luceneDoc.add(new TextField(FIELD_Text, text, Field.Store.NO));
+			luceneDoc.add(new TextField(FIELD_TextNGram, text, Field.Store.NO));
+		}
+
+		return luceneDoc;
+	}
+
+	/**
+	 * @param keywordFilters documents are accepted only if, for each keyword, they have one of the given values
+	 * @return matching record IDs, best matches first
+	 */
+	public SearchResult search(
+			@NonNull final String text,
+			@NonNull final Map<String, ? extends Collection<String>> keywordFilters,
+			final int maxRecords)
+	{
+		Check.assumeGreaterThanZero(maxRecords, "maxRecords");
+
+		final Query query = createQuery(text, keywordFilters);
+		if (query == null)
+		{
+			return SearchResult.EMPTY;
+		}
+
+		try
+		{
+			final IndexSearcher searcher = searcherManager.acquire();
+			try
+			{
+				// NOTE: a record might have more than one document, so we fetch a bit more
+				final TopDocs topDocs = searcher.search(query, maxRecords * 2);
+
+				final Set<Integer> recordIds = new LinkedHashSet<>();
+				for (final ScoreDoc scoreDoc : topDocs.scoreDocs)
+				{
+					final Document luceneDoc = searcher.doc(scoreDoc.doc, ImmutableSet.of(FIELD_RecordId));
+					recordIds.add(Integer.parseInt(luceneDoc.get(FIELD_RecordId)));
+					if (recordIds.size() >= maxRecords)
+					{
+						break;
+					}
+				}
+
+				final boolean complete = topDocs.totalHits <= topDocs.scoreDocs.length && recordIds.size() < maxRecords;
+				return SearchResult.of(ImmutableList.copyOf(recordIds), complete);
+			}
+			finally
+			{
+				searcherManager.release(searcher);
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed searching " + this + " for " + text, ex);
+		}
+	}
+
+	private Query createQuery(final String text, final Map<String, ? extends Collection<String>> keywordFilters)
+	{
+		final List<String> tokens = tokenize(text);
+		if (tokens.isEmpty())
+		{
+			return null;
+		}
+
+		final BooleanQuery.Builder query = new BooleanQuery.Builder();
+		for (final String token : tokens)
+		{
+			query.add(createTokenQuery(token), Occur.MUST);
+		}
+
+		for (final Map.Entry<String, ? extends Collection<String>> keywordFilter : keywordFilters.entrySet())
+		{
+			final BooleanQuery.Builder keywordQuery = new BooleanQuery.Builder();
+			for (final String value : keywordFilter.getValue())
+			{
+				keywordQuery.add(new TermQuery(new Term(FIELD_KeywordPrefix + keywordFilter.getKey(), value)), Occur.SHOULD);
+			}
+			query.add(keywordQuery.build(), Occur.FILTER);
+		}
+
+		return query.build();
+	}
+
+	private static Query createTokenQuery(final String token)
+	{
+		return token.length() <= NGRAM_MAX_LENGTH
+				? new TermQuery(new Term(FIELD_TextNGram, token))
+				: new WildcardQuery(new Term(FIELD_Text, "*" + token + "*"));
+	}
+
+	private List<String> tokenize(final String text)
+	{
+		final List<String> tokens = new ArrayList<>();
+		try (final TokenStream tokenStream = textAnalyzer.tokenStream(FIELD_Text, text))
+		{
+			final CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+			tokenStream.reset();
+			while (tokenStream.incrementToken())
+			{
+				tokens.add(termAttribute.toString());
+			}
+			tokenStream.end();
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed tokenizing " + text, ex);
+		}
+		return tokens;
+	}
+
+	@Value(staticConstructor = "of")
+	public static class SearchResult
+	{
+		public static final SearchResult EMPTY = of(ImmutableList.of(), true);
+
+		ImmutableList<Integer> recordIds;
+
+		/** true if all matching records were returned, i.e. <code>maxRecords</code> was not exceeded */
+		boolean complete;
+	}
+}
@@ -0,0 +1,68 @@
+package de.metas.ui.web.window.model.lookup.fulltext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * One entry of a {@link LookupFullTextIndex}. A record might be represented by more than one document (e.g. a product and its bpartner specific names).
+ */
+@Value
+public class LookupFullTextIndexDocument
+{
+	int recordId;
+
+	/** Values which are matched exactly when filtering, e.g. the bpartner for which the texts are valid */
+	ImmutableMap<String, String> keywords;
+
+	/** Texts which are searchable; <code>null</code> or empty texts are skipped */
+	ImmutableList<String> texts;
+
+	@Builder
+	private LookupFullTextIndexDocument(
+			final int recordId,
+			@NonNull @Singular final Map<String, String> keywords,
+			@NonNull final List<String> texts)
+	{
+		Check.assumeGreaterThanZero(recordId, "recordId");
+
+		this.recordId = recordId;
+		this.keywords = ImmutableMap.copyOf(keywords);
+		this.texts = texts.stream()
+				.filter(Objects::nonNull)
+				.map(String::trim)
+				.filter(text -> !text.isEmpty())
+				.collect(ImmutableList.toImmutableList());
+	}
+}
@@ -0,0 +1,700 @@
+package de.metas.ui.web.window.model.lookup.fulltext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_BPartner_Product;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.ICacheResetListener;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.util.LatencyStats;
+import de.metas.ui.web.window.model.lookup.fulltext.LookupFullTextIndex.SearchResult;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Maintains the embedded {@link LookupFullTextIndex}es for product and bpartner lookups.
+ * <p>
+ * The indexes are disabled by default (see {@link #SYSCONFIG_Enabled}) and are loaded in background after startup.
+ * Until then, and whenever they are disabled, the lookups shall fall back to SQL.
+ * They are kept up to date by:
+ * <ul>
+ * <li>listening to cache invalidation events, which are fired when a record is saved locally (after the transaction was committed) and also by other metasfresh instances for the tables with remote cache invalidation enabled
+ * <li>periodically re-indexing the records which were updated since the last run; that's also covering the tables for which we don't get remote invalidation events.
+ * </ul>
+ */
+@Component
+public class LookupFullTextIndexService implements ICacheResetListener
+{
+	private static final Logger logger = LogManager.getLogger(LookupFullTextIndexService.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.ui.web.window.model.lookup.fulltext.Enabled";
+	private static final String SYSCONFIG_Directory = "de.metas.ui.web.window.model.lookup.fulltext.Directory";
+	private static final String SYSCONFIG_SyncIntervalSeconds = "de.metas.ui.web.window.model.lookup.fulltext.SyncIntervalSeconds";
+	private static final int DEFAULT_SyncIntervalSeconds = 60;
+
+	private static final String TRXPROP_RecordsToReindex = LookupFullTextIndexService.class + ".RecordsToReindex";
+
+	private static final String KEYWORD_C_BPartner_ID = "C_BPartner_ID";
+	private static final String KEYWORD_AD_Client_ID = "AD_Client_ID";
+
+	private static final int TICK_SECONDS = 5;
+	private static final int LOAD_PAGE_SIZE = 5000;
+	private static final int LOAD_IN_LIST_SIZE = 500;
+	private static final int LATENCY_SAMPLES = 1000;
+
+	private final ScheduledExecutorService executor;
+
+	/** Indexes; accessed only from {@link #executor}, except for searching */
+	private volatile LookupFullTextIndex productsIndex;
+	private volatile LookupFullTextIndex bpartnersIndex;
+	private volatile Timestamp lastSyncTimestamp;
+	private Path instanceDirectory; // lazy
+	private long lastSyncNanos;
+
+	private final Set<Integer> productIdsToReindex = ConcurrentHashMap.newKeySet();
+	private final Set<Integer> bpartnerIdsToReindex = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean syncRequested = new AtomicBoolean(false);
+
+	private final ConcurrentHashMap<String, LatencyStats> latencyStatsByName = new ConcurrentHashMap<>();
+
+	public LookupFullTextIndexService()
+	{
+		final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(LookupFullTextIndexService.class.getSimpleName());
+		threadFactory.setDaemon(true);
+
+		executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+	}
+
+	@PostConstruct
+	private void postConstruct()
+	{
+		CacheMgt.get().addCacheResetListener(this);
+
+		// NOTE: we are not loading right away because the database might not be available yet
+		executor.scheduleWithFixedDelay(this::runOnceNoFail, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	private void preDestroy()
+	{
+		executor.shutdownNow();
+		closeIndexes();
+
+		if (instanceDirectory != null)
+		{
+			FileSystemUtils.deleteRecursively(instanceDirectory.toFile());
+		}
+	}
+
+	private boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	/**
+	 * @return a directory which is used only by this instance, within the configured directory, so that more instances on the same host don't lock each other's indexes
+	 */
+	private Path getDirectory()
+	{
+		if (instanceDirectory == null)
+		{
+			final String defaultDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "metasfresh-lookup-index").toString();
+			final Path baseDirectory = Paths.get(Services.get(ISysConfigBL.class).getValue(SYSCONFIG_Directory, defaultDirectory));
+			try
+			{
+				Files.createDirectories(baseDirectory);
+				instanceDirectory = Files.createTempDirectory(baseDirectory, "instance-");
+			}
+			catch (final IOException ex)
+			{
+				throw new AdempiereException("Failed creating the full text index directory in " + baseDirectory, ex);
+			}
+		}
+		return instanceDirectory;
+	}
+
+	private long getSyncIntervalNanos()
+	{
+		final int seconds = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_SyncIntervalSeconds, DEFAULT_SyncIntervalSeconds);
+		return TimeUnit.SECONDS.toNanos(Math.max(seconds, TICK_SECONDS));
+	}
+
+	//
+	//
+	// Searching
+	//
+	//
+
+	/**
+	 * @param bpartnerId if set, only the generic product texts and the ones of this bpartner are searched
+	 * @return matching product IDs or empty if the index is not available
+	 */
+	public Optional<SearchResult> searchProductIds(
+			@NonNull final String text,
+			@Nullable final BPartnerId bpartnerId,
+			final int maxRecords)
+	{
+		final ImmutableMap<String, ImmutableSet<String>> keywordFilters = bpartnerId != null
+				? ImmutableMap.of(KEYWORD_C_BPartner_ID, ImmutableSet.of("0", String.valueOf(bpartnerId.getRepoId())))
+				: ImmutableMap.of();
+
+		return search(productsIndex, text, keywordFilters, maxRecords);
+	}
+
+	/**
+	 * @return matching bpartner IDs of the current client, best matches first, or empty if the index is not available
+	 */
+	public Optional<SearchResult> searchBPartnerIds(@NonNull final String text, final int maxRecords)
+	{
+		final int adClientId = Env.getAD_Client_ID(Env.getCtx());
+		final ImmutableMap<String, ImmutableSet<String>> keywordFilters = adClientId > 0
+				? ImmutableMap.of(KEYWORD_AD_Client_ID, ImmutableSet.of(String.valueOf(adClientId)))
+				: ImmutableMap.of();
+
+		return search(bpartnersIndex, text, keywordFilters, maxRecords);
+	}
+
+	private static Optional<SearchResult> search(
+			@Nullable final LookupFullTextIndex index,
+			@NonNull final String text,
+			@NonNull final Map<String, ? extends Collection<String>> keywordFilters,
+			final int maxRecords)
+	{
+		if (index == null || !index.isReady())
+		{
+			return Optional.empty();
+		}
+
+		try
+		{
+			return Optional.of(index.search(text, keywordFilters, maxRecords));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed searching {} for: {}. Returning empty.", index, text, ex);
+			return Optional.empty();
+		}
+	}
+
+	//
+	//
+	// Latency statistics
+	//
+	//
+
+	public void recordLookupLatency(@NonNull final String lookupName, final boolean servedByIndex, final long durationNanos)
+	{
+		final String statsName = lookupName + (servedByIndex ? ".index" : ".sql");
+		latencyStatsByName
+				.computeIfAbsent(statsName, name -> new LatencyStats(name, LATENCY_SAMPLES))
+				.record(durationNanos);
+	}
+
+	public Map<String, Object> getStats()
+	{
+		final Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("enabled", isEnabled());
+		stats.put("indexes", ImmutableList.of(toStatsMap(productsIndex, "products"), toStatsMap(bpartnersIndex, "bpartners")));
+		stats.put("lastSyncTimestamp", lastSyncTimestamp);
+
+		final List<Map<String, Object>> latencies = new ArrayList<>();
+		latencyStatsByName.values().forEach(latencyStats -> latencies.add(latencyStats.toMap()));
+		stats.put("latencies", latencies);
+
+		return stats;
+	}
+
+	private static Map<String, Object> toStatsMap(@Nullable final LookupFullTextIndex index, final String name)
+	{
+		final Map<String, Object> map = new LinkedHashMap<>();
+		map.put("name", name);
+		map.put("ready", index != null && index.isReady());
+		map.put("documents", index != null ? index.getDocumentsCount() : 0);
+		return map;
+	}
+
+	//
+	//
+	// Collecting changed records
+	//
+	//
+
+	@Override
+	public long reset(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		final RecordsToReindex records = extractRecordsToReindex(multiRequest);
+		if (records.isEmpty())
+		{
+			return 0;
+		}
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx currentTrx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(currentTrx))
+		{
+			enqueue(records);
+		}
+		else
+		{
+			// wait until the transaction is committed, else we would index the old values
+			final RecordsToReindex collector = currentTrx.getProperty(TRXPROP_RecordsToReindex, trx -> {
+				final RecordsToReindex c = new RecordsToReindex();
+				trx.getTrxListenerManager()
+						.newEventListener(TrxEventTiming.AFTER_COMMIT)
+						.registerHandlingMethod(innerTrx -> enqueue(c));
+				return c;
+			});
+			collector.addAll(records);
+		}
+
+		return 1; // not relevant
+	}
+
+	private static RecordsToReindex extractRecordsToReindex(final CacheInvalidateMultiRequest multiRequest)
+	{
+		final RecordsToReindex records = new RecordsToReindex();
+		if (multiRequest.isResetAll())
+		{
+			records.syncRequired = true;
+			return records;
+		}
+
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (request.isAll())
+			{
+				records.syncRequired = true;
+				continue;
+			}
+
+			final String tableName = request.getTableNameEffective();
+			if (!I_M_Product.Table_Name.equals(tableName)
+					&& !I_C_BPartner_Product.Table_Name.equals(tableName)
+					&& !I_C_BPartner.Table_Name.equals(tableName))
+			{
+				continue;
+			}
+
+			final TableRecordReference recordRef = request.getRecordEffective();
+			if (request.isAllRecords() || recordRef == null || I_C_BPartner_Product.Table_Name.equals(tableName))
+			{
+				// NOTE: in case of C_BPartner_Product we don't know the product, so we rely on sync
+				records.syncRequired = true;
+			}
+			else if (I_M_Product.Table_Name.equals(tableName))
+			{
+				records.productIds.add(recordRef.getRecord_ID());
+			}
+			else
+			{
+				records.bpartnerIds.add(recordRef.getRecord_ID());
+			}
+		}
+
+		return records;
+	}
+
+	private void enqueue(final RecordsToReindex records)
+	{
+		productIdsToReindex.addAll(records.productIds);
+		bpartnerIdsToReindex.addAll(records.bpartnerIds);
+		if (records.syncRequired)
+		{
+			syncRequested.set(true);
+		}
+	}
+
+	private static final class RecordsToReindex
+	{
+		private final Set<Integer> productIds = new HashSet<>();
+		private final Set<Integer> bpartnerIds = new HashSet<>();
+		private boolean syncRequired = false;
+
+		public boolean isEmpty()
+		{
+			return productIds.isEmpty() && bpartnerIds.isEmpty() && !syncRequired;
+		}
+
+		public synchronized void addAll(final RecordsToReindex other)
+		{
+			productIds.addAll(other.productIds);
+			bpartnerIds.addAll(other.bpartnerIds);
+			syncRequired = syncRequired || other.syncRequired;
+		}
+	}
+
+	//
+	//
+	// Indexing
+	//
+	//
+
+	private void runOnceNoFail()
+	{
+		try
+		{
+			runOnce();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed updating the lookup full text indexes. Will retry later.", ex);
+		}
+	}
+
+	private void runOnce()
+	{
+		if (!isEnabled())
+		{
+			closeIndexes();
+			productIdsToReindex.clear();
+			bpartnerIdsToReindex.clear();
+			return;
+		}
+
+		if (productsIndex == null || bpartnersIndex == null)
+		{
+			loadIndexes();
+			return;
+		}
+
+		reindexProducts(drain(productIdsToReindex));
+		reindexBPartners(drain(bpartnerIdsToReindex));
+
+		if (syncRequested.getAndSet(false) || System.nanoTime() - lastSyncNanos >= getSyncIntervalNanos())
+		{
+			syncUpdatedRecords();
+		}
+
+		productsIndex.commit();
+		bpartnersIndex.commit();
+	}
+
+	private void loadIndexes()
+	{
+		closeIndexes();
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final Path directory = getDirectory();
+
+		// NOTE: take the timestamp before loading, so the first sync will catch the records changed meanwhile
+		setLastSyncTimestamp(retrieveDatabaseNow());
+
+		final LookupFullTextIndex productsIndex = new LookupFullTextIndex("products", directory.resolve("products"));
+		final LookupFullTextIndex bpartnersIndex = new LookupFullTextIndex("bpartners", directory.resolve("bpartners"));
+		try
+		{
+			loadAll(productsIndex, I_M_Product.Table_Name, I_M_Product.COLUMNNAME_M_Product_ID, productsReindexer(productsIndex));
+			loadAll(bpartnersIndex, I_C_BPartner.Table_Name, I_C_BPartner.COLUMNNAME_C_BPartner_ID, bpartnersReindexer(bpartnersIndex));
+		}
+		catch (final RuntimeException ex)
+		{
+			productsIndex.close();
+			bpartnersIndex.close();
+			throw ex;
+		}
+
+		this.productsIndex = productsIndex;
+		this.bpartnersIndex = bpartnersIndex;
+
+		logger.info("Loaded lookup full text indexes in {}: products={} documents, bpartners={} documents, directory={}",
+				stopwatch, productsIndex.getDocumentsCount(), bpartnersIndex.getDocumentsCount(), directory);
+	}
+
+	/**
+	 * Loads all records, page by page, ordered by their IDs.
+	 *
+	 * @param reindexFunction function which indexes the given IDs and returns the number of documents
+	 */
+	private static void loadAll(
+			final LookupFullTextIndex index,
+			final String tableName,
+			final String keyColumnName,
+			final Function<Collection<Integer>, Integer> reindexFunction)
+	{
+		final String sql = "SELECT " + keyColumnName + " FROM " + tableName
+				+ " WHERE " + keyColumnName + ">?"
+				+ " ORDER BY " + keyColumnName
+				+ " LIMIT " + LOAD_PAGE_SIZE;
+
+		int lastId = -1;
+		while (true)
+		{
+			final List<Integer> ids = retrieveIds(sql, lastId);
+			if (ids.isEmpty())
+			{
+				break;
+			}
+
+			reindexFunction.apply(ids);
+			lastId = ids.get(ids.size() - 1);
+		}
+
+		index.commit();
+		index.markReady();
+	}
+
+	private void syncUpdatedRecords()
+	{
+		final Timestamp syncTimestamp = retrieveDatabaseNow();
+
+		final List<Integer> productIds = retrieveIds("SELECT " + I_M_Product.COLUMNNAME_M_Product_ID + " FROM " + I_M_Product.Table_Name + " WHERE Updated>=?"
+				+ " UNION SELECT " + I_C_BPartner_Product.COLUMNNAME_M_Product_ID + " FROM " + I_C_BPartner_Product.Table_Name + " WHERE Updated>=?",
+				lastSyncTimestamp, lastSyncTimestamp);
+		reindexProducts(productIds);
+
+		final List<Integer> bpartnerIds = retrieveIds("SELECT " + I_C_BPartner.COLUMNNAME_C_BPartner_ID + " FROM " + I_C_BPartner.Table_Name + " WHERE Updated>=?",
+				lastSyncTimestamp);
+		reindexBPartners(bpartnerIds);
+
+		logger.debug("Synchronized {} products and {} bpartners updated since {}", productIds.size(), bpartnerIds.size(), lastSyncTimestamp);
+		setLastSyncTimestamp(syncTimestamp);
+	}
+
+	private void setLastSyncTimestamp(final Timestamp lastSyncTimestamp)
+	{
+		this.lastSyncTimestamp = lastSyncTimestamp;
+		lastSyncNanos = System.nanoTime();
+	}
+
+	private void closeIndexes()
+	{
+		final LookupFullTextIndex productsIndex = this.productsIndex;
+		final LookupFullTextIndex bpartnersIndex = this.bpartnersIndex;
+		this.productsIndex = null;
+		this.bpartnersIndex = null;
+
+		if (productsIndex != null)
+		{
+			productsIndex.close();
+		}
+		if (bpartnersIndex != null)
+		{
+			bpartnersIndex.close();
+		}
+	}
+
+	private void reindexProducts(final Collection<Integer> productIds)
+	{
+		if (productsIndex != null)
+		{
+			productsReindexer(productsIndex).apply(productIds);
+		}
+	}
+
+	private static Function<Collection<Integer>, Integer> productsReindexer(final LookupFullTextIndex index)
+	{
+		return productIds -> reindex(
+				index,
+				productIds,
+				"SELECT M_Product_ID, C_BPartner_ID, Value, Name, UPC, BPartnerProductNo, BPartnerProductName"
+						+ " FROM M_Product_Lookup_V"
+						+ " WHERE IsActive='Y' AND M_Product_ID IN ",
+				rs -> LookupFullTextIndexDocument.builder()
+						.recordId(rs.getInt("M_Product_ID"))
+						.keyword(KEYWORD_C_BPartner_ID, String.valueOf(Math.max(rs.getInt("C_BPartner_ID"), 0)))
+						.texts(Arrays.asList(
+								rs.getString("Value"),
+								rs.getString("Name"),
+								rs.getString("UPC"),
+								rs.getString("BPartnerProductNo"),
+								rs.getString("BPartnerProductName")))
+						.build());
+	}
+
+	private void reindexBPartners(final Collection<Integer> bpartnerIds)
+	{
+		if (bpartnersIndex != null)
+		{
+			bpartnersReindexer(bpartnersIndex).apply(bpartnerIds);
+		}
+	}
+
+	private static Function<Collection<Integer>, Integer> bpartnersReindexer(final LookupFullTextIndex index)
+	{
+		return bpartnerIds -> reindex(
+				index,
+				bpartnerIds,
+				"SELECT C_BPartner_ID, AD_Client_ID, Value, Name, Name2"
+						+ " FROM C_BPartner"
+						+ " WHERE IsActive='Y' AND C_BPartner_ID IN ",
+				rs -> LookupFullTextIndexDocument.builder()
+						.recordId(rs.getInt("C_BPartner_ID"))
+						.keyword(KEYWORD_AD_Client_ID, String.valueOf(rs.getInt("AD_Client_ID")))
+						.texts(Arrays.asList(
+								rs.getString("Value"),
+								rs.getString("Name"),
+								rs.getString("Name2")))
+						.build());
+	}
+
+	@FunctionalInterface
+	private interface DocumentLoader
+	{
+		LookupFullTextIndexDocument load(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Loads the documents of given records and replaces them in index.
+	 *
+	 * @param sqlPrefix SQL which ends with <code>... IN </code>, so the ID list can be appended
+	 * @return how many documents were indexed
+	 */
+	private static int reindex(
+			@NonNull final LookupFullTextIndex index,
+			@NonNull final Collection<Integer> recordIds,
+			@NonNull final String sqlPrefix,
+			@NonNull final DocumentLoader loader)
+	{
+		int documentsCount = 0;
+		for (final List<Integer> recordIdsChunk : Iterables.partition(recordIds, LOAD_IN_LIST_SIZE))
+		{
+			final List<Object> sqlParams = new ArrayList<>();
+			final String sql = sqlPrefix + DB.buildSqlList(recordIdsChunk, sqlParams);
+
+			final List<LookupFullTextIndexDocument> documents = new ArrayList<>();
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+				DB.setParameters(pstmt, sqlParams);
+				rs = pstmt.executeQuery();
+				while (rs.next())
+				{
+					documents.add(loader.load(rs));
+				}
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sql, sqlParams);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+
+			index.replaceRecords(recordIdsChunk, documents);
+			documentsCount += documents.size();
+		}
+
+		return documentsCount;
+	}
+
+	private static List<Integer> retrieveIds(final String sql, final Object... sqlParams)
+	{
+		final List<Integer> ids = new ArrayList<>();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				ids.add(rs.getInt(1));
+			}
+			return ids;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, sqlParams);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	private static Timestamp retrieveDatabaseNow()
+	{
+		return DB.getSQLValueTSEx(ITrx.TRXNAME_None, "SELECT now()");
+	}
+
+	private static Set<Integer> drain(final Set<Integer> ids)
+	{
+		final Set<Integer> drained = new HashSet<>();
+		for (final Integer id : ImmutableList.copyOf(ids))
+		{
+			if (ids.remove(id))
+			{
+				drained.add(id);
+			}
+		}
+		return drained;
+	}
+}
@@ -0,0 +1,139 @@
+package de.metas.ui.web.attachments;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import de.metas.attachments.AttachmentEntry;
+import de.metas.ui.web.exceptions.EntityNotFoundException;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentAttachmentsRestControllerTest
+{
+	/**
+	 * Streaming entry which fails if its data is loaded into memory.
+	 */
+	private static class StreamingEntry implements IDocumentAttachmentEntry
+	{
+		private final byte[] data;
+
+		private StreamingEntry(@NonNull final byte[] data)
+		{
+			this.data = data;
+		}
+
+		@Override
+		public DocumentId getId()
+		{
+			return DocumentId.of(1);
+		}
+
+		@Override
+		public AttachmentEntry.Type getType()
+		{
+			return AttachmentEntry.Type.Data;
+		}
+
+		@Override
+		public String getFilename()
+		{
+			return "document.pdf";
+		}
+
+		@Override
+		public byte[] getData()
+		{
+			throw new UnsupportedOperationException("data shall be streamed");
+		}
+
+		@Override
+		public boolean isStreamingSupported()
+		{
+			return true;
+		}
+
+		@Override
+		public void writeDataTo(final OutputStream out) throws IOException
+		{
+			out.write(data);
+		}
+
+		@Override
+		public long getDataSize()
+		{
+			return data.length;
+		}
+
+		@Override
+		public String getContentType()
+		{
+			return MediaType.APPLICATION_PDF_VALUE;
+		}
+
+		@Override
+		public URI getUrl()
+		{
+			return null;
+		}
+	}
+
+	@Test
+	public void streamingEntry() throws IOException
+	{
+		final byte[] data = "PDF content".getBytes(StandardCharsets.UTF_8);
+
+		final ResponseEntity<?> response = DocumentAttachmentsRestController.toResponseEntity(new StreamingEntry(data));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PDF);
+		assertThat(response.getHeaders().getContentLength()).isEqualTo(data.length);
+		assertThat(response.getBody()).isInstanceOf(StreamingResponseBody.class);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((StreamingResponseBody)response.getBody()).writeTo(out);
+		assertThat(out.toByteArray()).isEqualTo(data);
+	}
+
+	@Test
+	public void streamingEntry_noData()
+	{
+		final StreamingEntry entry = new StreamingEntry(new byte[] {});
+
+		assertThatThrownBy(() -> DocumentAttachmentsRestController.toResponseEntity(entry))
+				.isInstanceOf(EntityNotFoundException.class);
+	}
+}
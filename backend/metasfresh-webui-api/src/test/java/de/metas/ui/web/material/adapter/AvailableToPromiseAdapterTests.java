@@ -2,11 +2,36 @@ package de.metas.ui.web.material.adapter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.ZonedDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseQuery;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseResult;
 import de.metas.material.event.commons.AttributesKey;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.material.event.stock.StockChangedEvent;
+import de.metas.organization.OrgId;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group.Type;
+import de.metas.util.Services;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -32,6 +57,129 @@ import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group.T
 
 public class AvailableToPromiseAdapterTests
 {
+	private static final String SYSCONFIG_CacheTTLSeconds = "de.metas.ui.web.material.adapter.AvailableToPromiseAdapter.CacheTTLSeconds";
+	private static final int PRODUCT_ID = 10;
+
+	private TestTicker ticker;
+	private TestAvailableToPromiseRepository repository;
+	private AvailableToPromiseAdapter adapter;
+	private AvailableToPromiseQuery query;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		Services.get(ISysConfigBL.class).setValue(SYSCONFIG_CacheTTLSeconds, 10, ClientId.SYSTEM, OrgId.ANY);
+
+		ticker = new TestTicker();
+		repository = new TestAvailableToPromiseRepository();
+		adapter = new AvailableToPromiseAdapter(repository, ticker);
+		query = AvailableToPromiseQuery.builder()
+				.productId(PRODUCT_ID)
+				.date(ZonedDateTime.parse("2020-10-19T10:00:00+02:00"))
+				.build();
+	}
+
+	@Test
+	public void retrieveAvailableStock_cached()
+	{
+		adapter.retrieveAvailableStock(query);
+		adapter.retrieveAvailableStock(query);
+
+		assertThat(repository.getLoadsCount()).isEqualTo(1);
+		assertThat(adapter.getStats()).containsEntry("cacheHits", 1L);
+	}
+
+	@Test
+	public void retrieveAvailableStock_ttlExpired()
+	{
+		adapter.retrieveAvailableStock(query);
+
+		ticker.advance(9, TimeUnit.SECONDS);
+		adapter.retrieveAvailableStock(query);
+		assertThat(repository.getLoadsCount()).isEqualTo(1);
+
+		ticker.advance(2, TimeUnit.SECONDS);
+		adapter.retrieveAvailableStock(query);
+		assertThat(repository.getLoadsCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void retrieveAvailableStock_cacheDisabled()
+	{
+		Services.get(ISysConfigBL.class).setValue(SYSCONFIG_CacheTTLSeconds, 0, ClientId.SYSTEM, OrgId.ANY);
+
+		adapter.retrieveAvailableStock(query);
+		adapter.retrieveAvailableStock(query);
+
+		assertThat(repository.getLoadsCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void retrieveAvailableStock_invalidatedByMaterialEvent()
+	{
+		adapter.retrieveAvailableStock(query);
+
+		final AvailableToPromiseCacheInvalidationHandler invalidationHandler = new AvailableToPromiseCacheInvalidationHandler(adapter);
+
+		// an event for another product shall not discard our product's result
+		invalidationHandler.handleEvent(StockChangedEvent.builder()
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(PRODUCT_ID + 1))
+				.build());
+		adapter.retrieveAvailableStock(query);
+		assertThat(repository.getLoadsCount()).isEqualTo(1);
+
+		ticker.advance(1, TimeUnit.MILLISECONDS);
+		invalidationHandler.handleEvent(StockChangedEvent.builder()
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(PRODUCT_ID))
+				.build());
+		adapter.retrieveAvailableStock(query);
+		assertThat(repository.getLoadsCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void retrieveAvailableStock_concurrentIdenticalQueries() throws Exception
+	{
+		repository.blockLoads();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			final Future<AvailableToPromiseResultForWebui> result1 = executor.submit(() -> adapter.retrieveAvailableStock(query));
+			repository.awaitLoadStarted();
+
+			final Future<AvailableToPromiseResultForWebui> result2 = executor.submit(() -> adapter.retrieveAvailableStock(query));
+			awaitCoalesced(1L);
+
+			repository.releaseLoads();
+			assertThat(result1.get(10, TimeUnit.SECONDS)).isNotNull();
+			assertThat(result2.get(10, TimeUnit.SECONDS)).isNotNull();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertThat(repository.getLoadsCount()).isEqualTo(1);
+		assertThat(adapter.getStats())
+				.containsEntry("coalesced", 1L)
+				.containsEntry("inFlightLoads", 0);
+	}
+
+	private void awaitCoalesced(final long expectedCoalesced) throws InterruptedException
+	{
+		final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (!Long.valueOf(expectedCoalesced).equals(adapter.getStats().get("coalesced")))
+		{
+			if (System.currentTimeMillis() > deadline)
+			{
+				throw new AdempiereException("The second request was not coalesced with the running load");
+			}
+			Thread.sleep(5);
+		}
+	}
+
 	@Test
 	public void extractGroupType_all()
 	{
@@ -53,4 +201,68 @@ public class AvailableToPromiseAdapterTests
 		final Group.Type type = AvailableToPromiseAdapter.extractGroupType(attributesKey);
 		assertThat(type).isSameAs(Type.ATTRIBUTE_SET);
 	}
+
+	private static class TestTicker extends Ticker
+	{
+		private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+		@Override
+		public long read()
+		{
+			return nanos.get();
+		}
+
+		public void advance(final long duration, @NonNull final TimeUnit unit)
+		{
+			nanos.addAndGet(unit.toNanos(duration));
+		}
+	}
+
+	private static class TestAvailableToPromiseRepository extends AvailableToPromiseRepository
+	{
+		private final AtomicInteger loadsCount = new AtomicInteger(0);
+		private final CountDownLatch loadStarted = new CountDownLatch(1);
+		private CountDownLatch releaseLoads = null;
+
+		@Override
+		public AvailableToPromiseResult retrieveAvailableStock(@NonNull final AvailableToPromiseQuery query)
+		{
+			loadsCount.incrementAndGet();
+			loadStarted.countDown();
+
+			if (releaseLoads != null)
+			{
+				try
+				{
+					releaseLoads.await(10, TimeUnit.SECONDS);
+				}
+				catch (final InterruptedException e)
+				{
+					throw AdempiereException.wrapIfNeeded(e);
+				}
+			}
+
+			return AvailableToPromiseResult.ofGroups(ImmutableList.of());
+		}
+
+		public int getLoadsCount()
+		{
+			return loadsCount.get();
+		}
+
+		public void blockLoads()
+		{
+			releaseLoads = new CountDownLatch(1);
+		}
+
+		public void releaseLoads()
+		{
+			releaseLoads.countDown();
+		}
+
+		public void awaitLoadStarted() throws InterruptedException
+		{
+			assertThat(loadStarted.await(10, TimeUnit.SECONDS)).as("load started").isTrue();
+		}
+	}
 }
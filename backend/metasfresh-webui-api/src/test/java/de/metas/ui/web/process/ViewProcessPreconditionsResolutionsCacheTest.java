@@ -0,0 +1,140 @@
+package de.metas.ui.web.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.process.ProcessPreconditionsResolution;
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.process.descriptor.ProcessPreconditionsResolutionAndDuration;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.view.ViewRowIdsSelection;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewProcessPreconditionsResolutionsCacheTest
+{
+	private static final ProcessPreconditionsResolutionAndDuration RESOLUTION = ProcessPreconditionsResolutionAndDuration.of(ProcessPreconditionsResolution.accept(), Duration.ofMillis(1));
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void putAndGet()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(1));
+		final ViewProcessPreconditionsResolutionsCache.Key key = key(viewId, null, null);
+
+		assertThat(ViewProcessPreconditionsResolutionsCache.getOrNull(key)).isNull();
+
+		ViewProcessPreconditionsResolutionsCache.put(key, RESOLUTION);
+		assertThat(ViewProcessPreconditionsResolutionsCache.getOrNull(key)).isSameAs(RESOLUTION);
+		assertThat(ViewProcessPreconditionsResolutionsCache.getOrNull(key(viewId, null, null, 2))).isNull();
+	}
+
+	@Test
+	public void invalidateView()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(1));
+		final ViewId otherViewId = ViewId.random(WindowId.of(1));
+		final ViewProcessPreconditionsResolutionsCache.Key key = key(viewId, null, null);
+		final ViewProcessPreconditionsResolutionsCache.Key otherKey = key(otherViewId, null, null);
+		ViewProcessPreconditionsResolutionsCache.put(key, RESOLUTION);
+		ViewProcessPreconditionsResolutionsCache.put(otherKey, RESOLUTION);
+
+		ViewProcessPreconditionsResolutionsCache.invalidateView(viewId);
+
+		assertThat(ViewProcessPreconditionsResolutionsCache.getOrNull(key)).isNull();
+		assertThat(ViewProcessPreconditionsResolutionsCache.getOrNull(otherKey)).isSameAs(RESOLUTION);
+	}
+
+	@Test
+	public void invalidateParentView_invalidatesIncludedView()
+	{
+		final ViewId parentViewId = ViewId.random(WindowId.of(1));
+		final ViewId includedViewId = ViewId.random(WindowId.of(2));
+		final ViewProcessPreconditionsResolutionsCache.Key includedViewKey = key(includedViewId, parentViewId, null);
+		ViewProcessPreconditionsResolutionsCache.put(includedViewKey, RESOLUTION);
+
+		ViewProcessPreconditionsResolutionsCache.invalidateView(parentViewId);
+
+		assertThat(ViewProcessPreconditionsResolutionsCache.getOrNull(includedViewKey)).isNull();
+	}
+
+	@Test
+	public void invalidateChildView_invalidatesParentView()
+	{
+		final ViewId parentViewId = ViewId.random(WindowId.of(1));
+		final ViewId childViewId = ViewId.random(WindowId.of(2));
+		final ViewProcessPreconditionsResolutionsCache.Key parentViewKey = key(parentViewId, null, childViewId);
+		ViewProcessPreconditionsResolutionsCache.put(parentViewKey, RESOLUTION);
+
+		ViewProcessPreconditionsResolutionsCache.invalidateView(childViewId);
+
+		assertThat(ViewProcessPreconditionsResolutionsCache.getOrNull(parentViewKey)).isNull();
+	}
+
+	private static ViewProcessPreconditionsResolutionsCache.Key key(
+			final ViewId viewId,
+			@Nullable final ViewId parentViewId,
+			@Nullable final ViewId childViewId)
+	{
+		return key(viewId, parentViewId, childViewId, 1);
+	}
+
+	private static ViewProcessPreconditionsResolutionsCache.Key key(
+			final ViewId viewId,
+			@Nullable final ViewId parentViewId,
+			@Nullable final ViewId childViewId,
+			final int adProcessId)
+	{
+		return ViewProcessPreconditionsResolutionsCache.Key.builder()
+				.processId(ProcessId.ofAD_Process_ID(adProcessId))
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.SYSTEM, UserId.SYSTEM, ClientId.SYSTEM, LocalDate.of(2020, 1, 1)))
+				.viewRowIdsSelection(selection(viewId))
+				.parentViewRowIdsSelection(parentViewId != null ? selection(parentViewId) : null)
+				.childViewRowIdsSelection(childViewId != null ? selection(childViewId) : null)
+				.build();
+	}
+
+	private static ViewRowIdsSelection selection(final ViewId viewId)
+	{
+		return ViewRowIdsSelection.of(viewId, DocumentIdsSelection.fromNullable(DocumentId.of(1)));
+	}
+}
@@ -19,12 +19,14 @@ import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
 
+import de.metas.i18n.Language;
 import de.metas.product.ProductId;
 import de.metas.quantity.Quantity;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group;
 import de.metas.ui.web.material.adapter.AvailableToPromiseResultForWebui.Group.Type;
 import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.model.lookup.LookupDataSourceContext;
 import de.metas.util.Services;
 import lombok.Value;
 
@@ -239,6 +241,21 @@ public class ProductLookupDescriptorTest
 		}
 	}
 
+	@Test
+	public void isFullTextIndexApplicable()
+	{
+		final String baseAD_Language = Language.getBaseAD_Language();
+
+		assertThat(ProductLookupDescriptor.isFullTextIndexApplicable("schraube", baseAD_Language)).isTrue();
+		assertThat(ProductLookupDescriptor.isFullTextIndexApplicable(LookupDataSourceContext.FILTER_Any, baseAD_Language)).isFalse();
+		assertThat(ProductLookupDescriptor.isFullTextIndexApplicable(" ", baseAD_Language)).isFalse();
+		assertThat(ProductLookupDescriptor.isFullTextIndexApplicable("schr%be", baseAD_Language)).isFalse();
+
+		// the index has only the base language texts
+		final String otherAD_Language = "fr_CH".equals(baseAD_Language) ? "it_CH" : "fr_CH";
+		assertThat(ProductLookupDescriptor.isFullTextIndexApplicable("schraube", otherAD_Language)).isFalse();
+	}
+
 	@Value(staticConstructor = "of")
 	private static class IdAndDisplayName
 	{
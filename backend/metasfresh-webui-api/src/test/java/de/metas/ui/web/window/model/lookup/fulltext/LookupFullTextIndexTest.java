@@ -0,0 +1,128 @@
+package de.metas.ui.web.window.model.lookup.fulltext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LookupFullTextIndexTest
+{
+	private File directory;
+	private LookupFullTextIndex index;
+
+	@BeforeEach
+	public void init() throws IOException
+	{
+		directory = Files.createTempDirectory("LookupFullTextIndexTest").toFile();
+		index = new LookupFullTextIndex("test", directory.toPath());
+
+		index.addDocuments(ImmutableList.of(
+				document(1, "0", "P0001", "Schraube M8 verzinkt"),
+				document(2, "0", "P0002", "Mutter M8"),
+				document(2, "100", "K-4711", "Customer's nut"),
+				document(3, "0", "P0003", "Zündkerze"),
+				document(4, "0", "P0004", "Vollmilch 3,5%", "4012345678901")));
+		index.commit();
+		index.markReady();
+	}
+
+	@AfterEach
+	public void close()
+	{
+		index.close();
+		FileSystemUtils.deleteRecursively(directory);
+	}
+
+	private static LookupFullTextIndexDocument document(final int recordId, final String bpartnerId, final String... texts)
+	{
+		return LookupFullTextIndexDocument.builder()
+				.recordId(recordId)
+				.keyword("C_BPartner_ID", bpartnerId)
+				.texts(Arrays.asList(texts))
+				.build();
+	}
+
+	private ImmutableList<Integer> search(final String text)
+	{
+		return index.search(text, ImmutableMap.of(), 10).getRecordIds();
+	}
+
+	@Test
+	public void prefixAndMultipleTerms()
+	{
+		assertThat(search("schr")).containsExactly(1);
+		assertThat(search("m8")).containsOnly(1, 2);
+		assertThat(search("m8 mut")).containsExactly(2);
+	}
+
+	@Test
+	public void infix()
+	{
+		assertThat(search("milch")).containsExactly(4);
+		assertThat(search("2345678")).containsExactly(4);
+		assertThat(search("raube")).containsExactly(1);
+		assertThat(search("0003")).containsExactly(3);
+	}
+
+	/**
+	 * The index shall not find more than the SQL ILIKE would, so there is no fuzzy matching and no accent folding, but it's case insensitive.
+	 */
+	@Test
+	public void notFuzzyNorFolded()
+	{
+		assertThat(search("Schrauba")).isEmpty();
+		assertThat(search("zundkerze")).isEmpty();
+		assertThat(search("Z\u00dcNDKERZE")).containsExactly(3);
+	}
+
+	@Test
+	public void keywordFilter()
+	{
+		assertThat(index.search("nut", ImmutableMap.of("C_BPartner_ID", ImmutableSet.of("0", "100")), 10).getRecordIds()).containsExactly(2);
+		assertThat(index.search("nut", ImmutableMap.of("C_BPartner_ID", ImmutableSet.of("0", "200")), 10).getRecordIds()).isEmpty();
+	}
+
+	@Test
+	public void replaceRecords()
+	{
+		index.replaceRecords(ImmutableSet.of(1, 3), ImmutableList.of(document(1, "0", "P0001", "Bolzen")));
+		index.commit();
+
+		assertThat(search("schraube")).isEmpty();
+		assertThat(search("bolzen")).containsExactly(1);
+		assertThat(search("zündkerze")).isEmpty();
+	}
+}